@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.benchmarks;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatFactory;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the benchmarks and writes the results of all the runs to a single JSON file, so results of releases can be
+ * compared.
+ * <p>
+ * Accepts the JMH command line options. Unless a thread count is given with {@code -t}, the benchmarks run once per
+ * thread count in the {@code iostreams.threads} system property (default {@code 1,4}). Results go to
+ * {@code jmh-result.json} unless {@code -rf}/{@code -rff} say otherwise:
+ * <pre>
+ * java -jar target/benchmarks.jar                          # everything, 1 and 4 threads
+ * java -jar target/benchmarks.jar Monitor -p bufferSize=8192 -t 2
+ * java -Diostreams.threads=1,2,8 -jar target/benchmarks.jar Pipe -rff pipe.json
+ * </pre>
+ *
+ * @author Yossi Shaul
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        if (cmd.shouldHelp() || cmd.shouldList() || cmd.shouldListWithParams() || cmd.shouldListProfilers() ||
+                cmd.shouldListResultFormats()) {
+            Main.main(args);
+            return;
+        }
+
+        String[] threadCounts = cmd.getThreads().hasValue() ? new String[]{String.valueOf(cmd.getThreads().get())} :
+                System.getProperty("iostreams.threads", "1,4").split(",");
+        File runResult = File.createTempFile("jmh-run", ".out");
+        List<RunResult> results = new ArrayList<>();
+        try {
+            for (String threads : threadCounts) {
+                results.addAll(new Runner(new OptionsBuilder()
+                        .parent(cmd)
+                        .threads(Integer.parseInt(threads.trim()))
+                        // the combined results are written below
+                        .result(runResult.getPath())
+                        .build()).run());
+            }
+        } finally {
+            runResult.delete();
+        }
+
+        ResultFormatType format = cmd.getResultFormat().orElse(ResultFormatType.JSON);
+        String file = cmd.getResult().orElse("jmh-result." + format.toString().toLowerCase());
+        try (PrintStream out = new PrintStream(file, "UTF-8")) {
+            ResultFormatFactory.getInstance(format, out).writeOut(results);
+        }
+        System.out.println("Results of " + results.size() + " benchmarks written to "
+                + new File(file).getAbsolutePath());
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.iostreams.benchmarks;
+
+import org.iostreams.streams.checksum.Digest;
+import org.iostreams.streams.in.ChecksumInputStream;
+import org.iostreams.streams.out.ChecksumOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * Checksum streams computing CRC32C, alone and together with SHA-256 in the same pass, compared with stacking the JDK
+ * {@link CheckedInputStream} and {@link DigestInputStream} filters.
+ *
+ * @author Yossi Shaul
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChecksumBenchmark {
+
+    @Param({"8192", "65536"})
+    private int bufferSize;
+
+    @Param({"65536", "4194304"})
+    private int payloadSize;
+
+    private byte[] payload;
+    private byte[] buf;
+    private final OutputStream sink = new Payloads.NullOutputStream();
+
+    @Setup
+    public void setup() {
+        payload = Payloads.randomBytes(payloadSize);
+        buf = new byte[bufferSize];
+    }
+
+    @Benchmark
+    public long crc32c() throws IOException {
+        ChecksumInputStream in = new ChecksumInputStream(new ByteArrayInputStream(payload), Digest.crc32c());
+        return Payloads.drain(in, buf) + in.getDigest().getValue()[0];
+    }
+
+    @Benchmark
+    public long jdkCheckedCrc32c() throws IOException {
+        CheckedInputStream in = new CheckedInputStream(new ByteArrayInputStream(payload), new CRC32C());
+        return Payloads.drain(in, buf) + in.getChecksum().getValue();
+    }
+
+    @Benchmark
+    public long crc32cAndSha256() throws IOException {
+        ChecksumInputStream in = new ChecksumInputStream(new ByteArrayInputStream(payload), Digest.crc32c(),
+                Digest.messageDigest("SHA-256"));
+        return Payloads.drain(in, buf) + in.getDigests()[1].getValue()[0];
+    }
+
+    @Benchmark
+    public long jdkStackedCrc32cAndSha256() throws IOException, NoSuchAlgorithmException {
+        CheckedInputStream checked = new CheckedInputStream(new ByteArrayInputStream(payload), new CRC32C());
+        DigestInputStream in = new DigestInputStream(checked, MessageDigest.getInstance("SHA-256"));
+        return Payloads.drain(in, buf) + in.getMessageDigest().digest()[0];
+    }
+
+    @Benchmark
+    public long writeCrc32c() throws IOException {
+        ChecksumOutputStream out = new ChecksumOutputStream(sink, Digest.crc32c());
+        Payloads.write(out, payload, bufferSize);
+        return out.getDigest().getValue()[0];
+    }
+}
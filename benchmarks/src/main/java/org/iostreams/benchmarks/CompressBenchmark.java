@@ -0,0 +1,95 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.iostreams.benchmarks;
+
+import org.iostreams.streams.compress.CompressionFormat;
+import org.iostreams.streams.in.CompressingInputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip compression of a text payload with {@link CompressingInputStream}, compressing <code>parallelism</code> blocks
+ * at a time, compared with a single-threaded {@link GZIPOutputStream}.
+ *
+ * @author Yossi Shaul
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CompressBenchmark {
+
+    @Param({"1", "4"})
+    private int parallelism;
+
+    @Param({"4194304"})
+    private int payloadSize;
+
+    private byte[] payload;
+    private final byte[] buf = new byte[65536];
+    private final OutputStream sink = new Payloads.NullOutputStream();
+    private ExecutorService executor;
+
+    @Setup
+    public void setup() {
+        payload = Payloads.textBytes(payloadSize);
+        executor = Executors.newFixedThreadPool(parallelism);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public long compressingInputStream() throws IOException {
+        try (CompressingInputStream in = new CompressingInputStream(new ByteArrayInputStream(payload),
+                CompressionFormat.GZIP, Deflater.DEFAULT_COMPRESSION, CompressingInputStream.DEFAULT_BLOCK_SIZE,
+                parallelism, executor)) {
+            return Payloads.drain(in, buf);
+        }
+    }
+
+    @Benchmark
+    public void gzipOutputStream() throws IOException {
+        GZIPOutputStream out = new GZIPOutputStream(sink, 65536);
+        out.write(payload);
+        out.finish();
+    }
+}
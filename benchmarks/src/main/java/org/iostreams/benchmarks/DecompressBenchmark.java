@@ -0,0 +1,102 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.benchmarks;
+
+import org.iostreams.streams.compress.CompressionFormat;
+import org.iostreams.streams.in.DecompressingInputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip decompression of a text payload by a consumer that spends <code>processingTokens</code> of CPU on every chunk,
+ * with {@link DecompressingInputStream} inflating on a background thread, compared with inflating on the consumer's
+ * thread with a {@link GZIPInputStream}.
+ *
+ * @author Yossi Shaul
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DecompressBenchmark {
+
+    private static final int CHUNK_SIZE = 65536;
+
+    @Param({"0", "10000"})
+    private int processingTokens;
+
+    @Param({"4194304"})
+    private int payloadSize;
+
+    private byte[] compressed;
+    private final byte[] buf = new byte[CHUNK_SIZE];
+
+    @Setup
+    public void setup() throws IOException {
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(gzip, CHUNK_SIZE)) {
+            out.write(Payloads.textBytes(payloadSize));
+        }
+        compressed = gzip.toByteArray();
+    }
+
+    @Benchmark
+    public long decompressingInputStream() throws IOException {
+        try (InputStream in = new DecompressingInputStream(new ByteArrayInputStream(compressed),
+                CompressionFormat.GZIP)) {
+            return consume(in);
+        }
+    }
+
+    @Benchmark
+    public long gzipInputStream() throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed), CHUNK_SIZE)) {
+            return consume(in);
+        }
+    }
+
+    private long consume(InputStream in) throws IOException {
+        long total = 0;
+        int read;
+        while ((read = in.readNBytes(buf, 0, buf.length)) > 0) {
+            Blackhole.consumeCPU(processingTokens);
+            total += read;
+        }
+        return total;
+    }
+}
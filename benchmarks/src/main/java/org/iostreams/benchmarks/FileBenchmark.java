@@ -0,0 +1,193 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.benchmarks;
+
+import org.iostreams.streams.buffer.BufferAllocator;
+import org.iostreams.streams.channel.BandwidthMonitorFileChannel;
+import org.iostreams.streams.channel.BandwidthMonitorWritableChannel;
+import org.iostreams.streams.concurrent.StreamExecutors;
+import org.iostreams.streams.file.FileDeleter;
+import org.iostreams.streams.in.DeleteOnCloseChannelInputStream;
+import org.iostreams.streams.in.DeleteOnCloseFileInputStream;
+import org.iostreams.streams.in.DeleteOnCloseSegmentInputStream;
+import org.iostreams.streams.out.SpillOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading temporary files with the delete-on-close streams, and buffering payloads with {@link SpillOutputStream}.
+ * The file read by each invocation is written before it and not measured.
+ *
+ * @author Yossi Shaul
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FileBenchmark {
+
+    @Param({"512", "8192", "65536"})
+    private int bufferSize;
+
+    @Param({"65536", "4194304"})
+    private int payloadSize;
+
+    private byte[] payload;
+    private byte[] buf;
+    private Path dir;
+    private Path file;
+    private FileChannel target;
+    private final ExecutorService executor = StreamExecutors.defaultExecutor();
+    private final FileDeleter deleter = new FileDeleter(3, 1, TimeUnit.SECONDS);
+    private int files;
+
+    @Setup
+    public void setup() throws IOException {
+        payload = Payloads.randomBytes(payloadSize);
+        buf = new byte[bufferSize];
+        dir = Files.createTempDirectory("iostreams-benchmark");
+        target = FileChannel.open(dir.resolve("target"), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE);
+    }
+
+    @Setup(Level.Invocation)
+    public void writeFile() throws IOException {
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+        // a new name each time, the file deleted in the background may still be queued
+        file = Files.write(dir.resolve("source-" + files++), payload);
+        target.truncate(0);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        deleter.close();
+        target.close();
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public long readFileInputStream() throws IOException {
+        try (InputStream in = new DeleteOnCloseFileInputStream(file.toFile())) {
+            return Payloads.drain(in, buf);
+        }
+    }
+
+    @Benchmark
+    public long readFileInputStreamDeletedInBackground() throws IOException {
+        try (InputStream in = new DeleteOnCloseFileInputStream(file.toFile(), deleter)) {
+            return Payloads.drain(in, buf);
+        }
+    }
+
+    @Benchmark
+    public long readChannelInputStream() throws IOException {
+        try (InputStream in = new DeleteOnCloseChannelInputStream(file)) {
+            return Payloads.drain(in, buf);
+        }
+    }
+
+    @Benchmark
+    public long readMappedChannelInputStream() throws IOException {
+        try (InputStream in = new DeleteOnCloseChannelInputStream(file, Long.MAX_VALUE, false)) {
+            return Payloads.drain(in, buf);
+        }
+    }
+
+    @Benchmark
+    public long readFourSegmentsInParallel() throws IOException, ExecutionException, InterruptedException {
+        List<Future<Long>> results = new ArrayList<>();
+        for (DeleteOnCloseSegmentInputStream segment : DeleteOnCloseSegmentInputStream.split(file, 4)) {
+            results.add(executor.submit(() -> {
+                try (InputStream in = segment) {
+                    return Payloads.drain(in, new byte[bufferSize]);
+                }
+            }));
+        }
+        long total = 0;
+        for (Future<Long> result : results) {
+            total += result.get();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long transferToFileChannel() throws IOException {
+        try (DeleteOnCloseChannelInputStream in = new DeleteOnCloseChannelInputStream(file)) {
+            return in.transferTo(target);
+        }
+    }
+
+    @Benchmark
+    public long transferMonitoredFileChannel() throws IOException {
+        BandwidthMonitorWritableChannel monitoredTarget = new BandwidthMonitorWritableChannel(target);
+        try (FileChannel in = new BandwidthMonitorFileChannel(FileChannel.open(file))) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                position += in.transferTo(position, size - position, monitoredTarget);
+            }
+            return position;
+        }
+    }
+
+    @Benchmark
+    public long spillInMemory() throws IOException {
+        return spill(payloadSize);
+    }
+
+    @Benchmark
+    public long spillToFile() throws IOException {
+        return spill(0);
+    }
+
+    private long spill(long threshold) throws IOException {
+        SpillOutputStream out = new SpillOutputStream(threshold, BufferAllocator.shared(), 32 * 1024, dir);
+        Payloads.write(out, payload, bufferSize);
+        try (InputStream in = out.toInputStream()) {
+            return Payloads.drain(in, buf);
+        }
+    }
+}
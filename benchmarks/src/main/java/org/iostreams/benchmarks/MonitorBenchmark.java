@@ -0,0 +1,165 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.benchmarks;
+
+import org.iostreams.streams.in.BandwidthMonitorInputStream;
+import org.iostreams.streams.monitor.LatencyHistogram;
+import org.iostreams.streams.monitor.MetricsRegistry;
+import org.iostreams.streams.out.BandwidthMonitorOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of wrapping a stream in the bandwidth monitors, compared with the bare stream. With more than one thread the
+ * registry and latency variants share their aggregates between the threads. The single byte variants compare the
+ * buffering monitors, with a buffer of <code>bufferSize</code> bytes, with the JDK buffered streams.
+ *
+ * @author Yossi Shaul
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MonitorBenchmark {
+
+    @Param({"64", "8192", "65536"})
+    private int bufferSize;
+
+    @Param({"65536", "4194304"})
+    private int payloadSize;
+
+    private byte[] payload;
+    private byte[] buf;
+    private final OutputStream sink = new Payloads.NullOutputStream();
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        final MetricsRegistry registry = new MetricsRegistry();
+        final LatencyHistogram latency = new LatencyHistogram();
+    }
+
+    @Setup
+    public void setup() {
+        payload = Payloads.randomBytes(payloadSize);
+        buf = new byte[bufferSize];
+    }
+
+    @Benchmark
+    public long readRaw() throws IOException {
+        return Payloads.drain(new ByteArrayInputStream(payload), buf);
+    }
+
+    @Benchmark
+    public long readMonitored() throws IOException {
+        return Payloads.drain(new BandwidthMonitorInputStream(new ByteArrayInputStream(payload)), buf);
+    }
+
+    @Benchmark
+    public long readMonitoredWithLatency(Shared shared) throws IOException {
+        return Payloads.drain(new BandwidthMonitorInputStream(new ByteArrayInputStream(payload), shared.latency), buf);
+    }
+
+    @Benchmark
+    public long readMonitoredInRegistry(Shared shared) throws IOException {
+        return Payloads.drain(new BandwidthMonitorInputStream(new ByteArrayInputStream(payload),
+                shared.registry.newStats("read"), null), buf);
+    }
+
+    @Benchmark
+    public void writeRaw() throws IOException {
+        Payloads.write(sink, payload, bufferSize);
+    }
+
+    @Benchmark
+    public long writeMonitored() throws IOException {
+        BandwidthMonitorOutputStream out = new BandwidthMonitorOutputStream(sink);
+        Payloads.write(out, payload, bufferSize);
+        return out.getTotalBytesWritten();
+    }
+
+    @Benchmark
+    public long writeMonitoredWithLatency(Shared shared) throws IOException {
+        BandwidthMonitorOutputStream out = new BandwidthMonitorOutputStream(sink, shared.latency);
+        Payloads.write(out, payload, bufferSize);
+        return out.getTotalBytesWritten();
+    }
+
+    @Benchmark
+    public long writeMonitoredInRegistry(Shared shared) throws IOException {
+        BandwidthMonitorOutputStream out = new BandwidthMonitorOutputStream(sink, shared.registry.newStats("write"),
+                null);
+        Payloads.write(out, payload, bufferSize);
+        return out.getTotalBytesWritten();
+    }
+
+    @Benchmark
+    public long readSingleBytesBufferedStream() throws IOException {
+        return readSingleBytes(new BufferedInputStream(new ByteArrayInputStream(payload), bufferSize));
+    }
+
+    @Benchmark
+    public long readSingleBytesBufferedMonitor() throws IOException {
+        return readSingleBytes(new BandwidthMonitorInputStream(new ByteArrayInputStream(payload), bufferSize));
+    }
+
+    @Benchmark
+    public void writeSingleBytesBufferedStream() throws IOException {
+        writeSingleBytes(new BufferedOutputStream(sink, bufferSize));
+    }
+
+    @Benchmark
+    public long writeSingleBytesBufferedMonitor() throws IOException {
+        BandwidthMonitorOutputStream out = new BandwidthMonitorOutputStream(sink, bufferSize);
+        writeSingleBytes(out);
+        return out.getTotalBytesWritten();
+    }
+
+    private static long readSingleBytes(InputStream in) throws IOException {
+        long sum = 0;
+        int b;
+        while ((b = in.read()) != -1) {
+            sum += b;
+        }
+        return sum;
+    }
+
+    private void writeSingleBytes(OutputStream out) throws IOException {
+        for (byte b : payload) {
+            out.write(b);
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+/**
+ * Test data and copy loops shared by the benchmarks.
+ *
+ * @author Yossi Shaul
+ */
+final class Payloads {
+
+    private Payloads() {
+    }
+
+    static byte[] randomBytes(int size) {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return data;
+    }
+
+    /**
+     * @return Compressible text of random words and numbers, one pair per line
+     */
+    static byte[] textBytes(int size) {
+        Random random = new Random(size);
+        String[] words = {"stream", "pipe", "buffer", "block", "deflate", "reader", "writer", "chunk"};
+        StringBuilder sb = new StringBuilder(size + 16);
+        while (sb.length() < size) {
+            sb.append(words[random.nextInt(words.length)]).append(' ').append(random.nextInt(10000)).append('\n');
+        }
+        sb.setLength(size);
+        return sb.toString().getBytes();
+    }
+
+    /**
+     * Reads the stream to the end with the given buffer.
+     *
+     * @return Number of bytes read
+     */
+    static long drain(InputStream in, byte[] buf) throws IOException {
+        long total = 0;
+        int n;
+        while ((n = in.read(buf, 0, buf.length)) != -1) {
+            total += n;
+        }
+        return total;
+    }
+
+    /**
+     * Writes the data to the stream in writes of the given size.
+     */
+    static void write(OutputStream out, byte[] data, int writeSize) throws IOException {
+        for (int off = 0; off < data.length; off += writeSize) {
+            out.write(data, off, Math.min(writeSize, data.length - off));
+        }
+    }
+
+    /**
+     * An output stream that discards everything, so only the stream under test is measured.
+     */
+    static final class NullOutputStream extends OutputStream {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
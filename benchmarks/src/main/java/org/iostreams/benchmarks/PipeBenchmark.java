@@ -0,0 +1,231 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.benchmarks;
+
+import org.iostreams.streams.concurrent.StreamExecutors;
+import org.iostreams.streams.flow.OutputStreamPublisher;
+import org.iostreams.streams.flow.PublisherInputStream;
+import org.iostreams.streams.in.ChunkedOutputToInputStream;
+import org.iostreams.streams.in.FanOutOutputToInputStream;
+import org.iostreams.streams.in.OutputToInputStream;
+import org.iostreams.streams.in.ParallelConcatInputStream;
+import org.iostreams.streams.out.InputToOutputStream;
+import org.iostreams.streams.pipe.PipeSizing;
+import org.iostreams.streams.pipe.RingBufferPipe;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of moving a payload from a writer thread to the reading thread, compared with a single threaded copy.
+ * Every benchmark thread runs its own pipe, with the writer on the library's shared executor.
+ *
+ * @author Yossi Shaul
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PipeBenchmark {
+
+    @Param({"512", "8192", "65536"})
+    private int bufferSize;
+
+    @Param({"65536", "4194304"})
+    private int payloadSize;
+
+    private byte[] payload;
+    private byte[] buf;
+    private final ExecutorService executor = StreamExecutors.defaultExecutor();
+    // Shared by the streams like an application would, starting small whatever the buffer size parameter
+    private static final PipeSizing sizing = new PipeSizing(512, 1024 * 1024);
+
+    @Setup
+    public void setup() {
+        payload = Payloads.randomBytes(payloadSize);
+        buf = new byte[bufferSize];
+    }
+
+    @Benchmark
+    public long copyRaw() throws IOException {
+        return Payloads.drain(new ByteArrayInputStream(payload), buf);
+    }
+
+    @Benchmark
+    public long outputToInputStream() throws IOException {
+        try (InputStream in = new OutputToInputStream(executor, bufferSize) {
+            @Override
+            protected void write(OutputStream sink) throws IOException {
+                Payloads.write(sink, payload, bufferSize);
+            }
+        }) {
+            return Payloads.drain(in, buf);
+        }
+    }
+
+    @Benchmark
+    public long adaptiveOutputToInputStream() throws IOException {
+        try (InputStream in = new OutputToInputStream(executor, sizing) {
+            @Override
+            protected void write(OutputStream sink) throws IOException {
+                Payloads.write(sink, payload, bufferSize);
+            }
+        }) {
+            return Payloads.drain(in, buf);
+        }
+    }
+
+    @Benchmark
+    public long chunkedOutputToInputStream() throws IOException {
+        try (ChunkedOutputToInputStream in = new ChunkedOutputToInputStream(executor, bufferSize, 4) {
+            @Override
+            protected void write(OutputStream sink) throws IOException {
+                Payloads.write(sink, payload, bufferSize);
+            }
+        }) {
+            long total = 0;
+            ByteBuffer chunk;
+            while ((chunk = in.readChunk()) != null) {
+                total += chunk.remaining();
+                in.release(chunk);
+            }
+            return total;
+        }
+    }
+
+    @Benchmark
+    public long publisherToInputStream() throws IOException {
+        OutputStreamPublisher publisher = new OutputStreamPublisher(executor, bufferSize, 4) {
+            @Override
+            protected void write(OutputStream sink) throws IOException {
+                Payloads.write(sink, payload, bufferSize);
+            }
+        };
+        try (InputStream in = new PublisherInputStream(publisher, 2)) {
+            return Payloads.drain(in, buf);
+        }
+    }
+
+    @Benchmark
+    public long fanOutToTwoReaders() throws Exception {
+        FanOutOutputToInputStream fanOut = new FanOutOutputToInputStream(2, executor, bufferSize) {
+            @Override
+            protected void write(OutputStream sink) throws IOException {
+                Payloads.write(sink, payload, bufferSize);
+            }
+        };
+        final byte[] otherBuf = new byte[bufferSize];
+        Future<Long> other = executor.submit(() -> {
+            try (InputStream in = fanOut.getInputStream(1)) {
+                return Payloads.drain(in, otherBuf);
+            }
+        });
+        try (InputStream in = fanOut.getInputStream(0)) {
+            return Payloads.drain(in, buf) + other.get();
+        }
+    }
+
+    @Benchmark
+    public long parallelConcatOfFourSegments() throws IOException {
+        final int segmentSize = payloadSize / 4;
+        List<ParallelConcatInputStream.SegmentWriter> segments = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            final int offset = i * segmentSize;
+            segments.add(sink -> {
+                for (int off = offset; off < offset + segmentSize; off += bufferSize) {
+                    sink.write(payload, off, Math.min(bufferSize, offset + segmentSize - off));
+                }
+            });
+        }
+        try (InputStream in = new ParallelConcatInputStream(segments, executor, 4, bufferSize)) {
+            return Payloads.drain(in, buf);
+        }
+    }
+
+    @Benchmark
+    public long inputToOutputStream() throws IOException {
+        long[] total = new long[1];
+        InputToOutputStream out = new InputToOutputStream(executor, bufferSize) {
+            @Override
+            protected void read(InputStream source) throws IOException {
+                total[0] = Payloads.drain(source, buf);
+            }
+        };
+        Payloads.write(out, payload, bufferSize);
+        out.close();
+        return total[0];
+    }
+
+    @Benchmark
+    public long bufferedBody() throws IOException {
+        // the alternative to InputToOutputStream: collect everything written, then read it
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        Payloads.write(body, payload, bufferSize);
+        return Payloads.drain(new ByteArrayInputStream(body.toByteArray()), buf);
+    }
+
+    @Benchmark
+    public long ringBufferPipe() throws Exception {
+        RingBufferPipe pipe = new RingBufferPipe(bufferSize);
+        return pipe(pipe.source(), pipe.sink());
+    }
+
+    @Benchmark
+    public long pipedStreams() throws Exception {
+        PipedInputStream in = new PipedInputStream(bufferSize);
+        return pipe(in, new PipedOutputStream(in));
+    }
+
+    private long pipe(InputStream in, final OutputStream out) throws IOException, InterruptedException,
+            ExecutionException {
+        Future<?> writer = executor.submit(() -> {
+            try (OutputStream sink = out) {
+                Payloads.write(sink, payload, bufferSize);
+            }
+            return null;
+        });
+        long total = Payloads.drain(in, buf);
+        writer.get();
+        in.close();
+        return total;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.iostreams.benchmarks;
+
+import org.iostreams.streams.in.ReadaheadInputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reading a slow source, which waits <code>latencyMicros</code> per read like a remote store, with a consumer that
+ * spends CPU on every chunk, directly and through a {@link ReadaheadInputStream} overlapping the two.
+ *
+ * @author Yossi Shaul
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReadaheadBenchmark {
+
+    private static final int CHUNK_SIZE = 65536;
+
+    @Param({"200"})
+    private int latencyMicros;
+
+    @Param({"100000"})
+    private int processingTokens;
+
+    @Param({"4194304"})
+    private int payloadSize;
+
+    private byte[] payload;
+    private final byte[] buf = new byte[CHUNK_SIZE];
+
+    @Setup
+    public void setup() {
+        payload = Payloads.randomBytes(payloadSize);
+    }
+
+    @Benchmark
+    public long direct() throws IOException {
+        return consume(new SlowInputStream(payload, latencyMicros));
+    }
+
+    @Benchmark
+    public long readahead() throws IOException {
+        try (InputStream in = new ReadaheadInputStream(new SlowInputStream(payload, latencyMicros))) {
+            return consume(in);
+        }
+    }
+
+    private long consume(InputStream in) throws IOException {
+        long total = 0;
+        int read;
+        while ((read = in.readNBytes(buf, 0, buf.length)) > 0) {
+            Blackhole.consumeCPU(processingTokens);
+            total += read;
+        }
+        return total;
+    }
+
+    private static final class SlowInputStream extends ByteArrayInputStream {
+        private final long latencyNanos;
+
+        SlowInputStream(byte[] data, int latencyMicros) {
+            super(data);
+            this.latencyNanos = TimeUnit.MICROSECONDS.toNanos(latencyMicros);
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            LockSupport.parkNanos(latencyNanos);
+            return super.read(b, off, Math.min(len, CHUNK_SIZE));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.benchmarks;
+
+import org.iostreams.streams.buffer.BufferAllocator;
+import org.iostreams.streams.in.CharSequenceInputStream;
+import org.iostreams.streams.in.StringInputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding a string eagerly with {@link StringInputStream} compared with lazily with {@link CharSequenceInputStream}.
+ *
+ * @author Yossi Shaul
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StringBenchmark {
+
+    @Param({"512", "8192", "65536"})
+    private int bufferSize;
+
+    @Param({"65536", "4194304"})
+    private int payloadSize;
+
+    @Param({"UTF-8", "ISO-8859-1", "UTF-16"})
+    private String charsetName;
+
+    @Param({"ascii", "mixed"})
+    private String content;
+
+    private String str;
+    private Charset charset;
+    private byte[] buf;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(payloadSize);
+        StringBuilder sb = new StringBuilder(payloadSize);
+        while (sb.length() < payloadSize) {
+            // one in 16 characters outside ASCII in the mixed content
+            boolean ascii = "ascii".equals(content) || random.nextInt(16) != 0;
+            sb.append(ascii ? (char) (0x20 + random.nextInt(0x5f)) : (char) (0xa0 + random.nextInt(0x300)));
+        }
+        str = sb.toString();
+        charset = Charset.forName(charsetName);
+        buf = new byte[bufferSize];
+    }
+
+    @Benchmark
+    public long stringInputStream() throws IOException {
+        return Payloads.drain(new StringInputStream(str, charset), buf);
+    }
+
+    @Benchmark
+    public long stringInputStreamPooled() throws IOException {
+        try (InputStream in = new StringInputStream(str, charset, BufferAllocator.shared())) {
+            return Payloads.drain(in, buf);
+        }
+    }
+
+    @Benchmark
+    public long charSequenceInputStream() throws IOException {
+        return Payloads.drain(new CharSequenceInputStream(str, charset), buf);
+    }
+
+    @Benchmark
+    public long charSequenceLength() throws IOException {
+        return new CharSequenceInputStream(str, charset).getLength();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.benchmarks;
+
+import org.iostreams.streams.in.ThrottledInputStream;
+import org.iostreams.streams.out.ThrottledOutputStream;
+import org.iostreams.streams.throttle.TokenBucket;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of the throttled streams when the limit is never reached. With more than one thread all the streams share
+ * one token bucket, like a global limit would.
+ *
+ * @author Yossi Shaul
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ThrottleBenchmark {
+
+    @Param({"512", "8192", "65536"})
+    private int bufferSize;
+
+    @Param({"65536", "4194304"})
+    private int payloadSize;
+
+    private byte[] payload;
+    private byte[] buf;
+    private final OutputStream sink = new Payloads.NullOutputStream();
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        // high enough to never wait
+        final TokenBucket bucket = new TokenBucket(Long.MAX_VALUE / 4, Long.MAX_VALUE / 4);
+    }
+
+    @Setup
+    public void setup() {
+        payload = Payloads.randomBytes(payloadSize);
+        buf = new byte[bufferSize];
+    }
+
+    @Benchmark
+    public long readRaw() throws IOException {
+        return Payloads.drain(new ByteArrayInputStream(payload), buf);
+    }
+
+    @Benchmark
+    public long readThrottled(Shared shared) throws IOException {
+        return Payloads.drain(new ThrottledInputStream(new ByteArrayInputStream(payload), shared.bucket), buf);
+    }
+
+    @Benchmark
+    public void writeRaw() throws IOException {
+        Payloads.write(sink, payload, bufferSize);
+    }
+
+    @Benchmark
+    public void writeThrottled(Shared shared) throws IOException {
+        Payloads.write(new ThrottledOutputStream(sink, shared.bucket), payload, bufferSize);
+    }
+}
@@ -0,0 +1,386 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.buffer;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A pool of byte buffers of different sizes, shared by the streams of the library to avoid allocating a buffer per
+ * stream.
+ * <p>
+ * Buffer sizes are grouped in power of two size classes between a minimum and a maximum size. A request is served
+ * with a buffer of the smallest class that fits it, first from a small cache of the calling thread, then from a
+ * bounded pool shared by all the threads, and only then by allocating a new buffer. Released buffers go back to the
+ * releasing thread's cache or to the shared pool; buffers that don't fit in either are left to the garbage collector,
+ * so the allocator never blocks. Requests below the minimum size (cheap to allocate) or above the maximum size are
+ * allocated with their exact size and never pooled.
+ * <p>
+ * The shared pools are bounded. Thread caches are not: each platform thread that releases buffers keeps up to the
+ * thread cache size of each class of up to {@value #MAX_THREAD_CACHED_SIZE} bytes, so the memory they hold grows with
+ * the number of such threads (a cache is garbage collected with its thread). Virtual threads, usually running a
+ * single task, don't cache buffers and use the shared pools directly. Disable the thread caches to keep the memory of
+ * the allocator bounded.
+ * <p>
+ * With leak detection on, every acquired buffer is tracked and a buffer garbage collected without being released is
+ * logged with the stack trace of its acquisition, and releasing a buffer twice fails. Leak detection is meant for
+ * debugging, it makes every acquire and release considerably slower. The shared allocator turns it on with the
+ * <code>{@value #LEAK_DETECTION_PROPERTY}</code> system property.
+ * <p>
+ * Thread-safe.
+ *
+ * @author Yossi Shaul
+ */
+public class BufferAllocator {
+    private static final Logger log = Logger.getLogger(BufferAllocator.class.getName());
+
+    /**
+     * System property turning on the leak detection of the shared allocator.
+     */
+    public static final String LEAK_DETECTION_PROPERTY = "iostreams.buffer.leakDetection";
+
+    static final int MAX_THREAD_CACHED_SIZE = 64 * 1024;
+
+    private static final BufferAllocator SHARED = new BufferAllocator(4096, 1024 * 1024, 1024 * 1024, 2, false,
+            Boolean.getBoolean(LEAK_DETECTION_PROPERTY));
+    private static final BufferAllocator SHARED_DIRECT = new BufferAllocator(4096, 1024 * 1024, 1024 * 1024, 2, true,
+            Boolean.getBoolean(LEAK_DETECTION_PROPERTY));
+
+    private final int minSize;
+    private final int maxSize;
+    private final int threadCacheSize;
+    private final boolean direct;
+    private final boolean leakDetection;
+
+    // Shared pool per size class
+    private final BlockingQueue<ByteBuffer>[] pools;
+    private final ThreadLocal<ArrayDeque<ByteBuffer>[]> threadCaches;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder unpooled = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+    private final LongAdder leaks = new LongAdder();
+
+    // Leak detection only
+    private final Set<LeakTracker> outstanding = ConcurrentHashMap.newKeySet();
+    private final ReferenceQueue<ByteBuffer> collected = new ReferenceQueue<>();
+
+    /**
+     * Creates a buffer allocator.
+     *
+     * @param minSize                Smallest size class, in bytes. Rounded up to a power of two
+     * @param maxSize                Largest size class, in bytes. Rounded up to a power of two
+     * @param maxPooledBytesPerClass Maximum number of bytes kept in the shared pool of each size class. Each class
+     *                               keeps at least one buffer
+     * @param threadCacheSize        Maximum number of buffers of each size class cached by each thread. 0 to disable
+     *                               the thread caches
+     * @param direct                 True to allocate direct buffers
+     * @param leakDetection          True to track acquired buffers and report the ones never released
+     */
+    public BufferAllocator(int minSize, int maxSize, int maxPooledBytesPerClass, int threadCacheSize, boolean direct,
+                           boolean leakDetection) {
+        if (minSize <= 0 || minSize > (1 << 30)) {
+            throw new IllegalArgumentException("Illegal minimum size: " + minSize);
+        }
+        if (maxSize < minSize || maxSize > (1 << 30)) {
+            throw new IllegalArgumentException("Illegal maximum size: " + maxSize);
+        }
+        if (threadCacheSize < 0) {
+            throw new IllegalArgumentException("Illegal thread cache size: " + threadCacheSize);
+        }
+        this.minSize = roundUp(minSize);
+        this.maxSize = roundUp(maxSize);
+        this.threadCacheSize = threadCacheSize;
+        this.direct = direct;
+        this.leakDetection = leakDetection;
+
+        int classes = Integer.numberOfTrailingZeros(this.maxSize) - Integer.numberOfTrailingZeros(this.minSize) + 1;
+        pools = newPools(classes);
+        for (int i = 0; i < classes; i++) {
+            pools[i] = new ArrayBlockingQueue<>(Math.max(1, maxPooledBytesPerClass / classSize(i)));
+        }
+        threadCaches = threadCacheSize > 0 ? ThreadLocal.withInitial(() -> newCache(classes)) : null;
+    }
+
+    /**
+     * @return The allocator shared by the library: heap buffers in size classes of 4KB to 1MB, up to 1MB pooled per
+     * class and 2 buffers per class cached by each thread
+     */
+    public static BufferAllocator shared() {
+        return SHARED;
+    }
+
+    /**
+     * @return The allocator of direct buffers shared by the library, with the same sizes as {@link #shared()}
+     */
+    public static BufferAllocator sharedDirect() {
+        return SHARED_DIRECT;
+    }
+
+    /**
+     * Returns a buffer of at least the requested capacity. The buffer's capacity is the size of the class serving the
+     * request, or exactly the requested capacity if it is outside the pooled sizes.
+     *
+     * @param capacity Minimum capacity of the buffer, in bytes
+     * @return A cleared buffer, to be passed to {@link #release(ByteBuffer)} once no longer used
+     */
+    public ByteBuffer acquire(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        ByteBuffer buffer;
+        if (capacity < minSize || capacity > maxSize) {
+            unpooled.increment();
+            buffer = allocate(capacity);
+        } else {
+            int sizeClass = sizeClass(roundUp(capacity));
+            buffer = poll(sizeClass);
+            if (buffer != null) {
+                hits.increment();
+            } else {
+                misses.increment();
+                buffer = allocate(classSize(sizeClass));
+            }
+        }
+        if (leakDetection) {
+            track(buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer to the allocator. The buffer must not be used after it is released.
+     *
+     * @param buffer A buffer acquired from this allocator
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer.isDirect() != direct) {
+            throw new IllegalArgumentException("Buffer doesn't belong to this allocator: " + buffer);
+        }
+        if (leakDetection) {
+            untrack(buffer);
+        }
+        int capacity = buffer.capacity();
+        if (capacity < minSize || capacity > maxSize || Integer.bitCount(capacity) != 1) {
+            return;     // never pooled
+        }
+        buffer.clear();
+        int sizeClass = sizeClass(capacity);
+        if (threadCaches != null && capacity <= MAX_THREAD_CACHED_SIZE && ThreadCaching.isCacheable()) {
+            ArrayDeque<ByteBuffer>[] cache = threadCaches.get();
+            ArrayDeque<ByteBuffer> cached = cache[sizeClass];
+            if (cached == null) {
+                cached = cache[sizeClass] = new ArrayDeque<>(threadCacheSize);
+            }
+            if (cached.size() < threadCacheSize) {
+                cached.push(buffer);
+                return;
+            }
+        }
+        if (!pools[sizeClass].offer(buffer)) {
+            discarded.increment();
+        }
+    }
+
+    /**
+     * Gives up a buffer that will never be released, for example one handed over to code outside the library. With
+     * leak detection on the buffer is no longer tracked, otherwise does nothing.
+     *
+     * @param buffer A buffer acquired from this allocator
+     */
+    public void detach(ByteBuffer buffer) {
+        if (leakDetection) {
+            untrack(buffer);
+        }
+    }
+
+    /**
+     * Logs the buffers found garbage collected without being released since the last check. Called on every acquire
+     * when leak detection is on.
+     *
+     * @return Number of leaked buffers found
+     */
+    public int reportLeaks() {
+        int found = 0;
+        Reference<? extends ByteBuffer> ref;
+        while ((ref = collected.poll()) != null) {
+            if (outstanding.remove(ref)) {
+                found++;
+                leaks.increment();
+                log.log(Level.WARNING, "Buffer garbage collected without being released", ((LeakTracker) ref).acquired);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @return Smallest pooled buffer size, in bytes
+     */
+    public int getMinSize() {
+        return minSize;
+    }
+
+    /**
+     * @return Largest pooled buffer size, in bytes
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return True if the allocator allocates direct buffers
+     */
+    public boolean isDirect() {
+        return direct;
+    }
+
+    /**
+     * @return True if acquired buffers are tracked to detect leaks
+     */
+    public boolean isLeakDetection() {
+        return leakDetection;
+    }
+
+    /**
+     * @return Number of requests served with a pooled buffer
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return Number of requests in the pooled sizes that had to allocate a buffer
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return Number of requests outside the pooled sizes
+     */
+    public long getUnpooled() {
+        return unpooled.sum();
+    }
+
+    /**
+     * @return Number of released buffers dropped because the pool of their class was full
+     */
+    public long getDiscarded() {
+        return discarded.sum();
+    }
+
+    /**
+     * @return Number of leaked buffers reported. Always 0 without leak detection
+     */
+    public long getLeaks() {
+        return leaks.sum();
+    }
+
+    /**
+     * @return Number of buffers in the shared pools, not counting the thread caches
+     */
+    public int getPooledCount() {
+        int count = 0;
+        for (BlockingQueue<ByteBuffer> pool : pools) {
+            count += pool.size();
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BufferAllocator{hits=%d, misses=%d, unpooled=%d, discarded=%d, leaks=%d, pooled=%d}",
+                getHits(), getMisses(), getUnpooled(), getDiscarded(), getLeaks(), getPooledCount());
+    }
+
+    private ByteBuffer poll(int sizeClass) {
+        if (threadCaches != null && ThreadCaching.isCacheable()) {
+            ArrayDeque<ByteBuffer> cached = threadCaches.get()[sizeClass];
+            if (cached != null && !cached.isEmpty()) {
+                return cached.pop();
+            }
+        }
+        return pools[sizeClass].poll();
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    private void track(ByteBuffer buffer) {
+        reportLeaks();
+        outstanding.add(new LeakTracker(buffer, collected));
+    }
+
+    private void untrack(ByteBuffer buffer) {
+        for (Iterator<LeakTracker> it = outstanding.iterator(); it.hasNext(); ) {
+            LeakTracker tracker = it.next();
+            if (tracker.get() == buffer) {
+                it.remove();
+                tracker.clear();
+                return;
+            }
+        }
+        throw new IllegalStateException("Buffer released twice or not acquired from this allocator: " + buffer);
+    }
+
+    private int sizeClass(int size) {
+        return Integer.numberOfTrailingZeros(size) - Integer.numberOfTrailingZeros(minSize);
+    }
+
+    private int classSize(int sizeClass) {
+        return minSize << sizeClass;
+    }
+
+    private static int roundUp(int size) {
+        int rounded = Integer.highestOneBit(size);
+        return rounded < size ? rounded << 1 : rounded;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static BlockingQueue<ByteBuffer>[] newPools(int classes) {
+        return new BlockingQueue[classes];
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ArrayDeque<ByteBuffer>[] newCache(int classes) {
+        return new ArrayDeque[classes];
+    }
+
+    /**
+     * Weak reference to an acquired buffer, remembering where it was acquired.
+     */
+    private static class LeakTracker extends WeakReference<ByteBuffer> {
+        private final Throwable acquired = new Throwable("Buffer acquired here");
+
+        LeakTracker(ByteBuffer buffer, ReferenceQueue<ByteBuffer> queue) {
+            super(buffer, queue);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.channel;
+
+import org.iostreams.streams.monitor.BandwidthStats;
+import org.iostreams.streams.monitor.LatencyHistogram;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileLock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * An asynchronous file channel that counts the bytes read from and written to the underlying channel, in separate
+ * {@link BandwidthStats}.
+ * <p>
+ * Bytes are recorded when an operation completes, by the thread completing it, whether the caller waits on the
+ * returned <code>Future</code> or passes a {@link CompletionHandler}. With a latency histogram, the time from starting
+ * an operation to its completion is recorded. Cancelling a returned <code>Future</code> doesn't cancel the underlying
+ * operation.
+ *
+ * @author Yossi Shaul
+ */
+public class BandwidthMonitorAsynchronousFileChannel extends AsynchronousFileChannel {
+
+    private final AsynchronousFileChannel channel;
+    private final BandwidthStats readStats;
+    private final BandwidthStats writeStats;
+    private final LatencyHistogram latency;
+
+    public BandwidthMonitorAsynchronousFileChannel(AsynchronousFileChannel channel) {
+        this(channel, new BandwidthStats(), new BandwidthStats(), null);
+    }
+
+    /**
+     * Creates a bandwidth monitor recording into the given statistics.
+     *
+     * @param channel    The underlying channel
+     * @param readStats  Statistics of the bytes read
+     * @param writeStats Statistics of the bytes written
+     * @param latency    Histogram recording the duration of each read and write operation, possibly shared with other
+     *                   channels. Null to disable
+     */
+    public BandwidthMonitorAsynchronousFileChannel(AsynchronousFileChannel channel, BandwidthStats readStats,
+                                                   BandwidthStats writeStats, @Nullable LatencyHistogram latency) {
+        this.channel = channel;
+        this.readStats = readStats;
+        this.writeStats = writeStats;
+        this.latency = latency;
+    }
+
+    @Override
+    public <A> void read(ByteBuffer dst, long position, A attachment,
+                         CompletionHandler<Integer, ? super A> handler) {
+        channel.read(dst, position, attachment, new Recorder<>(readStats, handler));
+    }
+
+    @Override
+    public Future<Integer> read(ByteBuffer dst, long position) {
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        read(dst, position, result, FutureHandler.INSTANCE);
+        return result;
+    }
+
+    @Override
+    public <A> void write(ByteBuffer src, long position, A attachment,
+                          CompletionHandler<Integer, ? super A> handler) {
+        channel.write(src, position, attachment, new Recorder<>(writeStats, handler));
+    }
+
+    @Override
+    public Future<Integer> write(ByteBuffer src, long position) {
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        write(src, position, result, FutureHandler.INSTANCE);
+        return result;
+    }
+
+    @Override
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public AsynchronousFileChannel truncate(long size) throws IOException {
+        channel.truncate(size);
+        return this;
+    }
+
+    @Override
+    public void force(boolean metaData) throws IOException {
+        channel.force(metaData);
+    }
+
+    @Override
+    public <A> void lock(long position, long size, boolean shared, A attachment,
+                         CompletionHandler<FileLock, ? super A> handler) {
+        channel.lock(position, size, shared, attachment, handler);
+    }
+
+    @Override
+    public Future<FileLock> lock(long position, long size, boolean shared) {
+        return channel.lock(position, size, shared);
+    }
+
+    @Override
+    public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+        return channel.tryLock(position, size, shared);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public long getTotalBytesRead() {
+        return readStats.getTotalBytes();
+    }
+
+    public long getTotalBytesWritten() {
+        return writeStats.getTotalBytes();
+    }
+
+    /**
+     * @return Throughput statistics of the bytes read from the file
+     */
+    public BandwidthStats getReadStats() {
+        return readStats;
+    }
+
+    /**
+     * @return Throughput statistics of the bytes written to the file
+     */
+    public BandwidthStats getWriteStats() {
+        return writeStats;
+    }
+
+    /**
+     * @return The histogram of read and write operation durations or null if latencies are not recorded
+     */
+    @Nullable
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * Records a completed operation before passing the result to the caller's handler.
+     */
+    private class Recorder<A> implements CompletionHandler<Integer, A> {
+        private final BandwidthStats stats;
+        private final CompletionHandler<Integer, ? super A> handler;
+        private final long start;
+
+        Recorder(BandwidthStats stats, CompletionHandler<Integer, ? super A> handler) {
+            this.stats = stats;
+            this.handler = handler;
+            this.start = latency != null ? System.nanoTime() : 0;
+        }
+
+        @Override
+        public void completed(Integer n, A attachment) {
+            recordLatency();
+            if (n > 0) {
+                stats.record(n);
+            }
+            handler.completed(n, attachment);
+        }
+
+        @Override
+        public void failed(Throwable exc, A attachment) {
+            recordLatency();
+            handler.failed(exc, attachment);
+        }
+
+        private void recordLatency() {
+            if (latency != null) {
+                latency.record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Completes the future passed as the attachment.
+     */
+    private static class FutureHandler implements CompletionHandler<Integer, CompletableFuture<Integer>> {
+        static final FutureHandler INSTANCE = new FutureHandler();
+
+        @Override
+        public void completed(Integer n, CompletableFuture<Integer> result) {
+            result.complete(n);
+        }
+
+        @Override
+        public void failed(Throwable exc, CompletableFuture<Integer> result) {
+            result.completeExceptionally(exc);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.channel;
+
+import org.iostreams.streams.monitor.BandwidthStats;
+import org.iostreams.streams.monitor.LatencyHistogram;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A file channel that counts the bytes read from and written to the underlying file channel, in separate
+ * {@link BandwidthStats}.
+ * <p>
+ * {@link #transferTo(long, long, WritableByteChannel)} and {@link #transferFrom(ReadableByteChannel, long, long)} are
+ * passed through to the underlying channel, so the operating system may still copy the bytes without passing them
+ * through the JVM. When the other end of the transfer is a {@link BandwidthMonitorWritableChannel},
+ * {@link BandwidthMonitorReadableChannel} or another monitored file channel, its underlying channel takes part in the
+ * transfer and the bytes are recorded on both ends.
+ * <p>
+ * Bytes accessed through buffers returned by {@link #map(MapMode, long, long)} are not counted.
+ *
+ * @author Yossi Shaul
+ */
+public class BandwidthMonitorFileChannel extends FileChannel {
+
+    private final FileChannel channel;
+    private final BandwidthStats readStats;
+    private final BandwidthStats writeStats;
+    private final LatencyHistogram latency;
+
+    public BandwidthMonitorFileChannel(FileChannel channel) {
+        this(channel, new BandwidthStats(), new BandwidthStats(), null);
+    }
+
+    /**
+     * Creates a bandwidth monitor recording into the given statistics.
+     *
+     * @param channel    The underlying channel
+     * @param readStats  Statistics of the bytes read
+     * @param writeStats Statistics of the bytes written
+     * @param latency    Histogram recording the duration of each read, write and transfer call, possibly shared with
+     *                   other channels. Null to disable
+     */
+    public BandwidthMonitorFileChannel(FileChannel channel, BandwidthStats readStats, BandwidthStats writeStats,
+                                       @Nullable LatencyHistogram latency) {
+        this.channel = channel;
+        this.readStats = readStats;
+        this.writeStats = writeStats;
+        this.latency = latency;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        long start = startTime();
+        int n = channel.read(dst);
+        recordLatency(start);
+        recordRead(n);
+        return n;
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+        long start = startTime();
+        long n = channel.read(dsts, offset, length);
+        recordLatency(start);
+        recordRead(n);
+        return n;
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long position) throws IOException {
+        long start = startTime();
+        int n = channel.read(dst, position);
+        recordLatency(start);
+        recordRead(n);
+        return n;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        long start = startTime();
+        int n = channel.write(src);
+        recordLatency(start);
+        writeStats.record(n);
+        return n;
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+        long start = startTime();
+        long n = channel.write(srcs, offset, length);
+        recordLatency(start);
+        writeStats.record(n);
+        return n;
+    }
+
+    @Override
+    public int write(ByteBuffer src, long position) throws IOException {
+        long start = startTime();
+        int n = channel.write(src, position);
+        recordLatency(start);
+        writeStats.record(n);
+        return n;
+    }
+
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        WritableByteChannel unwrapped = target;
+        BandwidthStats targetStats = null;
+        if (target instanceof BandwidthMonitorWritableChannel) {
+            unwrapped = ((BandwidthMonitorWritableChannel) target).channel();
+            targetStats = ((BandwidthMonitorWritableChannel) target).getStats();
+        } else if (target instanceof BandwidthMonitorFileChannel) {
+            unwrapped = ((BandwidthMonitorFileChannel) target).channel;
+            targetStats = ((BandwidthMonitorFileChannel) target).writeStats;
+        }
+        long start = startTime();
+        long n = channel.transferTo(position, count, unwrapped);
+        recordLatency(start);
+        readStats.record(n);
+        if (targetStats != null) {
+            targetStats.record(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+        ReadableByteChannel unwrapped = src;
+        BandwidthStats sourceStats = null;
+        if (src instanceof BandwidthMonitorReadableChannel) {
+            unwrapped = ((BandwidthMonitorReadableChannel) src).channel();
+            sourceStats = ((BandwidthMonitorReadableChannel) src).getStats();
+        } else if (src instanceof BandwidthMonitorFileChannel) {
+            unwrapped = ((BandwidthMonitorFileChannel) src).channel;
+            sourceStats = ((BandwidthMonitorFileChannel) src).readStats;
+        }
+        long start = startTime();
+        long n = channel.transferFrom(unwrapped, position, count);
+        recordLatency(start);
+        writeStats.record(n);
+        if (sourceStats != null) {
+            sourceStats.record(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long position() throws IOException {
+        return channel.position();
+    }
+
+    @Override
+    public FileChannel position(long newPosition) throws IOException {
+        channel.position(newPosition);
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public FileChannel truncate(long size) throws IOException {
+        channel.truncate(size);
+        return this;
+    }
+
+    @Override
+    public void force(boolean metaData) throws IOException {
+        channel.force(metaData);
+    }
+
+    @Override
+    public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+        return channel.map(mode, position, size);
+    }
+
+    @Override
+    public FileLock lock(long position, long size, boolean shared) throws IOException {
+        return channel.lock(position, size, shared);
+    }
+
+    @Override
+    public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+        return channel.tryLock(position, size, shared);
+    }
+
+    @Override
+    protected void implCloseChannel() throws IOException {
+        channel.close();
+    }
+
+    public long getTotalBytesRead() {
+        return readStats.getTotalBytes();
+    }
+
+    public long getTotalBytesWritten() {
+        return writeStats.getTotalBytes();
+    }
+
+    /**
+     * @return Throughput statistics of the bytes read from the file
+     */
+    public BandwidthStats getReadStats() {
+        return readStats;
+    }
+
+    /**
+     * @return Throughput statistics of the bytes written to the file
+     */
+    public BandwidthStats getWriteStats() {
+        return writeStats;
+    }
+
+    /**
+     * @return The histogram of read, write and transfer call durations or null if latencies are not recorded
+     */
+    @Nullable
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return The underlying channel of a monitored file channel, otherwise the channel itself
+     */
+    static FileChannel unwrap(FileChannel channel) {
+        return channel instanceof BandwidthMonitorFileChannel ? ((BandwidthMonitorFileChannel) channel).channel :
+                channel;
+    }
+
+    private void recordRead(long n) {
+        if (n > 0) {
+            readStats.record(n);
+        }
+    }
+
+    private long startTime() {
+        return latency != null ? System.nanoTime() : 0;
+    }
+
+    private void recordLatency(long start) {
+        if (latency != null) {
+            latency.record(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.channel;
+
+import org.iostreams.streams.monitor.BandwidthStats;
+import org.iostreams.streams.monitor.LatencyHistogram;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * A readable channel that counts the bytes read from the underlying channel. The channel counterpart of
+ * {@link org.iostreams.streams.in.BandwidthMonitorInputStream}, feeding the same {@link BandwidthStats}.
+ * <p>
+ * Use {@link #transferTo(FileChannel, long, long)} to copy into a file: it hands the underlying channel to
+ * {@link FileChannel#transferFrom(ReadableByteChannel, long, long)} so the transfer keeps the zero-copy path.
+ *
+ * @author Yossi Shaul
+ */
+public class BandwidthMonitorReadableChannel implements ReadableByteChannel {
+
+    private final ReadableByteChannel channel;
+    private final BandwidthStats stats;
+    private final LatencyHistogram latency;
+
+    public BandwidthMonitorReadableChannel(ReadableByteChannel channel) {
+        this(channel, null);
+    }
+
+    /**
+     * Creates a bandwidth monitor that also records how long each read call takes.
+     *
+     * @param channel The underlying channel
+     * @param latency Histogram recording the duration of each call, possibly shared with other channels. Null to
+     *                disable
+     */
+    public BandwidthMonitorReadableChannel(ReadableByteChannel channel, @Nullable LatencyHistogram latency) {
+        this(channel, new BandwidthStats(), latency);
+    }
+
+    /**
+     * Creates a bandwidth monitor recording into the given statistics.
+     *
+     * @param channel The underlying channel
+     * @param stats   Statistics this channel records into
+     * @param latency Histogram recording the duration of each call, possibly shared with other channels. Null to
+     *                disable
+     */
+    public BandwidthMonitorReadableChannel(ReadableByteChannel channel, BandwidthStats stats,
+                                           @Nullable LatencyHistogram latency) {
+        this.channel = channel;
+        this.stats = stats;
+        this.latency = latency;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        long start = startTime();
+        int n = channel.read(dst);
+        recordLatency(start);
+        if (n > 0) {
+            stats.record(n);
+        }
+        return n;
+    }
+
+    /**
+     * Transfers bytes from this channel into a file with {@link FileChannel#transferFrom(ReadableByteChannel, long,
+     * long)} called with the underlying channel, so the operating system may copy the bytes directly.
+     *
+     * @param target   The file to write to. A {@link BandwidthMonitorFileChannel} records the bytes as written
+     * @param position The file position at which the transfer is to begin
+     * @param count    The maximum number of bytes to transfer
+     * @return The number of bytes transferred
+     * @throws IOException On any I/O error
+     */
+    public long transferTo(FileChannel target, long position, long count) throws IOException {
+        long start = startTime();
+        long n = BandwidthMonitorFileChannel.unwrap(target).transferFrom(channel, position, count);
+        recordLatency(start);
+        stats.record(n);
+        if (target instanceof BandwidthMonitorFileChannel) {
+            ((BandwidthMonitorFileChannel) target).getWriteStats().record(n);
+        }
+        return n;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public long getTotalBytesRead() {
+        return stats.getTotalBytes();
+    }
+
+    /**
+     * @return Throughput statistics of this channel: current, moving average and peak rates
+     */
+    public BandwidthStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return The histogram of read call durations or null if latencies are not recorded
+     */
+    @Nullable
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return The underlying channel
+     */
+    ReadableByteChannel channel() {
+        return channel;
+    }
+
+    private long startTime() {
+        return latency != null ? System.nanoTime() : 0;
+    }
+
+    private void recordLatency(long start) {
+        if (latency != null) {
+            latency.record(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.channel;
+
+import org.iostreams.streams.monitor.BandwidthStats;
+import org.iostreams.streams.monitor.LatencyHistogram;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A writable channel that counts the bytes written to the underlying channel. The channel counterpart of
+ * {@link org.iostreams.streams.out.BandwidthMonitorOutputStream}, feeding the same {@link BandwidthStats}.
+ * <p>
+ * Use {@link #transferFrom(FileChannel, long, long)} to send a file: it hands the underlying channel to
+ * {@link FileChannel#transferTo(long, long, WritableByteChannel)} so the transfer keeps the zero-copy (sendfile) path.
+ * {@link BandwidthMonitorFileChannel#transferTo(long, long, WritableByteChannel)} does the same when given this
+ * channel as the target.
+ *
+ * @author Yossi Shaul
+ */
+public class BandwidthMonitorWritableChannel implements WritableByteChannel {
+
+    private final WritableByteChannel channel;
+    private final BandwidthStats stats;
+    private final LatencyHistogram latency;
+
+    public BandwidthMonitorWritableChannel(WritableByteChannel channel) {
+        this(channel, null);
+    }
+
+    /**
+     * Creates a bandwidth monitor that also records how long each write call takes.
+     *
+     * @param channel The underlying channel
+     * @param latency Histogram recording the duration of each call, possibly shared with other channels. Null to
+     *                disable
+     */
+    public BandwidthMonitorWritableChannel(WritableByteChannel channel, @Nullable LatencyHistogram latency) {
+        this(channel, new BandwidthStats(), latency);
+    }
+
+    /**
+     * Creates a bandwidth monitor recording into the given statistics.
+     *
+     * @param channel The underlying channel
+     * @param stats   Statistics this channel records into
+     * @param latency Histogram recording the duration of each call, possibly shared with other channels. Null to
+     *                disable
+     */
+    public BandwidthMonitorWritableChannel(WritableByteChannel channel, BandwidthStats stats,
+                                           @Nullable LatencyHistogram latency) {
+        this.channel = channel;
+        this.stats = stats;
+        this.latency = latency;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        long start = startTime();
+        int n = channel.write(src);
+        recordLatency(start);
+        stats.record(n);
+        return n;
+    }
+
+    /**
+     * Transfers bytes from a file to this channel with {@link FileChannel#transferTo(long, long,
+     * WritableByteChannel)} called with the underlying channel, so the operating system may copy the bytes directly.
+     *
+     * @param source   The file to read from. A {@link BandwidthMonitorFileChannel} records the bytes as read
+     * @param position The file position at which the transfer is to begin
+     * @param count    The maximum number of bytes to transfer
+     * @return The number of bytes transferred
+     * @throws IOException On any I/O error
+     */
+    public long transferFrom(FileChannel source, long position, long count) throws IOException {
+        long start = startTime();
+        long n = BandwidthMonitorFileChannel.unwrap(source).transferTo(position, count, channel);
+        recordLatency(start);
+        stats.record(n);
+        if (source instanceof BandwidthMonitorFileChannel) {
+            ((BandwidthMonitorFileChannel) source).getReadStats().record(n);
+        }
+        return n;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public long getTotalBytesWritten() {
+        return stats.getTotalBytes();
+    }
+
+    /**
+     * @return Throughput statistics of this channel: current, moving average and peak rates
+     */
+    public BandwidthStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return The histogram of write call durations or null if latencies are not recorded
+     */
+    @Nullable
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return The underlying channel
+     */
+    WritableByteChannel channel() {
+        return channel;
+    }
+
+    private long startTime() {
+        return latency != null ? System.nanoTime() : 0;
+    }
+
+    private void recordLatency(long start) {
+        if (latency != null) {
+            latency.record(System.nanoTime() - start);
+        }
+    }
+}
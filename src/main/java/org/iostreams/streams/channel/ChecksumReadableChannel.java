@@ -0,0 +1,98 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.iostreams.streams.channel;
+
+import org.iostreams.streams.checksum.Digest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * A readable channel that computes checksums and message digests of the bytes read from the underlying channel. The
+ * channel counterpart of {@link org.iostreams.streams.in.ChecksumInputStream}.
+ * <p>
+ * The digests are updated from the caller's buffer, heap or direct, without copying the bytes. When closed, the
+ * digests with an expected value are verified and a mismatch fails the close with an {@link IOException}.
+ *
+ * @author Yossi Shaul
+ */
+public class ChecksumReadableChannel implements ReadableByteChannel {
+
+    private final ReadableByteChannel channel;
+    private final Digest[] digests;
+    private boolean closed;
+
+    /**
+     * @param channel The underlying channel
+     * @param digests Digests to compute over the bytes read
+     */
+    public ChecksumReadableChannel(ReadableByteChannel channel, Digest... digests) {
+        if (digests.length == 0) {
+            throw new IllegalArgumentException("At least one digest is required");
+        }
+        this.channel = channel;
+        this.digests = digests.clone();
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        int start = dst.position();
+        int n = channel.read(dst);
+        if (n > 0) {
+            ChecksumWritableChannel.update(digests, dst, start, n);
+        }
+        return n;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    /**
+     * Closes the underlying channel and verifies the digests that have an expected value.
+     *
+     * @throws IOException If closing the underlying channel failed or a digest doesn't match its expected value
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        channel.close();
+        for (Digest digest : digests) {
+            digest.verify();
+        }
+    }
+
+    /**
+     * @return The first digest of the channel
+     */
+    public Digest getDigest() {
+        return digests[0];
+    }
+
+    /**
+     * @return The digests of the channel, in the order given to the constructor
+     */
+    public Digest[] getDigests() {
+        return digests.clone();
+    }
+}
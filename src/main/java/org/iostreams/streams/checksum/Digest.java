@@ -0,0 +1,268 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.iostreams.streams.checksum;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+
+/**
+ * A checksum or message digest computed over the bytes passing through a checksum stream or channel, optionally with
+ * the value it is expected to have.
+ * <p>
+ * Wraps either a {@link Checksum} or a {@link MessageDigest}. The JDK implementations of {@link CRC32C},
+ * {@link CRC32} and {@link Adler32} are intrinsics using the CPU's CRC instructions where available, and all of them
+ * digest byte arrays and byte buffers, heap or direct, in place. Several digests passed to the same stream are all
+ * updated in the same pass over the data.
+ * <p>
+ * Checksum values are 32 bit, as all the checksums of <code>java.util.zip</code>, and are represented as 4 big-endian
+ * bytes. Not thread-safe.
+ *
+ * @author Yossi Shaul
+ */
+public class Digest {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final String name;
+    private final Checksum checksum;
+    private final MessageDigest digest;
+    private byte[] expected;
+    // Computed on demand, cleared by every update
+    private byte[] value;
+
+    private Digest(String name, @Nullable Checksum checksum, @Nullable MessageDigest digest) {
+        this.name = name;
+        this.checksum = checksum;
+        this.digest = digest;
+    }
+
+    /**
+     * @return A CRC-32C (Castagnoli) checksum
+     */
+    public static Digest crc32c() {
+        return of("CRC32C", new CRC32C());
+    }
+
+    /**
+     * @return A CRC-32 checksum
+     */
+    public static Digest crc32() {
+        return of("CRC32", new CRC32());
+    }
+
+    /**
+     * @return An Adler-32 checksum
+     */
+    public static Digest adler32() {
+        return of("Adler32", new Adler32());
+    }
+
+    /**
+     * @param algorithm Name of the message digest algorithm, for example "SHA-256" or "MD5"
+     * @return A message digest of the given algorithm
+     * @throws IllegalArgumentException If the algorithm is not available
+     */
+    public static Digest messageDigest(String algorithm) {
+        try {
+            return of(MessageDigest.getInstance(algorithm));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException("Unknown digest algorithm: " + algorithm, e);
+        }
+    }
+
+    /**
+     * @param name     Name of the checksum, used in verification errors
+     * @param checksum A 32 bit checksum
+     * @return A digest computing the given checksum
+     */
+    public static Digest of(String name, Checksum checksum) {
+        return new Digest(name, checksum, null);
+    }
+
+    /**
+     * @param digest A message digest
+     * @return A digest computing the given message digest
+     */
+    public static Digest of(MessageDigest digest) {
+        return new Digest(digest.getAlgorithm(), null, digest);
+    }
+
+    /**
+     * Sets the value to verify against.
+     *
+     * @param expected The expected value, as returned by {@link #getValue()}
+     * @return This digest
+     */
+    public Digest expect(byte[] expected) {
+        this.expected = expected.clone();
+        return this;
+    }
+
+    /**
+     * Sets the checksum value to verify against.
+     *
+     * @param expected The expected value, as returned by {@link Checksum#getValue()}
+     * @return This digest
+     */
+    public Digest expect(long expected) {
+        return expect(toBytes(expected));
+    }
+
+    /**
+     * Sets the value to verify against.
+     *
+     * @param expected The expected value in hexadecimal, as returned by {@link #getHexValue()}
+     * @return This digest
+     */
+    public Digest expectHex(String expected) {
+        if (expected.length() % 2 != 0) {
+            throw new IllegalArgumentException("Odd number of hex digits: " + expected);
+        }
+        byte[] bytes = new byte[expected.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int high = Character.digit(expected.charAt(2 * i), 16);
+            int low = Character.digit(expected.charAt(2 * i + 1), 16);
+            if (high < 0 || low < 0) {
+                throw new IllegalArgumentException("Not a hex value: " + expected);
+            }
+            bytes[i] = (byte) (high << 4 | low);
+        }
+        this.expected = bytes;
+        return this;
+    }
+
+    public void update(int b) {
+        value = null;
+        if (checksum != null) {
+            checksum.update(b);
+        } else {
+            digest.update((byte) b);
+        }
+    }
+
+    public void update(byte[] b, int off, int len) {
+        value = null;
+        if (checksum != null) {
+            checksum.update(b, off, len);
+        } else {
+            digest.update(b, off, len);
+        }
+    }
+
+    /**
+     * Updates the digest with the remaining bytes of the buffer. The buffer's position is advanced to its limit.
+     *
+     * @param buffer Heap or direct buffer to digest
+     */
+    public void update(ByteBuffer buffer) {
+        value = null;
+        if (checksum != null) {
+            checksum.update(buffer);
+        } else {
+            digest.update(buffer);
+        }
+    }
+
+    /**
+     * @return The value of the digest over the bytes so far. Further updates continue from it
+     */
+    public byte[] getValue() {
+        if (value == null) {
+            value = checksum != null ? toBytes(checksum.getValue()) : currentDigest();
+        }
+        return value.clone();
+    }
+
+    /**
+     * @return The value of the digest in lowercase hexadecimal
+     */
+    public String getHexValue() {
+        return toHex(getValue());
+    }
+
+    /**
+     * @return The expected value or null if none was set
+     */
+    @Nullable
+    public byte[] getExpected() {
+        return expected != null ? expected.clone() : null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Checks the current value against the expected one, if any.
+     *
+     * @throws IOException If the value doesn't match the expected value
+     */
+    public void verify() throws IOException {
+        if (expected != null && !Arrays.equals(expected, getValue())) {
+            throw new IOException(name + " mismatch: expected " + toHex(expected) + " but was " + getHexValue());
+        }
+    }
+
+    /**
+     * Resets the digest to its initial value. The expected value is kept.
+     */
+    public void reset() {
+        value = null;
+        if (checksum != null) {
+            checksum.reset();
+        } else {
+            digest.reset();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name + ":" + getHexValue();
+    }
+
+    private byte[] currentDigest() {
+        try {
+            // digest() resets the digest, a clone keeps the running state for further updates
+            return ((MessageDigest) digest.clone()).digest();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(name + " digest can't be computed before the end of the data", e);
+        }
+    }
+
+    private static byte[] toBytes(long checksum) {
+        return new byte[]{(byte) (checksum >>> 24), (byte) (checksum >>> 16), (byte) (checksum >>> 8),
+                (byte) checksum};
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[2 * i] = HEX[bytes[i] >> 4 & 0xf];
+            chars[2 * i + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String(chars);
+    }
+}
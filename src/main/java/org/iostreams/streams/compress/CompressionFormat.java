@@ -0,0 +1,36 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.iostreams.streams.compress;
+
+/**
+ * Container formats of a deflate compressed stream.
+ *
+ * @author Yossi Shaul
+ */
+public enum CompressionFormat {
+    /**
+     * A single member gzip stream (RFC 1952), as written by {@link java.util.zip.GZIPOutputStream}, with a CRC-32
+     * trailer.
+     */
+    GZIP,
+    /**
+     * A zlib stream (RFC 1950), as written by {@link java.util.zip.DeflaterOutputStream} and known as "deflate" in
+     * HTTP, with an Adler-32 trailer.
+     */
+    DEFLATE
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.concurrent;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An executor service shared by the whole library. It delegates task execution and can't be shut down, so one stream
+ * (or a careless caller) can't break the others: {@link #shutdown()} and {@link #shutdownNow()} do nothing, which lets
+ * code that shuts down the executors it is given use the shared executor too.
+ *
+ * @author Yossi Shaul
+ */
+class SharedExecutorService extends AbstractExecutorService {
+
+    private final Executor delegate;
+
+    SharedExecutorService(Executor delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        delegate.execute(command);
+    }
+
+    /**
+     * Does nothing, the shared executor can't be shut down.
+     */
+    @Override
+    public void shutdown() {
+    }
+
+    /**
+     * Does nothing, the shared executor can't be shut down.
+     *
+     * @return An empty list
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return false;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return false;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+        return false;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.concurrent;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors used by streams that run work on a background thread when the caller doesn't provide an executor.
+ * <p>
+ * This implementation, used on JDK 11 to 20, is a shared unbounded cached pool of daemon threads. There is still one
+ * platform thread per concurrently running writer, blocked whenever its pipe is full. Idle threads are released after
+ * a minute, so the pool never needs to be shut down. On JDK 21 and above it is replaced (through the multi-release jar)
+ * by an executor running each task on a new virtual thread.
+ *
+ * @author Yossi Shaul
+ */
+public final class StreamExecutors {
+
+    private static final ExecutorService DEFAULT = new SharedExecutorService(new ThreadPoolExecutor(
+            0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), new DaemonThreadFactory()));
+
+    private StreamExecutors() {
+    }
+
+    /**
+     * Returns the executor shared by all the streams that weren't given one. The returned executor cannot be shut
+     * down, its <code>shutdown()</code> and <code>shutdownNow()</code> do nothing.
+     *
+     * @return The default executor for background stream work
+     */
+    public static ExecutorService defaultExecutor() {
+        return DEFAULT;
+    }
+
+    /**
+     * @return True if the default executor runs tasks on virtual threads
+     */
+    public static boolean isVirtual() {
+        return false;
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "iostreams-writer-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.file;
+
+import javax.annotation.Nonnull;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Deletes files on a background thread, keeping slow unlinks (loaded or network file systems) off the thread that
+ * is done with the file.
+ * <p>
+ * {@link #delete(Path)} only queues the file, without locking or logging. A single daemon thread, started with the
+ * first file, deletes the queued files in batches. A file that fails to delete is retried after a delay, up to a
+ * maximum number of attempts, and is then counted as failed and logged. Files still pending when the deleter is
+ * {@link #close() closed} or the JVM shuts down are deleted by a final sweep.
+ * <pre>
+ * InputStream in = new DeleteOnCloseFileInputStream(file, FileDeleter.shared());
+ * </pre>
+ * Thread-safe.
+ *
+ * @author Yossi Shaul
+ */
+public class FileDeleter implements Closeable {
+    private static final Logger log = Logger.getLogger(FileDeleter.class.getName());
+
+    private static final FileDeleter SHARED = new FileDeleter(3, 1, TimeUnit.SECONDS);
+
+    // Maximum number of files deleted before the retries are looked at again
+    private static final int BATCH_SIZE = 256;
+
+    private final int maxAttempts;
+    private final long retryDelayNanos;
+
+    private final Queue<Path> queue = new ConcurrentLinkedQueue<>();
+    // Files waiting for another attempt, ordered by their next attempt. Added only by the deleting thread
+    private final Queue<Retry> retries = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong pending = new AtomicLong();
+    private final LongAdder deleted = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+
+    private final Object lifecycleLock = new Object();
+    private Thread thread;
+    private Thread shutdownHook;
+    private volatile boolean closed;
+    // True while the deleting thread is parked, or about to park
+    private volatile boolean idle;
+
+    /**
+     * Creates a new deleter. The deleting thread starts with the first file queued.
+     *
+     * @param maxAttempts Number of times a file is tried before it counts as failed
+     * @param retryDelay  Time to wait before trying again to delete a file
+     * @param unit        The unit of the retry delay
+     */
+    public FileDeleter(int maxAttempts, long retryDelay, TimeUnit unit) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("Illegal number of attempts: " + maxAttempts);
+        }
+        if (retryDelay < 0) {
+            throw new IllegalArgumentException("Illegal retry delay: " + retryDelay);
+        }
+        this.maxAttempts = maxAttempts;
+        this.retryDelayNanos = unit.toNanos(retryDelay);
+    }
+
+    /**
+     * Returns the deleter shared by the application. It tries each file 3 times, a second apart, and is never
+     * closed: pending files are deleted when the JVM shuts down.
+     *
+     * @return The shared file deleter
+     */
+    public static FileDeleter shared() {
+        return SHARED;
+    }
+
+    /**
+     * Queues a file for deletion. Returns immediately. A file queued after the deleter is closed is deleted on the
+     * calling thread.
+     *
+     * @param file The file to delete
+     */
+    public void delete(@Nonnull Path file) {
+        if (closed) {
+            deleteNow(file);
+            return;
+        }
+        pending.incrementAndGet();
+        queue.offer(file);
+        if (closed) {
+            // closed concurrently, the final sweep might have missed the file
+            sweep();
+            return;
+        }
+        Thread deleter = thread;
+        if (deleter == null) {
+            deleter = start();
+        }
+        if (idle) {
+            LockSupport.unpark(deleter);
+        }
+    }
+
+    /**
+     * @return Number of files deleted, or found already deleted
+     */
+    public long getDeleted() {
+        return deleted.sum();
+    }
+
+    /**
+     * @return Number of files that couldn't be deleted after all the attempts
+     */
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * @return Number of failed attempts that were retried later
+     */
+    public long getRetried() {
+        return retried.sum();
+    }
+
+    /**
+     * @return Number of files queued or waiting for a retry
+     */
+    public long getPending() {
+        return pending.get();
+    }
+
+    /**
+     * Waits until all the files queued so far are deleted or failed.
+     *
+     * @param timeout Maximum time to wait
+     * @param unit    The unit of the timeout
+     * @return True if no file is pending
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public boolean awaitPending(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (pending.get() > 0) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    /**
+     * Stops the deleting thread and deletes the pending files on the calling thread, each tried once more. Files
+     * queued afterwards are deleted on the calling thread of {@link #delete(Path)}.
+     */
+    @Override
+    public void close() {
+        Thread deleter;
+        synchronized (lifecycleLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            deleter = thread;
+            if (shutdownHook != null) {
+                try {
+                    Runtime.getRuntime().removeShutdownHook(shutdownHook);
+                } catch (IllegalStateException e) {
+                    // already shutting down, the hook is running the sweep
+                }
+            }
+        }
+        if (deleter != null) {
+            LockSupport.unpark(deleter);
+            try {
+                deleter.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        sweep();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("FileDeleter{deleted=%d, failed=%d, retried=%d, pending=%d}", getDeleted(),
+                getFailed(), getRetried(), getPending());
+    }
+
+    private Thread start() {
+        synchronized (lifecycleLock) {
+            if (thread == null && !closed) {
+                Thread deleter = new Thread(this::run, "iostreams-file-deleter");
+                deleter.setDaemon(true);
+                shutdownHook = new Thread(this::sweep, "iostreams-file-deleter-sweep");
+                Runtime.getRuntime().addShutdownHook(shutdownHook);
+                deleter.start();
+                thread = deleter;
+            }
+            return thread;
+        }
+    }
+
+    private void run() {
+        while (!closed) {
+            int batch = 0;
+            Path file;
+            while (batch < BATCH_SIZE && (file = queue.poll()) != null) {
+                attempt(file, 1);
+                batch++;
+            }
+            long now = System.nanoTime();
+            Retry retry;
+            while ((retry = retries.peek()) != null && now - retry.time >= 0
+                    && (retry = retries.poll()) != null) {
+                attempt(retry.file, retry.attempts + 1);
+            }
+            if (batch < BATCH_SIZE) {
+                idle = true;
+                // a file queued before the flag was set would otherwise wait for the next one
+                if (queue.isEmpty() && !closed) {
+                    if ((retry = retries.peek()) != null) {
+                        LockSupport.parkNanos(this, retry.time - System.nanoTime());
+                    } else {
+                        LockSupport.park(this);
+                    }
+                }
+                idle = false;
+            }
+        }
+    }
+
+    private void attempt(Path file, int attempts) {
+        try {
+            Files.deleteIfExists(file);
+            deleted.increment();
+            pending.decrementAndGet();
+        } catch (IOException e) {
+            if (attempts < maxAttempts) {
+                retried.increment();
+                retries.offer(new Retry(file, attempts, System.nanoTime() + retryDelayNanos));
+            } else {
+                failed.increment();
+                pending.decrementAndGet();
+                log.log(Level.WARNING, "Failed deleting '" + file + "' after " + attempts + " attempts", e);
+            }
+        } catch (RuntimeException e) {
+            // not worth a retry, but mustn't kill the deleter thread
+            failed.increment();
+            pending.decrementAndGet();
+            log.log(Level.WARNING, "Failed deleting '" + file + "'", e);
+        }
+    }
+
+    /**
+     * Deletes the files still queued or waiting for a retry on the calling thread, once each.
+     */
+    private void sweep() {
+        Path file;
+        while ((file = queue.poll()) != null) {
+            attempt(file, maxAttempts);
+        }
+        Retry retry;
+        while ((retry = retries.poll()) != null) {
+            attempt(retry.file, maxAttempts);
+        }
+    }
+
+    private void deleteNow(Path file) {
+        try {
+            Files.deleteIfExists(file);
+            deleted.increment();
+        } catch (IOException | RuntimeException e) {
+            failed.increment();
+            log.log(Level.WARNING, "Failed deleting '" + file + "'", e);
+        }
+    }
+
+    private static class Retry {
+        private final Path file;
+        private final int attempts;
+        // System.nanoTime() of the next attempt
+        private final long time;
+
+        Retry(Path file, int attempts, long time) {
+            this.file = file;
+            this.attempts = attempts;
+            this.time = time;
+        }
+    }
+}
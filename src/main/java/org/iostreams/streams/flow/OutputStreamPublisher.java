@@ -0,0 +1,248 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.flow;
+
+import org.iostreams.streams.concurrent.StreamExecutors;
+import org.iostreams.streams.in.OutputToInputStream;
+import org.iostreams.streams.pipe.ChunkPipe;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A {@link Flow.Publisher} of the bytes written to an output stream.
+ * <p>
+ * Like {@link OutputToInputStream}, the data is produced by {@link #write(OutputStream)} running on a writer thread,
+ * started when the subscriber first requests data. The writer fills the chunks of a {@link ChunkPipe} and the
+ * subscriber's demand lets them out: a chunk leaves the pipe only when it was requested, and only a chunk that left
+ * the pipe makes room for the writer. A slow subscriber therefore holds back the writer with at most
+ * <code>maxChunks</code> chunks buffered.
+ * <p>
+ * No thread waits for the subscriber. Chunks are delivered by the thread calling
+ * {@link Flow.Subscription#request(long)}, or by the writer thread when a chunk becomes ready while there is demand.
+ * The writer thread itself blocks when the pipe is full, which is cheap with the default executor on JDK 21+ where it
+ * is a virtual thread.
+ * <p>
+ * Each {@link ByteBuffer} passed to <code>onNext</code> is ready for reading and belongs to the subscriber; the pipe
+ * allocates a new chunk in its place. A publisher serves a single subscriber. The bytes are delivered before a
+ * failure of the writer is signalled with <code>onError</code>. Cancelling the subscription closes the pipe and the
+ * writer fails with an <code>IOException</code> on its next write.
+ *
+ * @author Yossi Shaul
+ */
+public abstract class OutputStreamPublisher implements Flow.Publisher<ByteBuffer> {
+    private static final Logger log = Logger.getLogger(OutputStreamPublisher.class.getName());
+
+    private final ExecutorService executor;
+    private final int chunkSize;
+    private final int maxChunks;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    /**
+     * Create new <code>OutputStreamPublisher</code> with 4 chunks of 64KB. The writing thread is taken from the
+     * library's shared executor, see {@link StreamExecutors#defaultExecutor()}.
+     */
+    public OutputStreamPublisher() {
+        this(StreamExecutors.defaultExecutor(), 65536, 4);
+    }
+
+    /**
+     * Create new <code>OutputStreamPublisher</code> with provided executor service for the writing thread.
+     *
+     * @param executor  User provided executor to execute the writing thread
+     * @param chunkSize The size, in bytes, of each chunk
+     * @param maxChunks Maximum number of chunks buffered between the writer and the subscriber
+     */
+    public OutputStreamPublisher(ExecutorService executor, int chunkSize, int maxChunks) {
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+        this.maxChunks = maxChunks;
+    }
+
+    /**
+     * Write to the provided output stream. Flushing the sink passes the partially filled chunk to the subscriber.
+     *
+     * @param sink The provided output stream which is published to the subscriber
+     * @throws IOException On any I/O error or if the subscription was cancelled
+     */
+    protected abstract void write(OutputStream sink) throws IOException;
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("Publisher supports a single subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new ChunkSubscription(subscriber, new ChunkPipe(chunkSize, maxChunks)));
+    }
+
+    private class ChunkSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        private final ChunkPipe pipe;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicBoolean started = new AtomicBoolean();
+        // Number of drain requests not handled yet. Only the thread raising it from zero drains
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private volatile boolean cancelled;
+        private volatile Throwable requestError;
+        private volatile Throwable writerError;
+
+        // Accessed only by the draining thread
+        private ByteBuffer next;
+        private boolean done;
+
+        ChunkSubscription(Flow.Subscriber<? super ByteBuffer> subscriber, ChunkPipe pipe) {
+            this.subscriber = subscriber;
+            this.pipe = pipe;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                requestError = new IllegalArgumentException("Requested non-positive number of buffers: " + n);
+            } else {
+                demand.getAndUpdate(d -> d + n < 0 ? Long.MAX_VALUE : d + n);
+                if (started.compareAndSet(false, true)) {
+                    startWriter();
+                }
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        private void startWriter() {
+            pipe.setListener(this::drain);
+            try {
+                executor.submit(() -> {
+                    OutputStream sink = pipe.sink();
+                    try {
+                        write(sink);
+                    } catch (Throwable t) {
+                        // set before the sink is closed, the end of the stream tells the subscriber to look for it
+                        writerError = t;
+                    } finally {
+                        try {
+                            sink.close();
+                        } catch (IOException e) {
+                            log.log(Level.FINE, "Failed to close pipe sink", e);
+                        }
+                    }
+                    return null;
+                });
+            } catch (RejectedExecutionException e) {
+                requestError = e;
+            }
+        }
+
+        private void drain() {
+            if (pending.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                emit();
+                missed = pending.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void emit() {
+            while (!done) {
+                if (cancelled) {
+                    terminate();
+                    return;
+                }
+                Throwable error = requestError;
+                if (error != null) {
+                    terminate();
+                    subscriber.onError(error);
+                    return;
+                }
+                try {
+                    if (next == null) {
+                        next = pipe.pollChunk();
+                    }
+                } catch (IOException e) {
+                    terminate();
+                    subscriber.onError(e);
+                    return;
+                }
+                if (next == null) {
+                    if (pipe.isEndOfStream()) {
+                        terminate();
+                        if (writerError != null) {
+                            subscriber.onError(writerError);
+                        } else {
+                            subscriber.onComplete();
+                        }
+                    }
+                    return;
+                }
+                if (demand.get() == 0) {
+                    return;
+                }
+                demand.decrementAndGet();
+                ByteBuffer chunk = next;
+                next = null;
+                pipe.detach(chunk);
+                try {
+                    subscriber.onNext(chunk);
+                } catch (RuntimeException e) {
+                    log.log(Level.WARNING, "Subscriber failed, cancelling the subscription", e);
+                    cancelled = true;
+                }
+            }
+        }
+
+        private void terminate() {
+            done = true;
+            pipe.setListener(null);
+            pipe.release(next);
+            next = null;
+            try {
+                pipe.source().close();
+            } catch (IOException e) {
+                log.log(Level.FINE, "Failed to close pipe source", e);
+            }
+        }
+    }
+}
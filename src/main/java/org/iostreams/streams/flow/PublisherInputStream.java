@@ -0,0 +1,209 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.flow;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * An input stream reading the buffers of a {@link Flow.Publisher}.
+ * <p>
+ * The stream subscribes on the first read and keeps demand for at most <code>prefetch</code> buffers: it requests
+ * that many up front and one more each time a buffer was fully read. The publisher never waits for the reader and the
+ * buffers it delivers are consumed in place, without copying them to an intermediate buffer. Only the reading thread
+ * blocks, waiting for the next buffer.
+ * <p>
+ * A failure signalled by the publisher is thrown, wrapped in an <code>IOException</code>, once the buffers delivered
+ * before it were read. Closing the stream cancels the subscription, and a read blocked on another thread fails with
+ * "Stream closed".
+ *
+ * @author Yossi Shaul
+ */
+public class PublisherInputStream extends InputStream {
+
+    // Marks the end of the stream in the queue of delivered buffers
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final Flow.Publisher<? extends ByteBuffer> publisher;
+    private final int prefetch;
+    // Bounded by the demand
+    private final BlockingQueue<ByteBuffer> delivered = new LinkedBlockingQueue<>();
+
+    private volatile Flow.Subscription subscription;
+    private volatile Throwable failure;
+    private volatile boolean closed;
+
+    private boolean subscribed;
+    // The buffer being read
+    private ByteBuffer current;
+
+    /**
+     * Creates a stream reading the publisher with a prefetch of 4 buffers.
+     *
+     * @param publisher The publisher of the stream's bytes
+     */
+    public PublisherInputStream(Flow.Publisher<? extends ByteBuffer> publisher) {
+        this(publisher, 4);
+    }
+
+    /**
+     * Creates a stream reading the publisher.
+     *
+     * @param publisher The publisher of the stream's bytes
+     * @param prefetch  Maximum number of buffers requested from the publisher and not read yet
+     */
+    public PublisherInputStream(Flow.Publisher<? extends ByteBuffer> publisher, int prefetch) {
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("Illegal prefetch: " + prefetch);
+        }
+        this.publisher = publisher;
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    public int read() throws IOException {
+        ByteBuffer buffer = currentBuffer();
+        if (buffer == null) {
+            return -1;
+        }
+        return buffer.get() & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        ByteBuffer buffer = currentBuffer();
+        if (buffer == null) {
+            return -1;
+        }
+        int n = Math.min(len, buffer.remaining());
+        buffer.get(b, off, n);
+        return n;
+    }
+
+    @Override
+    public int available() throws IOException {
+        checkOpen();
+        return current != null ? current.remaining() : 0;
+    }
+
+    /**
+     * Closes the stream and cancels the subscription.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        Flow.Subscription s = subscription;
+        if (s != null) {
+            s.cancel();
+        }
+        delivered.clear();
+        // wakes up a reader waiting for the next buffer, nothing else will be delivered
+        delivered.offer(END);
+        current = null;
+    }
+
+    private ByteBuffer currentBuffer() throws IOException {
+        checkOpen();
+        if (!subscribed) {
+            subscribed = true;
+            publisher.subscribe(new Subscriber());
+        }
+        while (current == null || (current != END && !current.hasRemaining())) {
+            if (current != null) {
+                subscription.request(1);
+            }
+            current = take();
+        }
+        if (current == END) {
+            Throwable t = failure;
+            if (t != null) {
+                throw new IOException(t);
+            }
+            return null;
+        }
+        return current;
+    }
+
+    private ByteBuffer take() throws IOException {
+        ByteBuffer buffer;
+        try {
+            buffer = delivered.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the publisher");
+        }
+        // closed by another thread while waiting
+        checkOpen();
+        return buffer;
+    }
+
+    private void checkOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    private class Subscriber implements Flow.Subscriber<ByteBuffer> {
+
+        @Override
+        public void onSubscribe(Flow.Subscription s) {
+            if (subscription != null) {
+                s.cancel();
+                return;
+            }
+            subscription = s;
+            if (closed) {
+                // closed before the publisher got to subscribe
+                s.cancel();
+                return;
+            }
+            s.request(prefetch);
+        }
+
+        @Override
+        public void onNext(ByteBuffer buffer) {
+            if (!closed) {
+                delivered.offer(buffer);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            failure = t;
+            delivered.offer(END);
+        }
+
+        @Override
+        public void onComplete() {
+            delivered.offer(END);
+        }
+    }
+}
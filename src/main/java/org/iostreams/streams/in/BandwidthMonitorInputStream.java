@@ -1,65 +1,282 @@
 package org.iostreams.streams.in;
 
+import org.iostreams.streams.monitor.BandwidthStats;
+import org.iostreams.streams.monitor.LatencyHistogram;
+
+import javax.annotation.Nullable;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 
 /**
  * An input stream that calculates the bandwidth of the input stream.
+ * <p>
+ * The statistics are thread-safe, a monitoring thread may poll them (see {@link #getStats()}) while another thread
+ * reads from the stream. Optionally, the duration of every read call is recorded in a {@link LatencyHistogram}.
+ * <p>
+ * When created with a buffer size the stream reads the underlying stream in chunks, like a
+ * {@link java.io.BufferedInputStream}: small reads are served from the buffer, and the statistics and latency are
+ * updated once per read from the underlying stream, so reading byte by byte costs about the same as with a plain
+ * buffered stream. Bytes are counted when read from the underlying stream, the total may include buffered bytes the
+ * caller didn't read yet. A buffering monitor doesn't support mark and reset.
  *
  * @author Yossi Shaul
  */
 public class BandwidthMonitorInputStream extends FilterInputStream {
 
-    private final long startTime = System.nanoTime();
-    private long totalBytesRead;
+    private final BandwidthStats stats;
+    private final LatencyHistogram latency;
+    // Null when reading directly from the underlying stream
+    private final byte[] buffer;
+    private int pos;
+    private int limit;
 
     public BandwidthMonitorInputStream(InputStream in) {
+        this(in, null);
+    }
+
+    /**
+     * Creates a bandwidth monitor that also records how long each read and skip call takes.
+     *
+     * @param in      The underlying input stream
+     * @param latency Histogram recording the duration of each call, possibly shared with other streams. Null to disable
+     */
+    public BandwidthMonitorInputStream(InputStream in, @Nullable LatencyHistogram latency) {
+        this(in, new BandwidthStats(), latency);
+    }
+
+    /**
+     * Creates a bandwidth monitor recording into the given statistics, for example statistics obtained from
+     * {@link org.iostreams.streams.monitor.MetricsRegistry#newStats(String)} to aggregate streams under a name.
+     *
+     * @param in      The underlying input stream
+     * @param stats   Statistics this stream records into
+     * @param latency Histogram recording the duration of each call, possibly shared with other streams. Null to disable
+     */
+    public BandwidthMonitorInputStream(InputStream in, BandwidthStats stats, @Nullable LatencyHistogram latency) {
+        this(in, stats, latency, 0);
+    }
+
+    /**
+     * Creates a buffering bandwidth monitor.
+     *
+     * @param in         The underlying input stream
+     * @param bufferSize Size of the buffer, in bytes. 0 to read directly from the underlying stream
+     */
+    public BandwidthMonitorInputStream(InputStream in, int bufferSize) {
+        this(in, new BandwidthStats(), null, bufferSize);
+    }
+
+    /**
+     * Creates a bandwidth monitor recording into the given statistics, optionally buffering the reads.
+     *
+     * @param in         The underlying input stream
+     * @param stats      Statistics this stream records into
+     * @param latency    Histogram recording the duration of each read from the underlying stream, possibly shared with
+     *                   other streams. Null to disable
+     * @param bufferSize Size of the buffer, in bytes. 0 to read directly from the underlying stream
+     */
+    public BandwidthMonitorInputStream(InputStream in, BandwidthStats stats, @Nullable LatencyHistogram latency,
+                                       int bufferSize) {
         super(in);
+        if (bufferSize < 0) {
+            throw new IllegalArgumentException("Illegal buffer size: " + bufferSize);
+        }
+        this.stats = stats;
+        this.latency = latency;
+        this.buffer = bufferSize > 0 ? new byte[bufferSize] : null;
     }
 
     @Override
     public int read() throws IOException {
+        if (buffer != null) {
+            while (pos >= limit) {
+                if (fill() < 0) {
+                    return -1;
+                }
+            }
+            return buffer[pos++] & 0xff;
+        }
+        long start = startTime();
         int n = in.read();
+        recordLatency(start);
         if (n > -1) {
-            totalBytesRead++;
+            stats.record(1);
         }
         return n;
     }
 
     @Override
     public int read(byte[] b) throws IOException {
+        if (buffer != null) {
+            return read(b, 0, b.length);
+        }
+        long start = startTime();
         int n = in.read(b);
+        recordLatency(start);
         if (n > -1) {
-            totalBytesRead += n;
+            stats.record(n);
         }
         return n;
     }
 
     @Override
     public int read(byte[] b, int off, int len) throws IOException {
-        int n = in.read(b, off, len);
-        if (n > -1) {
-            totalBytesRead += n;
+        if (buffer == null) {
+            return readUnderlying(b, off, len);
+        }
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
         }
+        if (len == 0) {
+            return 0;
+        }
+        if (pos >= limit) {
+            if (len >= buffer.length) {
+                // no point copying large reads through the buffer
+                return readUnderlying(b, off, len);
+            }
+            if (fill() < 0) {
+                return -1;
+            }
+        }
+        int n = Math.min(len, limit - pos);
+        System.arraycopy(buffer, pos, b, off, n);
+        pos += n;
         return n;
     }
 
     @Override
     public long skip(long n) throws IOException {
+        if (buffer != null && pos < limit) {
+            if (n <= 0) {
+                return 0;
+            }
+            int skipped = (int) Math.min(n, limit - pos);
+            pos += skipped;
+            return skipped;
+        }
+        long start = startTime();
         long skipped = super.skip(n);
-        totalBytesRead += skipped;
+        recordLatency(start);
+        stats.record(skipped);
         return skipped;
     }
 
+    @Override
+    public int available() throws IOException {
+        if (buffer == null) {
+            return in.available();
+        }
+        int buffered = limit - pos;
+        int available = in.available();
+        return buffered > Integer.MAX_VALUE - available ? Integer.MAX_VALUE : buffered + available;
+    }
+
+    /**
+     * Transfers the rest of the stream with the underlying stream's <code>transferTo</code>, counting the bytes as
+     * they are written to the output stream. The latency of the whole transfer is recorded as one call.
+     */
+    @Override
+    public long transferTo(final OutputStream out) throws IOException {
+        long transferred = 0;
+        if (buffer != null && pos < limit) {
+            out.write(buffer, pos, limit - pos);
+            transferred = limit - pos;
+            pos = limit;
+        }
+        long start = startTime();
+        transferred += in.transferTo(new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                stats.record(1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+                stats.record(len);
+            }
+        });
+        recordLatency(start);
+        return transferred;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return buffer == null && in.markSupported();
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+        if (buffer == null) {
+            in.mark(readlimit);
+        }
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        if (buffer != null) {
+            throw new IOException("mark/reset not supported");
+        }
+        in.reset();
+    }
+
     public long getTotalBytesRead() {
-        return totalBytesRead;
+        return stats.getTotalBytes();
     }
 
+    /**
+     * @return Average bytes per second since the stream was created
+     */
     public long getBytesPerSec() {
-        if (totalBytesRead == 0) {
-            return 0;
+        return stats.getAverageBytesPerSec();
+    }
+
+    /**
+     * @return Throughput statistics of this stream: current, moving average and peak rates
+     */
+    public BandwidthStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return The histogram of read call durations or null if latencies are not recorded
+     */
+    @Nullable
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    private int fill() throws IOException {
+        pos = 0;
+        limit = 0;
+        int n = readUnderlying(buffer, 0, buffer.length);
+        if (n > 0) {
+            limit = n;
+        }
+        return n;
+    }
+
+    private int readUnderlying(byte[] b, int off, int len) throws IOException {
+        long start = startTime();
+        int n = in.read(b, off, len);
+        recordLatency(start);
+        if (n > -1) {
+            stats.record(n);
+        }
+        return n;
+    }
+
+    private long startTime() {
+        return latency != null ? System.nanoTime() : 0;
+    }
+
+    private void recordLatency(long start) {
+        if (latency != null) {
+            latency.record(System.nanoTime() - start);
         }
-        return (totalBytesRead * 1000000000) / (System.nanoTime() - startTime);
     }
 }
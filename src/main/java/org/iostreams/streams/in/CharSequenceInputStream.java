@@ -0,0 +1,365 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.in;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Creates an input stream from a character sequence, encoding it while it is read.
+ * <p>
+ * Unlike {@link StringInputStream}, the encoded bytes are never held in memory at once: characters are encoded into a
+ * small reusable buffer, or directly into the caller's array for large reads. Any {@link CharSequence} may be used, for
+ * example a {@link StringBuilder} or a {@link CharBuffer} over a memory mapped file. Characters that can't be encoded
+ * are replaced, like {@link String#getBytes(Charset)} does.
+ * <p>
+ * ISO-8859-1, US-ASCII and UTF-8 have a fast path that doesn't go through the {@link CharsetEncoder}: characters that
+ * map to a single byte are copied as is, and UTF-8 encodes all the other characters inline too. Only unmappable
+ * characters and unpaired surrogates are left to the encoder.
+ * <p>
+ * The sequence must not be modified while the stream is in use.
+ *
+ * @author Yossi Shaul
+ */
+public class CharSequenceInputStream extends InputStream {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+    // Room for the longest encoded character of any charset
+    private static final int MIN_BUFFER_SIZE = 16;
+
+    private final CharSequence seq;
+    private final Charset charset;
+    private final CharsetEncoder encoder;
+    private final CharBuffer chars;
+    // Characters below this value are copied as is, 0 if the charset has no fast path
+    private final char singleByteLimit;
+    private final boolean utf8;
+
+    private final byte[] buf;
+    private final ByteBuffer bytes;
+    private int pos;
+    private int count;
+
+    private boolean flushed;
+    private long length = -1;
+
+    /**
+     * Creates a new input stream using UTF-8 character set to encode the sequence.
+     *
+     * @param seq The characters to provide the input stream
+     */
+    public CharSequenceInputStream(@Nonnull CharSequence seq) {
+        this(seq, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates a new input stream using the given character set to encode the sequence.
+     *
+     * @param seq     The characters to provide the input stream
+     * @param charset Character set to encode the characters to bytes
+     */
+    public CharSequenceInputStream(@Nonnull CharSequence seq, @Nonnull Charset charset) {
+        this(seq, charset, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a new input stream using the given character set to encode the sequence.
+     *
+     * @param seq        The characters to provide the input stream
+     * @param charset    Character set to encode the characters to bytes
+     * @param bufferSize Size of the buffer to encode into, at least {@value #MIN_BUFFER_SIZE}
+     */
+    public CharSequenceInputStream(@Nonnull CharSequence seq, @Nonnull Charset charset, int bufferSize) {
+        if (bufferSize < MIN_BUFFER_SIZE) {
+            throw new IllegalArgumentException("Buffer size must be at least " + MIN_BUFFER_SIZE + ": " + bufferSize);
+        }
+        this.seq = seq;
+        this.charset = charset;
+        this.encoder = newEncoder(charset);
+        this.chars = CharBuffer.wrap(seq);
+        this.singleByteLimit = singleByteLimit(charset);
+        this.utf8 = charset.equals(StandardCharsets.UTF_8);
+        this.buf = new byte[bufferSize];
+        this.bytes = ByteBuffer.wrap(buf);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (pos == count && !fillBuffer()) {
+            return -1;
+        }
+        return buf[pos++] & 0xff;
+    }
+
+    @Override
+    public int read(@Nonnull byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (pos == count) {
+            if (len >= buf.length) {
+                // large read, encode straight into the caller's array
+                int n = encode(b, off, len, ByteBuffer.wrap(b, off, len));
+                return n > 0 ? n : -1;
+            }
+            if (!fillBuffer()) {
+                return -1;
+            }
+        }
+        int n = Math.min(len, count - pos);
+        System.arraycopy(buf, pos, b, off, n);
+        pos += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return count - pos;
+    }
+
+    /**
+     * Returns the number of bytes the whole sequence encodes to, regardless of how much was already read. Computed on
+     * the first call without buffering the bytes: for ISO-8859-1, US-ASCII and UTF-8 it is counted from the
+     * characters, for other charsets the sequence is encoded once and the bytes discarded.
+     *
+     * @return The length, in bytes, of the input stream
+     * @throws CharacterCodingException If the sequence can't be encoded (not expected, errors are replaced)
+     */
+    public long getLength() throws CharacterCodingException {
+        if (length < 0) {
+            length = computeLength();
+        }
+        return length;
+    }
+
+    private boolean fillBuffer() throws IOException {
+        bytes.clear();
+        pos = 0;
+        count = encode(buf, 0, buf.length, bytes);
+        return count > 0;
+    }
+
+    /**
+     * Encodes as many characters as fit into the given range of the array, which is also the remaining space of the
+     * byte buffer.
+     *
+     * @return Number of bytes written, 0 at the end of the sequence
+     */
+    private int encode(byte[] dst, int off, int len, ByteBuffer out) throws CharacterCodingException {
+        int end = off + len;
+        int written = off;
+        int limit = seq.length();
+        while (written < end && !flushed) {
+            int charPos = chars.position();
+            if (singleByteLimit > 0) {
+                written = utf8 ? copyUtf8(dst, written, end, limit) : copySingleBytes(dst, written, end, limit);
+                charPos = chars.position();
+                if (written == end || utf8 && charPos < limit && !isUnpairedSurrogate(charPos, limit)) {
+                    break;  // no room for the next character
+                }
+            }
+            out.position(written);
+            if (charPos < limit) {
+                // encode until the next character with a fast path, or everything if there's no fast path
+                int stop = utf8 ? charPos + 1 : singleByteLimit > 0 ? nextSingleByte(charPos + 1, limit) : limit;
+                chars.limit(stop);
+                CoderResult result = encoder.encode(chars, out, stop == limit);
+                chars.limit(limit);
+                if (result.isError()) {
+                    result.throwException();
+                }
+                if (result.isUnderflow() && chars.position() < stop) {
+                    // an unpaired high surrogate before a single byte character, the encoder waits for more input
+                    byte[] replacement = encoder.replacement();
+                    if (out.remaining() < replacement.length) {
+                        written = out.position();
+                        break;
+                    }
+                    out.put(replacement);
+                    chars.position(chars.position() + 1);
+                }
+                if (result.isOverflow() || out.position() == written && chars.position() == charPos) {
+                    written = out.position();
+                    break;
+                }
+            } else {
+                // the fast path may have consumed the last characters, the encoder must see the end of input to flush
+                encoder.encode(chars, out, true);
+                CoderResult result = encoder.flush(out);
+                if (result.isOverflow()) {
+                    written = out.position();
+                    break;
+                }
+                flushed = true;
+            }
+            written = out.position();
+        }
+        return written - off;
+    }
+
+    /**
+     * Copies the characters up to the first one that doesn't map to a single byte.
+     *
+     * @return The new write position in the array
+     */
+    private int copySingleBytes(byte[] dst, int written, int end, int limit) {
+        int i = chars.position();
+        int n = Math.min(end - written, limit - i);
+        int stop = i + n;
+        char c;
+        while (i < stop && (c = seq.charAt(i)) < singleByteLimit) {
+            dst[written++] = (byte) c;
+            i++;
+        }
+        chars.position(i);
+        return written;
+    }
+
+    /**
+     * Encodes UTF-8 up to the first unpaired surrogate, or until the next character doesn't fit.
+     *
+     * @return The new write position in the array
+     */
+    private int copyUtf8(byte[] dst, int written, int end, int limit) {
+        int i = chars.position();
+        while (i < limit) {
+            char c = seq.charAt(i);
+            if (c < 0x80) {
+                if (written == end) {
+                    break;
+                }
+                dst[written++] = (byte) c;
+            } else if (c < 0x800) {
+                if (end - written < 2) {
+                    break;
+                }
+                dst[written++] = (byte) (0xc0 | c >> 6);
+                dst[written++] = (byte) (0x80 | c & 0x3f);
+            } else if (!Character.isSurrogate(c)) {
+                if (end - written < 3) {
+                    break;
+                }
+                dst[written++] = (byte) (0xe0 | c >> 12);
+                dst[written++] = (byte) (0x80 | c >> 6 & 0x3f);
+                dst[written++] = (byte) (0x80 | c & 0x3f);
+            } else if (Character.isHighSurrogate(c) && i + 1 < limit && Character.isLowSurrogate(seq.charAt(i + 1))) {
+                if (end - written < 4) {
+                    break;
+                }
+                int cp = Character.toCodePoint(c, seq.charAt(i + 1));
+                dst[written++] = (byte) (0xf0 | cp >> 18);
+                dst[written++] = (byte) (0x80 | cp >> 12 & 0x3f);
+                dst[written++] = (byte) (0x80 | cp >> 6 & 0x3f);
+                dst[written++] = (byte) (0x80 | cp & 0x3f);
+                i++;
+            } else {
+                break;  // unpaired surrogate, replaced by the encoder
+            }
+            i++;
+        }
+        chars.position(i);
+        return written;
+    }
+
+    private boolean isUnpairedSurrogate(int i, int limit) {
+        char c = seq.charAt(i);
+        if (Character.isHighSurrogate(c)) {
+            return i + 1 == limit || !Character.isLowSurrogate(seq.charAt(i + 1));
+        }
+        return Character.isLowSurrogate(c);
+    }
+
+    private int nextSingleByte(int from, int limit) {
+        int i = from;
+        while (i < limit && seq.charAt(i) >= singleByteLimit) {
+            i++;
+        }
+        return i;
+    }
+
+    private long computeLength() throws CharacterCodingException {
+        if (singleByteLimit > 0) {
+            return countSingleByteCharsetLength();
+        }
+        CharsetEncoder counter = newEncoder(charset);
+        CharBuffer in = CharBuffer.wrap(seq);
+        ByteBuffer out = ByteBuffer.allocate(DEFAULT_BUFFER_SIZE);
+        long total = 0;
+        CoderResult result;
+        do {
+            result = counter.encode(in, out, true);
+            if (result.isError()) {
+                result.throwException();
+            }
+            total += out.position();
+            out.clear();
+        } while (result.isOverflow());
+        while (counter.flush(out).isOverflow()) {
+            total += out.position();
+            out.clear();
+        }
+        return total + out.position();
+    }
+
+    private long countSingleByteCharsetLength() {
+        int n = seq.length();
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            char c = seq.charAt(i);
+            if (c < singleByteLimit) {
+                total++;
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(seq.charAt(i + 1))) {
+                // a code point outside the BMP, replaced by a single byte if the charset can't encode it
+                total += utf8 ? 4 : 1;
+                i++;
+            } else if (!utf8 || Character.isSurrogate(c)) {
+                total++;    // unmappable or unpaired surrogate, replaced by '?'
+            } else {
+                total += c < 0x800 ? 2 : 3;
+            }
+        }
+        return total;
+    }
+
+    private static CharsetEncoder newEncoder(Charset charset) {
+        return charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    private static char singleByteLimit(Charset charset) {
+        if (charset.equals(StandardCharsets.ISO_8859_1)) {
+            return 0x100;
+        }
+        if (charset.equals(StandardCharsets.US_ASCII) || charset.equals(StandardCharsets.UTF_8)) {
+            return 0x80;
+        }
+        return 0;
+    }
+}
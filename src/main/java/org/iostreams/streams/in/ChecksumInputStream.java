@@ -0,0 +1,139 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.iostreams.streams.in;
+
+import org.iostreams.streams.checksum.Digest;
+
+import javax.annotation.Nonnull;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An input stream that computes checksums and message digests of the bytes read from the underlying stream.
+ * <p>
+ * Every {@link Digest} is updated with each chunk read, directly from the caller's array, so computing several
+ * algorithms costs a single pass over the data. Skipped bytes are read and digested. When closed, the digests with an
+ * expected value are verified and a mismatch fails the close with an {@link IOException}: the whole stream must be
+ * read for the verification to pass. Mark and reset are not supported.
+ *
+ * @author Yossi Shaul
+ */
+public class ChecksumInputStream extends FilterInputStream {
+
+    private static final int SKIP_BUFFER_SIZE = 8192;
+
+    private final Digest[] digests;
+    private boolean closed;
+
+    /**
+     * @param in      The underlying input stream
+     * @param digests Digests to compute over the bytes read
+     */
+    public ChecksumInputStream(InputStream in, Digest... digests) {
+        super(in);
+        if (digests.length == 0) {
+            throw new IllegalArgumentException("At least one digest is required");
+        }
+        this.digests = digests.clone();
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b >= 0) {
+            for (Digest digest : digests) {
+                digest.update(b);
+            }
+        }
+        return b;
+    }
+
+    @Override
+    public int read(@Nonnull byte[] b, int off, int len) throws IOException {
+        int n = in.read(b, off, len);
+        if (n > 0) {
+            for (Digest digest : digests) {
+                digest.update(b, off, n);
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Skips by reading the bytes, so they're included in the digests.
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        byte[] skipBuffer = new byte[(int) Math.min(n, SKIP_BUFFER_SIZE)];
+        long remaining = n;
+        int read;
+        while (remaining > 0 && (read = read(skipBuffer, 0, (int) Math.min(remaining, skipBuffer.length))) > 0) {
+            remaining -= read;
+        }
+        return n - remaining;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    /**
+     * Closes the underlying stream and verifies the digests that have an expected value.
+     *
+     * @throws IOException If closing the underlying stream failed or a digest doesn't match its expected value
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        in.close();
+        for (Digest digest : digests) {
+            digest.verify();
+        }
+    }
+
+    /**
+     * @return The first digest of the stream
+     */
+    public Digest getDigest() {
+        return digests[0];
+    }
+
+    /**
+     * @return The digests of the stream, in the order given to the constructor
+     */
+    public Digest[] getDigests() {
+        return digests.clone();
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.in;
+
+import org.iostreams.streams.pipe.ChunkPipe;
+import org.iostreams.streams.pipe.Pipe;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * An {@link OutputToInputStream} that passes whole buffers from the writer thread to the reader.
+ * <p>
+ * The writer fills pooled {@link ByteBuffer} chunks which are handed to the reader through a bounded queue, so each
+ * byte is copied once instead of twice. Readers that can work with buffers directly should use {@link #readChunk()}
+ * and {@link #release(ByteBuffer)} and avoid the copy into the reader's array altogether:
+ * <pre>
+ * ByteBuffer chunk;
+ * while ((chunk = in.readChunk()) != null) {
+ *     channel.write(chunk);
+ *     in.release(chunk);
+ * }
+ * </pre>
+ * The chunk is published to the reader when it is full, when the writer flushes the sink and when the sink is closed.
+ *
+ * @author Yossi Shaul
+ */
+public abstract class ChunkedOutputToInputStream extends OutputToInputStream {
+
+    private final int chunkSize;
+    private final int maxChunks;
+    private final boolean direct;
+
+    private ChunkPipe pipe;
+
+    /**
+     * Create new <code>ChunkedOutputToInputStream</code> with 4 heap chunks of 64KB.
+     */
+    public ChunkedOutputToInputStream() {
+        super();
+        this.chunkSize = 65536;
+        this.maxChunks = 4;
+        this.direct = false;
+    }
+
+    /**
+     * Create new <code>ChunkedOutputToInputStream</code> with provided executor service for the writing thread.
+     *
+     * @param executor  User provided executor to execute the writing thread
+     * @param chunkSize The size, in bytes, of each chunk
+     * @param maxChunks Maximum number of chunks in use by the writer and the reader
+     */
+    public ChunkedOutputToInputStream(ExecutorService executor, int chunkSize, int maxChunks) {
+        this(executor, chunkSize, maxChunks, false);
+    }
+
+    /**
+     * Create new <code>ChunkedOutputToInputStream</code> with provided executor service for the writing thread.
+     *
+     * @param executor  User provided executor to execute the writing thread
+     * @param chunkSize The size, in bytes, of each chunk
+     * @param maxChunks Maximum number of chunks in use by the writer and the reader
+     * @param direct    Use direct buffers for the chunks
+     */
+    public ChunkedOutputToInputStream(ExecutorService executor, int chunkSize, int maxChunks, boolean direct) {
+        super(executor, chunkSize);
+        this.chunkSize = chunkSize;
+        this.maxChunks = maxChunks;
+        this.direct = direct;
+    }
+
+    /**
+     * Returns the next chunk written by the writer thread. Bytes are available between the position and the limit of
+     * the returned buffer. The chunk must be returned with {@link #release(ByteBuffer)} once consumed, otherwise the
+     * writer will eventually block waiting for a free chunk.
+     *
+     * @return The next chunk of data or null if the end of the stream is reached
+     * @throws IOException On failure to read or wrapped exception from the writer thread
+     */
+    @Nullable
+    public ByteBuffer readChunk() throws IOException {
+        source();
+        ByteBuffer chunk = pipe.readChunk();
+        checkForException(chunk == null ? -1 : chunk.remaining());
+        return chunk;
+    }
+
+    /**
+     * Returns a consumed chunk, obtained by {@link #readChunk()}, to the writer. Each chunk is released once.
+     *
+     * @param chunk The consumed chunk. Null is ignored
+     * @throws IllegalArgumentException If the chunk wasn't obtained from this stream or was already released
+     */
+    public void release(@Nullable ByteBuffer chunk) {
+        if (pipe == null) {
+            if (chunk != null) {
+                throw new IllegalArgumentException("Chunk not in use by this stream: " + chunk);
+            }
+            return;
+        }
+        pipe.release(chunk);
+    }
+
+    @Override
+    Pipe createPipe(int bufferSize) {
+        pipe = new ChunkPipe(chunkSize, maxChunks, direct);
+        return pipe;
+    }
+}
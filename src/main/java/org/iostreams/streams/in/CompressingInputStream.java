@@ -0,0 +1,432 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.iostreams.streams.in;
+
+import org.iostreams.streams.buffer.BufferAllocator;
+import org.iostreams.streams.compress.CompressionFormat;
+import org.iostreams.streams.concurrent.StreamExecutors;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+import java.util.zip.Deflater;
+
+/**
+ * An input stream that reads uncompressed bytes from the underlying stream and returns them compressed, in gzip or
+ * zlib format.
+ * <p>
+ * The data is split into blocks compressed in parallel by an executor, the way pigz does: each block is compressed
+ * with the last 32KB of the previous block as its dictionary, so the compression ratio stays close to a single
+ * stream, and ends with a sync flush so the compressed blocks are simply concatenated into one standard deflate
+ * stream, readable by {@link java.util.zip.GZIPInputStream} or any gzip tool. The underlying stream is read, and the
+ * checksum of the trailer computed, by the thread reading this stream; up to <code>parallelism</code> blocks are
+ * compressed ahead of the reader. Block buffers come from the {@link BufferAllocator#shared() shared allocator}.
+ * <p>
+ * Compressing in a pipeline, where a producer writes through an {@link OutputToInputStream}, moves the compression off
+ * the producer's thread and spreads it over several cores:
+ * <pre>
+ * InputStream gzipped = new CompressingInputStream(new OutputToInputStream() {...}, CompressionFormat.GZIP);
+ * </pre>
+ * Not thread-safe.
+ *
+ * @author Yossi Shaul
+ * @see DecompressingInputStream
+ */
+public class CompressingInputStream extends InputStream {
+
+    /**
+     * Default size of the blocks compressed in parallel, in bytes.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    private final InputStream in;
+    private final CompressionFormat format;
+    private final int level;
+    private final int blockSize;
+    private final int parallelism;
+    private final ExecutorService executor;
+    private final BufferAllocator allocator = BufferAllocator.shared();
+    private final Checksum checksum;
+    private final Queue<Block> blocks = new ArrayDeque<>();
+    // Deflaters of finished tasks, reused by the next ones
+    private final Queue<Deflater> deflaters = new ConcurrentLinkedQueue<>();
+
+    private long totalIn;
+    private boolean endOfInput;
+    private boolean started;
+    private boolean finished;
+    private boolean closed;
+    private Throwable failure;
+    // The block whose input is the dictionary of the next block to compress
+    private Block previous;
+    // The block being read by the caller, null while the header or trailer is
+    private Block current;
+    private byte[] output;
+    private int pos;
+    private int limit;
+
+    /**
+     * Creates a compressing stream with the default compression level and block size, compressing on the library's
+     * shared executor with as many blocks in parallel as there are processors.
+     *
+     * @param in     The uncompressed input
+     * @param format Format of the compressed stream
+     */
+    public CompressingInputStream(InputStream in, CompressionFormat format) {
+        this(in, format, Deflater.DEFAULT_COMPRESSION, DEFAULT_BLOCK_SIZE, Runtime.getRuntime().availableProcessors(),
+                StreamExecutors.defaultExecutor());
+    }
+
+    /**
+     * Creates a compressing stream.
+     *
+     * @param in          The uncompressed input
+     * @param format      Format of the compressed stream
+     * @param level       Compression level, 0-9 or {@link Deflater#DEFAULT_COMPRESSION}
+     * @param blockSize   Size of the blocks compressed in parallel, in bytes
+     * @param parallelism Maximum number of blocks compressed ahead of the reader
+     * @param executor    Executor running the compression tasks. Never shut down by this stream
+     */
+    public CompressingInputStream(InputStream in, CompressionFormat format, int level, int blockSize,
+                                  int parallelism, ExecutorService executor) {
+        if (level != Deflater.DEFAULT_COMPRESSION && (level < 0 || level > 9)) {
+            throw new IllegalArgumentException("Illegal compression level: " + level);
+        }
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Illegal block size: " + blockSize);
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Illegal parallelism: " + parallelism);
+        }
+        this.in = in;
+        this.format = format;
+        this.level = level;
+        this.blockSize = blockSize;
+        this.parallelism = parallelism;
+        this.executor = executor;
+        this.checksum = format == CompressionFormat.GZIP ? new CRC32() : new Adler32();
+    }
+
+    @Override
+    public int read() throws IOException {
+        while (pos == limit) {
+            if (!nextOutput()) {
+                return -1;
+            }
+        }
+        return output[pos++] & 0xff;
+    }
+
+    @Override
+    public int read(@Nonnull byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        while (pos == limit) {
+            if (!nextOutput()) {
+                return -1;
+            }
+        }
+        int n = Math.min(len, limit - pos);
+        System.arraycopy(output, pos, b, off, n);
+        pos += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return limit - pos;
+    }
+
+    /**
+     * Closes the underlying stream. Waits for the blocks being compressed to return their buffers.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            for (Block block : blocks) {
+                block.await();
+                block.release(allocator);
+            }
+            blocks.clear();
+            if (previous != null) {
+                previous.release(allocator);
+            }
+            if (current != null) {
+                current.release(allocator);
+            }
+            previous = current = null;
+            output = null;
+            pos = limit = 0;
+            Deflater deflater;
+            while ((deflater = deflaters.poll()) != null) {
+                deflater.end();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * @return Number of uncompressed bytes read from the underlying stream so far
+     */
+    public long getBytesIn() {
+        return totalIn;
+    }
+
+    /**
+     * Moves to the next chunk of compressed output: the header, the next compressed block or the trailer.
+     *
+     * @return False at the end of the stream
+     */
+    private boolean nextOutput() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (failure != null) {
+            throw new IOException("Compression failed", failure);
+        }
+        if (current != null) {
+            // the current block is no longer the dictionary of a block in flight, its output was read
+            current.releaseOutput(allocator);
+            current = null;
+        }
+        if (!started) {
+            started = true;
+            byte[] header = header();
+            setOutput(header, header.length);
+            return true;
+        }
+        fillPipeline();
+        Block next = blocks.poll();
+        if (next != null) {
+            current = next;
+            next.await();
+            if (next.failure != null) {
+                failure = next.failure;
+                throw new IOException("Compression failed", failure);
+            }
+            // the block before it was the dictionary of this one
+            if (next.dictionary != null) {
+                next.dictionary.releaseInput(allocator);
+            }
+            setOutput(next.output, next.outputLength);
+            return true;
+        }
+        if (!finished) {
+            finished = true;
+            if (previous != null) {
+                previous.releaseInput(allocator);
+            }
+            byte[] trailer = trailer();
+            setOutput(trailer, trailer.length);
+            return true;
+        }
+        return false;
+    }
+
+    private void setOutput(byte[] bytes, int length) {
+        output = bytes;
+        pos = 0;
+        limit = length;
+    }
+
+    /**
+     * Reads and submits blocks until <code>parallelism</code> blocks are in flight or the input ended. The last block
+     * submitted finishes the deflate stream, it is empty if the input ends at a block boundary.
+     */
+    private void fillPipeline() throws IOException {
+        while (!endOfInput && blocks.size() < parallelism) {
+            ByteBuffer input = allocator.acquire(blockSize);
+            int length;
+            try {
+                length = readBlock(input.array());
+            } catch (IOException | RuntimeException e) {
+                allocator.release(input);
+                throw e;
+            }
+            checksum.update(input.array(), 0, length);
+            totalIn += length;
+            endOfInput = length < blockSize;
+            Block block = new Block(input, length, endOfInput, previous);
+            try {
+                block.future = executor.submit(() -> compress(block));
+            } catch (RuntimeException e) {
+                allocator.release(input);
+                throw e;
+            }
+            previous = block;
+            blocks.add(block);
+        }
+    }
+
+    private int readBlock(byte[] b) throws IOException {
+        int n = 0;
+        int read;
+        while (n < blockSize && (read = in.read(b, n, blockSize - n)) >= 0) {
+            n += read;
+        }
+        return n;
+    }
+
+    private void compress(Block block) {
+        Deflater deflater = deflaters.poll();
+        if (deflater == null) {
+            deflater = new Deflater(level, true);
+        }
+        try {
+            if (block.dictionary != null) {
+                Block dictionary = block.dictionary;
+                int length = Math.min(DICTIONARY_SIZE, dictionary.inputLength);
+                deflater.setDictionary(dictionary.input.array(), dictionary.inputLength - length, length);
+            }
+            deflater.setInput(block.input.array(), 0, block.inputLength);
+            // comfortably above the worst case expansion of deflate
+            ByteBuffer pooled = allocator.acquire(block.inputLength + (block.inputLength >> 3) + 64);
+            block.pooledOutput = pooled;
+            byte[] out = pooled.array();
+            int n = 0;
+            if (block.last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    out = ensureSpace(out, n);
+                    n += deflater.deflate(out, n, out.length - n);
+                }
+            } else {
+                // a sync flush byte-aligns the block; a full output buffer means there may be more to flush
+                do {
+                    out = ensureSpace(out, n);
+                    n += deflater.deflate(out, n, out.length - n, Deflater.SYNC_FLUSH);
+                } while (n == out.length);
+            }
+            block.output = out;
+            block.outputLength = n;
+        } catch (RuntimeException | Error e) {
+            block.failure = e;
+        } finally {
+            deflater.reset();
+            deflaters.add(deflater);
+        }
+    }
+
+    private static byte[] ensureSpace(byte[] out, int n) {
+        // not expected, continues in a larger array, the allocator's buffer is still released with the block
+        return n < out.length ? out : Arrays.copyOf(out, out.length * 2);
+    }
+
+    private byte[] header() {
+        if (format == CompressionFormat.GZIP) {
+            // magic, deflate, no flags, no modification time, extra flags, unknown OS
+            int xfl = level == 9 ? 2 : level == 1 ? 4 : 0;
+            return new byte[]{0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, (byte) xfl, (byte) 0xff};
+        }
+        // 32K window deflate, the level hint with the check bits making the header a multiple of 31
+        int flevel = level == Deflater.DEFAULT_COMPRESSION || level == 6 ? 2 : level < 2 ? 0 : level < 6 ? 1 : 3;
+        int cmf = 0x78;
+        int flg = flevel << 6;
+        flg += 31 - (cmf << 8 | flg) % 31;
+        return new byte[]{(byte) cmf, (byte) flg};
+    }
+
+    private byte[] trailer() {
+        long check = checksum.getValue();
+        if (format == CompressionFormat.GZIP) {
+            // little-endian CRC-32 and size modulo 2^32
+            return new byte[]{(byte) check, (byte) (check >>> 8), (byte) (check >>> 16), (byte) (check >>> 24),
+                    (byte) totalIn, (byte) (totalIn >>> 8), (byte) (totalIn >>> 16), (byte) (totalIn >>> 24)};
+        }
+        // big-endian Adler-32
+        return new byte[]{(byte) (check >>> 24), (byte) (check >>> 16), (byte) (check >>> 8), (byte) check};
+    }
+
+    private static class Block {
+        private final ByteBuffer input;
+        private final int inputLength;
+        private final boolean last;
+        private Block dictionary;
+        private Future<?> future;
+        private ByteBuffer pooledInput;
+        // Written by the compression task, read after waiting for its future
+        private ByteBuffer pooledOutput;
+        private byte[] output;
+        private int outputLength;
+        private Throwable failure;
+
+        private Block(ByteBuffer input, int inputLength, boolean last, @Nullable Block dictionary) {
+            this.input = input;
+            this.pooledInput = input;
+            this.inputLength = inputLength;
+            this.last = last;
+            this.dictionary = dictionary;
+        }
+
+        private void await() throws IOException {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for compression");
+            } catch (ExecutionException e) {
+                failure = e.getCause();
+            }
+        }
+
+        private void releaseInput(BufferAllocator allocator) {
+            if (pooledInput != null) {
+                allocator.release(pooledInput);
+                pooledInput = null;
+            }
+        }
+
+        private void releaseOutput(BufferAllocator allocator) {
+            dictionary = null;
+            if (pooledOutput != null) {
+                allocator.release(pooledOutput);
+                pooledOutput = null;
+            }
+            output = null;
+        }
+
+        private void release(BufferAllocator allocator) {
+            releaseInput(allocator);
+            releaseOutput(allocator);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.iostreams.streams.in;
+
+import org.iostreams.streams.compress.CompressionFormat;
+import org.iostreams.streams.concurrent.StreamExecutors;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * An input stream that reads a gzip or zlib compressed stream and returns the uncompressed bytes, the reverse of
+ * {@link CompressingInputStream}.
+ * <p>
+ * Inflating a deflate stream is inherently sequential, since every block may refer to the data before it, so it
+ * can't be split between cores. Instead the stream is read and inflated on a background thread, ahead of the reader,
+ * and handed over through the pipe of an {@link OutputToInputStream}: the reader's own processing overlaps with the
+ * decompression. Concatenated gzip members are read as one stream.
+ * <p>
+ * The compressed input is read and closed only by the decompressing thread, once it finishes. If the stream is closed
+ * before the decompression started, the decompression never starts and the compressed input is closed by
+ * {@link #close()}.
+ *
+ * @author Yossi Shaul
+ */
+public class DecompressingInputStream extends OutputToInputStream {
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream in;
+    private final CompressionFormat format;
+    // Claimed by the writer or by close(), whichever comes first, the other leaves the compressed input alone
+    private final AtomicBoolean inputClaimed = new AtomicBoolean();
+
+    /**
+     * Creates a decompressing stream inflating on the library's shared executor.
+     *
+     * @param in     The compressed input
+     * @param format Format of the compressed input
+     */
+    public DecompressingInputStream(InputStream in, CompressionFormat format) {
+        this(in, format, StreamExecutors.defaultExecutor(), DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a decompressing stream.
+     *
+     * @param in         The compressed input
+     * @param format     Format of the compressed input
+     * @param executor   Executor running the decompression. Never shut down by this stream
+     * @param bufferSize Size of the buffer between the decompressing thread and the reader
+     */
+    public DecompressingInputStream(InputStream in, CompressionFormat format, ExecutorService executor,
+                                    int bufferSize) {
+        super(executor, bufferSize);
+        this.in = in;
+        this.format = format;
+    }
+
+    @Override
+    protected void write(OutputStream sink) throws IOException {
+        if (!inputClaimed.compareAndSet(false, true)) {
+            // closed before the decompression started
+            sink.close();
+            return;
+        }
+        // closes the compressed input even if its header can't be read
+        try (InputStream compressed = in; OutputStream out = sink) {
+            inflate(compressed, out);
+        }
+    }
+
+    /**
+     * Closes the pipe. The compressed input is closed here only if the decompression didn't start, otherwise the
+     * decompressing thread closes it when it finishes.
+     *
+     * @throws IOException On failure to close the streams or wrapped exception from the decompressing thread
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            if (inputClaimed.compareAndSet(false, true)) {
+                in.close();
+            }
+        }
+    }
+
+    private void inflate(InputStream compressed, OutputStream out) throws IOException {
+        if (format == CompressionFormat.GZIP) {
+            try (InputStream inflating = new GZIPInputStream(compressed, DEFAULT_BUFFER_SIZE)) {
+                inflating.transferTo(out);
+            }
+            return;
+        }
+        // an inflater given to the stream isn't released by it
+        Inflater inflater = new Inflater();
+        try (InputStream inflating = new InflaterInputStream(compressed, inflater, DEFAULT_BUFFER_SIZE)) {
+            inflating.transferTo(out);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.in;
+
+import javax.annotation.Nonnull;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An input stream over a {@link FileChannel} that deletes the underlying file when the stream is closed.
+ * <p>
+ * A {@link FileChannel} based alternative to {@link DeleteOnCloseFileInputStream} for streaming large temporary files:
+ * {@link #transferTo(WritableByteChannel)} lets the operating system copy the file to a socket or another file without
+ * passing the bytes through the JVM, and files up to a threshold may be memory mapped so reads are plain memory
+ * copies.
+ * <p>
+ * When opened with the {@link StandardOpenOption#DELETE_ON_CLOSE} option the operating system removes the file even if
+ * the process dies before the stream is closed (on Unix the file is unlinked right after it is opened, so it is no
+ * longer visible by name). On Windows a memory mapped file can't be deleted until the mapping is garbage collected.
+ *
+ * @author Yossi Shaul
+ */
+public class DeleteOnCloseChannelInputStream extends InputStream {
+    private static final Logger log = Logger.getLogger(DeleteOnCloseChannelInputStream.class.getName());
+
+    private final Path file;
+    private final FileChannel channel;
+    // The whole file when it is memory mapped, null otherwise
+    private final MappedByteBuffer mapped;
+    private final ByteBuffer singleByte = ByteBuffer.allocate(1);
+    private boolean closed;
+
+    /**
+     * Creates and opens a new input stream reading the file with its channel.
+     *
+     * @param file The file to be opened
+     * @throws IOException If the file does not exist or cannot be opened
+     */
+    public DeleteOnCloseChannelInputStream(@Nonnull Path file) throws IOException {
+        this(file, 0, false);
+    }
+
+    /**
+     * Creates and opens a new input stream.
+     *
+     * @param file                The file to be opened
+     * @param mapThreshold        Files up to this size, in bytes, are memory mapped. 0 to never map
+     * @param deleteOnCloseOption Open the file with {@link StandardOpenOption#DELETE_ON_CLOSE} so it is removed even
+     *                            if the stream is never closed
+     * @throws IOException If the file does not exist or cannot be opened
+     */
+    public DeleteOnCloseChannelInputStream(@Nonnull Path file, long mapThreshold, boolean deleteOnCloseOption)
+            throws IOException {
+        this.file = file;
+        this.channel = deleteOnCloseOption ?
+                FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.DELETE_ON_CLOSE) :
+                FileChannel.open(file, StandardOpenOption.READ);
+        MappedByteBuffer map = null;
+        try {
+            long size = channel.size();
+            if (size > 0 && size <= mapThreshold && size <= Integer.MAX_VALUE) {
+                map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        this.mapped = map;
+    }
+
+    @Override
+    public int read() throws IOException {
+        ensureOpen();
+        if (mapped != null) {
+            return mapped.hasRemaining() ? mapped.get() & 0xff : -1;
+        }
+        singleByte.clear();
+        int n;
+        do {
+            n = channel.read(singleByte);
+        } while (n == 0);
+        return n < 0 ? -1 : singleByte.get(0) & 0xff;
+    }
+
+    @Override
+    public int read(@Nonnull byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (mapped != null) {
+            int n = Math.min(len, mapped.remaining());
+            if (n == 0) {
+                return -1;
+            }
+            mapped.get(b, off, n);
+            return n;
+        }
+        return channel.read(ByteBuffer.wrap(b, off, len));
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        ensureOpen();
+        if (n <= 0) {
+            return 0;
+        }
+        long position = position();
+        long skipped = Math.min(n, channel.size() - position);
+        if (skipped <= 0) {
+            return 0;
+        }
+        position(position + skipped);
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        ensureOpen();
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0, channel.size() - position()));
+    }
+
+    /**
+     * Writes the rest of the file to the target channel. The file channel transfers the bytes with the operating
+     * system's zero-copy facilities (e.g. sendfile) when the target supports it.
+     *
+     * @param target The channel to write to
+     * @return Number of bytes transferred
+     * @throws IOException If an I/O error occurs
+     */
+    public long transferTo(@Nonnull WritableByteChannel target) throws IOException {
+        ensureOpen();
+        if (mapped != null) {
+            long transferred = 0;
+            while (mapped.hasRemaining()) {
+                transferred += target.write(mapped);
+            }
+            return transferred;
+        }
+        long position = channel.position();
+        long size = channel.size();
+        long transferred = 0;
+        while (position + transferred < size) {
+            long n = channel.transferTo(position + transferred, size - position - transferred, target);
+            if (n <= 0) {
+                break;  // the file was truncated
+            }
+            transferred += n;
+        }
+        channel.position(position + transferred);
+        return transferred;
+    }
+
+    /**
+     * Writes the rest of the file to the output stream, channel to channel if the output stream is a
+     * {@link FileOutputStream}.
+     */
+    @Override
+    public long transferTo(OutputStream out) throws IOException {
+        if (out instanceof FileOutputStream) {
+            return transferTo(((FileOutputStream) out).getChannel());
+        }
+        return super.transferTo(out);
+    }
+
+    /**
+     * Returns the channel of the file, for positional reads and other NIO operations. Reading from the channel or
+     * changing its position affects this stream, unless the file is memory mapped.
+     *
+     * @return The channel of the file
+     */
+    public FileChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * @return True if the file is memory mapped
+     */
+    public boolean isMapped() {
+        return mapped != null;
+    }
+
+    /**
+     * Closes this stream and deletes the underlying file.
+     *
+     * @throws IOException If an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        channel.close();
+        try {
+            boolean deleted = Files.deleteIfExists(file);
+            if (log.isLoggable(Level.FINE)) {
+                log.log(Level.FINE, "{0}  ''{1}''", new Object[]{deleted ? "Deleted" : "Already deleted", file});
+            }
+        } catch (IOException e) {
+            // like the file stream, a file that can't be deleted doesn't fail the close
+            log.log(Level.FINE, "Failed deleting '" + file + "'", e);
+        }
+    }
+
+    private long position() throws IOException {
+        return mapped != null ? mapped.position() : channel.position();
+    }
+
+    private void position(long position) throws IOException {
+        if (mapped != null) {
+            mapped.position((int) position);
+        } else {
+            channel.position(position);
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
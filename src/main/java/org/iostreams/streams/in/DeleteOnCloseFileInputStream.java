@@ -16,7 +16,10 @@
 
 package org.iostreams.streams.in;
 
+import org.iostreams.streams.file.FileDeleter;
+
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -26,6 +29,9 @@ import java.util.logging.Logger;
 
 /**
  * A {@link java.io.FileInputStream} that deletes the underlying file when this file stream is closed.
+ * <p>
+ * The file is deleted on the closing thread, or queued to a {@link FileDeleter} so closing costs only the close of the
+ * file descriptor.
  *
  * @author Yossi Shaul
  */
@@ -33,6 +39,8 @@ public class DeleteOnCloseFileInputStream extends FileInputStream {
     private static final Logger log = Logger.getLogger(DeleteOnCloseFileInputStream.class.getName());
 
     private final File file;
+    private final FileDeleter deleter;
+    private boolean closed;
 
     /**
      * Creates and opens a new file input stream.
@@ -41,21 +49,44 @@ public class DeleteOnCloseFileInputStream extends FileInputStream {
      * @throws FileNotFoundException if the file does not exist, is a directory rather than a regular file, or for some other reason cannot be opened
      */
     public DeleteOnCloseFileInputStream(@Nonnull File file) throws FileNotFoundException {
+        this(file, null);
+    }
+
+    /**
+     * Creates and opens a new file input stream whose file is deleted by a deleter.
+     *
+     * @param file    The file to be opened
+     * @param deleter Deletes the file once closed. Null to delete it on the closing thread
+     * @throws FileNotFoundException if the file does not exist, is a directory rather than a regular file, or for some other reason cannot be opened
+     */
+    public DeleteOnCloseFileInputStream(@Nonnull File file, @Nullable FileDeleter deleter)
+            throws FileNotFoundException {
         super(file);
         this.file = file;
+        this.deleter = deleter;
     }
 
     /**
-     * Closes this file input stream and deletes the underlying file.
+     * Closes this file input stream and deletes the underlying file, or queues it to the deleter. Closing twice is
+     * ignored.
      *
      * @throws IOException If an I/O error occurs
      */
     @Override
     public void close() throws IOException {
         super.close();
-        log.log(Level.FINE, "Deleting ''{0}'' on close", file.getAbsolutePath());
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (deleter != null) {
+            deleter.delete(file.toPath());
+            return;
+        }
         boolean deleted = file.delete();
-        log.log(Level.FINE, "{0}  ''{1}''",
-                new String[]{deleted ? "Deleted" : "Failed deleting", file.getAbsolutePath()});
+        if (log.isLoggable(Level.FINE)) {
+            log.log(Level.FINE, "{0}  ''{1}''",
+                    new String[]{deleted ? "Deleted" : "Failed deleting", file.getAbsolutePath()});
+        }
     }
 }
\ No newline at end of file
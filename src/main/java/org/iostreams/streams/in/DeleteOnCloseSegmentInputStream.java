@@ -0,0 +1,246 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.in;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An input stream reading one range of a file, part of a set of streams splitting the file between them. The file is
+ * deleted when the last stream of the set is closed.
+ * <p>
+ * A companion of {@link DeleteOnCloseFileInputStream} for huge temporary files that a single sequential reader can't
+ * consume fast enough. {@link #split(Path, int)} opens the file once and returns consecutive ranges covering it, each
+ * read with positional reads ({@link FileChannel#read(ByteBuffer, long)}) of the shared channel, so separate threads
+ * can read their ranges at the same time without coordinating:
+ * <pre>
+ * List&lt;DeleteOnCloseSegmentInputStream&gt; segments = DeleteOnCloseSegmentInputStream.split(file, 8);
+ * for (DeleteOnCloseSegmentInputStream segment : segments) {
+ *     executor.execute(() -&gt; ingest(segment));    // ingest closes the segment
+ * }
+ * </pre>
+ * The ranges split the file by size, a caller parsing records has to handle the records crossing a range boundary.
+ * <p>
+ * The channel is shared: interrupting a thread blocked reading any of the streams closes the channel, and the other
+ * streams of the set fail with a <code>ClosedChannelException</code>. Each stream is meant for a single thread.
+ *
+ * @author Yossi Shaul
+ */
+public class DeleteOnCloseSegmentInputStream extends InputStream {
+    private static final Logger log = Logger.getLogger(DeleteOnCloseSegmentInputStream.class.getName());
+
+    private final SharedFile shared;
+    private final long start;
+    private final long end;
+    private long position;
+    private boolean closed;
+
+    private final byte[] singleByte = new byte[1];
+    // Wraps the last array read into, callers usually read into the same array
+    private byte[] wrappedArray;
+    private ByteBuffer wrapped;
+
+    private DeleteOnCloseSegmentInputStream(SharedFile shared, long start, long end) {
+        this.shared = shared;
+        this.start = start;
+        this.end = end;
+        this.position = start;
+    }
+
+    /**
+     * Opens a file and splits it into consecutive ranges of about the same size. Fewer ranges than requested are
+     * returned if the file has fewer bytes, and a single empty range if it is empty.
+     *
+     * @param file     The file to read and delete
+     * @param segments Number of ranges to split the file into
+     * @return Streams reading the ranges, in file order. The file is deleted once all of them are closed
+     * @throws IOException If the file does not exist or cannot be opened
+     */
+    public static List<DeleteOnCloseSegmentInputStream> split(@Nonnull Path file, int segments) throws IOException {
+        if (segments <= 0) {
+            throw new IllegalArgumentException("Illegal number of segments: " + segments);
+        }
+        FileChannel channel = FileChannel.open(file);
+        long size;
+        try {
+            size = channel.size();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        int count = size == 0 ? 1 : (int) Math.min(segments, size);
+        SharedFile shared = new SharedFile(file, channel, count);
+        List<DeleteOnCloseSegmentInputStream> streams = new ArrayList<>(count);
+        long length = size / count;
+        long remainder = size % count;
+        long start = 0;
+        for (int i = 0; i < count; i++) {
+            // the first ranges take one more byte each until the remainder is used
+            long end = start + length + (i < remainder ? 1 : 0);
+            streams.add(new DeleteOnCloseSegmentInputStream(shared, start, end));
+            start = end;
+        }
+        return Collections.unmodifiableList(streams);
+    }
+
+    @Override
+    public int read() throws IOException {
+        return read(singleByte, 0, 1) == -1 ? -1 : singleByte[0] & 0xff;
+    }
+
+    @Override
+    public int read(@Nonnull byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        checkOpen();
+        if (len == 0) {
+            return 0;
+        }
+        if (position >= end) {
+            return -1;
+        }
+        if (b != wrappedArray) {
+            wrapped = ByteBuffer.wrap(b);
+            wrappedArray = b;
+        }
+        wrapped.limit(off + (int) Math.min(len, end - position)).position(off);
+        int read = shared.channel.read(wrapped, position);
+        if (read == -1) {
+            // the file was truncated
+            return -1;
+        }
+        position += read;
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        checkOpen();
+        if (n <= 0) {
+            return 0;
+        }
+        long skipped = Math.min(n, end - position);
+        position += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        checkOpen();
+        return (int) Math.min(Integer.MAX_VALUE, end - position);
+    }
+
+    /**
+     * Transfers the rest of the range to a channel, letting the operating system copy the bytes directly when the
+     * target is a file or a socket.
+     *
+     * @param target The channel to write to
+     * @return Number of bytes transferred
+     * @throws IOException If an I/O error occurs
+     */
+    public long transferTo(@Nonnull WritableByteChannel target) throws IOException {
+        checkOpen();
+        long transferred = 0;
+        while (position < end) {
+            long n = shared.channel.transferTo(position, end - position, target);
+            if (n <= 0) {
+                break;  // the file was truncated
+            }
+            position += n;
+            transferred += n;
+        }
+        return transferred;
+    }
+
+    /**
+     * @return Position in the file of the first byte of the range
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * @return Number of bytes in the range
+     */
+    public long getLength() {
+        return end - start;
+    }
+
+    /**
+     * Closes this stream. The file is closed and deleted if all the other streams of the set are closed.
+     *
+     * @throws IOException If the file can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        shared.release();
+    }
+
+    private void checkOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    /**
+     * The file shared by the streams of a set, deleted when the last stream releases it.
+     */
+    private static class SharedFile {
+        private final Path file;
+        private final FileChannel channel;
+        private final AtomicInteger references;
+
+        SharedFile(Path file, FileChannel channel, int references) {
+            this.file = file;
+            this.channel = channel;
+            this.references = new AtomicInteger(references);
+        }
+
+        void release() throws IOException {
+            if (references.decrementAndGet() != 0) {
+                return;
+            }
+            channel.close();
+            try {
+                boolean deleted = Files.deleteIfExists(file);
+                if (log.isLoggable(Level.FINE)) {
+                    log.log(Level.FINE, "{0}  ''{1}''", new Object[]{deleted ? "Deleted" : "Already deleted", file});
+                }
+            } catch (IOException e) {
+                // like the file stream, a file that can't be deleted doesn't fail the close
+                log.log(Level.FINE, "Failed deleting '" + file + "'", e);
+            }
+        }
+    }
+}
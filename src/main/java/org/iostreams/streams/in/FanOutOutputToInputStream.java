@@ -0,0 +1,202 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.in;
+
+import org.iostreams.streams.concurrent.StreamExecutors;
+import org.iostreams.streams.pipe.BroadcastPipe;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Like {@link OutputToInputStream}, but the output is read by several independent input streams: the writer runs once
+ * and every input stream reads all of its output.
+ * <pre>
+ * FanOutOutputToInputStream fanOut = new FanOutOutputToInputStream(2) {
+ *     protected void write(OutputStream sink) throws IOException {
+ *         serializer.writeTo(sink);
+ *     }
+ * };
+ * upload(fanOut.getInputStream(0));       // reads on its own thread
+ * checksum(fanOut.getInputStream(1));
+ * </pre>
+ * The input streams share a {@link BroadcastPipe}, so the memory used is bounded by the buffer size and the writer
+ * runs at the pace of the slowest input stream. Each input stream must be read by its own thread and closed when
+ * done; an input stream that is neither read nor closed blocks the others once the buffer fills up. The writer starts
+ * when any of the input streams is first read and every input stream reports a failure of the writer, like
+ * {@link OutputToInputStream} does.
+ *
+ * @author Yossi Shaul
+ */
+public abstract class FanOutOutputToInputStream {
+    private static final Logger log = Logger.getLogger(FanOutOutputToInputStream.class.getName());
+
+    private final ExecutorService executor;
+    private final BroadcastPipe pipe;
+    private final List<InputStream> inputStreams;
+
+    private volatile Future<Void> writerFuture;
+
+    /**
+     * Creates a new fan-out with the writing thread taken from the library's shared executor.
+     *
+     * @param readers Number of input streams
+     */
+    public FanOutOutputToInputStream(int readers) {
+        this(readers, StreamExecutors.defaultExecutor(), 64 * 1024);
+    }
+
+    /**
+     * Creates a new fan-out.
+     *
+     * @param readers    Number of input streams
+     * @param executor   User provided executor to execute the writing thread
+     * @param bufferSize The size of the buffer shared by the input streams. Rounded up to the next power of two
+     */
+    public FanOutOutputToInputStream(int readers, ExecutorService executor, int bufferSize) {
+        this.executor = executor;
+        this.pipe = new BroadcastPipe(bufferSize, readers);
+        List<InputStream> streams = new ArrayList<>(readers);
+        for (int i = 0; i < readers; i++) {
+            streams.add(new Reader(pipe.source(i)));
+        }
+        this.inputStreams = Collections.unmodifiableList(streams);
+    }
+
+    /**
+     * Write to the provided output stream. Implementation should close the sink when finished writing.
+     *
+     * @param sink The provided output stream which is piped to all the input streams
+     * @throws IOException On any I/O error or if all the input streams are closed
+     */
+    protected abstract void write(OutputStream sink) throws IOException;
+
+    /**
+     * @param index Index of the input stream, from 0 to {@link #getReaderCount()} - 1
+     * @return The input stream
+     */
+    public InputStream getInputStream(int index) {
+        return inputStreams.get(index);
+    }
+
+    /**
+     * @return All the input streams
+     */
+    public List<InputStream> getInputStreams() {
+        return inputStreams;
+    }
+
+    /**
+     * @return Number of input streams
+     */
+    public int getReaderCount() {
+        return inputStreams.size();
+    }
+
+    private Future<Void> startWriter() {
+        Future<Void> future = writerFuture;
+        if (future == null) {
+            synchronized (this) {
+                future = writerFuture;
+                if (future == null) {
+                    log.fine("Starting fan-out writer");
+                    final OutputStream sink = pipe.sink();
+                    writerFuture = future = executor.submit(() -> {
+                        try {
+                            write(sink);
+                            return null;
+                        } finally {
+                            try {
+                                sink.close();
+                            } catch (IOException e) {
+                                log.log(Level.FINE, "Failed to close piped output stream", e);
+                            }
+                        }
+                    });
+                }
+            }
+        }
+        return future;
+    }
+
+    private class Reader extends InputStream {
+        private final InputStream source;
+        private boolean resultChecked;
+
+        Reader(InputStream source) {
+            this.source = source;
+        }
+
+        @Override
+        public int read() throws IOException {
+            Future<Void> writer = startWriter();
+            int read = source.read();
+            checkForException(writer, read);
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            Future<Void> writer = startWriter();
+            int read = source.read(b, off, len);
+            checkForException(writer, read);
+            return read;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return source.available();
+        }
+
+        /**
+         * Closes the input stream so it no longer holds back the writer. If the writer has finished with an exception,
+         * throws an <code>IOException</code> wrapping it.
+         *
+         * @throws IOException Wrapped exception from the writer thread
+         */
+        @Override
+        public void close() throws IOException {
+            source.close();
+            Future<Void> writer = writerFuture;
+            if (writer != null && writer.isDone()) {
+                checkForException(writer, -1);
+            }
+        }
+
+        private void checkForException(Future<Void> writer, int read) throws IOException {
+            if ((read < 0 || writer.isDone()) && !resultChecked) {
+                try {
+                    resultChecked = true;   // prevent throwing again when the stream is closed
+                    writer.get();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                } catch (ExecutionException e) {
+                    throw new IOException(e.getCause() != null ? e.getCause() : e);
+                }
+            }
+        }
+    }
+}
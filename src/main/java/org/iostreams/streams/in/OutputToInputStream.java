@@ -16,8 +16,15 @@
 
 package org.iostreams.streams.in;
 
+import org.iostreams.streams.buffer.BufferAllocator;
+import org.iostreams.streams.concurrent.StreamExecutors;
+import org.iostreams.streams.pipe.Pipe;
+import org.iostreams.streams.pipe.PipeSizing;
+import org.iostreams.streams.pipe.RingBufferPipe;
+
 import java.io.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -25,33 +32,59 @@ import java.util.logging.Logger;
  * An input stream created on-the-fly from an output stream.
  * The thread writing to the output stream and the thread reading from the input stream should be different. This
  * implementation creates and manages the thread writing to the output stream.
+ * <p>
+ * The pipe's buffer is taken from the {@link BufferAllocator#shared() shared allocator} and returned to it once the
+ * stream is closed and the writer finished.
+ * <p>
+ * A reader that stops early and closes the stream makes the writer's next write fail. A writer that spends its time
+ * elsewhere, computing or blocked on its own input, can be interrupted on close with
+ * {@link #setCancelWriterOnClose(boolean)} or check {@link #isClosed()} itself, and {@link #setCloseTimeout} bounds
+ * how long close waits for it. {@link #setReadTimeout} bounds how long a read waits for a stalled writer. Writers
+ * abandoned by their readers are counted, see {@link #abandonedWriters()}.
  *
  * @author Yossi Shaul
  */
 public abstract class OutputToInputStream extends InputStream {
     private static final Logger log = Logger.getLogger(OutputToInputStream.class.getName());
 
+    private static final LongAdder abandoned = new LongAdder();
+    private static final LongAdder cancelled = new LongAdder();
+    private static final LongAdder unfinished = new LongAdder();
+
     // Executor service for the writer thread
     private final ExecutorService executor;
     // Size of the pipe's buffer
     private final int bufferSize;
-    // Shutdown the internally created thread pool
-    private boolean shutdownPool;
+    // Bounds of an adaptive pipe's buffer, null if the size is fixed
+    private final PipeSizing sizing;
+
+    private long readTimeoutNanos;
+    private long closeTimeoutNanos;
+    private boolean cancelWriterOnClose;
 
-    private PipedInputStream pipedInputStream;
+    private InputStream pipedInputStream;
+    private OutputStream pipedOutputStream;
     private Future writerFuture;
     private boolean resultChecked;
+    private volatile boolean closed;
+
+    // Guards the writer thread so it is interrupted only while running the writer
+    private final Object writerLock = new Object();
+    private Thread writerThread;
+    private boolean writerStarted;
+    private boolean writerInterrupted;
 
     /**
-     * Create new <code>OutputToInputStream</code>.
+     * Create new <code>OutputToInputStream</code>. The writing thread is taken from the library's shared executor, see
+     * {@link StreamExecutors#defaultExecutor()}.
      */
     public OutputToInputStream() {
-        this(Executors.newSingleThreadExecutor());
-        shutdownPool = true;
+        this(StreamExecutors.defaultExecutor());
     }
 
     /**
-     * Create new <code>OutputToInputStream</code> with provided executor service for the writing thread.
+     * Create new <code>OutputToInputStream</code> with provided executor service for the writing thread. The executor
+     * is never shut down by this stream.
      *
      * @param executor User provided executor to execute the writing thread
      */
@@ -63,11 +96,94 @@ public abstract class OutputToInputStream extends InputStream {
      * Create new <code>OutputToInputStream</code> with provided executor service for the writing thread.
      *
      * @param executor   User provided executor to execute the writing thread
-     * @param bufferSize The size of the buffer used by the input and output streams
+     * @param bufferSize The size of the buffer used by the input and output streams. Rounded up to the next power of
+     *                   two
      */
     public OutputToInputStream(ExecutorService executor, int bufferSize) {
         this.executor = executor;
         this.bufferSize = bufferSize;
+        this.sizing = null;
+    }
+
+    /**
+     * Create new <code>OutputToInputStream</code> whose pipe adapts its buffer size to the traffic. The buffer starts
+     * with the minimum size of the sizing and grows when the writer and the reader keep waiting for each other or the
+     * writes are large, up to the maximum size. The sizing is usually shared by many streams and collects their
+     * statistics.
+     *
+     * @param executor User provided executor to execute the writing thread
+     * @param sizing   The bounds of the pipe's buffer size
+     */
+    public OutputToInputStream(ExecutorService executor, PipeSizing sizing) {
+        this.executor = executor;
+        this.bufferSize = sizing.getMinCapacity();
+        this.sizing = sizing;
+    }
+
+    /**
+     * Limits how long a read waits for the writer to produce data. A read that waits longer fails with an
+     * <code>InterruptedIOException</code>, the stream stays open. Must be called before the first read.
+     *
+     * @param timeout Maximum time to wait for data, 0 to wait forever (the default)
+     * @param unit    The unit of the timeout
+     * @throws IllegalStateException If the writer already started
+     */
+    public void setReadTimeout(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("Illegal read timeout: " + timeout);
+        }
+        if (pipedInputStream != null) {
+            throw new IllegalStateException("Read timeout must be set before the first read");
+        }
+        this.readTimeoutNanos = unit.toNanos(timeout);
+    }
+
+    /**
+     * Sets whether closing the stream before the writer finished interrupts the writer thread, or prevents it from
+     * starting if it is still queued in the executor. Off by default, in which case the writer runs until its next
+     * write fails because the pipe is closed.
+     *
+     * @param cancel True to interrupt the writer when the stream is closed early
+     */
+    public void setCancelWriterOnClose(boolean cancel) {
+        this.cancelWriterOnClose = cancel;
+    }
+
+    /**
+     * Limits how long {@link #close()} waits for a running writer to finish. By default close doesn't wait.
+     * Exceptions thrown by a writer after the stream was closed are expected and ignored.
+     *
+     * @param timeout Maximum time to wait for the writer, 0 not to wait (the default)
+     * @param unit    The unit of the timeout
+     */
+    public void setCloseTimeout(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("Illegal close timeout: " + timeout);
+        }
+        this.closeTimeoutNanos = unit.toNanos(timeout);
+    }
+
+    /**
+     * @return Number of writers, of all the streams, that were still running when their reader closed the stream
+     */
+    public static long abandonedWriters() {
+        return abandoned.sum();
+    }
+
+    /**
+     * @return Number of abandoned writers, of all the streams, that were interrupted or never started, see
+     * {@link #setCancelWriterOnClose(boolean)}
+     */
+    public static long cancelledWriters() {
+        return cancelled.sum();
+    }
+
+    /**
+     * @return Number of abandoned writers, of all the streams, still running when the close timeout elapsed, see
+     * {@link #setCloseTimeout(long, TimeUnit)}
+     */
+    public static long unfinishedWriters() {
+        return unfinished.sum();
     }
 
     /**
@@ -78,15 +194,21 @@ public abstract class OutputToInputStream extends InputStream {
      */
     protected abstract void write(OutputStream sink) throws IOException;
 
+    /**
+     * Lets a writer that does a lot of work between writes stop once nobody is going to read its output.
+     *
+     * @return True if the reader closed the stream
+     */
+    protected boolean isClosed() {
+        return closed;
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public int read() throws IOException {
-        if (pipedInputStream == null) {
-            initializePipedStream();
-        }
-        int read = pipedInputStream.read();
+        int read = source().read();
         checkForException(read);
         return read;
     }
@@ -96,10 +218,7 @@ public abstract class OutputToInputStream extends InputStream {
      */
     @Override
     public int read(byte[] b, int off, int len) throws IOException {
-        if (pipedInputStream == null) {
-            initializePipedStream();
-        }
-        int read = pipedInputStream.read(b, off, len);
+        int read = source().read(b, off, len);
         checkForException(read);
         return read;
     }
@@ -107,12 +226,15 @@ public abstract class OutputToInputStream extends InputStream {
     /**
      * Closes the input stream. <p>
      * If the writer thread has finished by the time close is called and it resulted in exception, this method will
-     * throw an <code>IOException</code> wrapping the exception of the writer.
+     * throw an <code>IOException</code> wrapping the exception of the writer. Otherwise the writer is abandoned: it is
+     * interrupted if {@link #setCancelWriterOnClose(boolean) requested} and close waits for it up to the
+     * {@link #setCloseTimeout(long, TimeUnit) close timeout}.
      *
      * @throws IOException On failure to close the stream or wrapped exception from the writer thread.
      */
     @Override
     public void close() throws IOException {
+        closed = true;
         if (pipedInputStream == null) {
             log.fine("Called close() and piped stream is null");
             return;
@@ -125,38 +247,114 @@ public abstract class OutputToInputStream extends InputStream {
         }
         if (!writerFuture.isDone()) {
             log.fine("Stream closed while writer still running");
+            abandonWriter();
             return;
         }
 
-        if (shutdownPool) {
-            executor.shutdown();
-        }
         checkForException(-1);
     }
 
+    private void abandonWriter() {
+        abandoned.increment();
+        resultChecked = true;   // whatever the writer fails with from now on is caused by the close
+        if (cancelWriterOnClose) {
+            synchronized (writerLock) {
+                if (writerThread != null) {
+                    writerThread.interrupt();
+                    writerInterrupted = true;
+                    cancelled.increment();
+                } else if (!writerStarted) {
+                    // the writer returns as soon as it starts, if ever, closing the sink is up to us
+                    writerFuture.cancel(false);
+                    cancelled.increment();
+                    closeSink();
+                    return;
+                }
+            }
+        }
+        if (closeTimeoutNanos > 0) {
+            try {
+                writerFuture.get(closeTimeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                log.fine("Writer still running after the close timeout");
+                unfinished.increment();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | CancellationException e) {
+                log.log(Level.FINE, "Abandoned writer failed", e);
+            }
+        }
+    }
+
+    /**
+     * @return The reading end of the pipe. Starts the writer thread on first call
+     */
+    InputStream source() throws IOException {
+        if (pipedInputStream == null) {
+            initializePipedStream();
+        }
+        return pipedInputStream;
+    }
+
+    /**
+     * Creates the pipe between the writer thread and the reader.
+     *
+     * @param bufferSize The size of the pipe's buffer
+     * @return New pipe
+     */
+    Pipe createPipe(int bufferSize) {
+        if (sizing != null) {
+            return new RingBufferPipe(sizing, BufferAllocator.shared());
+        }
+        return new RingBufferPipe(bufferSize, BufferAllocator.shared());
+    }
+
     private void initializePipedStream() throws IOException {
         // lazily init the piped stream and the worker
         log.fine("Initializing piped input stream");
-        pipedInputStream = new PipedInputStream(bufferSize);
-        final PipedOutputStream sink = new PipedOutputStream(pipedInputStream);
+        Pipe pipe = createPipe(bufferSize);
+        if (readTimeoutNanos > 0) {
+            pipe.setReadTimeout(readTimeoutNanos, TimeUnit.NANOSECONDS);
+        }
+        pipedInputStream = pipe.source();
+        final OutputStream sink = pipedOutputStream = pipe.sink();
         Callable worker = new Callable<Void>() {
             @Override
             public Void call() throws Exception {
+                synchronized (writerLock) {
+                    writerStarted = true;
+                    if (closed && cancelWriterOnClose) {
+                        // cancelled while queued, close() closed the sink
+                        return null;
+                    }
+                    writerThread = Thread.currentThread();
+                }
                 try {
                     write(sink);
                     return null;
                 } finally {
-                    try {
-                        sink.close();
-                    } catch (IOException e) {
-                        log.log(Level.FINE, "Failed to close piped output stream", e);
+                    synchronized (writerLock) {
+                        writerThread = null;
+                        if (writerInterrupted) {
+                            // the interrupt from close must not leak into the executor's next task
+                            Thread.interrupted();
+                        }
                     }
+                    closeSink();
                 }
             }
         };
         writerFuture = executor.submit(worker);
     }
 
+    private void closeSink() {
+        try {
+            pipedOutputStream.close();
+        } catch (IOException e) {
+            log.log(Level.FINE, "Failed to close piped output stream", e);
+        }
+    }
+
     /**
      * If the writer thread has finished by the time close is called and it resulted in exception, this method will
      * throw an <code>IOException</code> wrapping the exception of the writer.
@@ -164,7 +362,7 @@ public abstract class OutputToInputStream extends InputStream {
      * @throws IOException Wrapper around the original exception thrown by the writing thread
      * @param read  Bytes read by the last read call.
      */
-    private void checkForException(int read) throws IOException {
+    void checkForException(int read) throws IOException {
         if ((read < 0 || writerFuture.isDone()) && !resultChecked) {
             try {
                 resultChecked = true;   // prevent throwing again when the stream is closed
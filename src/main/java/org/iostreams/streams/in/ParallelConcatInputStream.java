@@ -0,0 +1,233 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.in;
+
+import org.iostreams.streams.buffer.BufferAllocator;
+import org.iostreams.streams.concurrent.StreamExecutors;
+import org.iostreams.streams.pipe.RingBufferPipe;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An input stream reading the output of several writers, one after the other, while the writers run in parallel.
+ * <pre>
+ * List&lt;ParallelConcatInputStream.SegmentWriter&gt; segments = new ArrayList&lt;&gt;();
+ * for (Partition partition : partitions) {
+ *     segments.add(sink -&gt; exporter.export(partition, sink));
+ * }
+ * InputStream in = new ParallelConcatInputStream(segments);
+ * </pre>
+ * Up to <code>parallelism</code> segments are written at the same time, each into its own bounded pipe, and the next
+ * segment starts as soon as the reader is done with the oldest one. The memory used is at most
+ * <code>parallelism * bufferSize</code> bytes whatever the number and size of the segments, and a writer ahead of the
+ * reader waits once its pipe is full.
+ * <p>
+ * The segments are submitted in order, and the executor must be able to run <code>parallelism</code> segments at once
+ * (a pool smaller than that may leave the segment being read queued behind segments waiting for the reader). A failure
+ * of a segment writer is thrown, wrapped in an <code>IOException</code>, when the reader reaches the end of that
+ * segment, and closes the stream. Closing the stream makes the running writers fail and the remaining segments are
+ * never started. Not thread-safe, like other input streams.
+ *
+ * @author Yossi Shaul
+ */
+public class ParallelConcatInputStream extends InputStream {
+    private static final Logger log = Logger.getLogger(ParallelConcatInputStream.class.getName());
+
+    /**
+     * Writes one segment of the stream.
+     */
+    public interface SegmentWriter {
+        /**
+         * Writes the segment to the sink. The sink is closed when the method returns.
+         *
+         * @param sink The output stream piped to the segment's position in the input stream
+         * @throws IOException On any I/O error or if the input stream was closed
+         */
+        void write(OutputStream sink) throws IOException;
+    }
+
+    private final List<SegmentWriter> segments;
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final int bufferSize;
+
+    // Started segments not yet fully read, oldest first
+    private final Deque<Running> running = new ArrayDeque<>();
+    private int nextSegment;
+    private boolean closed;
+
+    /**
+     * Creates a new stream running the segment writers on the library's shared executor, as many at once as there
+     * are processors.
+     *
+     * @param segments The segment writers, in the order their output is read
+     */
+    public ParallelConcatInputStream(List<? extends SegmentWriter> segments) {
+        this(segments, StreamExecutors.defaultExecutor(), Runtime.getRuntime().availableProcessors(), 64 * 1024);
+    }
+
+    /**
+     * Creates a new stream.
+     *
+     * @param segments    The segment writers, in the order their output is read
+     * @param executor    Executor running the segment writers, e.g. a thread pool or a <code>ForkJoinPool</code>
+     * @param parallelism Maximum number of segments written at the same time
+     * @param bufferSize  Size of the buffer of each running segment. Rounded up to the next power of two
+     */
+    public ParallelConcatInputStream(List<? extends SegmentWriter> segments, ExecutorService executor,
+            int parallelism, int bufferSize) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.segments = new ArrayList<>(segments);
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public int read() throws IOException {
+        Running current;
+        while ((current = current()) != null) {
+            int b = current.source.read();
+            if (b >= 0) {
+                return b;
+            }
+            finishCurrent();
+        }
+        return -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        Running current;
+        while ((current = current()) != null) {
+            int n = current.source.read(b, off, len);
+            if (n >= 0) {
+                return n;
+            }
+            finishCurrent();
+        }
+        return -1;
+    }
+
+    @Override
+    public int available() throws IOException {
+        Running current = running.peek();
+        return current != null && !closed ? current.source.available() : 0;
+    }
+
+    /**
+     * Closes the stream. Running segment writers fail with an <code>IOException</code> on their next write, segments
+     * not started yet are skipped.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        Running r;
+        while ((r = running.poll()) != null) {
+            r.source.close();
+        }
+        nextSegment = segments.size();
+    }
+
+    /**
+     * @return Number of segments started so far
+     */
+    int startedSegments() {
+        return nextSegment;
+    }
+
+    /**
+     * @return The segment being read, null at the end of the last segment
+     */
+    private Running current() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        while (running.size() < parallelism && nextSegment < segments.size()) {
+            start(segments.get(nextSegment++));
+        }
+        return running.peek();
+    }
+
+    private void start(final SegmentWriter writer) {
+        RingBufferPipe pipe = new RingBufferPipe(bufferSize, BufferAllocator.shared());
+        final OutputStream sink = pipe.sink();
+        Future<Void> future = executor.submit(() -> {
+            try {
+                writer.write(sink);
+                return null;
+            } finally {
+                try {
+                    sink.close();
+                } catch (IOException e) {
+                    log.log(Level.FINE, "Failed to close segment output stream", e);
+                }
+            }
+        });
+        running.add(new Running(pipe.source(), future));
+    }
+
+    /**
+     * Moves on from the fully read oldest segment, throwing its writer's failure if any.
+     */
+    private void finishCurrent() throws IOException {
+        Running finished = running.poll();
+        finished.source.close();
+        try {
+            finished.writer.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            // the segment is incomplete, reading on would silently return corrupt data
+            close();
+            throw new IOException(e.getCause() != null ? e.getCause() : e);
+        }
+    }
+
+    private static class Running {
+        private final InputStream source;
+        private final Future<Void> writer;
+
+        Running(InputStream source, Future<Void> writer) {
+            this.source = source;
+            this.writer = writer;
+        }
+    }
+}
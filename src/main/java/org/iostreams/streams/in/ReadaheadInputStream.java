@@ -0,0 +1,433 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.iostreams.streams.in;
+
+import org.iostreams.streams.buffer.BufferAllocator;
+import org.iostreams.streams.concurrent.StreamExecutors;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An input stream that reads ahead of the caller: the underlying stream is read on a background thread into a bounded
+ * number of chunks while the caller processes the chunk it is reading, overlapping the I/O with the processing. With
+ * the default two chunks this is double buffering.
+ * <p>
+ * Reading ahead starts when the stream is created. The background reader fills each chunk with as many reads of the
+ * underlying stream as it takes, unless the caller is waiting for data, in which case whatever was read is handed over
+ * at once. It doesn't occupy a thread while all the chunks are full. Chunk buffers come from the
+ * {@link BufferAllocator#shared() shared allocator}.
+ * <p>
+ * {@link #available()} returns the number of bytes read ahead. {@link #skip(long)} discards the bytes read ahead and,
+ * for the rest, skips in the underlying stream once the background reader is idle. An exception of the underlying
+ * stream is thrown, wrapped in an <code>IOException</code>, after the bytes read before it. Closing the stream closes
+ * the underlying stream and stops the background reader. Mark and reset are not supported.
+ * <p>
+ * Like other input streams, it should be read by one thread at a time.
+ *
+ * @author Yossi Shaul
+ */
+public class ReadaheadInputStream extends InputStream {
+
+    private static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+    private static final int DEFAULT_CHUNKS = 2;
+
+    private final InputStream in;
+    private final int chunkSize;
+    private final ExecutorService executor;
+    private final BufferAllocator allocator = BufferAllocator.shared();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    // Chunks read ahead, guarded by the lock
+    private final ArrayDeque<ByteBuffer> ready = new ArrayDeque<>();
+    private long readyBytes;
+    // Number of chunks that may still be filled
+    private int freeChunks;
+    // True while the background reader, or a skip, uses the underlying stream
+    private boolean filling;
+    private boolean skipping;
+    private boolean endOfInput;
+    private boolean closed;
+    private Throwable failure;
+    private volatile boolean waiting;
+
+    // The chunk being read by the caller
+    private ByteBuffer current;
+
+    /**
+     * Creates a read ahead stream with two chunks of 64KB, read on the library's shared executor.
+     *
+     * @param in The underlying input stream
+     */
+    public ReadaheadInputStream(InputStream in) {
+        this(in, DEFAULT_CHUNK_SIZE, DEFAULT_CHUNKS, StreamExecutors.defaultExecutor());
+    }
+
+    /**
+     * Creates a read ahead stream.
+     *
+     * @param in        The underlying input stream
+     * @param chunkSize The size, in bytes, of each chunk
+     * @param chunks    Maximum number of chunks read ahead, including the one being read by the caller
+     * @param executor  Executor running the background reader. Never shut down by this stream
+     */
+    public ReadaheadInputStream(InputStream in, int chunkSize, int chunks, ExecutorService executor) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Illegal chunk size: " + chunkSize);
+        }
+        if (chunks <= 0) {
+            throw new IllegalArgumentException("Illegal number of chunks: " + chunks);
+        }
+        this.in = in;
+        this.chunkSize = chunkSize;
+        this.executor = executor;
+        this.freeChunks = chunks;
+        lock.lock();
+        try {
+            scheduleFill();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if ((current == null || !current.hasRemaining()) && !nextChunk()) {
+            return -1;
+        }
+        return current.get() & 0xff;
+    }
+
+    @Override
+    public int read(@Nonnull byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if ((current == null || !current.hasRemaining()) && !nextChunk()) {
+            return -1;
+        }
+        int n = Math.min(len, current.remaining());
+        current.get(b, off, n);
+        return n;
+    }
+
+    /**
+     * Writes the chunks read ahead directly to the output stream, without copying them into an intermediate array.
+     */
+    @Override
+    public long transferTo(OutputStream out) throws IOException {
+        long total = 0;
+        while ((current != null && current.hasRemaining()) || nextChunk()) {
+            int n = current.remaining();
+            out.write(current.array(), current.position(), n);
+            current.position(current.limit());
+            total += n;
+        }
+        return total;
+    }
+
+    /**
+     * Skips the bytes read ahead first, then skips in the underlying stream once the background reader is idle. May
+     * skip fewer bytes at the end of the stream or if the underlying stream skips fewer bytes.
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        long remaining = n;
+        if (current != null) {
+            int skipped = (int) Math.min(remaining, current.remaining());
+            current.position(current.position() + skipped);
+            remaining -= skipped;
+            if (remaining == 0) {
+                return n;
+            }
+            releaseCurrent();
+        }
+        lock.lock();
+        try {
+            ensureOpen();
+            // stops the background reader after the chunk it's filling
+            skipping = true;
+            try {
+                while (remaining > 0) {
+                    ByteBuffer chunk = ready.poll();
+                    if (chunk != null) {
+                        int skipped = (int) Math.min(remaining, chunk.remaining());
+                        readyBytes -= skipped;
+                        remaining -= skipped;
+                        if (skipped < chunk.remaining()) {
+                            chunk.position(chunk.position() + skipped);
+                            ready.addFirst(chunk);
+                        } else {
+                            allocator.release(chunk);
+                            freeChunks++;
+                        }
+                    } else if (failure != null) {
+                        throw new IOException(failure);
+                    } else if (endOfInput) {
+                        break;
+                    } else if (filling) {
+                        await();
+                    } else {
+                        long skipped = skipSource(remaining);
+                        if (skipped <= 0) {
+                            break;
+                        }
+                        remaining -= skipped;
+                    }
+                }
+            } finally {
+                skipping = false;
+                scheduleFill();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return n - remaining;
+    }
+
+    /**
+     * @return Number of bytes read ahead, which can be read without blocking
+     */
+    @Override
+    public int available() {
+        lock.lock();
+        try {
+            long buffered = readyBytes + (current != null ? current.remaining() : 0);
+            return (int) Math.min(Integer.MAX_VALUE, buffered);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes the underlying stream and stops reading ahead. A background read in progress completes, or fails, when
+     * the underlying stream is closed.
+     *
+     * @throws IOException On failure to close the underlying stream
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            ByteBuffer chunk;
+            while ((chunk = ready.poll()) != null) {
+                allocator.release(chunk);
+            }
+            readyBytes = 0;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (current != null) {
+            allocator.release(current);
+            current = null;
+        }
+        in.close();
+    }
+
+    /**
+     * Moves to the next chunk read ahead, waiting for the background reader if needed.
+     *
+     * @return False at the end of the stream
+     */
+    private boolean nextChunk() throws IOException {
+        if (current != null) {
+            releaseCurrent();
+        }
+        lock.lock();
+        try {
+            ensureOpen();
+            while (ready.isEmpty()) {
+                if (failure != null) {
+                    throw new IOException(failure);
+                }
+                if (endOfInput) {
+                    return false;
+                }
+                waiting = true;
+                try {
+                    await();
+                } finally {
+                    waiting = false;
+                }
+                ensureOpen();
+            }
+            current = ready.poll();
+            readyBytes -= current.remaining();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseCurrent() {
+        allocator.release(current);
+        current = null;
+        lock.lock();
+        try {
+            freeChunks++;
+            scheduleFill();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Skips in the underlying stream with the lock released, holding the stream as if filling a chunk.
+     */
+    private long skipSource(long n) throws IOException {
+        filling = true;
+        lock.unlock();
+        try {
+            return in.skip(n);
+        } finally {
+            lock.lock();
+            filling = false;
+        }
+    }
+
+    /**
+     * Starts the background reader if there's a free chunk and it isn't running. Called with the lock held.
+     */
+    private void scheduleFill() {
+        if (filling || skipping || closed || endOfInput || failure != null || freeChunks == 0) {
+            return;
+        }
+        filling = true;
+        try {
+            executor.execute(this::fill);
+        } catch (RejectedExecutionException e) {
+            filling = false;
+            failure = e;
+            changed.signalAll();
+        }
+    }
+
+    /**
+     * The background reader: fills chunks until they're all taken, the input ends or the stream is closed.
+     */
+    private void fill() {
+        ByteBuffer chunk = null;
+        try {
+            while (true) {
+                lock.lock();
+                try {
+                    if (closed || skipping || freeChunks == 0) {
+                        filling = false;
+                        changed.signalAll();
+                        return;
+                    }
+                    freeChunks--;
+                } finally {
+                    lock.unlock();
+                }
+                chunk = allocator.acquire(chunkSize);
+                byte[] b = chunk.array();
+                int n = 0;
+                int read = 0;
+                Exception error = null;
+                try {
+                    // hand over a partial chunk as soon as the caller waits for it
+                    do {
+                        read = in.read(b, n, chunkSize - n);
+                        n += Math.max(read, 0);
+                    } while (read >= 0 && n < chunkSize && !(waiting && n > 0));
+                } catch (IOException | RuntimeException e) {
+                    error = e;
+                }
+                lock.lock();
+                try {
+                    if (closed) {
+                        filling = false;
+                        return;
+                    }
+                    if (n > 0) {
+                        chunk.limit(n);
+                        ready.add(chunk);
+                        readyBytes += n;
+                        chunk = null;
+                    } else {
+                        freeChunks++;
+                    }
+                    // the bytes read before a failure are read before it's thrown
+                    failure = error;
+                    endOfInput = read < 0;
+                    changed.signalAll();
+                    if (endOfInput || failure != null) {
+                        filling = false;
+                        return;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                if (chunk != null) {
+                    allocator.release(chunk);
+                    chunk = null;
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            lock.lock();
+            try {
+                failure = e;
+                filling = false;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            if (chunk != null) {
+                allocator.release(chunk);
+            }
+        }
+    }
+
+    private void await() throws InterruptedIOException {
+        try {
+            changed.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for data");
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
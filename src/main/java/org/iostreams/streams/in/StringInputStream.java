@@ -16,18 +16,32 @@
 
 package org.iostreams.streams.in;
 
+import org.iostreams.streams.buffer.BufferAllocator;
+
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Creates an input stream from a string.
+ * <p>
+ * When created with a {@link BufferAllocator}, strings of a poolable size whose characters each encode to a single byte
+ * (ASCII in UTF-8 or US-ASCII, Latin-1 in ISO-8859-1) are copied into a buffer taken from the allocator, returned to it
+ * when the stream is closed. The stream is empty once closed. Other strings are encoded into a new array. Pooling
+ * trades a scan of the string for the allocation, it pays off when young-GC pressure matters more than encoding speed.
  *
  * @author Yossi Shaul
  */
 public class StringInputStream extends ByteArrayInputStream {
 
+    private static final byte[] EMPTY = new byte[0];
+
     private final int length;
+    private BufferAllocator allocator;
+    private ByteBuffer pooled;
 
     /**
      * Creates a new string input stream using UTF-8 character set to encode the string.
@@ -45,8 +59,45 @@ public class StringInputStream extends ByteArrayInputStream {
      * @param charset Character set to encode the string to bytes.
      */
     public StringInputStream(@Nonnull String str, @Nonnull Charset charset) {
-        super(str.getBytes(charset));
-        this.length = super.buf.length;
+        this(str, charset, null);
+    }
+
+    /**
+     * Creates a new string input stream using the given character set to encode the string.
+     *
+     * @param str       The string to provide the input stream.
+     * @param charset   Character set to encode the string to bytes.
+     * @param allocator Heap buffer allocator for the encoded bytes, for example {@link BufferAllocator#shared()}. Null
+     *                  to always encode into a new array
+     */
+    public StringInputStream(@Nonnull String str, @Nonnull Charset charset, @Nullable BufferAllocator allocator) {
+        super(EMPTY);
+        ByteBuffer encoded = allocator != null ? encodePooled(str, charset, allocator) : null;
+        if (encoded != null) {
+            this.allocator = allocator;
+            this.pooled = encoded;
+            this.buf = encoded.array();
+            this.count = encoded.limit();
+        } else {
+            this.buf = str.getBytes(charset);
+            this.count = buf.length;
+        }
+        this.length = count;
+    }
+
+    /**
+     * Returns the pooled buffer, if any, to the allocator. The stream is empty after it is closed.
+     */
+    @Override
+    public synchronized void close() {
+        if (pooled != null) {
+            allocator.release(pooled);
+            pooled = null;
+            buf = EMPTY;
+            count = 0;
+            pos = 0;
+            mark = 0;
+        }
     }
 
     /**
@@ -55,4 +106,27 @@ public class StringInputStream extends ByteArrayInputStream {
     public int getLength() {
         return length;
     }
+
+    @Nullable
+    @SuppressWarnings("deprecation")
+    private static ByteBuffer encodePooled(String str, Charset charset, BufferAllocator allocator) {
+        int length = str.length();
+        if (allocator.isDirect() || length < allocator.getMinSize() || length > allocator.getMaxSize()) {
+            return null;
+        }
+        int singleByteLimit = StandardCharsets.ISO_8859_1.equals(charset) ? 0x100 :
+                StandardCharsets.UTF_8.equals(charset) || StandardCharsets.US_ASCII.equals(charset) ? 0x80 : 0;
+        int bits = 0;
+        for (int i = 0; i < length; i++) {
+            bits |= str.charAt(i);
+        }
+        if (bits >= singleByteLimit) {
+            return null;    // not a plain copy, encoding into a new array is faster than the charset encoder
+        }
+        // every character is a single byte in the charset, the low byte of each char
+        ByteBuffer buffer = allocator.acquire(length);
+        str.getBytes(0, length, buffer.array(), 0);
+        buffer.limit(length);
+        return buffer;
+    }
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.in;
+
+import org.iostreams.streams.throttle.TokenBucket;
+
+import javax.annotation.Nonnull;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An input stream that limits the rate bytes are read from the underlying input stream.
+ * <p>
+ * Each read is limited to the burst size of the {@link TokenBucket} and waits for the bytes it returned. Share the
+ * same bucket between streams to apply one limit to all of them.
+ *
+ * @author Yossi Shaul
+ */
+public class ThrottledInputStream extends FilterInputStream {
+
+    private final TokenBucket bucket;
+
+    /**
+     * Creates a throttled input stream with its own limit.
+     *
+     * @param in          The underlying input stream
+     * @param bytesPerSec Maximum bytes per second to read
+     */
+    public ThrottledInputStream(@Nonnull InputStream in, long bytesPerSec) {
+        this(in, new TokenBucket(bytesPerSec));
+    }
+
+    /**
+     * Creates a throttled input stream.
+     *
+     * @param in     The underlying input stream
+     * @param bucket The token bucket limiting this stream, possibly shared with other streams
+     */
+    public ThrottledInputStream(@Nonnull InputStream in, @Nonnull TokenBucket bucket) {
+        super(in);
+        this.bucket = bucket;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b > -1) {
+            bucket.acquire(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = in.read(b, off, Math.min(len, bucket.getMaxChunk()));
+        if (n > 0) {
+            bucket.acquire(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = in.skip(Math.min(n, bucket.getMaxChunk()));
+        if (skipped > 0) {
+            bucket.acquire(skipped);
+        }
+        return skipped;
+    }
+
+    /**
+     * @return The token bucket limiting this stream
+     */
+    public TokenBucket getBucket() {
+        return bucket;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.monitor;
+
+/**
+ * JMX view of the streams aggregated under a name in a {@link MetricsRegistry}. Rates are in bytes per second,
+ * latencies in nanoseconds.
+ *
+ * @author Yossi Shaul
+ */
+public interface BandwidthMetricsMXBean {
+
+    String getName();
+
+    long getTotalBytes();
+
+    long getAverageBytesPerSec();
+
+    double getCurrentBytesPerSec();
+
+    double getPeakBytesPerSec();
+
+    double getOneSecondEwma();
+
+    double getTenSecondEwma();
+
+    double getOneMinuteEwma();
+
+    long getLatencyCount();
+
+    long getLatencyP50();
+
+    long getLatencyP99();
+
+    long getLatencyP999();
+
+    long getLatencyMax();
+}
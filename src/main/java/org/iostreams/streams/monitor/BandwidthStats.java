@@ -0,0 +1,231 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.monitor;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread-safe byte counter and throughput statistics.
+ * <p>
+ * Besides the total and the lifetime average, it keeps the rate over a sliding window of the last second, exponentially
+ * weighted moving averages over 1, 10 and 60 seconds, and the peak one second rate. Recording bytes doesn't allocate
+ * and only contends on striped counters; the rates are folded once every {@value #TICK_MILLIS} milliseconds by
+ * whichever thread (recording or polling) notices the tick is due. All the getters may be called from any thread.
+ *
+ * @author Yossi Shaul
+ */
+public class BandwidthStats {
+
+    static final int TICK_MILLIS = 100;
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS);
+    // Number of ticks in the one second sliding window
+    private static final int WINDOW_TICKS = 10;
+    private static final double NANOS_PER_SEC = 1e9;
+
+    private final LongSupplier clock;
+    private final long startTime;
+    // Aggregate statistics also receiving the bytes recorded here, if any
+    private final BandwidthStats parent;
+
+    private final LongAdder total = new LongAdder();
+    // Bytes recorded since the last tick
+    private final LongAdder uncounted = new LongAdder();
+    private volatile long lastTick;
+
+    // Guarded by this
+    private final long[] window = new long[WINDOW_TICKS];
+    private int windowIndex;
+    private long windowTicks;
+
+    private volatile double currentRate;
+    private volatile double peakRate;
+    private final Ewma oneSecond = new Ewma(1);
+    private final Ewma tenSeconds = new Ewma(10);
+    private final Ewma oneMinute = new Ewma(60);
+
+    public BandwidthStats() {
+        this(System::nanoTime);
+    }
+
+    BandwidthStats(LongSupplier clock) {
+        this(clock, null);
+    }
+
+    BandwidthStats(LongSupplier clock, @Nullable BandwidthStats parent) {
+        this.clock = clock;
+        this.parent = parent;
+        this.startTime = clock.getAsLong();
+        this.lastTick = startTime;
+    }
+
+    /**
+     * Records transferred bytes.
+     *
+     * @param bytes Number of bytes transferred
+     */
+    public void record(long bytes) {
+        // close the previous tick first, these bytes belong to the current one
+        tickIfNecessary();
+        total.add(bytes);
+        uncounted.add(bytes);
+        if (parent != null) {
+            parent.record(bytes);
+        }
+    }
+
+    /**
+     * @return Total number of bytes recorded
+     */
+    public long getTotalBytes() {
+        return total.sum();
+    }
+
+    /**
+     * @return Average number of bytes per second since this object was created
+     */
+    public long getAverageBytesPerSec() {
+        long totalBytes = total.sum();
+        if (totalBytes == 0) {
+            return 0;
+        }
+        long elapsed = Math.max(1, clock.getAsLong() - startTime);
+        return (long) (totalBytes * NANOS_PER_SEC / elapsed);
+    }
+
+    /**
+     * @return Bytes per second over the last second. Updated every {@value #TICK_MILLIS} milliseconds
+     */
+    public double getCurrentBytesPerSec() {
+        tickIfNecessary();
+        return currentRate;
+    }
+
+    /**
+     * @return The highest one second rate observed, in bytes per second
+     */
+    public double getPeakBytesPerSec() {
+        tickIfNecessary();
+        return peakRate;
+    }
+
+    /**
+     * @return Exponentially weighted moving average of the bytes per second with a one second time constant
+     */
+    public double getOneSecondEwma() {
+        tickIfNecessary();
+        return oneSecond.rate;
+    }
+
+    /**
+     * @return Exponentially weighted moving average of the bytes per second with a ten seconds time constant
+     */
+    public double getTenSecondEwma() {
+        tickIfNecessary();
+        return tenSeconds.rate;
+    }
+
+    /**
+     * @return Exponentially weighted moving average of the bytes per second with a one minute time constant
+     */
+    public double getOneMinuteEwma() {
+        tickIfNecessary();
+        return oneMinute.rate;
+    }
+
+    /**
+     * @return Nanoseconds elapsed since this object was created
+     */
+    public long getElapsedNanos() {
+        return clock.getAsLong() - startTime;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BandwidthStats{total=%d, current=%.0f B/s, ewma1s=%.0f B/s, ewma10s=%.0f B/s, " +
+                        "ewma60s=%.0f B/s, peak=%.0f B/s}", getTotalBytes(), getCurrentBytesPerSec(),
+                getOneSecondEwma(), getTenSecondEwma(), getOneMinuteEwma(), getPeakBytesPerSec());
+    }
+
+    private void tickIfNecessary() {
+        long now = clock.getAsLong();
+        if (now - lastTick >= TICK_NANOS) {
+            tick(now);
+        }
+    }
+
+    private synchronized void tick(long now) {
+        long ticks = (now - lastTick) / TICK_NANOS;
+        if (ticks <= 0) {
+            return;     // another thread already did the work
+        }
+        lastTick += ticks * TICK_NANOS;
+        long bytes = uncounted.sumThenReset();
+
+        // nothing is known about how the bytes were spread over the elapsed ticks, assume evenly
+        long perTick = bytes / ticks;
+        long slots = Math.min(ticks, WINDOW_TICKS);
+        for (int i = 0; i < slots; i++) {
+            windowIndex = (windowIndex + 1) % WINDOW_TICKS;
+            window[windowIndex] = perTick;
+        }
+        // the remainder of the division goes to the latest tick
+        window[windowIndex] += bytes - perTick * ticks;
+        windowTicks += ticks;
+
+        long windowBytes = 0;
+        for (long b : window) {
+            windowBytes += b;
+        }
+        long windowNanos = Math.min(windowTicks, WINDOW_TICKS) * TICK_NANOS;
+        double rate = windowBytes * NANOS_PER_SEC / windowNanos;
+        currentRate = rate;
+        if (rate > peakRate) {
+            peakRate = rate;
+        }
+
+        double tickRate = bytes * NANOS_PER_SEC / (ticks * TICK_NANOS);
+        oneSecond.update(tickRate, ticks);
+        tenSeconds.update(tickRate, ticks);
+        oneMinute.update(tickRate, ticks);
+    }
+
+    private static class Ewma {
+        // Decay of the average for a single tick
+        private final double alpha;
+        private volatile double rate;
+        private boolean initialized;
+
+        Ewma(int seconds) {
+            this.alpha = Math.exp(-(double) TICK_NANOS / TimeUnit.SECONDS.toNanos(seconds));
+        }
+
+        /**
+         * Updates the average with a constant rate over a number of ticks.
+         */
+        void update(double tickRate, long ticks) {
+            if (!initialized) {
+                rate = tickRate;
+                initialized = true;
+            } else {
+                rate = tickRate + (rate - tickRate) * Math.pow(alpha, ticks);
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.monitor;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed size, thread-safe histogram of latencies in nanoseconds.
+ * <p>
+ * Values are counted in log-linear buckets (in the style of HdrHistogram): every power of two range is split into
+ * {@value #SUB_BUCKETS} equal buckets, so any recorded value is reported within about 3% of its real value, from one
+ * nanosecond to hours. Memory is fixed at creation and recording a value doesn't allocate.
+ *
+ * @author Yossi Shaul
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Values below SUB_BUCKETS get their own bucket, then SUB_BUCKETS buckets for each power of two up to 2^62
+    private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos The latency in nanoseconds. Negative values are recorded as zero
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(index(value));
+        sum.add(value);
+        long currentMax;
+        while (value > (currentMax = max.get())) {
+            if (max.compareAndSet(currentMax, value)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * @return Snapshot of the values recorded so far
+     */
+    public LatencySnapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new LatencySnapshot(copy, sum.sum(), max.get());
+    }
+
+    /**
+     * Takes a snapshot of the values recorded so far and clears the histogram. Values recorded concurrently end up
+     * either in the returned snapshot or in the next one.
+     *
+     * @return Snapshot of the values recorded since the last reset
+     */
+    public LatencySnapshot snapshotAndReset() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.getAndSet(i, 0);
+        }
+        return new LatencySnapshot(copy, sum.sumThenReset(), max.getAndSet(0));
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int shift = msb - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return The highest value counted in the bucket
+     */
+    static long highestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        long mantissa = SUB_BUCKETS + (index - SUB_BUCKETS) % SUB_BUCKETS;
+        long highest = ((mantissa + 1) << shift) - 1;
+        // the last bucket ends at Long.MAX_VALUE
+        return highest < 0 ? Long.MAX_VALUE : highest;
+    }
+}
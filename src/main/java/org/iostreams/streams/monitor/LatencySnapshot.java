@@ -0,0 +1,120 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.monitor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable view of the latencies recorded by a {@link LatencyHistogram}. All values are in nanoseconds.
+ *
+ * @author Yossi Shaul
+ */
+public class LatencySnapshot {
+
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    LatencySnapshot(long[] counts, long sum, long max) {
+        this.counts = counts;
+        this.sum = sum;
+        this.max = max;
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        this.count = total;
+    }
+
+    /**
+     * @return Number of recorded values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return The highest recorded value
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @return The average of the recorded values
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Returns the value at the given percentile: at least <code>percentile</code> percent of the recorded values are
+     * lower or equal to the returned value.
+     *
+     * @param percentile Percentile between 0 and 100
+     * @return The value at the given percentile, or 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.highestValue(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return The median
+     */
+    public long getP50() {
+        return getValueAtPercentile(50);
+    }
+
+    /**
+     * @return The 99th percentile
+     */
+    public long getP99() {
+        return getValueAtPercentile(99);
+    }
+
+    /**
+     * @return The 99.9th percentile
+     */
+    public long getP999() {
+        return getValueAtPercentile(99.9);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LatencySnapshot{count=%d, mean=%.1fus, p50=%dus, p99=%dus, p999=%dus, max=%dus}", count,
+                getMean() / 1000, micros(getP50()), micros(getP99()), micros(getP999()), micros(max));
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
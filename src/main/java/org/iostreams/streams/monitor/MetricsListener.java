@@ -0,0 +1,38 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.monitor;
+
+import javax.annotation.Nullable;
+
+/**
+ * Receives periodic reports of the streams aggregated by a {@link MetricsRegistry}.
+ *
+ * @author Yossi Shaul
+ * @see MetricsRegistry#schedule(MetricsListener, long, java.util.concurrent.TimeUnit)
+ */
+public interface MetricsListener {
+
+    /**
+     * Called once per period for every name in the registry. Called from the registry's reporter thread, so
+     * implementations shouldn't block for long.
+     *
+     * @param name    The name the streams are registered under
+     * @param stats   The aggregated bandwidth of the streams
+     * @param latency Snapshot of the aggregated call latencies or null if no stream records latencies under the name
+     */
+    void report(String name, BandwidthStats stats, @Nullable LatencySnapshot latency);
+}
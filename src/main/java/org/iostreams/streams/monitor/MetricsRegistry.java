@@ -0,0 +1,327 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.monitor;
+
+import javax.annotation.Nullable;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Aggregates the bandwidth and latency of monitored streams by name, so they can be found and observed once wrapped
+ * deep inside a pipeline.
+ * <p>
+ * Streams take part by recording into statistics from {@link #newStats(String)} and, optionally, into the histogram
+ * from {@link #latency(String)}:
+ * <pre>
+ * MetricsRegistry registry = MetricsRegistry.defaultRegistry();
+ * OutputStream out = new BandwidthMonitorOutputStream(socketOut, registry.newStats("uploads"),
+ *         registry.latency("uploads"));
+ * </pre>
+ * Each stream keeps its own statistics, which also feed the aggregate of the name. Nothing is polled or copied: the
+ * only cost to a stream is recording into the aggregate, and streams not created from a registry pay nothing.
+ * <p>
+ * When created with an {@link MBeanServer} every name is exposed as a {@link BandwidthMetricsMXBean} under
+ * {@code org.iostreams:type=BandwidthMetrics,name=<name>}. A name that can't be registered, for example because another
+ * registry on the same server already exposes it, is logged and left out of JMX but still aggregated. Listeners may be
+ * {@link #schedule scheduled} to receive periodic reports.
+ *
+ * @author Yossi Shaul
+ */
+public class MetricsRegistry {
+    private static final Logger log = Logger.getLogger(MetricsRegistry.class.getName());
+
+    static final String JMX_DOMAIN = "org.iostreams";
+
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry(ManagementFactory.getPlatformMBeanServer());
+
+    private final ConcurrentMap<String, Metrics> metrics = new ConcurrentHashMap<>();
+    private final MBeanServer mBeanServer;
+    // Created on first use, guarded by this
+    private ScheduledThreadPoolExecutor reporter;
+
+    /**
+     * Creates a registry that is not exposed through JMX.
+     */
+    public MetricsRegistry() {
+        this(null);
+    }
+
+    /**
+     * Creates a registry.
+     *
+     * @param mBeanServer Server to register an MBean per name in. Null to not expose the registry through JMX
+     */
+    public MetricsRegistry(@Nullable MBeanServer mBeanServer) {
+        this.mBeanServer = mBeanServer;
+    }
+
+    /**
+     * @return The registry shared by the application, exposed through the platform MBean server
+     */
+    public static MetricsRegistry defaultRegistry() {
+        return DEFAULT;
+    }
+
+    /**
+     * Creates statistics for a single stream. The bytes recorded into them are also added to the aggregate of the
+     * name, which is created on first use.
+     *
+     * @param name Name to aggregate the stream under
+     * @return New statistics for the stream
+     */
+    public BandwidthStats newStats(String name) {
+        return new BandwidthStats(System::nanoTime, metrics(name).stats);
+    }
+
+    /**
+     * Returns the latency histogram of a name, to be shared by all the streams registered under it.
+     *
+     * @param name Name to aggregate the stream under
+     * @return The latency histogram of the name
+     */
+    public LatencyHistogram latency(String name) {
+        return metrics(name).latency();
+    }
+
+    /**
+     * @param name A registered name
+     * @return The aggregated statistics of the name or null if nothing is registered under it
+     */
+    @Nullable
+    public BandwidthStats getStats(String name) {
+        Metrics m = metrics.get(name);
+        return m != null ? m.stats : null;
+    }
+
+    /**
+     * @param name A registered name
+     * @return Snapshot of the aggregated latencies of the name or null if no latencies are recorded under it
+     */
+    @Nullable
+    public LatencySnapshot getLatency(String name) {
+        Metrics m = metrics.get(name);
+        return m != null ? m.latencySnapshot() : null;
+    }
+
+    /**
+     * @return The registered names
+     */
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(metrics.keySet());
+    }
+
+    /**
+     * Removes a name and its MBean. Streams already recording under the name keep their own statistics.
+     *
+     * @param name A registered name
+     */
+    public void remove(String name) {
+        Metrics m = metrics.remove(name);
+        if (m != null && m.exposed) {
+            try {
+                mBeanServer.unregisterMBean(objectName(name));
+            } catch (InstanceNotFoundException e) {
+                // already unregistered by someone else
+            } catch (JMException e) {
+                log.log(Level.WARNING, "Failed to unregister MBean of " + name, e);
+            }
+        }
+    }
+
+    /**
+     * Reports all the registered names to the listener on the calling thread.
+     *
+     * @param listener The listener to report to
+     */
+    public void report(MetricsListener listener) {
+        for (Metrics m : metrics.values()) {
+            listener.report(m.name, m.stats, m.latencySnapshot());
+        }
+    }
+
+    /**
+     * Reports all the registered names to the listener periodically, on a daemon thread shared by the listeners of
+     * this registry. Runtime exceptions thrown by the listener don't stop the reports. They are logged, as a warning
+     * the first time and at fine level after that.
+     *
+     * @param listener The listener to report to
+     * @param period   Time between reports
+     * @param unit     Unit of the period
+     * @return Future to cancel the reports with
+     */
+    public ScheduledFuture<?> schedule(final MetricsListener listener, long period, TimeUnit unit) {
+        final AtomicBoolean failed = new AtomicBoolean();
+        return reporter().scheduleAtFixedRate(() -> {
+            try {
+                report(listener);
+            } catch (RuntimeException e) {
+                // an exception would silently cancel the schedule, a broken listener shouldn't lose later reports.
+                // A listener failing on every report shouldn't flood the log either
+                log.log(failed.getAndSet(true) ? Level.FINE : Level.WARNING, "Metrics listener failed: " + listener, e);
+            }
+        }, period, period, unit);
+    }
+
+    static ObjectName objectName(String name) {
+        try {
+            return new ObjectName(JMX_DOMAIN + ":type=BandwidthMetrics,name=" + ObjectName.quote(name));
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException("Invalid name: " + name, e);
+        }
+    }
+
+    private Metrics metrics(String name) {
+        Metrics m = metrics.get(name);
+        if (m != null) {
+            return m;
+        }
+        return metrics.computeIfAbsent(name, n -> {
+            Metrics created = new Metrics(n);
+            if (mBeanServer != null) {
+                try {
+                    mBeanServer.registerMBean(created, objectName(n));
+                    created.exposed = true;
+                } catch (JMException e) {
+                    // monitoring must not fail the stream, the name is aggregated without being exposed
+                    log.log(Level.WARNING, "Failed to register MBean of " + n, e);
+                }
+            }
+            return created;
+        });
+    }
+
+    private synchronized ScheduledThreadPoolExecutor reporter() {
+        if (reporter == null) {
+            reporter = new ScheduledThreadPoolExecutor(1, r -> {
+                Thread thread = new Thread(r, "iostreams-metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reporter.setRemoveOnCancelPolicy(true);
+        }
+        return reporter;
+    }
+
+    private static class Metrics implements BandwidthMetricsMXBean {
+        private final String name;
+        private final BandwidthStats stats = new BandwidthStats();
+        private volatile LatencyHistogram latency;
+        // Whether the MBean of this name was registered by this registry
+        private volatile boolean exposed;
+
+        Metrics(String name) {
+            this.name = name;
+        }
+
+        synchronized LatencyHistogram latency() {
+            if (latency == null) {
+                latency = new LatencyHistogram();
+            }
+            return latency;
+        }
+
+        @Nullable
+        LatencySnapshot latencySnapshot() {
+            LatencyHistogram histogram = latency;
+            return histogram != null ? histogram.snapshot() : null;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public long getTotalBytes() {
+            return stats.getTotalBytes();
+        }
+
+        @Override
+        public long getAverageBytesPerSec() {
+            return stats.getAverageBytesPerSec();
+        }
+
+        @Override
+        public double getCurrentBytesPerSec() {
+            return stats.getCurrentBytesPerSec();
+        }
+
+        @Override
+        public double getPeakBytesPerSec() {
+            return stats.getPeakBytesPerSec();
+        }
+
+        @Override
+        public double getOneSecondEwma() {
+            return stats.getOneSecondEwma();
+        }
+
+        @Override
+        public double getTenSecondEwma() {
+            return stats.getTenSecondEwma();
+        }
+
+        @Override
+        public double getOneMinuteEwma() {
+            return stats.getOneMinuteEwma();
+        }
+
+        @Override
+        public long getLatencyCount() {
+            LatencySnapshot snapshot = latencySnapshot();
+            return snapshot != null ? snapshot.getCount() : 0;
+        }
+
+        @Override
+        public long getLatencyP50() {
+            LatencySnapshot snapshot = latencySnapshot();
+            return snapshot != null ? snapshot.getP50() : 0;
+        }
+
+        @Override
+        public long getLatencyP99() {
+            LatencySnapshot snapshot = latencySnapshot();
+            return snapshot != null ? snapshot.getP99() : 0;
+        }
+
+        @Override
+        public long getLatencyP999() {
+            LatencySnapshot snapshot = latencySnapshot();
+            return snapshot != null ? snapshot.getP999() : 0;
+        }
+
+        @Override
+        public long getLatencyMax() {
+            LatencySnapshot snapshot = latencySnapshot();
+            return snapshot != null ? snapshot.getMax() : 0;
+        }
+    }
+}
@@ -16,50 +16,217 @@
 
 package org.iostreams.streams.out;
 
+import org.iostreams.streams.monitor.BandwidthStats;
+import org.iostreams.streams.monitor.LatencyHistogram;
+
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.OutputStream;
 
 /**
  * An output stream that calculates the bandwidth of the underlying output stream.
+ * <p>
+ * The statistics are thread-safe, a monitoring thread may poll them (see {@link #getStats()}) while another thread
+ * writes to the stream. Optionally, the duration of every write call is recorded in a {@link LatencyHistogram}.
+ * <p>
+ * When created with a buffer size the stream buffers like a {@link java.io.BufferedOutputStream}: small writes are
+ * collected in the buffer, and the statistics and latency are updated once per write to the underlying stream, so
+ * writing byte by byte costs about the same as with a plain buffered stream. Bytes are counted when they reach the
+ * underlying stream, that is when the buffer fills up, on {@link #flush()} and on {@link #close()}.
  *
  * @author Yossi Shaul
  */
 public class BandwidthMonitorOutputStream extends OutputStream {
 
     private final OutputStream out;
-    private final long startTime = System.nanoTime();
-    private long totalBytesWritten;
+    private final BandwidthStats stats;
+    private final LatencyHistogram latency;
+    // Null when writing directly to the underlying stream
+    private final byte[] buffer;
+    private int count;
+    private boolean closed;
 
     public BandwidthMonitorOutputStream(OutputStream out) {
+        this(out, null);
+    }
+
+    /**
+     * Creates a bandwidth monitor that also records how long each write call takes.
+     *
+     * @param out     The underlying output stream
+     * @param latency Histogram recording the duration of each call, possibly shared with other streams. Null to disable
+     */
+    public BandwidthMonitorOutputStream(OutputStream out, @Nullable LatencyHistogram latency) {
+        this(out, new BandwidthStats(), latency);
+    }
+
+    /**
+     * Creates a bandwidth monitor recording into the given statistics, for example statistics obtained from
+     * {@link org.iostreams.streams.monitor.MetricsRegistry#newStats(String)} to aggregate streams under a name.
+     *
+     * @param out     The underlying output stream
+     * @param stats   Statistics this stream records into
+     * @param latency Histogram recording the duration of each call, possibly shared with other streams. Null to disable
+     */
+    public BandwidthMonitorOutputStream(OutputStream out, BandwidthStats stats, @Nullable LatencyHistogram latency) {
+        this(out, stats, latency, 0);
+    }
+
+    /**
+     * Creates a buffering bandwidth monitor.
+     *
+     * @param out        The underlying output stream
+     * @param bufferSize Size of the buffer, in bytes. 0 to write directly to the underlying stream
+     */
+    public BandwidthMonitorOutputStream(OutputStream out, int bufferSize) {
+        this(out, new BandwidthStats(), null, bufferSize);
+    }
+
+    /**
+     * Creates a bandwidth monitor recording into the given statistics, optionally buffering the writes.
+     *
+     * @param out        The underlying output stream
+     * @param stats      Statistics this stream records into
+     * @param latency    Histogram recording the duration of each write to the underlying stream, possibly shared with
+     *                   other streams. Null to disable
+     * @param bufferSize Size of the buffer, in bytes. 0 to write directly to the underlying stream
+     */
+    public BandwidthMonitorOutputStream(OutputStream out, BandwidthStats stats, @Nullable LatencyHistogram latency,
+                                        int bufferSize) {
+        if (bufferSize < 0) {
+            throw new IllegalArgumentException("Illegal buffer size: " + bufferSize);
+        }
         this.out = out;
+        this.stats = stats;
+        this.latency = latency;
+        this.buffer = bufferSize > 0 ? new byte[bufferSize] : null;
     }
 
     @Override
     public void write(int b) throws IOException {
+        if (buffer != null) {
+            if (count == buffer.length) {
+                flushBuffer();
+            }
+            buffer[count++] = (byte) b;
+            return;
+        }
+        long start = startTime();
         out.write(b);
-        totalBytesWritten++;
+        recordLatency(start);
+        stats.record(1);
     }
 
     @Override
     public void write(byte[] b) throws IOException {
+        if (buffer != null) {
+            write(b, 0, b.length);
+            return;
+        }
+        long start = startTime();
         out.write(b);
-        totalBytesWritten += b.length;
+        recordLatency(start);
+        stats.record(b.length);
     }
 
     @Override
     public void write(byte[] b, int off, int len) throws IOException {
-        out.write(b, off, len);
-        totalBytesWritten += len;
+        if (buffer != null) {
+            if (off < 0 || len < 0 || len > b.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (len >= buffer.length) {
+                // no point copying large writes through the buffer
+                flushBuffer();
+                writeUnderlying(b, off, len);
+                return;
+            }
+            if (len > buffer.length - count) {
+                flushBuffer();
+            }
+            System.arraycopy(b, off, buffer, count, len);
+            count += len;
+            return;
+        }
+        writeUnderlying(b, off, len);
+    }
+
+    /**
+     * Writes the buffered bytes, if any, to the underlying stream. The underlying stream itself is not flushed.
+     */
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+    }
+
+    /**
+     * Writes the buffered bytes, if any, to the underlying stream. The underlying stream is not closed, it belongs to
+     * the caller.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        flushBuffer();
+    }
+
+    /**
+     * @return Number of bytes written to this stream and not passed to the underlying stream yet
+     */
+    public int getBufferedBytes() {
+        return count;
     }
 
     public long getTotalBytesWritten() {
-        return totalBytesWritten;
+        return stats.getTotalBytes();
     }
 
+    /**
+     * @return Average bytes per second since the stream was created
+     */
     public long getBytesPerSec() {
-        if (totalBytesWritten == 0) {
-            return 0;
+        return stats.getAverageBytesPerSec();
+    }
+
+    /**
+     * @return Throughput statistics of this stream: current, moving average and peak rates
+     */
+    public BandwidthStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return The histogram of write call durations or null if latencies are not recorded
+     */
+    @Nullable
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    private void flushBuffer() throws IOException {
+        if (count > 0) {
+            int n = count;
+            count = 0;
+            writeUnderlying(buffer, 0, n);
+        }
+    }
+
+    private void writeUnderlying(byte[] b, int off, int len) throws IOException {
+        long start = startTime();
+        out.write(b, off, len);
+        recordLatency(start);
+        stats.record(len);
+    }
+
+    private long startTime() {
+        return latency != null ? System.nanoTime() : 0;
+    }
+
+    private void recordLatency(long start) {
+        if (latency != null) {
+            latency.record(System.nanoTime() - start);
         }
-        return (totalBytesWritten * 1000000000) / (System.nanoTime() - startTime);
     }
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.iostreams.streams.out;
+
+import org.iostreams.streams.checksum.Digest;
+
+import javax.annotation.Nonnull;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An output stream that computes checksums and message digests of the bytes written to the underlying stream.
+ * <p>
+ * Every {@link Digest} is updated with each chunk written, directly from the caller's array, so computing several
+ * algorithms costs a single pass over the data. When closed, the stream is flushed and closed and the digests with an
+ * expected value are verified; a mismatch fails the close with an {@link IOException}.
+ *
+ * @author Yossi Shaul
+ */
+public class ChecksumOutputStream extends FilterOutputStream {
+
+    private final Digest[] digests;
+    private boolean closed;
+
+    /**
+     * @param out     The underlying output stream
+     * @param digests Digests to compute over the bytes written
+     */
+    public ChecksumOutputStream(OutputStream out, Digest... digests) {
+        super(out);
+        if (digests.length == 0) {
+            throw new IllegalArgumentException("At least one digest is required");
+        }
+        this.digests = digests.clone();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        for (Digest digest : digests) {
+            digest.update(b);
+        }
+    }
+
+    @Override
+    public void write(@Nonnull byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        for (Digest digest : digests) {
+            digest.update(b, off, len);
+        }
+    }
+
+    /**
+     * Flushes and closes the underlying stream, then verifies the digests that have an expected value.
+     *
+     * @throws IOException If closing the underlying stream failed or a digest doesn't match its expected value
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        super.close();
+        for (Digest digest : digests) {
+            digest.verify();
+        }
+    }
+
+    /**
+     * @return The first digest of the stream
+     */
+    public Digest getDigest() {
+        return digests[0];
+    }
+
+    /**
+     * @return The digests of the stream, in the order given to the constructor
+     */
+    public Digest[] getDigests() {
+        return digests.clone();
+    }
+}
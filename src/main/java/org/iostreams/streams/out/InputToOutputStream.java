@@ -0,0 +1,221 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.iostreams.streams.out;
+
+import org.iostreams.streams.buffer.BufferAllocator;
+import org.iostreams.streams.concurrent.StreamExecutors;
+import org.iostreams.streams.pipe.RingBufferPipe;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An output stream whose bytes are read, on-the-fly, as an input stream by a consumer running on another thread. The
+ * opposite of {@link org.iostreams.streams.in.OutputToInputStream}: it hands data pushed by <code>write()</code> calls
+ * to an API that only consumes an input stream, without buffering the whole data in memory.
+ * <pre>
+ * OutputStream out = new InputToOutputStream() {
+ *     protected void read(InputStream source) throws IOException {
+ *         parser.parse(source);
+ *     }
+ * };
+ * </pre>
+ * The consumer is started on the first write, or on close if nothing was written, and reads until the end of the
+ * stream, signalled when this stream is closed. {@link #close()} waits for the consumer to finish. An exception of the
+ * consumer is thrown, wrapped in an <code>IOException</code>, by the write that can't proceed because of it or by
+ * close. A consumer that returns before reading all the data fails the write or the close the same way. The bytes go
+ * through a {@link RingBufferPipe} whose buffer is taken from the {@link BufferAllocator#shared() shared allocator}.
+ *
+ * @author Yossi Shaul
+ */
+public abstract class InputToOutputStream extends OutputStream {
+    private static final Logger log = Logger.getLogger(InputToOutputStream.class.getName());
+
+    // Executor service for the consumer thread
+    private final ExecutorService executor;
+    // Size of the pipe's buffer
+    private final int bufferSize;
+
+    private RingBufferPipe pipe;
+    private OutputStream sink;
+    private Future<Void> consumerFuture;
+    private boolean resultChecked;
+    private boolean closed;
+
+    /**
+     * Create new <code>InputToOutputStream</code>. The consumer thread is taken from the library's shared executor,
+     * see {@link StreamExecutors#defaultExecutor()}.
+     */
+    public InputToOutputStream() {
+        this(StreamExecutors.defaultExecutor());
+    }
+
+    /**
+     * Create new <code>InputToOutputStream</code> with provided executor service for the consumer thread. The executor
+     * is never shut down by this stream.
+     *
+     * @param executor User provided executor to execute the consumer thread
+     */
+    public InputToOutputStream(ExecutorService executor) {
+        this(executor, 4096);
+    }
+
+    /**
+     * Create new <code>InputToOutputStream</code> with provided executor service for the consumer thread.
+     *
+     * @param executor   User provided executor to execute the consumer thread
+     * @param bufferSize The size of the buffer between the writer and the consumer. Rounded up to the next power of two
+     */
+    public InputToOutputStream(ExecutorService executor, int bufferSize) {
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Read the provided input stream, the bytes written to this output stream. Implementation doesn't need to close
+     * the source, it is closed when this method returns.
+     *
+     * @param source The input stream of the bytes written to this stream
+     * @throws IOException On any I/O error
+     */
+    protected abstract void read(InputStream source) throws IOException;
+
+    @Override
+    public void write(int b) throws IOException {
+        OutputStream out = sink();
+        try {
+            out.write(b);
+        } catch (IOException e) {
+            throw consumerFailure(e);
+        }
+    }
+
+    @Override
+    public void write(@Nonnull byte[] b, int off, int len) throws IOException {
+        OutputStream out = sink();
+        try {
+            out.write(b, off, len);
+        } catch (IOException e) {
+            throw consumerFailure(e);
+        }
+    }
+
+    /**
+     * Closes the stream, which ends the consumer's input, and waits for the consumer to finish.
+     *
+     * @throws IOException On failure to close the stream, wrapped exception from the consumer thread or if the
+     *                     consumer finished without reading all the data
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        // the consumer reads an empty stream if nothing was written
+        sink().close();
+        closed = true;
+        // a failed write already reported the consumer's result
+        boolean reported = resultChecked;
+        checkForException();
+        if (!reported && pipe.getUnreadBytes() > 0) {
+            // the consumer returned early, the rest of the data is dropped
+            throw new IOException("Consumer finished before reading all the data");
+        }
+    }
+
+    /**
+     * @return The writing end of the pipe. Starts the consumer thread on first call
+     */
+    private OutputStream sink() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (sink == null) {
+            initializePipe();
+        }
+        return sink;
+    }
+
+    private void initializePipe() {
+        log.fine("Initializing pipe to the consumer");
+        pipe = new RingBufferPipe(bufferSize, BufferAllocator.shared());
+        sink = pipe.sink();
+        final InputStream source = pipe.source();
+        Callable<Void> consumer = new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                try {
+                    read(source);
+                    return null;
+                } finally {
+                    try {
+                        source.close();
+                    } catch (IOException e) {
+                        log.log(Level.FINE, "Failed to close piped input stream", e);
+                    }
+                }
+            }
+        };
+        consumerFuture = executor.submit(consumer);
+    }
+
+    /**
+     * A write fails when the consumer closed its end of the pipe, that is when it finished, possibly with an exception.
+     *
+     * @return The exception to throw from the failed write
+     */
+    private IOException consumerFailure(IOException writeFailure) throws IOException {
+        // the consumer closes the pipe just before it finishes
+        checkForException();
+        return new IOException("Consumer finished before reading all the data", writeFailure);
+    }
+
+    /**
+     * Waits for the consumer thread to finish. If it resulted in exception, this method will throw an
+     * <code>IOException</code> wrapping the exception of the consumer.
+     *
+     * @throws IOException            Wrapper around the original exception thrown by the consumer thread
+     * @throws InterruptedIOException If the thread is interrupted while waiting
+     */
+    private void checkForException() throws IOException {
+        if (!resultChecked) {
+            try {
+                resultChecked = true;   // prevent throwing again when the stream is closed
+                consumerFuture.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the consumer");
+            } catch (ExecutionException e) {
+                if (e.getCause() != null) {
+                    throw new IOException(e.getCause());
+                } else {
+                    throw new IOException(e);
+                }
+            }
+        }
+    }
+}
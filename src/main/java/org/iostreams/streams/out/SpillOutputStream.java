@@ -0,0 +1,417 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.out;
+
+import org.iostreams.streams.buffer.BufferAllocator;
+import org.iostreams.streams.in.DeleteOnCloseChannelInputStream;
+import org.iostreams.streams.in.DeleteOnCloseSegmentInputStream;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An output stream that buffers what is written in memory up to a threshold and spills to a temporary file beyond
+ * it, for payloads of unknown size that have to be measured or replayed.
+ * <p>
+ * The data is kept in chunks acquired from a {@link BufferAllocator}, heap or direct. Once more than the threshold is
+ * written the chunks are written to a temporary file and returned to the allocator, and later writes go to the file
+ * through a single chunk. {@link #toInputStream()} replays the data without copying it: from the chunks themselves,
+ * or from the file with a {@link DeleteOnCloseChannelInputStream}. Either way, closing the input stream releases the
+ * chunks or deletes the file. {@link #toInputStreams(int)} splits a spilled file between several streams that can be
+ * read in parallel.
+ * <pre>
+ * SpillOutputStream out = new SpillOutputStream(1024 * 1024);
+ * payload.writeTo(out);
+ * long length = out.size();
+ * InputStream in = out.toInputStream();
+ * </pre>
+ * Not thread-safe.
+ *
+ * @author Yossi Shaul
+ */
+public class SpillOutputStream extends OutputStream {
+
+    private static final int DEFAULT_CHUNK_SIZE = 32 * 1024;
+
+    private final long threshold;
+    private final BufferAllocator allocator;
+    private final int chunkSize;
+    private final Path tempDir;
+
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private ByteBuffer current;
+    private long size;
+
+    private Path file;
+    private FileChannel channel;
+
+    private boolean closed;
+    private boolean consumed;
+
+    /**
+     * Creates a spill output stream with 32KB chunks from the {@link BufferAllocator#shared() shared allocator},
+     * spilling to the default temporary directory.
+     *
+     * @param threshold Maximum number of bytes kept in memory
+     */
+    public SpillOutputStream(long threshold) {
+        this(threshold, BufferAllocator.shared(), DEFAULT_CHUNK_SIZE, null);
+    }
+
+    /**
+     * Creates a spill output stream.
+     *
+     * @param threshold Maximum number of bytes kept in memory
+     * @param allocator Allocator of the memory chunks
+     * @param chunkSize Minimum size of each chunk, in bytes
+     * @param tempDir   Directory of the temporary file. Null for the default temporary directory
+     */
+    public SpillOutputStream(long threshold, @Nonnull BufferAllocator allocator, int chunkSize,
+                             @Nullable Path tempDir) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Threshold must not be negative: " + threshold);
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.threshold = threshold;
+        this.allocator = allocator;
+        this.chunkSize = chunkSize;
+        this.tempDir = tempDir;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureWritable(1);
+        current.put((byte) b);
+        size++;
+    }
+
+    @Override
+    public void write(@Nonnull byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        while (len > 0) {
+            ensureWritable(len);
+            int n = Math.min(len, current.remaining());
+            current.put(b, off, n);
+            size += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Writes the buffered chunk to the file, if spilled.
+     *
+     * @throws IOException If an I/O error occurs
+     */
+    @Override
+    public void flush() throws IOException {
+        if (channel != null && current != null) {
+            writeChunk(current);
+        }
+    }
+
+    /**
+     * Completes the writing. The data is still available from {@link #toInputStream()}.
+     *
+     * @throws IOException If an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (channel != null) {
+            try {
+                flush();
+            } finally {
+                allocator.release(current);
+                current = null;
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * @return Number of bytes written
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return True if the data was spilled to a file
+     */
+    public boolean isSpilled() {
+        return file != null;
+    }
+
+    /**
+     * @return The temporary file or null if the data is in memory
+     */
+    @Nullable
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Closes this stream and returns an input stream reading the data written. The input stream takes ownership of the
+     * data: closing it returns the chunks to the allocator or deletes the file. May only be called once.
+     *
+     * @return Input stream reading the data written to this stream
+     * @throws IOException If an I/O error occurs
+     */
+    public InputStream toInputStream() throws IOException {
+        if (consumed) {
+            throw new IllegalStateException("Stream already consumed or discarded");
+        }
+        close();
+        consumed = true;
+        if (file != null) {
+            return new DeleteOnCloseChannelInputStream(file);
+        }
+        List<ByteBuffer> data = new ArrayList<>(chunks);
+        chunks.clear();
+        current = null;
+        return new ChunksInputStream(data, allocator);
+    }
+
+    /**
+     * Closes this stream and returns input streams reading consecutive ranges of the data written, to be read by
+     * separate threads. The streams take ownership of the data like {@link #toInputStream()}. A spilled file is split
+     * with {@link DeleteOnCloseSegmentInputStream#split(Path, int)} and deleted once all the streams are closed. Data
+     * kept in memory is cheap to read and is returned as a single stream. May only be called once.
+     *
+     * @param segments Maximum number of streams to split the data between
+     * @return Input streams reading the data written to this stream, in order
+     * @throws IOException If an I/O error occurs
+     */
+    public List<InputStream> toInputStreams(int segments) throws IOException {
+        if (segments <= 0) {
+            throw new IllegalArgumentException("Illegal number of segments: " + segments);
+        }
+        if (consumed || file == null) {
+            return Collections.singletonList(toInputStream());
+        }
+        close();
+        consumed = true;
+        return Collections.<InputStream>unmodifiableList(DeleteOnCloseSegmentInputStream.split(file, segments));
+    }
+
+    /**
+     * Closes this stream and drops the data: the chunks are returned to the allocator and the file is deleted. Does
+     * nothing after {@link #toInputStream()}.
+     *
+     * @throws IOException If the file can't be deleted
+     */
+    public void discard() throws IOException {
+        if (consumed) {
+            return;
+        }
+        consumed = true;
+        try {
+            close();
+        } finally {
+            for (ByteBuffer chunk : chunks) {
+                allocator.release(chunk);
+            }
+            chunks.clear();
+            current = null;
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private void ensureWritable(int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (current != null && current.hasRemaining()) {
+            if (channel == null && size + Math.min(len, current.remaining()) > threshold) {
+                spill();
+            }
+            return;
+        }
+        if (channel != null) {
+            writeChunk(current);
+        } else if (size + Math.min(len, chunkSize) > threshold) {
+            spill();
+        } else {
+            current = allocator.acquire(chunkSize);
+            chunks.add(current);
+        }
+    }
+
+    /**
+     * Moves the chunks to a new temporary file. If it fails the data stays in the chunks and the file is deleted.
+     */
+    private void spill() throws IOException {
+        file = tempDir != null ? Files.createTempFile(tempDir, "spill", ".tmp") : Files.createTempFile("spill", ".tmp");
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.WRITE);
+            for (ByteBuffer chunk : chunks) {
+                writeContent(chunk);
+            }
+        } catch (IOException e) {
+            if (channel != null) {
+                channel.close();
+            }
+            Files.deleteIfExists(file);
+            channel = null;
+            file = null;
+            throw e;
+        }
+        // everything is in the file, the chunks can go
+        for (ByteBuffer chunk : chunks) {
+            if (chunk != current) {
+                allocator.release(chunk);
+            }
+        }
+        chunks.clear();
+        if (current == null) {
+            current = allocator.acquire(chunkSize);
+        }
+        // the last chunk keeps buffering the writes to the file
+        current.clear();
+    }
+
+    /**
+     * Writes the chunk content to the file and clears it.
+     */
+    private void writeChunk(ByteBuffer chunk) throws IOException {
+        writeContent(chunk);
+        chunk.clear();
+    }
+
+    /**
+     * Writes the chunk content to the file, leaving the chunk unchanged.
+     */
+    private void writeContent(ByteBuffer chunk) throws IOException {
+        ByteBuffer content = chunk.duplicate();
+        content.flip();
+        while (content.hasRemaining()) {
+            channel.write(content);
+        }
+    }
+
+    /**
+     * Reads in-memory chunks and returns them to the allocator when closed.
+     */
+    private static class ChunksInputStream extends InputStream {
+        private final List<ByteBuffer> chunks;
+        private final BufferAllocator allocator;
+        private int index;
+        private boolean closed;
+
+        ChunksInputStream(List<ByteBuffer> chunks, BufferAllocator allocator) {
+            this.chunks = chunks;
+            this.allocator = allocator;
+            for (ByteBuffer chunk : chunks) {
+                chunk.flip();
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            ByteBuffer chunk = nextChunk();
+            return chunk != null ? chunk.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(@Nonnull byte[] b, int off, int len) throws IOException {
+            if (off < 0 || len < 0 || len > b.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (len == 0) {
+                return 0;
+            }
+            ByteBuffer chunk = nextChunk();
+            if (chunk == null) {
+                return -1;
+            }
+            int n = Math.min(len, chunk.remaining());
+            chunk.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = 0;
+            ByteBuffer chunk;
+            while (skipped < n && (chunk = nextChunk()) != null) {
+                int s = (int) Math.min(n - skipped, chunk.remaining());
+                chunk.position(chunk.position() + s);
+                skipped += s;
+            }
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            if (closed) {
+                return 0;
+            }
+            long available = 0;
+            for (int i = index; i < chunks.size(); i++) {
+                available += chunks.get(i).remaining();
+            }
+            return (int) Math.min(Integer.MAX_VALUE, available);
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (ByteBuffer chunk : chunks) {
+                allocator.release(chunk);
+            }
+        }
+
+        @Nullable
+        private ByteBuffer nextChunk() throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            while (index < chunks.size()) {
+                ByteBuffer chunk = chunks.get(index);
+                if (chunk.hasRemaining()) {
+                    return chunk;
+                }
+                index++;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.out;
+
+import org.iostreams.streams.throttle.TokenBucket;
+
+import javax.annotation.Nonnull;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An output stream that limits the rate bytes are written to the underlying output stream.
+ * <p>
+ * Large writes are split into chunks no bigger than the burst size of the {@link TokenBucket}, each waiting for its
+ * tokens before it is written. Share the same bucket between streams to apply one limit to all of them.
+ *
+ * @author Yossi Shaul
+ */
+public class ThrottledOutputStream extends FilterOutputStream {
+
+    private final TokenBucket bucket;
+
+    /**
+     * Creates a throttled output stream with its own limit.
+     *
+     * @param out         The underlying output stream
+     * @param bytesPerSec Maximum bytes per second to write
+     */
+    public ThrottledOutputStream(@Nonnull OutputStream out, long bytesPerSec) {
+        this(out, new TokenBucket(bytesPerSec));
+    }
+
+    /**
+     * Creates a throttled output stream.
+     *
+     * @param out    The underlying output stream
+     * @param bucket The token bucket limiting this stream, possibly shared with other streams
+     */
+    public ThrottledOutputStream(@Nonnull OutputStream out, @Nonnull TokenBucket bucket) {
+        super(out);
+        this.bucket = bucket;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        bucket.acquire(1);
+        out.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        while (len > 0) {
+            int n = Math.min(len, bucket.getMaxChunk());
+            bucket.acquire(n);
+            out.write(b, off, n);
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * @return The token bucket limiting this stream
+     */
+    public TokenBucket getBucket() {
+        return bucket;
+    }
+}
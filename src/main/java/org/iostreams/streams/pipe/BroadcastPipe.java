@@ -0,0 +1,313 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.pipe;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A single-producer/multi-consumer pipe: every byte written to the {@link #sink()} is read by each of the
+ * {@link #source(int) sources}.
+ * <p>
+ * All the readers share one lock-free ring buffer, like {@link RingBufferPipe}, and each keeps its own position in it.
+ * The writer may only overwrite bytes every open reader has consumed, so it is held back by the slowest reader and the
+ * memory used is the buffer regardless of the number of readers. Each source must be read by its own thread, a reader
+ * that stops reading without closing its source eventually blocks the writer and with it all the other readers.
+ * <p>
+ * Closing the sink signals end of stream to each reader once it consumed all the buffered bytes. A closed source no
+ * longer holds back the writer. Writes fail with an <code>IOException</code> once all the sources are closed.
+ *
+ * @author Yossi Shaul
+ */
+public class BroadcastPipe {
+
+    // Number of times a side gives up the CPU hoping the other side makes progress before it parks
+    private static final int YIELDS_BEFORE_PARK = 16;
+
+    private final byte[] buffer;
+    private final int mask;
+
+    // Next position to write. Written only by the writer
+    private final RingBufferPipe.Sequence tail = new RingBufferPipe.Sequence();
+    private volatile boolean writerClosed;
+    private volatile Thread waitingWriter;
+
+    private final Source[] sources;
+    private final Sink sink = new Sink();
+
+    /**
+     * Creates a new pipe.
+     *
+     * @param capacity The size of the pipe's buffer. Rounded up to the next power of two
+     * @param readers  Number of sources
+     */
+    public BroadcastPipe(int capacity, int readers) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Illegal pipe capacity: " + capacity);
+        }
+        if (readers <= 0) {
+            throw new IllegalArgumentException("Illegal number of readers: " + readers);
+        }
+        int size = PipeSizing.roundUp(capacity);
+        this.buffer = new byte[size];
+        this.mask = size - 1;
+        this.sources = new Source[readers];
+        for (int i = 0; i < readers; i++) {
+            sources[i] = new Source();
+        }
+    }
+
+    /**
+     * @param index Index of the reader, from 0 to {@link #readers()} - 1
+     * @return The source of the reader
+     */
+    public InputStream source(int index) {
+        return sources[index];
+    }
+
+    /**
+     * @return The writing end of the pipe
+     */
+    public OutputStream sink() {
+        return sink;
+    }
+
+    /**
+     * @return Number of sources
+     */
+    public int readers() {
+        return sources.length;
+    }
+
+    /**
+     * @return The size, in bytes, of the pipe's buffer
+     */
+    public int capacity() {
+        return buffer.length;
+    }
+
+    private static void unpark(Thread thread) {
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private static void checkInterrupted() throws InterruptedIOException {
+        if (Thread.interrupted()) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting on pipe");
+        }
+    }
+
+    private class Source extends InputStream {
+        // Next position to read. Written only by this reader
+        private final RingBufferPipe.Sequence head = new RingBufferPipe.Sequence();
+        private volatile boolean closed;
+        private volatile Thread waiting;
+        // Reader's view of the tail. Refreshed only when the buffer appears empty
+        private long cachedTail;
+
+        @Override
+        public int read() throws IOException {
+            long h = head.value;
+            if (!awaitData(h)) {
+                return -1;
+            }
+            int b = buffer[(int) h & mask] & 0xff;
+            head.value = h + 1;
+            unpark(waitingWriter);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (off < 0 || len < 0 || len > b.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (len == 0) {
+                return 0;
+            }
+            long h = head.value;
+            if (!awaitData(h)) {
+                return -1;
+            }
+            int n = (int) Math.min(len, cachedTail - h);
+            int index = (int) h & mask;
+            int first = Math.min(n, buffer.length - index);
+            System.arraycopy(buffer, index, b, off, first);
+            if (first < n) {
+                System.arraycopy(buffer, 0, b, off + first, n - first);
+            }
+            head.value = h + n;
+            unpark(waitingWriter);
+            return n;
+        }
+
+        @Override
+        public int available() throws IOException {
+            if (closed) {
+                throw new IOException("Pipe closed");
+            }
+            return (int) (tail.value - head.value);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            unpark(waitingWriter);
+        }
+
+        /**
+         * Waits until there are bytes to read after position <code>h</code>.
+         *
+         * @return False if the writer closed the pipe and there is nothing more to read
+         */
+        private boolean awaitData(long h) throws IOException {
+            if (closed) {
+                throw new IOException("Pipe closed");
+            }
+            if (cachedTail > h) {
+                return true;
+            }
+            for (int i = 0; i < YIELDS_BEFORE_PARK; i++) {
+                if ((cachedTail = tail.value) > h) {
+                    return true;
+                }
+                if (writerClosed) {
+                    break;
+                }
+                Thread.yield();
+            }
+            waiting = Thread.currentThread();
+            try {
+                while ((cachedTail = tail.value) == h) {
+                    if (writerClosed) {
+                        // the tail is final once the writer is closed, but it might have moved before the flag was set
+                        return (cachedTail = tail.value) > h;
+                    }
+                    if (closed) {
+                        throw new IOException("Pipe closed");
+                    }
+                    LockSupport.park(this);
+                    checkInterrupted();
+                }
+                return true;
+            } finally {
+                waiting = null;
+            }
+        }
+    }
+
+    private class Sink extends OutputStream {
+        // Writer's view of the slowest open reader. Refreshed only when the buffer appears full
+        private long cachedHead;
+
+        @Override
+        public void write(int b) throws IOException {
+            long t = tail.value;
+            awaitSpace(t);
+            buffer[(int) t & mask] = (byte) b;
+            tail.value = t + 1;
+            signalReaders();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (off < 0 || len < 0 || len > b.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+            while (len > 0) {
+                long t = tail.value;
+                int free = awaitSpace(t);
+                int n = Math.min(len, free);
+                int index = (int) t & mask;
+                int first = Math.min(n, buffer.length - index);
+                System.arraycopy(b, off, buffer, index, first);
+                if (first < n) {
+                    System.arraycopy(b, off + first, buffer, 0, n - first);
+                }
+                tail.value = t + n;
+                signalReaders();
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void close() {
+            writerClosed = true;
+            signalReaders();
+        }
+
+        private void signalReaders() {
+            for (Source source : sources) {
+                unpark(source.waiting);
+            }
+        }
+
+        /**
+         * Waits until there is free space in the buffer after position <code>t</code>.
+         *
+         * @return Number of bytes that can be written without waiting
+         */
+        private int awaitSpace(long t) throws IOException {
+            if (writerClosed) {
+                throw new IOException("Pipe closed");
+            }
+            int free = (int) (buffer.length - (t - cachedHead));
+            if (free > 0) {
+                return free;
+            }
+            for (int i = 0; i < YIELDS_BEFORE_PARK; i++) {
+                if ((free = (int) (buffer.length - (t - (cachedHead = slowestHead())))) > 0) {
+                    return free;
+                }
+                Thread.yield();
+            }
+            waitingWriter = Thread.currentThread();
+            try {
+                while ((free = (int) (buffer.length - (t - (cachedHead = slowestHead())))) == 0) {
+                    LockSupport.park(this);
+                    checkInterrupted();
+                }
+                return free;
+            } finally {
+                waitingWriter = null;
+            }
+        }
+
+        /**
+         * @return Position of the slowest open reader
+         * @throws IOException If all the readers are closed
+         */
+        private long slowestHead() throws IOException {
+            long min = Long.MAX_VALUE;
+            for (Source source : sources) {
+                if (!source.closed) {
+                    min = Math.min(min, source.head.value);
+                }
+            }
+            if (min == Long.MAX_VALUE) {
+                throw new IOException("Pipe closed");
+            }
+            return min;
+        }
+    }
+}
@@ -0,0 +1,462 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.pipe;
+
+import org.iostreams.streams.buffer.BufferAllocator;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A pipe that hands whole buffers from the writer to the reader instead of copying bytes through a shared buffer.
+ * <p>
+ * The writer fills a chunk acquired from a {@link BufferAllocator}. Once the chunk is full (or the sink is flushed or
+ * closed) it is passed to the reader through a bounded queue. The reader either copies the bytes out using the
+ * {@link #source()} stream, or takes the chunk itself with {@link #readChunk()} and hands it back with
+ * {@link #release(ByteBuffer)} once it is consumed. Consumed chunks go back to the allocator. The writer blocks when
+ * the maximum number of chunks is in use.
+ *
+ * @author Yossi Shaul
+ */
+public class ChunkPipe implements Pipe {
+
+    // Marks the end of the stream in the queue of filled chunks
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final int chunkSize;
+    private final BufferAllocator allocator;
+
+    private final BlockingQueue<ByteBuffer> filled;
+    // One permit per chunk the writer may still acquire
+    private final Semaphore available;
+    // The chunks acquired from the allocator and not released yet, guarded by itself
+    private final Set<ByteBuffer> inUse = Collections.newSetFromMap(new IdentityHashMap<ByteBuffer, Boolean>());
+
+    private volatile boolean writerClosed;
+    private volatile boolean readerClosed;
+    // Maximum time a read waits for a chunk, 0 to wait forever
+    private volatile long readTimeoutNanos;
+    // Notified when a chunk or the end of the stream is passed to the reader
+    private volatile Runnable listener;
+
+    private final Source source = new Source();
+    private final Sink sink = new Sink();
+
+    /**
+     * Creates a new chunk pipe backed by heap buffers of the {@link BufferAllocator#shared() shared allocator}.
+     *
+     * @param chunkSize Size, in bytes, of each chunk
+     * @param maxChunks Maximum number of chunks allocated by the pipe
+     */
+    public ChunkPipe(int chunkSize, int maxChunks) {
+        this(chunkSize, maxChunks, false);
+    }
+
+    /**
+     * Creates a new chunk pipe backed by the shared allocators.
+     *
+     * @param chunkSize Size, in bytes, of each chunk
+     * @param maxChunks Maximum number of chunks allocated by the pipe. At least 2 to let the writer fill one chunk
+     *                  while the reader consumes another
+     * @param direct    Use {@link BufferAllocator#sharedDirect() direct buffers} instead of heap buffers
+     */
+    public ChunkPipe(int chunkSize, int maxChunks, boolean direct) {
+        this(chunkSize, maxChunks, direct ? BufferAllocator.sharedDirect() : BufferAllocator.shared());
+    }
+
+    /**
+     * Creates a new chunk pipe.
+     *
+     * @param chunkSize Size, in bytes, of each chunk
+     * @param maxChunks Maximum number of chunks allocated by the pipe. At least 2 to let the writer fill one chunk
+     *                  while the reader consumes another
+     * @param allocator Allocator of the chunks
+     */
+    public ChunkPipe(int chunkSize, int maxChunks, BufferAllocator allocator) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Illegal chunk size: " + chunkSize);
+        }
+        if (maxChunks < 2) {
+            throw new IllegalArgumentException("Illegal number of chunks: " + maxChunks);
+        }
+        this.chunkSize = chunkSize;
+        this.allocator = allocator;
+        // one extra slot for the end of stream marker
+        this.filled = new ArrayBlockingQueue<ByteBuffer>(maxChunks + 1);
+        this.available = new Semaphore(maxChunks);
+    }
+
+    @Override
+    public InputStream source() {
+        return source;
+    }
+
+    @Override
+    public OutputStream sink() {
+        return sink;
+    }
+
+    @Override
+    public void setReadTimeout(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("Illegal read timeout: " + timeout);
+        }
+        readTimeoutNanos = unit.toNanos(timeout);
+    }
+
+    /**
+     * @return The size, in bytes, of each chunk
+     */
+    public int chunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Returns the next chunk of data written to the pipe, waiting for one if none is available. The chunk is ready for
+     * reading, between its position and limit. If the last chunk was partially consumed by the {@link #source()}
+     * stream, the rest of it is returned.
+     * <p>
+     * The chunk belongs to the caller until it is passed to {@link #release(ByteBuffer)}.
+     *
+     * @return The next chunk of data or null if the writer closed the pipe and there is nothing more to read
+     * @throws IOException If the pipe was closed by the reader, the reading thread was interrupted or the read timed
+     *                     out
+     */
+    @Nullable
+    public ByteBuffer readChunk() throws IOException {
+        return source.nextChunk();
+    }
+
+    /**
+     * Returns the next chunk of data written to the pipe if one is ready, without waiting. Ownership of the chunk is
+     * the same as with {@link #readChunk()}.
+     *
+     * @return The next chunk of data or null if none is ready yet or the end of the stream is reached, see
+     * {@link #isEndOfStream()}
+     * @throws IOException If the pipe was closed by the reader
+     */
+    @Nullable
+    public ByteBuffer pollChunk() throws IOException {
+        return source.pollChunk();
+    }
+
+    /**
+     * @return True if the reader consumed all the chunks and the writer closed the pipe
+     */
+    public boolean isEndOfStream() {
+        return source.current == END;
+    }
+
+    /**
+     * Sets a callback run by the writer thread every time a chunk, or the end of the stream, is passed to the reader.
+     * Together with {@link #pollChunk()} it lets the reader consume the pipe without blocking a thread. The callback
+     * must not block.
+     *
+     * @param listener The callback or null to remove it
+     */
+    public void setListener(@Nullable Runnable listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Takes ownership of a chunk obtained by {@link #readChunk()} or {@link #pollChunk()}. The chunk is never reused
+     * by the pipe or returned to the allocator, a new chunk is allocated in its place.
+     *
+     * @param chunk The chunk to keep
+     * @throws IllegalArgumentException If the chunk doesn't belong to the pipe or was already released or detached
+     */
+    public void detach(ByteBuffer chunk) {
+        if (chunk == null || chunk == END) {
+            return;
+        }
+        if (!remove(chunk)) {
+            throw new IllegalArgumentException("Chunk not in use by this pipe: " + chunk);
+        }
+        allocator.detach(chunk);
+        available.release();
+    }
+
+    /**
+     * Returns a chunk obtained by {@link #readChunk()} or {@link #pollChunk()} to the pipe once it is consumed.
+     *
+     * @param chunk The consumed chunk
+     * @throws IllegalArgumentException If the chunk doesn't belong to the pipe or was already released or detached
+     */
+    public void release(ByteBuffer chunk) {
+        if (chunk == null || chunk == END) {
+            return;
+        }
+        if (!recycle(chunk)) {
+            throw new IllegalArgumentException("Chunk not in use by this pipe: " + chunk);
+        }
+    }
+
+    /**
+     * Returns a chunk of the pipe to the allocator, unless it was already returned.
+     *
+     * @return False if the chunk isn't in use by the pipe
+     */
+    private boolean recycle(@Nullable ByteBuffer chunk) {
+        if (chunk == null || chunk == END || !remove(chunk)) {
+            return false;
+        }
+        allocator.release(chunk);
+        available.release();
+        return true;
+    }
+
+    private boolean remove(ByteBuffer chunk) {
+        synchronized (inUse) {
+            return inUse.remove(chunk);
+        }
+    }
+
+    private ByteBuffer allocateChunk() throws IOException {
+        try {
+            available.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a free chunk");
+        }
+        ByteBuffer chunk = allocator.acquire(chunkSize);
+        // the allocator may round the capacity up
+        chunk.limit(chunkSize);
+        synchronized (inUse) {
+            inUse.add(chunk);
+        }
+        return chunk;
+    }
+
+    private class Source extends InputStream {
+        // The chunk being consumed by the stream methods
+        private ByteBuffer current;
+
+        @Override
+        public int read() throws IOException {
+            ByteBuffer chunk = currentChunk();
+            if (chunk == null) {
+                return -1;
+            }
+            return chunk.get() & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (off < 0 || len < 0 || len > b.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (len == 0) {
+                return 0;
+            }
+            ByteBuffer chunk = currentChunk();
+            if (chunk == null) {
+                return -1;
+            }
+            int n = Math.min(len, chunk.remaining());
+            chunk.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() throws IOException {
+            checkOpen();
+            return current != null ? current.remaining() : 0;
+        }
+
+        @Override
+        public void close() {
+            readerClosed = true;
+            recycle(current);
+            current = null;
+            // hand back everything the reader didn't consume so a writer waiting for a free chunk can fail fast
+            ByteBuffer chunk;
+            while ((chunk = filled.poll()) != null) {
+                recycle(chunk);
+            }
+            // wakes up the writer even if all the chunks are still held by the caller of readChunk()
+            available.release();
+        }
+
+        ByteBuffer nextChunk() throws IOException {
+            ByteBuffer chunk = currentChunk();
+            if (chunk != null) {
+                // the caller owns the chunk until it is released
+                current = null;
+            }
+            return chunk;
+        }
+
+        ByteBuffer pollChunk() throws IOException {
+            checkOpen();
+            while (current == null || (current != END && !current.hasRemaining())) {
+                recycle(current);
+                current = filled.poll();
+                if (current == null) {
+                    return null;
+                }
+            }
+            if (current == END) {
+                return null;
+            }
+            ByteBuffer chunk = current;
+            current = null;
+            return chunk;
+        }
+
+        private ByteBuffer currentChunk() throws IOException {
+            checkOpen();
+            while (current == null || (current != END && !current.hasRemaining())) {
+                recycle(current);
+                current = take();
+            }
+            return current == END ? null : current;
+        }
+
+        private ByteBuffer take() throws IOException {
+            long timeout = readTimeoutNanos;
+            try {
+                if (timeout == 0) {
+                    return filled.take();
+                }
+                ByteBuffer chunk = filled.poll(timeout, TimeUnit.NANOSECONDS);
+                if (chunk == null) {
+                    throw new InterruptedIOException("Read timed out");
+                }
+                return chunk;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting on pipe");
+            }
+        }
+
+        private void checkOpen() throws IOException {
+            if (readerClosed) {
+                throw new IOException("Pipe closed");
+            }
+        }
+    }
+
+    private class Sink extends OutputStream {
+        // The chunk being filled by the writer
+        private ByteBuffer current;
+
+        @Override
+        public void write(int b) throws IOException {
+            currentChunk().put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (off < 0 || len < 0 || len > b.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+            while (len > 0) {
+                ByteBuffer chunk = currentChunk();
+                int n = Math.min(len, chunk.remaining());
+                chunk.put(b, off, n);
+                off += n;
+                len -= n;
+            }
+        }
+
+        /**
+         * Hands the partially filled chunk, if any, to the reader.
+         */
+        @Override
+        public void flush() throws IOException {
+            checkOpen();
+            if (current != null && current.position() > 0) {
+                publish();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (writerClosed) {
+                return;
+            }
+            writerClosed = true;
+            if (readerClosed) {
+                recycle(current);
+                current = null;
+                return;
+            }
+            if (current != null && current.position() > 0) {
+                publish();
+            } else {
+                recycle(current);
+                current = null;
+            }
+            put(END);
+        }
+
+        private ByteBuffer currentChunk() throws IOException {
+            checkOpen();
+            if (current != null && !current.hasRemaining()) {
+                publish();
+            }
+            if (current == null) {
+                current = allocateChunk();
+                // the reader might have closed while we were waiting for a chunk
+                checkOpen();
+            }
+            return current;
+        }
+
+        private void publish() throws IOException {
+            ByteBuffer chunk = current;
+            current = null;
+            chunk.flip();
+            put(chunk);
+            if (readerClosed) {
+                // the reader closed concurrently and might have missed this chunk
+                filled.remove(chunk);
+                recycle(chunk);
+            }
+        }
+
+        private void put(ByteBuffer chunk) throws IOException {
+            try {
+                filled.put(chunk);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting on pipe");
+            }
+            Runnable l = listener;
+            if (l != null) {
+                l.run();
+            }
+        }
+
+        private void checkOpen() throws IOException {
+            if (readerClosed || writerClosed) {
+                throw new IOException("Pipe closed");
+            }
+        }
+    }
+}
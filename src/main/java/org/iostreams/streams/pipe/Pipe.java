@@ -0,0 +1,48 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.pipe;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A one-way channel of bytes between a writing thread and a reading thread.
+ *
+ * @author Yossi Shaul
+ */
+public interface Pipe {
+
+    /**
+     * @return The reading end of the pipe
+     */
+    InputStream source();
+
+    /**
+     * @return The writing end of the pipe
+     */
+    OutputStream sink();
+
+    /**
+     * Limits how long a read from the source waits for the writer. A read that waits longer fails with an
+     * <code>InterruptedIOException</code> and the pipe stays usable.
+     *
+     * @param timeout Maximum time to wait for data, 0 to wait forever (the default)
+     * @param unit    The unit of the timeout
+     */
+    void setReadTimeout(long timeout, TimeUnit unit);
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.pipe;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounds and statistics of adaptively sized {@link RingBufferPipe}s.
+ * <p>
+ * An adaptive pipe starts with the minimum capacity and is resized by its writer between the bounds:
+ * <ul>
+ * <li>It doubles, or grows to twice the average write if that is larger, when the writer waited for free space while
+ * the reader also waited for data (the buffer is too small to absorb the bursts of either side), or while the
+ * average write takes more than half the buffer</li>
+ * <li>It halves when the writer never waited and the buffer never got more than a quarter full</li>
+ * </ul>
+ * Decisions are taken once the writer wrote four times the capacity since the previous one, so streams shorter than
+ * that keep the minimum capacity. A new buffer replaces the old one only when the reader consumed all the bytes.
+ * <p>
+ * One instance is usually shared by many pipes, it accumulates their statistics. Thread-safe.
+ *
+ * @author Yossi Shaul
+ */
+public class PipeSizing {
+
+    private final int minCapacity;
+    private final int maxCapacity;
+
+    private final AtomicLong capacity = new AtomicLong();
+    private final AtomicLong openPipes = new AtomicLong();
+    private final LongAdder writerStalls = new LongAdder();
+    private final LongAdder readerStalls = new LongAdder();
+    private final LongAdder grows = new LongAdder();
+    private final LongAdder shrinks = new LongAdder();
+
+    /**
+     * Creates new pipe sizing bounds.
+     *
+     * @param minCapacity Initial and smallest capacity of the pipes. Rounded up to the next power of two
+     * @param maxCapacity Largest capacity of the pipes. Rounded up to the next power of two
+     */
+    public PipeSizing(int minCapacity, int maxCapacity) {
+        if (minCapacity <= 0 || minCapacity > (1 << 30)) {
+            throw new IllegalArgumentException("Illegal minimum capacity: " + minCapacity);
+        }
+        if (maxCapacity < minCapacity || maxCapacity > (1 << 30)) {
+            throw new IllegalArgumentException("Illegal maximum capacity: " + maxCapacity);
+        }
+        this.minCapacity = roundUp(minCapacity);
+        this.maxCapacity = roundUp(maxCapacity);
+    }
+
+    /**
+     * @return Initial and smallest capacity of the pipes
+     */
+    public int getMinCapacity() {
+        return minCapacity;
+    }
+
+    /**
+     * @return Largest capacity of the pipes
+     */
+    public int getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    /**
+     * @return Total capacity, in bytes, of the open pipes
+     */
+    public long getCapacity() {
+        return capacity.get();
+    }
+
+    /**
+     * @return Number of pipes created with these bounds that are not closed yet at both ends
+     */
+    public long getOpenPipes() {
+        return openPipes.get();
+    }
+
+    /**
+     * @return Number of times writers found the buffer full and had to wait
+     */
+    public long getWriterStalls() {
+        return writerStalls.sum();
+    }
+
+    /**
+     * @return Number of times readers found the buffer empty and had to wait
+     */
+    public long getReaderStalls() {
+        return readerStalls.sum();
+    }
+
+    /**
+     * @return Number of times a pipe's buffer was replaced by a larger one
+     */
+    public long getGrows() {
+        return grows.sum();
+    }
+
+    /**
+     * @return Number of times a pipe's buffer was replaced by a smaller one
+     */
+    public long getShrinks() {
+        return shrinks.sum();
+    }
+
+    /**
+     * Picks the capacity of a pipe for the next window of writes.
+     *
+     * @param capacity     Current capacity
+     * @param writerStalls Times the writer waited during the window
+     * @param readerStalls Times the reader waited during the window
+     * @param averageWrite Average length of a write during the window
+     * @param highWater    Largest number of bytes seen in the buffer during the window
+     * @return The capacity to use, the current one if it should not change
+     */
+    int nextCapacity(int capacity, long writerStalls, long readerStalls, long averageWrite, int highWater) {
+        if (writerStalls > 0 && (readerStalls > 0 || averageWrite * 2 > capacity)) {
+            long target = Math.max(capacity * 2L, averageWrite * 2);
+            return target >= maxCapacity ? maxCapacity : roundUp((int) target);
+        }
+        if (writerStalls == 0 && highWater <= capacity / 4) {
+            return Math.max(minCapacity, capacity / 2);
+        }
+        return capacity;
+    }
+
+    void opened(int capacity) {
+        openPipes.incrementAndGet();
+        this.capacity.addAndGet(capacity);
+    }
+
+    void resized(int from, int to) {
+        capacity.addAndGet(to - from);
+        if (to > from) {
+            grows.increment();
+        } else {
+            shrinks.increment();
+        }
+    }
+
+    void closed(int capacity) {
+        openPipes.decrementAndGet();
+        this.capacity.addAndGet(-capacity);
+    }
+
+    void writerStalled() {
+        writerStalls.increment();
+    }
+
+    void readerStalled() {
+        readerStalls.increment();
+    }
+
+    static int roundUp(int capacity) {
+        int size = Integer.highestOneBit(capacity);
+        return size < capacity ? size << 1 : size;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PipeSizing{min=%d, max=%d, capacity=%d, openPipes=%d, writerStalls=%d, " +
+                        "readerStalls=%d, grows=%d, shrinks=%d}", minCapacity, maxCapacity, getCapacity(),
+                getOpenPipes(), getWriterStalls(), getReaderStalls(), getGrows(), getShrinks());
+    }
+}
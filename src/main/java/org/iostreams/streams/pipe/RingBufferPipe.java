@@ -0,0 +1,506 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.pipe;
+
+import org.iostreams.streams.buffer.BufferAllocator;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A single-producer/single-consumer pipe backed by a lock-free ring buffer.
+ * <p>
+ * Unlike {@link java.io.PipedInputStream}, the pipe is not tied to the threads using it: any thread may write to the
+ * {@link #sink()} and any (other) thread may read from the {@link #source()}, as long as there is at most one reader
+ * and one writer at a time. A side waiting for data or free space briefly yields and then parks until the other side
+ * signals it, there is no polling. Bytes are moved with bulk array copies.
+ * <p>
+ * Closing the sink signals end of stream to the reader once all the buffered bytes are consumed. Closing the source
+ * makes any further write fail with an <code>IOException</code>.
+ * <p>
+ * The buffer may be taken from a {@link BufferAllocator}. It is returned to the allocator once both the source and the
+ * sink are closed.
+ * <p>
+ * A pipe created with a {@link PipeSizing} adapts its capacity to the traffic, between the sizing's bounds, see
+ * {@link PipeSizing} for the policy. The writer replaces the buffer when the reader consumed all the bytes in it, so
+ * neither side ever sees a buffer the other side replaced.
+ *
+ * @author Yossi Shaul
+ */
+public class RingBufferPipe implements Pipe {
+
+    // Number of times a side gives up the CPU hoping the other side makes progress before it parks
+    private static final int YIELDS_BEFORE_PARK = 16;
+
+    // Replaced only by the writer while the buffer is empty. The reader sees the new buffer since it reads it after
+    // reading a tail written after the replacement
+    private byte[] buffer;
+    private int mask;
+    // The pooled buffer backing the byte array, null if the array isn't pooled
+    private final BufferAllocator allocator;
+    private ByteBuffer pooled;
+    // Null if the capacity is fixed
+    private final PipeSizing sizing;
+    private final AtomicBoolean sourceClosed = new AtomicBoolean();
+    private final AtomicBoolean sinkClosed = new AtomicBoolean();
+    private final AtomicInteger openEnds = new AtomicInteger(2);
+
+    // Next position to read. Written only by the reader
+    private final Sequence head = new Sequence();
+    // Next position to write. Written only by the writer
+    private final Sequence tail = new Sequence();
+
+    private volatile boolean writerClosed;
+    private volatile boolean readerClosed;
+
+    // Maximum time a read waits for data, 0 to wait forever
+    private volatile long readTimeoutNanos;
+
+    private volatile long writerStalls;
+    private volatile long readerStalls;
+
+    private volatile Thread waitingReader;
+    private volatile Thread waitingWriter;
+
+    private final Source source = new Source();
+    private final Sink sink = new Sink();
+
+    /**
+     * Creates a new pipe.
+     *
+     * @param capacity The size of the pipe's buffer. Rounded up to the next power of two
+     */
+    public RingBufferPipe(int capacity) {
+        this(capacity, null);
+    }
+
+    /**
+     * Creates a new pipe with a buffer taken from an allocator.
+     *
+     * @param capacity  The size of the pipe's buffer. Rounded up to the next power of two
+     * @param allocator Heap buffer allocator providing the pipe's buffer. Null to allocate the buffer
+     */
+    public RingBufferPipe(int capacity, @Nullable BufferAllocator allocator) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Illegal pipe capacity: " + capacity);
+        }
+        if (allocator != null && allocator.isDirect()) {
+            throw new IllegalArgumentException("Pipe requires a heap buffer allocator");
+        }
+        int size = PipeSizing.roundUp(capacity);
+        this.allocator = allocator;
+        this.sizing = null;
+        allocate(size);
+    }
+
+    /**
+     * Creates a new pipe adapting its capacity to the traffic.
+     *
+     * @param sizing    The bounds of the capacity, also collecting the pipe's statistics
+     * @param allocator Heap buffer allocator providing the pipe's buffers. Null to allocate the buffers
+     */
+    public RingBufferPipe(PipeSizing sizing, @Nullable BufferAllocator allocator) {
+        if (allocator != null && allocator.isDirect()) {
+            throw new IllegalArgumentException("Pipe requires a heap buffer allocator");
+        }
+        this.allocator = allocator;
+        this.sizing = sizing;
+        allocate(sizing.getMinCapacity());
+        sizing.opened(buffer.length);
+    }
+
+    private void allocate(int size) {
+        if (allocator != null) {
+            // power of two sizes are served exactly
+            pooled = allocator.acquire(size);
+            buffer = pooled.array();
+        } else {
+            buffer = new byte[size];
+        }
+        mask = size - 1;
+    }
+
+    @Override
+    public InputStream source() {
+        return source;
+    }
+
+    @Override
+    public OutputStream sink() {
+        return sink;
+    }
+
+    @Override
+    public void setReadTimeout(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("Illegal read timeout: " + timeout);
+        }
+        readTimeoutNanos = unit.toNanos(timeout);
+    }
+
+    /**
+     * @return The current size, in bytes, of the pipe's buffer. Only the writer sees the latest size of an adaptive
+     * pipe
+     */
+    public int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * @return Number of bytes written to the pipe and not read yet, including the bytes left in the pipe when the
+     * reader closed it
+     */
+    public long getUnreadBytes() {
+        return tail.value - head.value;
+    }
+
+    /**
+     * @return Number of times the writer found the buffer full and had to wait
+     */
+    public long getWriterStalls() {
+        return writerStalls;
+    }
+
+    /**
+     * @return Number of times the reader found the buffer empty and had to wait
+     */
+    public long getReaderStalls() {
+        return readerStalls;
+    }
+
+    /**
+     * Returns the buffer to the allocator once both ends are closed, neither side touches it anymore.
+     */
+    private void endClosed(AtomicBoolean end) {
+        if (end.compareAndSet(false, true) && openEnds.decrementAndGet() == 0) {
+            if (sizing != null) {
+                sizing.closed(buffer.length);
+            }
+            if (pooled != null) {
+                allocator.release(pooled);
+            }
+        }
+    }
+
+    private static void unpark(Thread thread) {
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private static void checkInterrupted() throws InterruptedIOException {
+        if (Thread.interrupted()) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting on pipe");
+        }
+    }
+
+    private class Source extends InputStream {
+        // Reader's view of the tail. Refreshed only when the buffer appears empty
+        private long cachedTail;
+
+        @Override
+        public int read() throws IOException {
+            long h = head.value;
+            if (!awaitData(h)) {
+                return -1;
+            }
+            int b = buffer[(int) h & mask] & 0xff;
+            head.value = h + 1;
+            unpark(waitingWriter);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (off < 0 || len < 0 || len > b.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (len == 0) {
+                return 0;
+            }
+            long h = head.value;
+            if (!awaitData(h)) {
+                return -1;
+            }
+            int n = (int) Math.min(len, cachedTail - h);
+            int index = (int) h & mask;
+            int first = Math.min(n, buffer.length - index);
+            System.arraycopy(buffer, index, b, off, first);
+            if (first < n) {
+                System.arraycopy(buffer, 0, b, off + first, n - first);
+            }
+            head.value = h + n;
+            unpark(waitingWriter);
+            return n;
+        }
+
+        @Override
+        public int available() throws IOException {
+            if (readerClosed) {
+                throw new IOException("Pipe closed");
+            }
+            return (int) (tail.value - head.value);
+        }
+
+        @Override
+        public void close() {
+            readerClosed = true;
+            unpark(waitingWriter);
+            endClosed(sourceClosed);
+        }
+
+        /**
+         * Waits until there are bytes to read after position <code>h</code>.
+         *
+         * @return False if the writer closed the pipe and there is nothing more to read
+         */
+        private boolean awaitData(long h) throws IOException {
+            if (readerClosed) {
+                throw new IOException("Pipe closed");
+            }
+            if (cachedTail > h || (cachedTail = tail.value) > h) {
+                return true;
+            }
+            if (!writerClosed) {
+                readerStalls++;   // written only by the reader
+                if (sizing != null) {
+                    sizing.readerStalled();
+                }
+            }
+            for (int i = 0; i < YIELDS_BEFORE_PARK; i++) {
+                if ((cachedTail = tail.value) > h) {
+                    return true;
+                }
+                if (writerClosed || readerClosed) {
+                    break;
+                }
+                Thread.yield();
+            }
+            long timeout = readTimeoutNanos;
+            long deadline = System.nanoTime() + timeout;
+            waitingReader = Thread.currentThread();
+            try {
+                while ((cachedTail = tail.value) == h) {
+                    if (writerClosed) {
+                        // the tail is final once the writer is closed, but it might have moved before the flag was set
+                        return (cachedTail = tail.value) > h;
+                    }
+                    if (readerClosed) {
+                        throw new IOException("Pipe closed");
+                    }
+                    if (timeout == 0) {
+                        LockSupport.park(this);
+                    } else {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            throw new InterruptedIOException("Read timed out");
+                        }
+                        LockSupport.parkNanos(this, remaining);
+                    }
+                    checkInterrupted();
+                }
+                return true;
+            } finally {
+                waitingReader = null;
+            }
+        }
+    }
+
+    private class Sink extends OutputStream {
+        // Writer's view of the head. Refreshed only when the buffer appears full
+        private long cachedHead;
+
+        // Traffic since the last sizing decision of an adaptive pipe
+        private long windowBytes;
+        private long windowWrites;
+        private long windowWriterStalls;
+        private long windowReaderStalls;
+        private int highWater;
+        // Capacity decided by the sizing, applied once the buffer is empty. 0 if none
+        private int pendingCapacity;
+
+        @Override
+        public void write(int b) throws IOException {
+            long t = tail.value;
+            awaitSpace(t);
+            if (pendingCapacity != 0) {
+                resizeIfEmpty(t);
+            }
+            buffer[(int) t & mask] = (byte) b;
+            tail.value = t + 1;
+            unpark(waitingReader);
+            if (sizing != null) {
+                sample(1, true, t + 1);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (off < 0 || len < 0 || len > b.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+            while (len > 0) {
+                long t = tail.value;
+                int free = awaitSpace(t);
+                if (pendingCapacity != 0 && resizeIfEmpty(t)) {
+                    free = buffer.length;
+                }
+                int n = Math.min(len, free);
+                int index = (int) t & mask;
+                int first = Math.min(n, buffer.length - index);
+                System.arraycopy(b, off, buffer, index, first);
+                if (first < n) {
+                    System.arraycopy(b, off + first, buffer, 0, n - first);
+                }
+                tail.value = t + n;
+                unpark(waitingReader);
+                off += n;
+                len -= n;
+                if (sizing != null) {
+                    sample(n, len == 0, t + n);
+                }
+            }
+        }
+
+        /**
+         * Records bytes copied into the buffer of an adaptive pipe and decides on the capacity once enough bytes were
+         * written. A large write may span several decisions.
+         *
+         * @param n        Number of bytes copied
+         * @param complete True if the copy completed a write call
+         * @param t        The tail after the copy
+         */
+        private void sample(int n, boolean complete, long t) {
+            windowBytes += n;
+            if (complete && (++windowWrites & 15) == 0) {
+                // the real head costs a cache miss, sampling it is enough to catch a buffer that fills up
+                cachedHead = head.value;
+            }
+            int fill = (int) (t - cachedHead);
+            if (fill > highWater) {
+                highWater = fill;
+            }
+            if (windowBytes >= 4L * buffer.length) {
+                long writer = writerStalls;
+                long reader = readerStalls;
+                int capacity = buffer.length;
+                int next = sizing.nextCapacity(capacity, writer - windowWriterStalls, reader - windowReaderStalls,
+                        // a write still in progress is at least as long as all the bytes of the window
+                        windowBytes / Math.max(1, windowWrites), highWater);
+                pendingCapacity = next != capacity ? next : 0;
+                windowWriterStalls = writer;
+                windowReaderStalls = reader;
+                windowBytes = 0;
+                windowWrites = 0;
+                highWater = 0;
+            }
+        }
+
+        /**
+         * Replaces the buffer if the reader consumed all the bytes up to <code>t</code>. The reader finished copying
+         * from the old buffer before it moved the head to the tail, and reads the new buffer only after seeing a later
+         * tail.
+         *
+         * @return True if the buffer was replaced
+         */
+        private boolean resizeIfEmpty(long t) {
+            if (t != cachedHead && (cachedHead = head.value) != t) {
+                return false;
+            }
+            int from = buffer.length;
+            ByteBuffer old = pooled;
+            allocate(pendingCapacity);
+            if (old != null) {
+                allocator.release(old);
+            }
+            sizing.resized(from, buffer.length);
+            pendingCapacity = 0;
+            return true;
+        }
+
+        @Override
+        public void close() {
+            writerClosed = true;
+            unpark(waitingReader);
+            endClosed(sinkClosed);
+        }
+
+        /**
+         * Waits until there is free space in the buffer after position <code>t</code>.
+         *
+         * @return Number of bytes that can be written without waiting
+         */
+        private int awaitSpace(long t) throws IOException {
+            checkOpen();
+            int free = (int) (buffer.length - (t - cachedHead));
+            if (free > 0 || (free = (int) (buffer.length - (t - (cachedHead = head.value)))) > 0) {
+                return free;
+            }
+            writerStalls++;   // written only by the writer
+            if (sizing != null) {
+                sizing.writerStalled();
+            }
+            for (int i = 0; i < YIELDS_BEFORE_PARK; i++) {
+                if ((free = (int) (buffer.length - (t - (cachedHead = head.value)))) > 0) {
+                    return free;
+                }
+                checkOpen();
+                Thread.yield();
+            }
+            waitingWriter = Thread.currentThread();
+            try {
+                while ((free = (int) (buffer.length - (t - (cachedHead = head.value)))) == 0) {
+                    checkOpen();
+                    LockSupport.park(this);
+                    checkInterrupted();
+                }
+                return free;
+            } finally {
+                waitingWriter = null;
+            }
+        }
+
+        private void checkOpen() throws IOException {
+            if (readerClosed || writerClosed) {
+                throw new IOException("Pipe closed");
+            }
+        }
+    }
+
+    // Padding keeps the reader and writer positions on separate cache lines, otherwise every update by one side
+    // invalidates the line the other side is working on
+    static class LhsPadding {
+        long p1, p2, p3, p4, p5, p6, p7;
+    }
+
+    static class Value extends LhsPadding {
+        volatile long value;
+    }
+
+    static class Sequence extends Value {
+        long p9, p10, p11, p12, p13, p14, p15;
+    }
+}
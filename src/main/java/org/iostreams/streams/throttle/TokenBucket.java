@@ -0,0 +1,228 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.throttle;
+
+import java.io.InterruptedIOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A token bucket limiting the number of bytes per second.
+ * <p>
+ * The bucket fills at the configured rate up to the burst size. Callers take tokens with {@link #acquire(long)} and
+ * wait when there aren't enough. Tokens are reserved in order, a caller that has to wait leaves the bucket in debt and
+ * later callers wait behind it, so large and small transfers are treated fairly and time lost to late wake-ups is not
+ * lost throughput: the bucket keeps filling while a caller oversleeps.
+ * <p>
+ * A single bucket may be shared by any number of streams and threads to enforce a global limit. The rate and burst
+ * may be changed at any time; waiting callers pick up the new rate.
+ *
+ * @author Yossi Shaul
+ */
+public class TokenBucket {
+
+    // Waits shorter than this are spun instead of parked, parking is not precise enough for them
+    private static final long SPIN_THRESHOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final double NANOS_PER_SEC = 1e9;
+
+    private long bytesPerSec;
+    private long burstBytes;
+
+    // Cumulative tokens made available by the bucket and cumulative tokens taken. Guarded by this
+    private double granted;
+    private long reserved;
+    private long lastRefill;
+
+    private final Set<Thread> waiters = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a token bucket allowing a burst of one second worth of bytes.
+     *
+     * @param bytesPerSec The maximum rate, in bytes per second
+     */
+    public TokenBucket(long bytesPerSec) {
+        this(bytesPerSec, bytesPerSec);
+    }
+
+    /**
+     * Creates a token bucket.
+     *
+     * @param bytesPerSec The maximum rate, in bytes per second
+     * @param burstBytes  The maximum number of bytes that may pass without waiting after the bucket was idle
+     */
+    public TokenBucket(long bytesPerSec, long burstBytes) {
+        checkArguments(bytesPerSec, burstBytes);
+        this.bytesPerSec = bytesPerSec;
+        this.burstBytes = burstBytes;
+        this.granted = burstBytes;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Takes tokens from the bucket, waiting until they are available.
+     *
+     * @param bytes Number of tokens (bytes) to take
+     * @throws InterruptedIOException If the thread is interrupted while waiting. The tokens are not taken
+     */
+    public void acquire(long bytes) throws InterruptedIOException {
+        if (bytes <= 0) {
+            return;
+        }
+        long ticket;
+        synchronized (this) {
+            refill(System.nanoTime());
+            reserved += bytes;
+            ticket = reserved;
+        }
+        if (nanosUntil(ticket) <= 0) {
+            return;
+        }
+        Thread current = Thread.currentThread();
+        // registered before calculating the wait, so a rate change can't be missed
+        waiters.add(current);
+        try {
+            long waitNanos;
+            while ((waitNanos = nanosUntil(ticket)) > 0) {
+                if (waitNanos > SPIN_THRESHOLD_NANOS) {
+                    LockSupport.parkNanos(this, waitNanos);
+                } else {
+                    Thread.onSpinWait();
+                }
+                if (Thread.interrupted()) {
+                    current.interrupt();
+                    refund(ticket, bytes);
+                    throw new InterruptedIOException("Interrupted while waiting for bandwidth");
+                }
+            }
+        } finally {
+            waiters.remove(current);
+        }
+    }
+
+    /**
+     * Takes tokens from the bucket if they are available right away.
+     *
+     * @param bytes Number of tokens (bytes) to take
+     * @return True if the tokens were taken
+     */
+    public synchronized boolean tryAcquire(long bytes) {
+        refill(System.nanoTime());
+        if (granted - reserved < bytes) {
+            return false;
+        }
+        reserved += bytes;
+        return true;
+    }
+
+    /**
+     * @return The maximum rate, in bytes per second
+     */
+    public synchronized long getRate() {
+        return bytesPerSec;
+    }
+
+    /**
+     * Changes the maximum rate. Takes effect immediately, also for callers already waiting.
+     *
+     * @param bytesPerSec The new maximum rate, in bytes per second
+     */
+    public synchronized void setRate(long bytesPerSec) {
+        checkArguments(bytesPerSec, burstBytes);
+        // account for the time elapsed under the old rate
+        refill(System.nanoTime());
+        this.bytesPerSec = bytesPerSec;
+        // let the waiting threads recalculate their wait
+        for (Thread waiter : waiters) {
+            LockSupport.unpark(waiter);
+        }
+    }
+
+    /**
+     * @return The maximum number of bytes that may pass without waiting
+     */
+    public synchronized long getBurst() {
+        return burstBytes;
+    }
+
+    /**
+     * Changes the burst size.
+     *
+     * @param burstBytes The maximum number of bytes that may pass without waiting after the bucket was idle
+     */
+    public synchronized void setBurst(long burstBytes) {
+        checkArguments(bytesPerSec, burstBytes);
+        refill(System.nanoTime());
+        this.burstBytes = burstBytes;
+        granted = Math.min(granted, reserved + burstBytes);
+    }
+
+    /**
+     * @return Largest chunk, in bytes, streams should transfer at once so a single call doesn't exceed the burst
+     */
+    public synchronized int getMaxChunk() {
+        return (int) Math.max(1, Math.min(burstBytes, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Gives back the tokens reserved by a caller that gave up waiting, so the others aren't throttled for bytes that
+     * were never transferred.
+     */
+    private synchronized void refund(long ticket, long bytes) {
+        refill(System.nanoTime());
+        if (ticket == reserved) {
+            // the last reservation, as if it was never made
+            reserved -= bytes;
+            granted = Math.min(granted, reserved + burstBytes);
+        } else {
+            // later tickets can't be moved, credit the tokens instead to let the callers behind it through sooner
+            granted = Math.min(granted + bytes, reserved + burstBytes);
+            for (Thread waiter : waiters) {
+                LockSupport.unpark(waiter);
+            }
+        }
+    }
+
+    private synchronized long nanosUntil(long ticket) {
+        long now = System.nanoTime();
+        refill(now);
+        double missing = ticket - granted;
+        if (missing <= 0) {
+            return 0;
+        }
+        return (long) Math.ceil(missing * NANOS_PER_SEC / bytesPerSec);
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefill;
+        if (elapsed > 0) {
+            lastRefill = now;
+            // tokens don't accumulate beyond the burst size while nobody is using them
+            granted = Math.min(granted + elapsed * (bytesPerSec / NANOS_PER_SEC), reserved + burstBytes);
+        }
+    }
+
+    private static void checkArguments(long bytesPerSec, long burstBytes) {
+        if (bytesPerSec <= 0) {
+            throw new IllegalArgumentException("Rate must be positive: " + bytesPerSec);
+        }
+        if (burstBytes <= 0) {
+            throw new IllegalArgumentException("Burst must be positive: " + burstBytes);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.buffer;
+
+/**
+ * Decides which threads get a {@link BufferAllocator} thread cache.
+ * <p>
+ * JDK 21+ implementation: virtual threads don't cache buffers. They usually run a single task, so a cache would die
+ * with the thread and take the buffers released into it out of the shared pool.
+ *
+ * @author Yossi Shaul
+ */
+final class ThreadCaching {
+
+    private ThreadCaching() {
+    }
+
+    /**
+     * @return True if the current thread may cache released buffers
+     */
+    static boolean isCacheable() {
+        return !Thread.currentThread().isVirtual();
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.concurrent;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executors used by streams that run work on a background thread when the caller doesn't provide an executor.
+ * <p>
+ * JDK 21+ implementation: each task runs on a new virtual thread, so blocking on a pipe doesn't hold a platform
+ * thread. On JDK 11 to 20 the executor is an unbounded cached pool, with one platform thread per concurrently running
+ * writer.
+ *
+ * @author Yossi Shaul
+ */
+public final class StreamExecutors {
+
+    private static final ExecutorService DEFAULT = new SharedExecutorService(Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("iostreams-writer-", 1).factory()));
+
+    private StreamExecutors() {
+    }
+
+    /**
+     * Returns the executor shared by all the streams that weren't given one. The returned executor cannot be shut
+     * down, its <code>shutdown()</code> and <code>shutdownNow()</code> do nothing.
+     *
+     * @return The default executor for background stream work
+     */
+    public static ExecutorService defaultExecutor() {
+        return DEFAULT;
+    }
+
+    /**
+     * @return True if the default executor runs tasks on virtual threads
+     */
+    public static boolean isVirtual() {
+        return true;
+    }
+}
@@ -1,7 +1,10 @@
 package org.iostreams.streams;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
 
 /**
  * Utility class for testing.
@@ -10,6 +13,23 @@ import java.io.InputStream;
  */
 public abstract class StreamsTestUtils {
 
+    /**
+     * Standard check input of the CRC catalogues, the ASCII digits 1 to 9
+     */
+    public static final byte[] CHECK = "123456789".getBytes(StandardCharsets.US_ASCII);
+    /**
+     * CRC32 of {@link #CHECK}
+     */
+    public static final long CHECK_CRC32 = 0xcbf43926L;
+    /**
+     * CRC32C of {@link #CHECK}
+     */
+    public static final long CHECK_CRC32C = 0xe3069283L;
+    /**
+     * Adler32 of {@link #CHECK}
+     */
+    public static final long CHECK_ADLER32 = 0x091e01deL;
+
     public static void consumeAndCloseStream(InputStream in) throws IOException {
         try {
             while (in.read() > -1) ;
@@ -17,4 +37,35 @@ public abstract class StreamsTestUtils {
             in.close();
         }
     }
+
+    /**
+     * @return Random bytes, the same for the same size
+     */
+    public static byte[] randomBytes(int size) {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return data;
+    }
+
+    /**
+     * Reads the stream to its end in reads of the given size.
+     *
+     * @return The bytes read
+     */
+    public static byte[] readFully(InputStream in, int chunk) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[chunk];
+        int n;
+        while ((n = in.read(buf)) != -1) {
+            out.write(buf, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @return The checksum as 8 lowercase hex digits, as returned by {@code Digest.getHexValue()}
+     */
+    public static String hex(long checksum) {
+        return String.format("%08x", checksum);
+    }
 }
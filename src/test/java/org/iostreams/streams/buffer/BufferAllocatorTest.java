@@ -0,0 +1,186 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.buffer;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.buffer.BufferAllocator}.
+ *
+ * @author Yossi Shaul
+ */
+public class BufferAllocatorTest {
+
+    @Test
+    public void sizeClasses() {
+        BufferAllocator allocator = new BufferAllocator(100, 1000, 4096, 0, false, false);
+        assertThat(allocator.getMinSize()).isEqualTo(128);
+        assertThat(allocator.getMaxSize()).isEqualTo(1024);
+        assertThat(allocator.acquire(128).capacity()).isEqualTo(128);
+        assertThat(allocator.acquire(129).capacity()).isEqualTo(256);
+        assertThat(allocator.acquire(1024).capacity()).isEqualTo(1024);
+        assertThat(allocator.getMisses()).isEqualTo(3);
+        // outside the pooled sizes
+        assertThat(allocator.acquire(100).capacity()).isEqualTo(100);
+        assertThat(allocator.acquire(1025).capacity()).isEqualTo(1025);
+        assertThat(allocator.acquire(0).capacity()).isEqualTo(0);
+        assertThat(allocator.getUnpooled()).isEqualTo(3);
+    }
+
+    @Test
+    public void releasedBuffersReused() {
+        BufferAllocator allocator = new BufferAllocator(128, 1024, 4096, 0, false, false);
+        ByteBuffer buffer = allocator.acquire(200);
+        buffer.put((byte) 1);
+        allocator.release(buffer);
+        assertThat(allocator.getPooledCount()).isEqualTo(1);
+
+        ByteBuffer reused = allocator.acquire(256);
+        assertThat(reused).isSameAs(buffer);
+        assertThat(reused.position()).isEqualTo(0);
+        assertThat(allocator.getHits()).isEqualTo(1);
+        assertThat(allocator.getMisses()).isEqualTo(1);
+        // a different class isn't served by the pooled buffer
+        allocator.release(reused);
+        assertThat(allocator.acquire(512)).isNotSameAs(buffer);
+        // unpooled sizes are dropped
+        allocator.release(ByteBuffer.allocate(300));
+        allocator.release(ByteBuffer.allocate(2048));
+        assertThat(allocator.getPooledCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void sharedPoolBoundedByBytes() {
+        // 512 bytes per class: 4 buffers of 128, 1 of 1024
+        BufferAllocator allocator = new BufferAllocator(128, 1024, 512, 0, false, false);
+        for (int i = 0; i < 6; i++) {
+            allocator.release(ByteBuffer.allocate(128));
+        }
+        allocator.release(ByteBuffer.allocate(1024));
+        allocator.release(ByteBuffer.allocate(1024));
+        assertThat(allocator.getPooledCount()).isEqualTo(5);
+        assertThat(allocator.getDiscarded()).isEqualTo(3);
+    }
+
+    @Test
+    public void threadCacheServesItsThread() throws Exception {
+        final BufferAllocator allocator = new BufferAllocator(128, 1024, 4096, 1, false, false);
+        ByteBuffer first = allocator.acquire(128);
+        ByteBuffer second = allocator.acquire(128);
+        allocator.release(first);
+        allocator.release(second);
+        // the first went to the thread cache, the second to the shared pool
+        assertThat(allocator.getPooledCount()).isEqualTo(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<ByteBuffer> other = executor.submit(() -> allocator.acquire(128));
+        assertThat(other.get()).isSameAs(second);
+        executor.shutdown();
+        assertThat(allocator.acquire(128)).isSameAs(first);
+        assertThat(allocator.getHits()).isEqualTo(2);
+    }
+
+    @Test
+    public void directBuffers() {
+        BufferAllocator allocator = new BufferAllocator(128, 1024, 4096, 2, true, false);
+        ByteBuffer buffer = allocator.acquire(128);
+        assertThat(buffer.isDirect()).isTrue();
+        assertThat(allocator.isDirect()).isTrue();
+        allocator.release(buffer);
+        assertThat(allocator.acquire(128)).isSameAs(buffer);
+        try {
+            allocator.release(ByteBuffer.allocate(128));
+            throw new AssertionError("Expected a heap buffer to be rejected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void leakDetection() throws InterruptedException {
+        BufferAllocator allocator = new BufferAllocator(128, 1024, 4096, 0, false, true);
+        assertThat(allocator.isLeakDetection()).isTrue();
+        ByteBuffer released = allocator.acquire(128);
+        allocator.release(released);
+        try {
+            allocator.release(released);
+            throw new AssertionError("Expected the second release to fail");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage()).startsWith("Buffer released twice");
+        }
+
+        allocator.acquire(256);     // never released
+        long deadline = System.currentTimeMillis() + 10000;
+        while (allocator.getLeaks() == 0 && System.currentTimeMillis() < deadline) {
+            System.gc();
+            Thread.sleep(10);
+            allocator.reportLeaks();
+        }
+        assertThat(allocator.getLeaks()).isEqualTo(1);
+        assertThat(allocator.toString()).contains("leaks=1");
+    }
+
+    @Test
+    public void sharedAllocator() {
+        BufferAllocator shared = BufferAllocator.shared();
+        assertThat(shared).isSameAs(BufferAllocator.shared());
+        assertThat(shared.isDirect()).isFalse();
+        assertThat(shared.isLeakDetection()).isFalse();
+        assertThat(shared.getMinSize()).isEqualTo(4096);
+        assertThat(shared.getMaxSize()).isEqualTo(1024 * 1024);
+    }
+
+    @Test
+    public void detachedBufferIsNotTracked() {
+        BufferAllocator allocator = new BufferAllocator(128, 1024, 4096, 0, false, true);
+        ByteBuffer buffer = allocator.acquire(128);
+        allocator.detach(buffer);
+        try {
+            allocator.release(buffer);
+            throw new AssertionError("Expected the release of a detached buffer to fail");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage()).startsWith("Buffer released twice");
+        }
+    }
+
+    @Test
+    public void sharedDirectAllocator() {
+        BufferAllocator shared = BufferAllocator.sharedDirect();
+        assertThat(shared).isSameAs(BufferAllocator.sharedDirect());
+        assertThat(shared.isDirect()).isTrue();
+        ByteBuffer buffer = shared.acquire(4096);
+        assertThat(buffer.isDirect()).isTrue();
+        shared.release(buffer);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalSizes() {
+        new BufferAllocator(1024, 512, 4096, 0, false, false);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalCapacity() {
+        new BufferAllocator(128, 1024, 4096, 0, false, false).acquire(-1);
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.channel;
+
+import org.iostreams.streams.monitor.BandwidthStats;
+import org.iostreams.streams.monitor.LatencyHistogram;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.channel.BandwidthMonitorAsynchronousFileChannel}.
+ *
+ * @author Yossi Shaul
+ */
+public class BandwidthMonitorAsynchronousFileChannelTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void countFutureReadsAndWrites() throws Exception {
+        Path file = folder.newFile().toPath();
+        LatencyHistogram latency = new LatencyHistogram();
+        try (BandwidthMonitorAsynchronousFileChannel channel = new BandwidthMonitorAsynchronousFileChannel(
+                AsynchronousFileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE),
+                new BandwidthStats(), new BandwidthStats(), latency)) {
+            assertThat(channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4}), 0).get(5, TimeUnit.SECONDS))
+                    .isEqualTo(4);
+            ByteBuffer buf = ByteBuffer.allocateDirect(10);
+            assertThat(channel.read(buf, 1).get(5, TimeUnit.SECONDS)).isEqualTo(3);
+            assertThat(channel.read(buf, 10).get(5, TimeUnit.SECONDS)).isEqualTo(-1);
+            assertThat(channel.getTotalBytesWritten()).isEqualTo(4);
+            assertThat(channel.getTotalBytesRead()).isEqualTo(3);
+            assertThat(channel.getReadStats().getTotalBytes()).isEqualTo(3);
+            assertThat(channel.getWriteStats().getTotalBytes()).isEqualTo(4);
+            assertThat(channel.getLatency()).isSameAs(latency);
+            assertThat(latency.snapshot().getCount()).isEqualTo(3);
+
+            assertThat(channel.size()).isEqualTo(4);
+            assertThat(channel.truncate(2)).isSameAs(channel);
+            assertThat(channel.size()).isEqualTo(2);
+            channel.force(false);
+            try (FileLock lock = channel.lock(0, 1, false).get(5, TimeUnit.SECONDS)) {
+                assertThat(lock.isValid()).isTrue();
+            }
+            try (FileLock lock = channel.tryLock(0, 1, false)) {
+                assertThat(lock.isValid()).isTrue();
+            }
+            final CompletableFuture<FileLock> locked = new CompletableFuture<>();
+            channel.lock(0, 1, false, null, new CompletionHandler<FileLock, Object>() {
+                @Override
+                public void completed(FileLock result, Object attachment) {
+                    locked.complete(result);
+                }
+
+                @Override
+                public void failed(Throwable exc, Object attachment) {
+                    locked.completeExceptionally(exc);
+                }
+            });
+            locked.get(5, TimeUnit.SECONDS).release();
+        }
+    }
+
+    @Test
+    public void countHandlerReadsAndWrites() throws Exception {
+        Path file = folder.newFile().toPath();
+        try (BandwidthMonitorAsynchronousFileChannel channel = new BandwidthMonitorAsynchronousFileChannel(
+                AsynchronousFileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE))) {
+            Handler written = new Handler(channel::getTotalBytesWritten);
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3}), 0, "write", written);
+            assertThat(written.result.get(5, TimeUnit.SECONDS)).isEqualTo(3);
+            assertThat(written.attachment).isEqualTo("write");
+            // the bytes are recorded before the caller's handler is invoked
+            assertThat(written.recorded).isEqualTo(3);
+
+            Handler read = new Handler(channel::getTotalBytesRead);
+            channel.read(ByteBuffer.allocate(10), 0, "read", read);
+            assertThat(read.result.get(5, TimeUnit.SECONDS)).isEqualTo(3);
+            assertThat(channel.getTotalBytesRead()).isEqualTo(3);
+            assertThat(channel.getLatency()).isNull();
+        }
+    }
+
+    @Test
+    public void failedOperation() throws Exception {
+        Path file = folder.newFile().toPath();
+        BandwidthMonitorAsynchronousFileChannel channel = new BandwidthMonitorAsynchronousFileChannel(
+                AsynchronousFileChannel.open(file, StandardOpenOption.READ), new BandwidthStats(),
+                new BandwidthStats(), new LatencyHistogram());
+        channel.close();
+        assertThat(channel.isOpen()).isFalse();
+        try {
+            channel.read(ByteBuffer.allocate(10), 0).get(5, TimeUnit.SECONDS);
+            throw new AssertionError("Expected the read to fail");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(ClosedChannelException.class);
+        }
+        assertThat(channel.getLatency().snapshot().getCount()).isEqualTo(1);
+        assertThat(channel.getTotalBytesRead()).isEqualTo(0);
+    }
+
+    private static class Handler implements CompletionHandler<Integer, String> {
+        final CompletableFuture<Integer> result = new CompletableFuture<>();
+        final LongSupplier total;
+        volatile String attachment;
+        volatile long recorded;
+
+        Handler(LongSupplier total) {
+            this.total = total;
+        }
+
+        @Override
+        public void completed(Integer n, String attachment) {
+            this.attachment = attachment;
+            this.recorded = total.getAsLong();
+            result.complete(n);
+        }
+
+        @Override
+        public void failed(Throwable exc, String attachment) {
+            result.completeExceptionally(exc);
+        }
+    }
+}
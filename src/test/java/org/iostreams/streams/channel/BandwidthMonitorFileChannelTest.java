@@ -0,0 +1,153 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.channel;
+
+import org.iostreams.streams.monitor.BandwidthStats;
+import org.iostreams.streams.monitor.LatencyHistogram;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.channel.BandwidthMonitorFileChannel}.
+ *
+ * @author Yossi Shaul
+ */
+public class BandwidthMonitorFileChannelTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void countReadsAndWrites() throws IOException {
+        Path file = folder.newFile().toPath();
+        LatencyHistogram latency = new LatencyHistogram();
+        try (BandwidthMonitorFileChannel channel = new BandwidthMonitorFileChannel(FileChannel.open(file,
+                StandardOpenOption.READ, StandardOpenOption.WRITE), new BandwidthStats(), new BandwidthStats(),
+                latency)) {
+            assertThat(channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3}))).isEqualTo(3);
+            assertThat(channel.write(new ByteBuffer[]{ByteBuffer.wrap(new byte[]{4}), ByteBuffer.wrap(new byte[]{5})},
+                    0, 2)).isEqualTo(2);
+            assertThat(channel.write(ByteBuffer.wrap(new byte[]{6}), 5)).isEqualTo(1);
+            assertThat(channel.getTotalBytesWritten()).isEqualTo(6);
+            assertThat(channel.size()).isEqualTo(6);
+            assertThat(channel.position()).isEqualTo(5);
+
+            assertThat(channel.position(1)).isSameAs(channel);
+            ByteBuffer buf = ByteBuffer.allocate(2);
+            assertThat(channel.read(buf)).isEqualTo(2);
+            assertThat(buf.array()).isEqualTo(new byte[]{2, 3});
+            ByteBuffer[] bufs = {ByteBuffer.allocate(1), ByteBuffer.allocate(10)};
+            assertThat(channel.read(bufs, 0, 2)).isEqualTo(3);
+            assertThat(channel.read(ByteBuffer.allocate(4), 0)).isEqualTo(4);
+            assertThat(channel.read(ByteBuffer.allocate(4), 10)).isEqualTo(-1);
+            assertThat(channel.read(ByteBuffer.allocate(4))).isEqualTo(-1);
+            assertThat(channel.getTotalBytesRead()).isEqualTo(9);
+            assertThat(channel.getReadStats().getTotalBytes()).isEqualTo(9);
+            assertThat(channel.getWriteStats().getTotalBytes()).isEqualTo(6);
+            assertThat(channel.getLatency()).isSameAs(latency);
+            assertThat(latency.snapshot().getCount()).isEqualTo(8);
+
+            // not counted
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, 6);
+            assertThat(mapped.get(5)).isEqualTo((byte) 6);
+            assertThat(channel.getTotalBytesRead()).isEqualTo(9);
+
+            assertThat(channel.truncate(4)).isSameAs(channel);
+            assertThat(channel.size()).isEqualTo(4);
+            channel.force(true);
+            try (FileLock lock = channel.lock(0, 1, false)) {
+                assertThat(lock.isValid()).isTrue();
+            }
+            try (FileLock lock = channel.tryLock(0, 1, false)) {
+                assertThat(lock.isValid()).isTrue();
+            }
+        }
+    }
+
+    @Test
+    public void transferToMonitoredChannel() throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, new byte[]{1, 2, 3, 4});
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BandwidthMonitorWritableChannel target = new BandwidthMonitorWritableChannel(Channels.newChannel(out));
+        try (BandwidthMonitorFileChannel channel = new BandwidthMonitorFileChannel(FileChannel.open(file))) {
+            assertThat(channel.transferTo(1, 10, target)).isEqualTo(3);
+            assertThat(channel.transferTo(0, 1, Channels.newChannel(out))).isEqualTo(1);
+            assertThat(channel.getTotalBytesRead()).isEqualTo(4);
+            assertThat(target.getTotalBytesWritten()).isEqualTo(3);
+        }
+        assertThat(out.toByteArray()).isEqualTo(new byte[]{2, 3, 4, 1});
+    }
+
+    @Test
+    public void transferBetweenMonitoredFiles() throws IOException {
+        Path source = folder.newFile().toPath();
+        Files.write(source, new byte[]{1, 2, 3, 4});
+        Path target = folder.newFile().toPath();
+        try (BandwidthMonitorFileChannel in = new BandwidthMonitorFileChannel(FileChannel.open(source));
+             BandwidthMonitorFileChannel out = new BandwidthMonitorFileChannel(FileChannel.open(target,
+                     StandardOpenOption.WRITE))) {
+            assertThat(in.transferTo(0, 2, out)).isEqualTo(2);
+            // transferFrom reads the source from its position
+            in.position(2);
+            assertThat(out.transferFrom(in, 2, 2)).isEqualTo(2);
+            assertThat(in.getTotalBytesRead()).isEqualTo(4);
+            assertThat(out.getTotalBytesWritten()).isEqualTo(4);
+        }
+        assertThat(Files.readAllBytes(target)).isEqualTo(new byte[]{1, 2, 3, 4});
+    }
+
+    @Test
+    public void transferFromMonitoredChannel() throws IOException {
+        Path file = folder.newFile().toPath();
+        BandwidthMonitorReadableChannel source = new BandwidthMonitorReadableChannel(
+                Channels.newChannel(new ByteArrayInputStream(new byte[]{1, 2, 3})));
+        try (BandwidthMonitorFileChannel channel = new BandwidthMonitorFileChannel(FileChannel.open(file,
+                StandardOpenOption.WRITE))) {
+            assertThat(channel.transferFrom(source, 0, 10)).isEqualTo(3);
+            assertThat(channel.transferFrom(Channels.newChannel(new ByteArrayInputStream(new byte[]{4})), 3, 10))
+                    .isEqualTo(1);
+            assertThat(channel.getTotalBytesWritten()).isEqualTo(4);
+            assertThat(source.getTotalBytesRead()).isEqualTo(3);
+        }
+        assertThat(Files.readAllBytes(file)).isEqualTo(new byte[]{1, 2, 3, 4});
+    }
+
+    @Test
+    public void closeUnderlyingChannel() throws IOException {
+        FileChannel underlying = FileChannel.open(folder.newFile().toPath());
+        BandwidthMonitorFileChannel channel = new BandwidthMonitorFileChannel(underlying);
+        channel.close();
+        assertThat(channel.isOpen()).isFalse();
+        assertThat(underlying.isOpen()).isFalse();
+    }
+}
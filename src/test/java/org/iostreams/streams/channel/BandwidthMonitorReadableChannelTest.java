@@ -0,0 +1,81 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.channel;
+
+import org.iostreams.streams.monitor.LatencyHistogram;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.channel.BandwidthMonitorReadableChannel}.
+ *
+ * @author Yossi Shaul
+ */
+public class BandwidthMonitorReadableChannelTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void countBytesRead() throws IOException {
+        LatencyHistogram latency = new LatencyHistogram();
+        BandwidthMonitorReadableChannel channel = new BandwidthMonitorReadableChannel(
+                Channels.newChannel(new ByteArrayInputStream(new byte[100])), latency);
+        ByteBuffer buf = ByteBuffer.allocateDirect(64);
+        assertThat(channel.read(buf)).isEqualTo(64);
+        buf.clear();
+        assertThat(channel.read(buf)).isEqualTo(36);
+        buf.clear();
+        assertThat(channel.read(buf)).isEqualTo(-1);
+        assertThat(channel.getTotalBytesRead()).isEqualTo(100);
+        assertThat(channel.getStats().getTotalBytes()).isEqualTo(100);
+        assertThat(channel.getLatency()).isSameAs(latency);
+        assertThat(latency.snapshot().getCount()).isEqualTo(3);
+
+        assertThat(channel.isOpen()).isTrue();
+        channel.close();
+        assertThat(channel.isOpen()).isFalse();
+    }
+
+    @Test
+    public void transferToFile() throws IOException {
+        Path source = folder.newFile().toPath();
+        Files.write(source, new byte[]{1, 2, 3, 4, 5});
+        Path target = folder.newFile().toPath();
+        try (BandwidthMonitorReadableChannel channel = new BandwidthMonitorReadableChannel(FileChannel.open(source));
+             BandwidthMonitorFileChannel file = new BandwidthMonitorFileChannel(FileChannel.open(target,
+                     StandardOpenOption.WRITE))) {
+            assertThat(channel.transferTo(file, 0, 100)).isEqualTo(5);
+            assertThat(channel.getTotalBytesRead()).isEqualTo(5);
+            assertThat(file.getTotalBytesWritten()).isEqualTo(5);
+            assertThat(channel.getLatency()).isNull();
+        }
+        assertThat(Files.readAllBytes(target)).isEqualTo(new byte[]{1, 2, 3, 4, 5});
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.channel;
+
+import org.iostreams.streams.monitor.BandwidthStats;
+import org.iostreams.streams.monitor.LatencyHistogram;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.channel.BandwidthMonitorWritableChannel}.
+ *
+ * @author Yossi Shaul
+ */
+public class BandwidthMonitorWritableChannelTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void countBytesWritten() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BandwidthStats stats = new BandwidthStats();
+        LatencyHistogram latency = new LatencyHistogram();
+        BandwidthMonitorWritableChannel channel = new BandwidthMonitorWritableChannel(Channels.newChannel(out), stats,
+                latency);
+        assertThat(channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3}))).isEqualTo(3);
+        assertThat(channel.write(ByteBuffer.allocate(0))).isEqualTo(0);
+        assertThat(channel.getTotalBytesWritten()).isEqualTo(3);
+        assertThat(channel.getStats()).isSameAs(stats);
+        assertThat(channel.getLatency()).isSameAs(latency);
+        assertThat(latency.snapshot().getCount()).isEqualTo(2);
+        assertThat(out.toByteArray()).isEqualTo(new byte[]{1, 2, 3});
+        channel.close();
+        assertThat(channel.isOpen()).isFalse();
+    }
+
+    @Test
+    public void transferFromFile() throws IOException {
+        Path source = folder.newFile().toPath();
+        Files.write(source, new byte[]{1, 2, 3, 4, 5});
+        Path target = folder.newFile().toPath();
+        try (BandwidthMonitorFileChannel file = new BandwidthMonitorFileChannel(FileChannel.open(source));
+             BandwidthMonitorWritableChannel channel = new BandwidthMonitorWritableChannel(FileChannel.open(target,
+                     StandardOpenOption.WRITE), new LatencyHistogram())) {
+            assertThat(channel.transferFrom(file, 1, 100)).isEqualTo(4);
+            assertThat(channel.getTotalBytesWritten()).isEqualTo(4);
+            assertThat(file.getTotalBytesRead()).isEqualTo(4);
+            assertThat(channel.getLatency().snapshot().getCount()).isEqualTo(1);
+        }
+        assertThat(Files.readAllBytes(target)).isEqualTo(new byte[]{2, 3, 4, 5});
+    }
+
+    @Test
+    public void transferFromPlainFile() throws IOException {
+        Path source = folder.newFile().toPath();
+        Files.write(source, new byte[]{1, 2, 3});
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (FileChannel file = FileChannel.open(source)) {
+            BandwidthMonitorWritableChannel channel = new BandwidthMonitorWritableChannel(Channels.newChannel(out));
+            assertThat(channel.transferFrom(file, 0, 3)).isEqualTo(3);
+            assertThat(channel.getTotalBytesWritten()).isEqualTo(3);
+        }
+        assertThat(out.toByteArray()).isEqualTo(new byte[]{1, 2, 3});
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.iostreams.streams.channel;
+
+import org.iostreams.streams.checksum.Digest;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.iostreams.streams.StreamsTestUtils.CHECK;
+import static org.iostreams.streams.StreamsTestUtils.CHECK_CRC32;
+import static org.iostreams.streams.StreamsTestUtils.CHECK_CRC32C;
+import static org.iostreams.streams.StreamsTestUtils.hex;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.channel.ChecksumReadableChannel}.
+ *
+ * @author Yossi Shaul
+ */
+public class ChecksumReadableChannelTest {
+
+    @Test
+    public void digestReadBytesInPlace() throws IOException {
+        ChecksumReadableChannel channel = new ChecksumReadableChannel(
+                Channels.newChannel(new ByteArrayInputStream(CHECK)), Digest.crc32c().expect(CHECK_CRC32C),
+                Digest.crc32());
+        ByteBuffer buf = ByteBuffer.allocateDirect(16);
+        buf.put((byte) 'x');
+        assertThat(channel.read(buf)).isEqualTo(CHECK.length);
+        // the caller's buffer is left as the read left it
+        assertThat(buf.position()).isEqualTo(CHECK.length + 1);
+        assertThat(channel.read(buf)).isEqualTo(-1);
+        assertThat(channel.isOpen()).isTrue();
+        channel.close();
+        assertThat(channel.isOpen()).isFalse();
+        assertThat(channel.getDigest().getHexValue()).isEqualTo(hex(CHECK_CRC32C));
+        assertThat(channel.getDigests()[1].getHexValue()).isEqualTo(hex(CHECK_CRC32));
+    }
+
+    @Test
+    public void mismatchFailsClose() throws IOException {
+        ChecksumReadableChannel channel = new ChecksumReadableChannel(
+                Channels.newChannel(new ByteArrayInputStream(CHECK)), Digest.crc32().expect(0L));
+        channel.read(ByteBuffer.allocate(4));
+        try {
+            channel.close();
+            fail("Expected the checksum verification to fail");
+        } catch (IOException e) {
+            assertThat(e.getMessage()).startsWith("CRC32 mismatch: expected 00000000");
+        }
+        channel.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void digestRequired() {
+        new ChecksumReadableChannel(Channels.newChannel(new ByteArrayInputStream(CHECK)));
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.iostreams.streams.channel;
+
+import org.iostreams.streams.checksum.Digest;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.iostreams.streams.StreamsTestUtils.CHECK;
+import static org.iostreams.streams.StreamsTestUtils.CHECK_ADLER32;
+import static org.iostreams.streams.StreamsTestUtils.CHECK_CRC32C;
+import static org.iostreams.streams.StreamsTestUtils.hex;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.channel.ChecksumWritableChannel}.
+ *
+ * @author Yossi Shaul
+ */
+public class ChecksumWritableChannelTest {
+
+    @Test
+    public void digestWrittenBytesInPlace() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ChecksumWritableChannel channel = new ChecksumWritableChannel(Channels.newChannel(out),
+                Digest.crc32c().expect(CHECK_CRC32C), Digest.adler32());
+        ByteBuffer buf = ByteBuffer.allocateDirect(CHECK.length);
+        buf.put(CHECK).flip();
+        assertThat(channel.write(buf)).isEqualTo(CHECK.length);
+        assertThat(buf.remaining()).isEqualTo(0);
+        assertThat(channel.isOpen()).isTrue();
+        channel.close();
+        assertThat(channel.isOpen()).isFalse();
+        assertThat(out.toByteArray()).isEqualTo(CHECK);
+        assertThat(channel.getDigest().getHexValue()).isEqualTo(hex(CHECK_CRC32C));
+        assertThat(channel.getDigests()[1].getHexValue()).isEqualTo(hex(CHECK_ADLER32));
+    }
+
+    @Test
+    public void onlyBytesWrittenAreDigested() throws IOException {
+        // writes at most 4 bytes per call
+        WritableByteChannel partial = new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) {
+                int n = Math.min(4, src.remaining());
+                src.position(src.position() + n);
+                return n;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        ChecksumWritableChannel channel = new ChecksumWritableChannel(partial, Digest.crc32c());
+        ByteBuffer buf = ByteBuffer.wrap(CHECK);
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+        assertThat(channel.write(buf)).isEqualTo(0);
+        assertThat(channel.getDigest().getHexValue()).isEqualTo(hex(CHECK_CRC32C));
+    }
+
+    @Test
+    public void mismatchFailsClose() throws IOException {
+        ChecksumWritableChannel channel = new ChecksumWritableChannel(
+                Channels.newChannel(new ByteArrayOutputStream()), Digest.crc32c().expect(1L));
+        try {
+            channel.close();
+            fail("Expected the checksum verification to fail");
+        } catch (IOException e) {
+            assertThat(e.getMessage()).isEqualTo("CRC32C mismatch: expected 00000001 but was 00000000");
+        }
+        channel.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void digestRequired() {
+        new ChecksumWritableChannel(Channels.newChannel(new ByteArrayOutputStream()));
+    }
+}
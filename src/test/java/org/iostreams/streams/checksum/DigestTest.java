@@ -0,0 +1,138 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.iostreams.streams.checksum;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.iostreams.streams.StreamsTestUtils.CHECK;
+import static org.iostreams.streams.StreamsTestUtils.CHECK_ADLER32;
+import static org.iostreams.streams.StreamsTestUtils.CHECK_CRC32;
+import static org.iostreams.streams.StreamsTestUtils.CHECK_CRC32C;
+import static org.iostreams.streams.StreamsTestUtils.hex;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.checksum.Digest}.
+ *
+ * @author Yossi Shaul
+ */
+public class DigestTest {
+
+    @Test
+    public void checkValues() {
+        assertThat(update(Digest.crc32c()).getHexValue()).isEqualTo(hex(CHECK_CRC32C));
+        assertThat(update(Digest.crc32()).getHexValue()).isEqualTo(hex(CHECK_CRC32));
+        assertThat(update(Digest.adler32()).getHexValue()).isEqualTo(hex(CHECK_ADLER32));
+        assertThat(update(Digest.messageDigest("MD5")).getHexValue()).isEqualTo("25f9e794323b453885f5181f1b624d0b");
+        assertThat(Digest.crc32().getValue()).isEqualTo(new byte[4]);
+    }
+
+    @Test
+    public void updateFromBuffersAndSingleBytes() {
+        Digest direct = Digest.crc32c();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(CHECK.length);
+        buffer.put(CHECK).flip();
+        direct.update(buffer);
+        assertThat(buffer.remaining()).isEqualTo(0);
+
+        Digest heap = Digest.messageDigest("SHA-256");
+        heap.update(ByteBuffer.wrap(CHECK, 0, 4));
+        for (int i = 4; i < CHECK.length; i++) {
+            heap.update(CHECK[i]);
+        }
+        Digest crc = Digest.crc32c();
+        crc.update(CHECK[0]);
+        crc.update(CHECK, 1, CHECK.length - 1);
+
+        assertThat(direct.getHexValue()).isEqualTo(hex(CHECK_CRC32C));
+        assertThat(crc.getHexValue()).isEqualTo(hex(CHECK_CRC32C));
+        assertThat(heap.getHexValue()).isEqualTo(update(Digest.messageDigest("SHA-256")).getHexValue());
+    }
+
+    @Test
+    public void valueOfMessageDigestKeepsRunningState() {
+        Digest digest = Digest.messageDigest("SHA-256");
+        digest.update(CHECK, 0, 4);
+        String partial = digest.getHexValue();
+        digest.update(CHECK, 4, CHECK.length - 4);
+        assertThat(digest.getHexValue()).isNotEqualTo(partial);
+        assertThat(digest.getHexValue())
+                .isEqualTo("15e2b0d3c33891ebb0f1ef609ec419420c20e320ce94c65fbc8c3312448eb225");
+        assertThat(digest.getName()).isEqualTo("SHA-256");
+        assertThat(digest.toString()).startsWith("SHA-256:15e2");
+
+        digest.reset();
+        assertThat(digest.getHexValue()).isEqualTo(Digest.messageDigest("SHA-256").getHexValue());
+    }
+
+    @Test
+    public void verifyAgainstExpectedValue() throws IOException {
+        // nothing to verify without an expected value
+        update(Digest.crc32()).verify();
+        update(Digest.crc32()).expect(CHECK_CRC32).verify();
+        update(Digest.crc32()).expectHex(hex(CHECK_CRC32).toUpperCase()).verify();
+        update(Digest.crc32c()).expect(ByteBuffer.allocate(4).putInt((int) CHECK_CRC32C).array()).verify();
+
+        Digest digest = Digest.adler32().expect(CHECK_ADLER32);
+        assertThat(digest.getExpected()).isEqualTo(ByteBuffer.allocate(4).putInt((int) CHECK_ADLER32).array());
+        try {
+            digest.verify();
+            fail("Expected verification to fail");
+        } catch (IOException e) {
+            assertThat(e.getMessage())
+                    .isEqualTo("Adler32 mismatch: expected " + hex(CHECK_ADLER32) + " but was 00000001");
+        }
+        // the expected value is kept on reset
+        update(digest).verify();
+        digest.reset();
+        assertThat(digest.getExpected()).isNotNull();
+        assertThat(Digest.crc32().getExpected()).isNull();
+    }
+
+    @Test
+    public void customChecksum() {
+        Digest digest = Digest.of("crc", new CRC32());
+        assertThat(update(digest).getHexValue()).isEqualTo(hex(CHECK_CRC32));
+        assertThat(digest.getName()).isEqualTo("crc");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownAlgorithm() {
+        Digest.messageDigest("NO-SUCH-DIGEST");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void oddHexValue() {
+        Digest.crc32().expectHex("abc");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidHexValue() {
+        Digest.crc32().expectHex("zz");
+    }
+
+    private static Digest update(Digest digest) {
+        digest.update(CHECK, 0, CHECK.length);
+        return digest;
+    }
+}
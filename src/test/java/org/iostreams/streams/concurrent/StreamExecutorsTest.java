@@ -0,0 +1,63 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.concurrent;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.concurrent.StreamExecutors}.
+ *
+ * @author Yossi Shaul
+ */
+public class StreamExecutorsTest {
+
+    @Test
+    public void defaultExecutorIsShared() {
+        assertThat(StreamExecutors.defaultExecutor()).isSameAs(StreamExecutors.defaultExecutor());
+    }
+
+    @Test
+    public void tasksRunOnDaemonThreads() throws Exception {
+        Future<Thread> thread = StreamExecutors.defaultExecutor().submit(Thread::currentThread);
+        assertThat(thread.get(2, TimeUnit.SECONDS).isDaemon()).isTrue();
+        assertThat(thread.get().getName()).startsWith("iostreams-writer-");
+    }
+
+    @Test
+    public void cannotBeShutdown() throws Exception {
+        ExecutorService executor = StreamExecutors.defaultExecutor();
+        executor.shutdown();
+        assertThat(executor.shutdownNow()).isEmpty();
+        assertThat(executor.isShutdown()).isFalse();
+        assertThat(executor.isTerminated()).isFalse();
+        assertThat(executor.awaitTermination(1, TimeUnit.MILLISECONDS)).isFalse();
+        // still running tasks
+        assertThat(executor.submit(() -> 1).get(2, TimeUnit.SECONDS)).isEqualTo(1);
+    }
+
+    @Test
+    public void platformThreadsOnBaseRelease() {
+        // the test classpath is a directory, so the multi-release classes are never picked
+        assertThat(StreamExecutors.isVirtual()).isFalse();
+    }
+}
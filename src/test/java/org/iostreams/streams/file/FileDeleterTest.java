@@ -0,0 +1,183 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.file;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link FileDeleter}.
+ *
+ * @author Yossi Shaul
+ */
+public class FileDeleterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void deletesQueuedFiles() throws Exception {
+        FileDeleter deleter = new FileDeleter(3, 10, TimeUnit.MILLISECONDS);
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            files.add(folder.newFile().toPath());
+        }
+        for (Path file : files) {
+            deleter.delete(file);
+        }
+        assertThat(deleter.awaitPending(5, TimeUnit.SECONDS)).isTrue();
+        for (Path file : files) {
+            assertThat(Files.exists(file)).isFalse();
+        }
+        assertThat(deleter.getDeleted()).isEqualTo(1000);
+        assertThat(deleter.getFailed()).isEqualTo(0);
+        assertThat(deleter.getPending()).isEqualTo(0);
+        deleter.close();
+    }
+
+    @Test
+    public void retriesFailedDelete() throws Exception {
+        FileDeleter deleter = new FileDeleter(100, 10, TimeUnit.MILLISECONDS);
+        Path dir = nonEmptyDirectory();
+        deleter.delete(dir);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (deleter.getRetried() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(deleter.getRetried()).isGreaterThan(0);
+        assertThat(deleter.getPending()).isEqualTo(1);
+        // the next attempt succeeds
+        Files.delete(dir.resolve("file"));
+        assertThat(deleter.awaitPending(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(Files.exists(dir)).isFalse();
+        assertThat(deleter.getDeleted()).isEqualTo(1);
+        assertThat(deleter.getFailed()).isEqualTo(0);
+        deleter.close();
+    }
+
+    @Test
+    public void failsAfterLastAttempt() throws Exception {
+        FileDeleter deleter = new FileDeleter(2, 1, TimeUnit.MILLISECONDS);
+        deleter.delete(nonEmptyDirectory());
+        assertThat(deleter.awaitPending(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(deleter.getRetried()).isEqualTo(1);
+        assertThat(deleter.getFailed()).isEqualTo(1);
+        assertThat(deleter.getDeleted()).isEqualTo(0);
+        deleter.close();
+    }
+
+    @Test
+    public void closeSweepsPendingFiles() throws Exception {
+        FileDeleter deleter = new FileDeleter(3, 1, TimeUnit.HOURS);
+        Path dir = nonEmptyDirectory();
+        deleter.delete(dir);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (deleter.getRetried() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        Files.delete(dir.resolve("file"));
+        deleter.close();
+        assertThat(Files.exists(dir)).isFalse();
+        assertThat(deleter.getPending()).isEqualTo(0);
+        assertThat(deleter.getDeleted()).isEqualTo(1);
+        deleter.close();
+
+        // deleted right away once closed
+        Path file = folder.newFile().toPath();
+        deleter.delete(file);
+        assertThat(Files.exists(file)).isFalse();
+        assertThat(deleter.getDeleted()).isEqualTo(2);
+        assertThat(deleter.toString()).contains("deleted=2");
+    }
+
+    @Test
+    public void runtimeExceptionFailsOnlyItsFile() throws Exception {
+        FileDeleter deleter = new FileDeleter(3, 1, TimeUnit.MILLISECONDS);
+        deleter.delete(brokenPath());
+        assertThat(deleter.awaitPending(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(deleter.getFailed()).isEqualTo(1);
+        assertThat(deleter.getRetried()).isEqualTo(0);
+        // the deleter thread is still running
+        Path file = folder.newFile().toPath();
+        deleter.delete(file);
+        assertThat(deleter.awaitPending(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(Files.exists(file)).isFalse();
+        deleter.close();
+
+        deleter.delete(brokenPath());
+        assertThat(deleter.getFailed()).isEqualTo(2);
+    }
+
+    @Test
+    public void missingFileCountsAsDeleted() throws Exception {
+        FileDeleter deleter = new FileDeleter(1, 0, TimeUnit.MILLISECONDS);
+        deleter.delete(folder.getRoot().toPath().resolve("no-such-file"));
+        assertThat(deleter.awaitPending(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(deleter.getDeleted()).isEqualTo(1);
+        deleter.close();
+    }
+
+    @Test
+    public void closeBeforeUse() {
+        new FileDeleter(1, 0, TimeUnit.MILLISECONDS).close();
+    }
+
+    @Test
+    public void sharedDeleter() {
+        assertThat(FileDeleter.shared()).isSameAs(FileDeleter.shared());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalAttempts() {
+        new FileDeleter(0, 1, TimeUnit.SECONDS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalRetryDelay() {
+        new FileDeleter(1, -1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return A path whose file system can't be found, failing the delete with a runtime exception
+     */
+    private static Path brokenPath() {
+        return (Path) Proxy.newProxyInstance(FileDeleterTest.class.getClassLoader(), new Class<?>[]{Path.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("toString")) {
+                        return "broken";
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private Path nonEmptyDirectory() throws IOException {
+        Path dir = folder.newFolder().toPath();
+        Files.createFile(dir.resolve("file"));
+        return dir;
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.flow;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.flow.OutputStreamPublisher}.
+ *
+ * @author Yossi Shaul
+ */
+public class OutputStreamPublisherTest {
+
+    @Test
+    public void readPublisherAsInputStream() throws IOException {
+        final byte[] data = new byte[300000];
+        new Random(5).nextBytes(data);
+        OutputStreamPublisher publisher = new OutputStreamPublisher() {
+            @Override
+            protected void write(OutputStream sink) throws IOException {
+                for (int off = 0; off < data.length; off += 777) {
+                    sink.write(data, off, Math.min(777, data.length - off));
+                }
+            }
+        };
+        try (InputStream in = new PublisherInputStream(publisher, 2)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[4096];
+            int n;
+            while ((n = in.read(buf)) != -1) {
+                out.write(buf, 0, n);
+            }
+            assertThat(out.toByteArray()).isEqualTo(data);
+        }
+    }
+
+    @Test
+    public void chunksDeliveredOnDemand() throws Exception {
+        final AtomicInteger written = new AtomicInteger();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        OutputStreamPublisher publisher = new OutputStreamPublisher(executor, 4, 2) {
+            @Override
+            protected void write(OutputStream sink) throws IOException {
+                for (int i = 0; i < 10; i++) {
+                    sink.write(new byte[]{(byte) i, (byte) i, (byte) i, (byte) i});
+                    written.incrementAndGet();
+                }
+            }
+        };
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        assertThat(written.get()).as("Writer starts on the first request").isEqualTo(0);
+
+        subscriber.subscription.request(1);
+        subscriber.awaitBuffers(1);
+        Thread.sleep(100);
+        // one chunk delivered, the writer may fill the rest of the pipe but not beyond it
+        assertThat(subscriber.buffers).hasSize(1);
+        assertThat(written.get()).isLessThanOrEqualTo(4);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertThat(subscriber.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(subscriber.buffers).hasSize(10);
+        for (int i = 0; i < 10; i++) {
+            // delivered chunks are never overwritten by the writer
+            assertThat(subscriber.buffers.get(i).array()).isEqualTo(new byte[]{(byte) i, (byte) i, (byte) i,
+                    (byte) i});
+        }
+        assertThat(subscriber.error).isNull();
+        executor.shutdown();
+    }
+
+    @Test
+    public void writerFailureSignalledAfterData() throws Exception {
+        OutputStreamPublisher publisher = new OutputStreamPublisher(Executors.newCachedThreadPool(), 16, 2) {
+            @Override
+            protected void write(OutputStream sink) throws IOException {
+                sink.write(new byte[]{1, 2, 3});
+                throw new IOException("Writer failure");
+            }
+        };
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(5);
+        assertThat(subscriber.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(subscriber.buffers).hasSize(1);
+        assertThat(subscriber.buffers.get(0).remaining()).isEqualTo(3);
+        assertThat(subscriber.error).hasMessage("Writer failure");
+    }
+
+    @Test
+    public void cancelClosesPipe() throws Exception {
+        final CountDownLatch writerDone = new CountDownLatch(1);
+        final Exception[] writerException = new Exception[1];
+        OutputStreamPublisher publisher = new OutputStreamPublisher(Executors.newCachedThreadPool(), 16, 2) {
+            @Override
+            protected void write(OutputStream sink) throws IOException {
+                try {
+                    while (true) {
+                        sink.write(new byte[16]);
+                    }
+                } catch (IOException e) {
+                    writerException[0] = e;
+                    writerDone.countDown();
+                    throw e;
+                }
+            }
+        };
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(1);
+        subscriber.awaitBuffers(1);
+        subscriber.subscription.cancel();
+        assertThat(writerDone.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(writerException[0]).hasMessage("Pipe closed");
+        subscriber.subscription.request(10);
+        assertThat(subscriber.buffers).hasSize(1);
+        assertThat(subscriber.completed.getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void nonPositiveRequestSignalsError() throws Exception {
+        OutputStreamPublisher publisher = new OutputStreamPublisher() {
+            @Override
+            protected void write(OutputStream sink) throws IOException {
+                sink.write(1);
+            }
+        };
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(0);
+        assertThat(subscriber.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(subscriber.error).isExactlyInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void singleSubscriber() throws Exception {
+        OutputStreamPublisher publisher = new OutputStreamPublisher() {
+            @Override
+            protected void write(OutputStream sink) throws IOException {
+            }
+        };
+        RecordingSubscriber first = new RecordingSubscriber();
+        RecordingSubscriber second = new RecordingSubscriber();
+        publisher.subscribe(first);
+        publisher.subscribe(second);
+        assertThat(second.error).isExactlyInstanceOf(IllegalStateException.class);
+        second.subscription.request(1);
+        second.subscription.cancel();
+
+        first.subscription.request(1);
+        assertThat(first.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(first.error).isNull();
+        assertThat(first.buffers).isEmpty();
+    }
+
+    @Test
+    public void failingSubscriberCancelled() throws Exception {
+        final CountDownLatch writerDone = new CountDownLatch(1);
+        OutputStreamPublisher publisher = new OutputStreamPublisher(Executors.newCachedThreadPool(), 4, 2) {
+            @Override
+            protected void write(OutputStream sink) throws IOException {
+                try {
+                    while (true) {
+                        sink.write(new byte[4]);
+                    }
+                } finally {
+                    writerDone.countDown();
+                }
+            }
+        };
+        RecordingSubscriber subscriber = new RecordingSubscriber() {
+            @Override
+            public void onNext(ByteBuffer item) {
+                super.onNext(item);
+                throw new IllegalStateException("Subscriber failure");
+            }
+        };
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(100);
+        assertThat(writerDone.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(subscriber.buffers).hasSize(1);
+    }
+
+    private static class RecordingSubscriber implements Flow.Subscriber<ByteBuffer> {
+        final List<ByteBuffer> buffers = new CopyOnWriteArrayList<>();
+        final CountDownLatch completed = new CountDownLatch(1);
+        volatile Flow.Subscription subscription;
+        volatile Throwable error;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(ByteBuffer item) {
+            buffers.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+
+        void awaitBuffers(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (buffers.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.flow;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.flow.PublisherInputStream}.
+ *
+ * @author Yossi Shaul
+ */
+public class PublisherInputStreamTest {
+
+    @Test
+    public void readBuffersOfSubmissionPublisher() throws Exception {
+        final byte[] data = new byte[100000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 31);
+        }
+        final SubmissionPublisher<ByteBuffer> publisher = new SubmissionPublisher<>();
+        Thread producer = new Thread(() -> {
+            // the stream subscribes on the first read, items submitted before are dropped
+            while (publisher.getNumberOfSubscribers() == 0) {
+                Thread.yield();
+            }
+            for (int off = 0; off < data.length; off += 3000) {
+                // submit blocks while the reader's demand is exhausted
+                publisher.submit(ByteBuffer.wrap(data, off, Math.min(3000, data.length - off)));
+            }
+            publisher.close();
+        });
+        try (InputStream in = new PublisherInputStream(publisher, 2)) {
+            producer.start();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[1024];
+            int n;
+            while ((n = in.read(buf)) != -1) {
+                out.write(buf, 0, n);
+            }
+            assertThat(out.toByteArray()).isEqualTo(data);
+            assertThat(in.read()).isEqualTo(-1);
+        }
+        producer.join(5000);
+    }
+
+    @Test
+    public void demandBoundedByPrefetch() throws IOException {
+        ManualPublisher publisher = new ManualPublisher();
+        InputStream in = new PublisherInputStream(publisher, 3);
+        assertThat(publisher.requested).isEmpty();
+        publisher.onSubscribe = () -> {
+            publisher.next(new byte[]{1});
+            publisher.next(new byte[]{});
+            publisher.next(new byte[]{2, 3});
+        };
+        assertThat(in.read()).isEqualTo(1);
+        assertThat(publisher.requested).containsExactly(3L);
+
+        // the empty buffer and the first buffer are consumed, the last is being read
+        assertThat(in.read()).isEqualTo(2);
+        assertThat(publisher.requested).containsExactly(3L, 1L, 1L);
+        assertThat(in.available()).isEqualTo(1);
+
+        publisher.subscriber.onComplete();
+        assertThat(in.read(new byte[4], 0, 4)).isEqualTo(1);
+        assertThat(in.read(new byte[4], 0, 4)).isEqualTo(-1);
+        assertThat(in.read(new byte[4], 0, 0)).isEqualTo(0);
+    }
+
+    @Test
+    public void failureThrownAfterDeliveredBuffers() throws IOException {
+        ManualPublisher publisher = new ManualPublisher();
+        publisher.onSubscribe = () -> {
+            publisher.next(new byte[]{7});
+            publisher.subscriber.onError(new IllegalStateException("Publisher failure"));
+        };
+        InputStream in = new PublisherInputStream(publisher);
+        assertThat(in.read()).isEqualTo(7);
+        try {
+            in.read();
+            Assert.fail("Should have thrown io exception");
+        } catch (IOException e) {
+            assertThat(e.getCause()).isExactlyInstanceOf(IllegalStateException.class).hasMessage("Publisher failure");
+        }
+    }
+
+    @Test
+    public void closeCancelsSubscription() throws IOException {
+        ManualPublisher publisher = new ManualPublisher();
+        publisher.onSubscribe = () -> publisher.next(new byte[]{1, 2});
+        InputStream in = new PublisherInputStream(publisher);
+        assertThat(in.read()).isEqualTo(1);
+        in.close();
+        in.close();
+        assertThat(publisher.cancelled).isTrue();
+        // late buffers are ignored
+        publisher.next(new byte[]{3});
+        try {
+            in.read();
+            Assert.fail("Should have thrown io exception");
+        } catch (IOException e) {
+            assertThat(e).hasMessage("Stream closed");
+        }
+    }
+
+    @Test
+    public void closeWakesUpBlockedReader() throws Exception {
+        ManualPublisher publisher = new ManualPublisher();
+        final PublisherInputStream in = new PublisherInputStream(publisher);
+        final IOException[] failure = new IOException[1];
+        Thread reader = new Thread(() -> {
+            try {
+                in.read();
+            } catch (IOException e) {
+                failure[0] = e;
+            }
+        });
+        reader.start();
+        while (reader.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        in.close();
+        reader.join(5000);
+        assertThat(reader.isAlive()).isFalse();
+        assertThat(failure[0]).hasMessage("Stream closed");
+        assertThat(publisher.cancelled).isTrue();
+    }
+
+    @Test
+    public void secondSubscriptionCancelled() throws IOException {
+        ManualPublisher publisher = new ManualPublisher();
+        publisher.onSubscribe = () -> {
+            ManualPublisher other = new ManualPublisher();
+            publisher.subscriber.onSubscribe(other.subscription());
+            assertThat(other.cancelled).isTrue();
+            publisher.subscriber.onComplete();
+        };
+        assertThat(new PublisherInputStream(publisher).read()).isEqualTo(-1);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void readOutsideArray() throws IOException {
+        new PublisherInputStream(new ManualPublisher()).read(new byte[4], 3, 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalPrefetch() {
+        new PublisherInputStream(new ManualPublisher(), 0);
+    }
+
+    /**
+     * Publisher controlled by the test, recording the requests of the subscriber.
+     */
+    private static class ManualPublisher implements Flow.Publisher<ByteBuffer> {
+        private final List<Long> requested = new ArrayList<>();
+        private Flow.Subscriber<? super ByteBuffer> subscriber;
+        private Runnable onSubscribe = () -> {
+        };
+        private boolean cancelled;
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            this.subscriber = subscriber;
+            subscriber.onSubscribe(subscription());
+            onSubscribe.run();
+        }
+
+        Flow.Subscription subscription() {
+            return new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    requested.add(n);
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                }
+            };
+        }
+
+        void next(byte[] bytes) {
+            subscriber.onNext(ByteBuffer.wrap(bytes));
+        }
+    }
+}
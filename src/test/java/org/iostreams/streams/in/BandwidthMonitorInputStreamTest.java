@@ -1,8 +1,13 @@
 package org.iostreams.streams.in;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 import org.iostreams.streams.StreamsTestUtils;
+import org.iostreams.streams.monitor.BandwidthStats;
+import org.iostreams.streams.monitor.LatencyHistogram;
+import org.iostreams.streams.monitor.MetricsRegistry;
 import org.junit.Test;
 
 import static org.fest.assertions.Assertions.assertThat;
@@ -78,4 +83,140 @@ public class BandwidthMonitorInputStreamTest {
         assertThat(bmis.getTotalBytesRead()).isEqualTo(in.getLength());
         assertThat(bmis.getBytesPerSec()).isGreaterThan(0);
     }
+
+    @Test
+    public void statsSharedWithMonitoringThread() throws Exception {
+        StringInputStream in = new StringInputStream("polled from another thread");
+        final BandwidthMonitorInputStream bmis = new BandwidthMonitorInputStream(in);
+        StreamsTestUtils.consumeAndCloseStream(bmis);
+
+        final long[] polled = new long[1];
+        Thread monitor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                polled[0] = bmis.getStats().getTotalBytes();
+            }
+        });
+        monitor.start();
+        monitor.join(2000);
+        assertThat(polled[0]).isEqualTo(in.getLength());
+        assertThat(bmis.getStats().getCurrentBytesPerSec()).isGreaterThanOrEqualTo(0);
+    }
+
+    @Test
+    public void recordLatencyOfEachCall() throws IOException {
+        LatencyHistogram latency = new LatencyHistogram();
+        BandwidthMonitorInputStream bmis = new BandwidthMonitorInputStream(new StringInputStream("latency"), latency);
+        bmis.read();
+        bmis.read(new byte[2]);
+        bmis.read(new byte[4], 0, 2);
+        bmis.skip(1);
+        bmis.close();
+        assertThat(bmis.getLatency()).isSameAs(latency);
+        assertThat(latency.snapshot().getCount()).isEqualTo(4);
+        assertThat(new BandwidthMonitorInputStream(in()).getLatency()).isNull();
+    }
+
+    private static StringInputStream in() {
+        return new StringInputStream("");
+    }
+
+    @Test
+    public void recordIntoRegistry() throws IOException {
+        MetricsRegistry registry = new MetricsRegistry();
+        BandwidthMonitorInputStream bmis = new BandwidthMonitorInputStream(new StringInputStream("registry"),
+                registry.newStats("in"), null);
+        bmis.read(new byte[8]);
+        assertThat(bmis.getStats().getTotalBytes()).isEqualTo(8);
+        assertThat(registry.getStats("in").getTotalBytes()).isEqualTo(8);
+    }
+
+    @Test
+    public void bufferedSingleByteReads() throws IOException {
+        LatencyHistogram latency = new LatencyHistogram();
+        BandwidthMonitorInputStream bmis = new BandwidthMonitorInputStream(new StringInputStream("buffered reads"),
+                new BandwidthStats(), latency, 4);
+        assertThat(bmis.read()).isEqualTo('b');
+        // the whole chunk is counted once read from the underlying stream
+        assertThat(bmis.getTotalBytesRead()).isEqualTo(4);
+        assertThat(bmis.available()).isEqualTo(13);
+        StringBuilder text = new StringBuilder("b");
+        int b;
+        while ((b = bmis.read()) != -1) {
+            text.append((char) b);
+        }
+        assertThat(text.toString()).isEqualTo("buffered reads");
+        assertThat(bmis.getTotalBytesRead()).isEqualTo(14);
+        // 4 chunks and the end of the stream
+        assertThat(latency.snapshot().getCount()).isEqualTo(5);
+    }
+
+    @Test
+    public void bufferedArrayReadsAndSkip() throws IOException {
+        BandwidthMonitorInputStream bmis = new BandwidthMonitorInputStream(new StringInputStream("0123456789abcdef"),
+                8);
+        byte[] buf = new byte[16];
+        assertThat(bmis.read(buf, 0, 3)).isEqualTo(3);
+        assertThat(bmis.skip(2)).isEqualTo(2);
+        assertThat(bmis.skip(0)).isEqualTo(0);
+        // the rest of the buffer
+        assertThat(bmis.read(buf, 3, 10)).isEqualTo(3);
+        assertThat(new String(buf, 0, 6)).isEqualTo("012567");
+        // large reads bypass the buffer
+        assertThat(bmis.read(buf, 0, 0)).isEqualTo(0);
+        assertThat(bmis.read(buf)).isEqualTo(8);
+        assertThat(new String(buf, 0, 8)).isEqualTo("89abcdef");
+        assertThat(bmis.read(buf)).isEqualTo(-1);
+        assertThat(bmis.getTotalBytesRead()).isEqualTo(16);
+    }
+
+    @Test
+    public void bufferedSkipPastBuffer() throws IOException {
+        BandwidthMonitorInputStream bmis = new BandwidthMonitorInputStream(new StringInputStream("0123456789"), 4);
+        assertThat(bmis.read()).isEqualTo('0');
+        assertThat(bmis.skip(10)).isEqualTo(3);
+        assertThat(bmis.skip(2)).isEqualTo(2);
+        assertThat(bmis.read()).isEqualTo('6');
+        assertThat(bmis.markSupported()).isFalse();
+        bmis.mark(10);
+        try {
+            bmis.reset();
+            throw new AssertionError("Expected mark/reset to be unsupported");
+        } catch (IOException e) {
+            assertThat(e).hasMessage("mark/reset not supported");
+        }
+    }
+
+    @Test
+    public void transferToCountsBytes() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BandwidthMonitorInputStream bmis = new BandwidthMonitorInputStream(new StringInputStream("transfer me"), 4);
+        assertThat(bmis.read()).isEqualTo('t');
+        assertThat(bmis.transferTo(out)).isEqualTo(10);
+        assertThat(out.toString()).isEqualTo("ransfer me");
+        assertThat(bmis.getTotalBytesRead()).isEqualTo(11);
+
+        out.reset();
+        LatencyHistogram latency = new LatencyHistogram();
+        bmis = new BandwidthMonitorInputStream(new StringInputStream("unbuffered"), latency);
+        assertThat(bmis.transferTo(out)).isEqualTo(10);
+        assertThat(bmis.getTotalBytesRead()).isEqualTo(10);
+        assertThat(latency.snapshot().getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void unbufferedMarkAndReset() throws IOException {
+        BandwidthMonitorInputStream bmis = new BandwidthMonitorInputStream(new ByteArrayInputStream(new byte[]{1, 2}));
+        assertThat(bmis.markSupported()).isTrue();
+        bmis.mark(2);
+        assertThat(bmis.read()).isEqualTo(1);
+        bmis.reset();
+        assertThat(bmis.read()).isEqualTo(1);
+        assertThat(bmis.available()).isEqualTo(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalBufferSize() {
+        new BandwidthMonitorInputStream(in(), -1);
+    }
 }
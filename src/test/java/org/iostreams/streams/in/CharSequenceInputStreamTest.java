@@ -0,0 +1,158 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.in;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.iostreams.streams.StreamsTestUtils.readFully;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.in.CharSequenceInputStream}.
+ *
+ * @author Yossi Shaul
+ */
+public class CharSequenceInputStreamTest {
+    private static final Charset[] CHARSETS = {StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1,
+            StandardCharsets.US_ASCII, StandardCharsets.UTF_16, StandardCharsets.UTF_16LE, Charset.forName("UTF-32"),
+            Charset.forName("windows-1252")};
+
+    private static final String[] STRINGS = {
+            "",
+            "Logen Ninefingers",
+            "line 1\nline2\nline   3",
+            "Café crème brûlée",
+            "שלום world 世界",
+            "emoji 😀 and 🎉!",
+            "unpaired \ud83d high and \ude00 low surrogates",
+            "ends with high surrogate \ud83d",
+            "😀😀😀",
+            "€€€ euro"
+    };
+
+    @Test
+    public void sameBytesAsStringGetBytes() throws IOException {
+        for (Charset charset : CHARSETS) {
+            for (String str : STRINGS) {
+                byte[] expected = str.getBytes(charset);
+                assertThat(readFully(new CharSequenceInputStream(str, charset), 1000)).as(charset + ": " + str)
+                        .isEqualTo(expected);
+                assertThat(new CharSequenceInputStream(str, charset).getLength()).as(charset + ": " + str)
+                        .isEqualTo(expected.length);
+            }
+        }
+    }
+
+    @Test
+    public void smallBufferAndReads() throws IOException {
+        String str = randomString(new Random(7), 5000);
+        for (Charset charset : CHARSETS) {
+            byte[] expected = str.getBytes(charset);
+            for (int readSize : new int[]{1, 3, 15, 16, 17, 100}) {
+                CharSequenceInputStream in = new CharSequenceInputStream(str, charset, 16);
+                assertThat(readFully(in, readSize)).as(charset + " read size " + readSize).isEqualTo(expected);
+            }
+            assertThat(new CharSequenceInputStream(str, charset, 16).getLength()).isEqualTo(expected.length);
+        }
+    }
+
+    @Test
+    public void singleByteReads() throws IOException {
+        String str = randomString(new Random(11), 1000);
+        for (Charset charset : CHARSETS) {
+            CharSequenceInputStream in = new CharSequenceInputStream(str, charset, 16);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != -1) {
+                out.write(b);
+            }
+            assertThat(out.toByteArray()).as(charset.toString()).isEqualTo(str.getBytes(charset));
+            assertThat(in.read()).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    public void stringBuilderAndCharBuffer() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            sb.append(i).append(' ');
+        }
+        String str = sb.toString();
+        assertThat(readFully(new CharSequenceInputStream(sb), 777)).isEqualTo(str.getBytes(StandardCharsets.UTF_8));
+
+        CharBuffer buffer = CharBuffer.wrap(("xx" + str).toCharArray());
+        buffer.position(2);
+        assertThat(readFully(new CharSequenceInputStream(buffer.slice()), 777))
+                .isEqualTo(str.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void lengthIsIndependentOfReading() throws IOException {
+        CharSequenceInputStream in = new CharSequenceInputStream("Jezal dan Luthar", StandardCharsets.UTF_16, 16);
+        assertThat(in.read(new byte[10])).isEqualTo(10);
+        assertThat(in.getLength()).isEqualTo("Jezal dan Luthar".getBytes(StandardCharsets.UTF_16).length);
+        assertThat(in.getLength()).isEqualTo(34);
+        assertThat(in.available()).isEqualTo(6);
+    }
+
+    @Test
+    public void readIntoArrayRange() throws IOException {
+        CharSequenceInputStream in = new CharSequenceInputStream("abc");
+        byte[] b = new byte[4];
+        assertThat(in.read(b, 0, 0)).isEqualTo(0);
+        assertThat(in.read(b, 1, 3)).isEqualTo(3);
+        assertThat(b).isEqualTo(new byte[]{0, 'a', 'b', 'c'});
+        assertThat(in.read(b, 0, 4)).isEqualTo(-1);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void readOutsideArray() throws IOException {
+        new CharSequenceInputStream("abc").read(new byte[4], 2, 3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bufferTooSmall() {
+        new CharSequenceInputStream("abc", StandardCharsets.UTF_8, 8);
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        while (sb.length() < length) {
+            switch (random.nextInt(6)) {
+                case 0:
+                    sb.append((char) (0xa0 + random.nextInt(0x60)));
+                    break;
+                case 1:
+                    sb.append((char) (0x400 + random.nextInt(0x100)));
+                    break;
+                case 2:
+                    sb.appendCodePoint(0x1f600 + random.nextInt(0x40));
+                    break;
+                default:
+                    sb.append((char) (0x20 + random.nextInt(0x5f)));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.iostreams.streams.in;
+
+import org.iostreams.streams.checksum.Digest;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.iostreams.streams.StreamsTestUtils.CHECK;
+import static org.iostreams.streams.StreamsTestUtils.CHECK_CRC32;
+import static org.iostreams.streams.StreamsTestUtils.CHECK_CRC32C;
+import static org.iostreams.streams.StreamsTestUtils.hex;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.in.ChecksumInputStream}.
+ *
+ * @author Yossi Shaul
+ */
+public class ChecksumInputStreamTest {
+
+    @Test
+    public void severalDigestsInOnePass() throws IOException {
+        ChecksumInputStream in = new ChecksumInputStream(new ByteArrayInputStream(CHECK), Digest.crc32c(),
+                Digest.crc32(), Digest.messageDigest("MD5"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThat(in.transferTo(out)).isEqualTo(CHECK.length);
+        in.close();
+        assertThat(out.toByteArray()).isEqualTo(CHECK);
+        assertThat(in.getDigest().getHexValue()).isEqualTo(hex(CHECK_CRC32C));
+        Digest[] digests = in.getDigests();
+        assertThat(digests.length).isEqualTo(3);
+        assertThat(digests[1].getHexValue()).isEqualTo(hex(CHECK_CRC32));
+        assertThat(digests[2].getHexValue()).isEqualTo("25f9e794323b453885f5181f1b624d0b");
+    }
+
+    @Test
+    public void singleBytesAndSkippedBytesAreDigested() throws IOException {
+        ChecksumInputStream in = new ChecksumInputStream(new ByteArrayInputStream(CHECK),
+                Digest.crc32c().expect(CHECK_CRC32C));
+        assertThat(in.read()).isEqualTo('1');
+        assertThat(in.skip(0)).isEqualTo(0);
+        assertThat(in.skip(5)).isEqualTo(5);
+        byte[] buf = new byte[10];
+        assertThat(in.read(buf, 0, buf.length)).isEqualTo(3);
+        assertThat(in.skip(5)).isEqualTo(0);
+        assertThat(in.read()).isEqualTo(-1);
+        assertThat(in.read(buf, 0, buf.length)).isEqualTo(-1);
+        in.close();
+    }
+
+    @Test
+    public void mismatchFailsClose() throws IOException {
+        ChecksumInputStream in = new ChecksumInputStream(new ByteArrayInputStream(CHECK),
+                Digest.crc32c().expect(0x12345678L));
+        in.readAllBytes();
+        try {
+            in.close();
+            fail("Expected the checksum verification to fail");
+        } catch (IOException e) {
+            assertThat(e.getMessage()).isEqualTo("CRC32C mismatch: expected 12345678 but was " + hex(CHECK_CRC32C));
+        }
+        // verified once
+        in.close();
+    }
+
+    @Test
+    public void markNotSupported() {
+        ChecksumInputStream in = new ChecksumInputStream(new ByteArrayInputStream(CHECK), Digest.adler32());
+        assertThat(in.markSupported()).isFalse();
+        in.mark(10);
+        try {
+            in.reset();
+            fail("Expected reset to fail");
+        } catch (IOException e) {
+            assertThat(e.getMessage()).isEqualTo("mark/reset not supported");
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void digestRequired() {
+        new ChecksumInputStream(new ByteArrayInputStream(CHECK));
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.in;
+
+import org.iostreams.streams.StreamsTestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.in.ChunkedOutputToInputStream}.
+ *
+ * @author Yossi Shaul
+ */
+public class ChunkedOutputToInputStreamTest {
+
+    @Test
+    public void readChunks() throws IOException {
+        final byte[] data = new byte[300000];
+        new Random(3).nextBytes(data);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        ChunkedOutputToInputStream in = new ChunkedOutputToInputStream(executor, 8192, 3) {
+            @Override
+            protected void write(OutputStream sink) throws IOException {
+                sink.write(data);
+            }
+        };
+
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        ByteBuffer chunk;
+        while ((chunk = in.readChunk()) != null) {
+            assertThat(chunk.remaining()).isLessThanOrEqualTo(8192);
+            byte[] bytes = new byte[chunk.remaining()];
+            chunk.get(bytes);
+            result.write(bytes);
+            in.release(chunk);
+        }
+        in.close();
+        executor.shutdown();
+        assertThat(result.toByteArray()).isEqualTo(data);
+    }
+
+    @Test
+    public void readAsStream() throws IOException {
+        ChunkedOutputToInputStream in = new ChunkedOutputToInputStream() {
+            @Override
+            protected void write(OutputStream sink) throws IOException {
+                sink.write("chunked".getBytes("UTF-8"));
+                sink.flush();
+                sink.write(" stream".getBytes("UTF-8"));
+            }
+        };
+
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1) {
+            result.write(b);
+        }
+        in.close();
+        assertThat(result.toString("UTF-8")).isEqualTo("chunked stream");
+    }
+
+    @Test
+    public void exceptionPropagationFromReadChunk() throws IOException {
+        ChunkedOutputToInputStream in = new ChunkedOutputToInputStream() {
+            @Override
+            protected void write(OutputStream sink) throws IOException {
+                sink.write(1);
+                throw new IllegalStateException("chunk writer failed");
+            }
+        };
+
+        try {
+            ByteBuffer chunk;
+            while ((chunk = in.readChunk()) != null) {
+                in.release(chunk);
+            }
+            Assert.fail("Should have thrown io exception");
+        } catch (IOException e) {
+            assertThat(e.getCause()).isExactlyInstanceOf(IllegalStateException.class);
+        }
+        in.close();
+    }
+
+    @Test
+    public void releaseBeforeReading() throws IOException {
+        ChunkedOutputToInputStream in = new ChunkedOutputToInputStream() {
+            @Override
+            protected void write(OutputStream sink) throws IOException {
+                sink.write(1);
+            }
+        };
+        in.release(null);   // nop
+        try {
+            in.release(ByteBuffer.allocate(4));
+            Assert.fail("Expected the release of a foreign buffer to fail");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        StreamsTestUtils.consumeAndCloseStream(in);
+    }
+
+    @Test
+    public void releaseRejectsForeignAndReleasedChunks() throws IOException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        ChunkedOutputToInputStream in = new ChunkedOutputToInputStream(executor, 64, 2) {
+            @Override
+            protected void write(OutputStream sink) throws IOException {
+                sink.write(new byte[100]);
+            }
+        };
+        ByteBuffer chunk = in.readChunk();
+        try {
+            // the same capacity as the stream's chunks
+            in.release(ByteBuffer.allocate(64));
+            Assert.fail("Expected the release of a foreign buffer to fail");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage()).startsWith("Chunk not in use");
+        }
+        in.release(chunk);
+        try {
+            in.release(chunk);
+            Assert.fail("Expected the second release to fail");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage()).startsWith("Chunk not in use");
+        }
+        StreamsTestUtils.consumeAndCloseStream(in);
+        executor.shutdown();
+    }
+}
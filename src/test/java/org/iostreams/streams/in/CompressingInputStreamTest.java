@@ -0,0 +1,219 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.iostreams.streams.in;
+
+import org.iostreams.streams.compress.CompressionFormat;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.in.CompressingInputStream}.
+ *
+ * @author Yossi Shaul
+ */
+public class CompressingInputStreamTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void gzipInParallelBlocks() throws IOException {
+        byte[] data = text(100_000);
+        CompressingInputStream in = new CompressingInputStream(new ByteArrayInputStream(data), CompressionFormat.GZIP,
+                Deflater.DEFAULT_COMPRESSION, 4096, 4, executor);
+        byte[] compressed = in.readAllBytes();
+        in.close();
+        assertThat(in.getBytesIn()).isEqualTo(data.length);
+        assertThat(compressed.length).isLessThan(data.length / 2);
+        assertThat(gunzip(compressed)).isEqualTo(data);
+    }
+
+    @Test
+    public void deflateAtEveryLevel() throws IOException {
+        byte[] data = text(20_000);
+        for (int level = -1; level <= 9; level++) {
+            CompressingInputStream in = new CompressingInputStream(new ByteArrayInputStream(data),
+                    CompressionFormat.DEFLATE, level, 3000, 2, executor);
+            byte[] compressed = in.readAllBytes();
+            in.close();
+            assertThat(inflate(compressed)).isEqualTo(data);
+        }
+    }
+
+    @Test
+    public void gzipAtLevelsWithExtraFlags() throws IOException {
+        byte[] data = text(10_000);
+        for (int level : new int[]{1, 9}) {
+            CompressingInputStream in = new CompressingInputStream(new ByteArrayInputStream(data),
+                    CompressionFormat.GZIP, level, 1024, 3, executor);
+            byte[] compressed = in.readAllBytes();
+            in.close();
+            assertThat(compressed[8]).isEqualTo((byte) (level == 9 ? 2 : 4));
+            assertThat(gunzip(compressed)).isEqualTo(data);
+        }
+    }
+
+    @Test
+    public void emptyInput() throws IOException {
+        CompressingInputStream in = new CompressingInputStream(new ByteArrayInputStream(new byte[0]),
+                CompressionFormat.GZIP);
+        assertThat(gunzip(in.readAllBytes())).isEqualTo(new byte[0]);
+        assertThat(in.read()).isEqualTo(-1);
+        in.close();
+        // closing again does nothing
+        in.close();
+    }
+
+    @Test
+    public void inputEndingAtBlockBoundarySingleByteReads() throws IOException {
+        byte[] data = text(8192);
+        CompressingInputStream in = new CompressingInputStream(new ByteArrayInputStream(data),
+                CompressionFormat.DEFLATE, Deflater.BEST_SPEED, 4096, 1, executor);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1) {
+            out.write(b);
+            assertThat(in.available()).isGreaterThanOrEqualTo(0);
+        }
+        assertThat(in.read(new byte[10], 0, 10)).isEqualTo(-1);
+        assertThat(in.read(new byte[10], 0, 0)).isEqualTo(0);
+        in.close();
+        assertThat(inflate(out.toByteArray())).isEqualTo(data);
+    }
+
+    @Test
+    public void incompressibleData() throws IOException {
+        byte[] data = new byte[50_000];
+        new Random(7).nextBytes(data);
+        CompressingInputStream in = new CompressingInputStream(new ByteArrayInputStream(data),
+                CompressionFormat.GZIP, Deflater.BEST_COMPRESSION, 5000, 4, executor);
+        byte[] compressed = in.readAllBytes();
+        in.close();
+        assertThat(gunzip(compressed)).isEqualTo(data);
+    }
+
+    @Test
+    public void closeWhileCompressing() throws IOException {
+        CompressingInputStream in = new CompressingInputStream(new ByteArrayInputStream(text(100_000)),
+                CompressionFormat.GZIP, Deflater.DEFAULT_COMPRESSION, 1024, 4, executor);
+        assertThat(in.read(new byte[20], 0, 20)).isGreaterThan(0);
+        assertThat(in.read(new byte[20], 0, 20)).isGreaterThan(0);
+        in.close();
+        try {
+            in.read();
+            fail("Expected read after close to fail");
+        } catch (IOException e) {
+            assertThat(e.getMessage()).isEqualTo("Stream closed");
+        }
+    }
+
+    @Test
+    public void inputFailurePropagates() throws IOException {
+        InputStream failing = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Disk on fire");
+            }
+        };
+        CompressingInputStream in = new CompressingInputStream(failing, CompressionFormat.GZIP);
+        // the header doesn't read the input
+        assertThat(in.read(new byte[10], 0, 10)).isEqualTo(10);
+        try {
+            in.read();
+            fail("Expected the input failure");
+        } catch (IOException e) {
+            assertThat(e.getMessage()).isEqualTo("Disk on fire");
+        }
+        in.close();
+    }
+
+    @Test
+    public void rejectedCompressionTask() throws IOException {
+        executor.shutdown();
+        CompressingInputStream in = new CompressingInputStream(new ByteArrayInputStream(text(100)),
+                CompressionFormat.GZIP, Deflater.DEFAULT_COMPRESSION, 1024, 1, executor);
+        in.read(new byte[10], 0, 10);
+        try {
+            in.read();
+            fail("Expected the rejected task to fail the read");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+        in.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalLevel() {
+        new CompressingInputStream(new ByteArrayInputStream(new byte[0]), CompressionFormat.GZIP, 10, 1024, 1,
+                executor);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalBlockSize() {
+        new CompressingInputStream(new ByteArrayInputStream(new byte[0]), CompressionFormat.GZIP,
+                Deflater.DEFAULT_COMPRESSION, 0, 1, executor);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalParallelism() {
+        new CompressingInputStream(new ByteArrayInputStream(new byte[0]), CompressionFormat.GZIP,
+                Deflater.DEFAULT_COMPRESSION, 1024, 0, executor);
+    }
+
+    static byte[] text(int size) {
+        Random random = new Random(size);
+        String[] words = {"stream", "pipe", "buffer", "block", "deflate", "reader", "writer", "chunk"};
+        StringBuilder sb = new StringBuilder(size + 16);
+        while (sb.length() < size) {
+            sb.append(words[random.nextInt(words.length)]).append(' ').append(random.nextInt(1000)).append('\n');
+        }
+        sb.setLength(size);
+        return sb.toString().getBytes();
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] inflate(byte[] compressed) throws IOException {
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.iostreams.streams.in;
+
+import org.iostreams.streams.compress.CompressionFormat;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.iostreams.streams.in.CompressingInputStreamTest.text;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.in.DecompressingInputStream}.
+ *
+ * @author Yossi Shaul
+ */
+public class DecompressingInputStreamTest {
+
+    @Test
+    public void gzipWithConcatenatedMembers() throws IOException {
+        byte[] first = text(30_000);
+        byte[] second = text(5000);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        for (byte[] member : new byte[][]{first, second}) {
+            OutputStream out = new GZIPOutputStream(compressed);
+            out.write(member);
+            out.close();
+        }
+        DecompressingInputStream in = new DecompressingInputStream(new ByteArrayInputStream(compressed.toByteArray()),
+                CompressionFormat.GZIP);
+        byte[] expected = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, expected, first.length, second.length);
+        assertThat(in.readAllBytes()).isEqualTo(expected);
+        in.close();
+    }
+
+    @Test
+    public void deflate() throws IOException {
+        byte[] data = text(50_000);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream out = new DeflaterOutputStream(compressed)) {
+            out.write(data);
+        }
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            DecompressingInputStream in = new DecompressingInputStream(
+                    new ByteArrayInputStream(compressed.toByteArray()), CompressionFormat.DEFLATE, executor, 1024);
+            assertThat(in.readAllBytes()).isEqualTo(data);
+            in.close();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void roundTripThroughCompressingStream() throws IOException {
+        byte[] data = text(300_000);
+        for (CompressionFormat format : CompressionFormat.values()) {
+            try (DecompressingInputStream in = new DecompressingInputStream(
+                    new CompressingInputStream(new ByteArrayInputStream(data), format), format)) {
+                assertThat(in.readAllBytes()).isEqualTo(data);
+            }
+        }
+    }
+
+    @Test
+    public void corruptInputFailsTheRead() throws IOException {
+        byte[] garbage = text(1000);
+        DecompressingInputStream in = new DecompressingInputStream(new ByteArrayInputStream(garbage),
+                CompressionFormat.GZIP);
+        try {
+            in.readAllBytes();
+            in.close();
+            fail("Expected the corrupt input to fail the stream");
+        } catch (IOException e) {
+            assertThat(e.getCause()).isNotNull();
+        }
+    }
+
+    @Test
+    public void closeBeforeReadingClosesInput() throws IOException {
+        CountDownLatch closed = new CountDownLatch(1);
+        InputStream compressed = new ByteArrayInputStream(new byte[0]) {
+            @Override
+            public void close() {
+                closed.countDown();
+            }
+        };
+        new DecompressingInputStream(compressed, CompressionFormat.GZIP).close();
+        assertThat(closed.getCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void closeLeavesInputToRunningDecompression() throws Exception {
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(text(1000));
+        }
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        InputStream compressed = new ByteArrayInputStream(gzip.toByteArray()) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                reading.countDown();
+                try {
+                    proceed.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.read(b, off, len);
+            }
+
+            @Override
+            public void close() {
+                closed.countDown();
+            }
+        };
+        final DecompressingInputStream in = new DecompressingInputStream(compressed, CompressionFormat.GZIP);
+        // the first read starts the decompression, which blocks reading the input
+        Thread reader = new Thread(() -> {
+            try {
+                in.read();
+            } catch (IOException e) {
+                // the stream is closed under the read
+            }
+        });
+        reader.start();
+        assertThat(reading.await(5, TimeUnit.SECONDS)).isTrue();
+        in.close();
+        // still being read by the decompressing thread
+        assertThat(closed.getCount()).isEqualTo(1);
+        proceed.countDown();
+        assertThat(closed.await(5, TimeUnit.SECONDS)).isTrue();
+        reader.join(5000);
+    }
+}
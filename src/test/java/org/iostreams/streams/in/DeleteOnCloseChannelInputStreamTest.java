@@ -0,0 +1,205 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.in;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.iostreams.streams.StreamsTestUtils.randomBytes;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.in.DeleteOnCloseChannelInputStream}.
+ *
+ * @author Yossi Shaul
+ */
+public class DeleteOnCloseChannelInputStreamTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void checkDeleted() throws IOException {
+        Path file = createFile(10);
+        DeleteOnCloseChannelInputStream in = new DeleteOnCloseChannelInputStream(file);
+        assertThat(Files.exists(file)).isTrue();
+        in.close();
+        assertThat(Files.exists(file)).isFalse();
+        // closing twice is ignored
+        in.close();
+    }
+
+    @Test
+    public void deleteOnCloseOption() throws IOException {
+        Path file = createFile(10);
+        DeleteOnCloseChannelInputStream in = new DeleteOnCloseChannelInputStream(file, 0, true);
+        assertThat(in.read(new byte[20])).isEqualTo(10);
+        in.close();
+        assertThat(Files.exists(file)).isFalse();
+    }
+
+    @Test(expected = NoSuchFileException.class)
+    public void noSuchFile() throws IOException {
+        new DeleteOnCloseChannelInputStream(folder.getRoot().toPath().resolve("no-such-file"));
+    }
+
+    @Test
+    public void readWithChannel() throws IOException {
+        byte[] data = randomBytes(100000);
+        try (DeleteOnCloseChannelInputStream in = new DeleteOnCloseChannelInputStream(writeFile(data))) {
+            assertThat(in.isMapped()).isFalse();
+            assertThat(in.getChannel().size()).isEqualTo(data.length);
+            assertReads(in, data);
+        }
+    }
+
+    @Test
+    public void readMapped() throws IOException {
+        byte[] data = randomBytes(100000);
+        try (DeleteOnCloseChannelInputStream in = new DeleteOnCloseChannelInputStream(writeFile(data), 100000,
+                false)) {
+            assertThat(in.isMapped()).isTrue();
+            assertReads(in, data);
+        }
+    }
+
+    @Test
+    public void largerThanThresholdIsNotMapped() throws IOException {
+        try (DeleteOnCloseChannelInputStream in = new DeleteOnCloseChannelInputStream(createFile(101), 100, false)) {
+            assertThat(in.isMapped()).isFalse();
+        }
+    }
+
+    @Test
+    public void emptyFile() throws IOException {
+        try (DeleteOnCloseChannelInputStream in = new DeleteOnCloseChannelInputStream(createFile(0), 100, false)) {
+            assertThat(in.read()).isEqualTo(-1);
+            assertThat(in.read(new byte[10])).isEqualTo(-1);
+            assertThat(in.skip(10)).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void transferToChannel() throws IOException {
+        byte[] data = randomBytes(300000);
+        for (long threshold : new long[]{0, data.length}) {
+            try (DeleteOnCloseChannelInputStream in = new DeleteOnCloseChannelInputStream(writeFile(data), threshold,
+                    false)) {
+                assertThat(in.read(new byte[1000])).isEqualTo(1000);
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                assertThat(in.transferTo(Channels.newChannel(out))).isEqualTo(data.length - 1000);
+                assertThat(out.toByteArray()).isEqualTo(Arrays.copyOfRange(data, 1000, data.length));
+                assertThat(in.read()).isEqualTo(-1);
+            }
+        }
+    }
+
+    @Test
+    public void transferToFileOutputStream() throws IOException {
+        byte[] data = randomBytes(50000);
+        Path target = folder.newFile().toPath();
+        try (DeleteOnCloseChannelInputStream in = new DeleteOnCloseChannelInputStream(writeFile(data));
+             FileOutputStream out = new FileOutputStream(target.toFile())) {
+            assertThat(in.transferTo(out)).isEqualTo(data.length);
+        }
+        assertThat(Files.readAllBytes(target)).isEqualTo(data);
+    }
+
+    @Test
+    public void transferToOutputStream() throws IOException {
+        byte[] data = randomBytes(50000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DeleteOnCloseChannelInputStream in = new DeleteOnCloseChannelInputStream(writeFile(data))) {
+            assertThat(in.transferTo(out)).isEqualTo(data.length);
+        }
+        assertThat(out.toByteArray()).isEqualTo(data);
+    }
+
+    @Test
+    public void skipAndAvailable() throws IOException {
+        byte[] data = randomBytes(1000);
+        for (long threshold : new long[]{0, data.length}) {
+            try (DeleteOnCloseChannelInputStream in = new DeleteOnCloseChannelInputStream(writeFile(data), threshold,
+                    false)) {
+                assertThat(in.available()).isEqualTo(1000);
+                assertThat(in.skip(0)).isEqualTo(0);
+                assertThat(in.skip(990)).isEqualTo(990);
+                assertThat(in.available()).isEqualTo(10);
+                assertThat(in.read()).isEqualTo(data[990] & 0xff);
+                assertThat(in.skip(100)).isEqualTo(9);
+                assertThat(in.available()).isEqualTo(0);
+                assertThat(in.read(new byte[4], 0, 0)).isEqualTo(0);
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void readAfterClose() throws IOException {
+        DeleteOnCloseChannelInputStream in = new DeleteOnCloseChannelInputStream(createFile(10));
+        in.close();
+        in.read();
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void readOutsideArray() throws IOException {
+        try (DeleteOnCloseChannelInputStream in = new DeleteOnCloseChannelInputStream(createFile(10))) {
+            in.read(new byte[4], 2, 3);
+        }
+    }
+
+    @Test
+    public void fileDeletedExternally() throws IOException {
+        Path file = createFile(10);
+        DeleteOnCloseChannelInputStream in = new DeleteOnCloseChannelInputStream(file);
+        Files.delete(file);
+        in.close();
+        assertThat(in.getChannel().isOpen()).isFalse();
+    }
+
+    private static void assertReads(InputStream in, byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(in.read());
+        byte[] buf = new byte[4096];
+        int n;
+        while ((n = in.read(buf, 0, buf.length)) != -1) {
+            out.write(buf, 0, n);
+        }
+        assertThat(out.toByteArray()).isEqualTo(data);
+        assertThat(in.read()).isEqualTo(-1);
+    }
+
+    private Path createFile(int size) throws IOException {
+        return writeFile(randomBytes(size));
+    }
+
+    private Path writeFile(byte[] data) throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, data);
+        return file;
+    }
+}
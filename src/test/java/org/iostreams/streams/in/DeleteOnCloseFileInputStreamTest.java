@@ -16,11 +16,13 @@
 
 package org.iostreams.streams.in;
 
+import org.iostreams.streams.file.FileDeleter;
 import org.junit.Test;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -41,6 +43,19 @@ public class DeleteOnCloseFileInputStreamTest {
         assertFalse("File should have been deleted after closing the stream", file.exists());
     }
 
+    @Test
+    public void deletedByDeleter() throws Exception {
+        File file = File.createTempFile("delete", "later");
+        FileDeleter deleter = new FileDeleter(1, 0, TimeUnit.SECONDS);
+        DeleteOnCloseFileInputStream dfis = new DeleteOnCloseFileInputStream(file, deleter);
+        dfis.close();
+        dfis.close();
+        assertTrue(deleter.awaitPending(5, TimeUnit.SECONDS));
+        assertFalse("File should have been deleted by the deleter", file.exists());
+        assertTrue("Closing twice should queue the file once", deleter.getDeleted() == 1);
+        deleter.close();
+    }
+
     @SuppressWarnings("ConstantConditions")
     @Test(expected = NullPointerException.class)
     public void nullFile() throws FileNotFoundException {
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.in;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.iostreams.streams.StreamsTestUtils.randomBytes;
+import static org.iostreams.streams.StreamsTestUtils.readFully;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.in.DeleteOnCloseSegmentInputStream}.
+ *
+ * @author Yossi Shaul
+ */
+public class DeleteOnCloseSegmentInputStreamTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void segmentsCoverTheFile() throws IOException {
+        byte[] data = randomBytes(10003);
+        List<DeleteOnCloseSegmentInputStream> segments = DeleteOnCloseSegmentInputStream.split(writeFile(data), 4);
+        assertThat(segments).hasSize(4);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long start = 0;
+        for (DeleteOnCloseSegmentInputStream segment : segments) {
+            assertThat(segment.getStart()).isEqualTo(start);
+            assertThat(segment.getLength()).isIn(2500L, 2501L);
+            out.write(readFully(segment, 1000));
+            start += segment.getLength();
+            segment.close();
+        }
+        assertThat(out.toByteArray()).isEqualTo(data);
+    }
+
+    @Test
+    public void deletedWhenLastSegmentClosed() throws IOException {
+        Path file = writeFile(randomBytes(100));
+        List<DeleteOnCloseSegmentInputStream> segments = DeleteOnCloseSegmentInputStream.split(file, 3);
+        segments.get(2).close();
+        segments.get(0).close();
+        // closing twice doesn't release the file twice
+        segments.get(0).close();
+        assertThat(Files.exists(file)).isTrue();
+        assertThat(readFully(segments.get(1), 1000)).hasSize(33);
+        segments.get(1).close();
+        assertThat(Files.exists(file)).isFalse();
+    }
+
+    @Test
+    public void parallelReads() throws Exception {
+        final byte[] data = randomBytes(1 << 20);
+        Path file = writeFile(data);
+        List<DeleteOnCloseSegmentInputStream> segments = DeleteOnCloseSegmentInputStream.split(file, 8);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (final DeleteOnCloseSegmentInputStream segment : segments) {
+                results.add(executor.submit(new Callable<byte[]>() {
+                    @Override
+                    public byte[] call() throws IOException {
+                        try (InputStream in = segment) {
+                            return readFully(in, 1000);
+                        }
+                    }
+                }));
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for (Future<byte[]> result : results) {
+                out.write(result.get());
+            }
+            assertThat(out.toByteArray()).isEqualTo(data);
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(Files.exists(file)).isFalse();
+    }
+
+    @Test
+    public void fewerSegmentsThanRequestedForSmallFile() throws IOException {
+        List<DeleteOnCloseSegmentInputStream> segments = DeleteOnCloseSegmentInputStream.split(writeFile(
+                new byte[]{1, 2, 3}), 10);
+        assertThat(segments).hasSize(3);
+        assertThat(segments.get(1).read()).isEqualTo(2);
+        assertThat(segments.get(1).read()).isEqualTo(-1);
+    }
+
+    @Test
+    public void emptyFile() throws IOException {
+        Path file = writeFile(new byte[0]);
+        List<DeleteOnCloseSegmentInputStream> segments = DeleteOnCloseSegmentInputStream.split(file, 4);
+        assertThat(segments).hasSize(1);
+        assertThat(segments.get(0).read(new byte[4])).isEqualTo(-1);
+        segments.get(0).close();
+        assertThat(Files.exists(file)).isFalse();
+    }
+
+    @Test
+    public void skipAndAvailable() throws IOException {
+        byte[] data = randomBytes(1000);
+        DeleteOnCloseSegmentInputStream segment = DeleteOnCloseSegmentInputStream.split(writeFile(data), 2).get(1);
+        assertThat(segment.available()).isEqualTo(500);
+        assertThat(segment.skip(-1)).isEqualTo(0);
+        assertThat(segment.skip(100)).isEqualTo(100);
+        assertThat(segment.available()).isEqualTo(400);
+        assertThat(segment.read()).isEqualTo(data[600] & 0xff);
+        assertThat(segment.read(new byte[4], 0, 0)).isEqualTo(0);
+        assertThat(segment.skip(1000)).isEqualTo(399);
+        assertThat(segment.read()).isEqualTo(-1);
+    }
+
+    @Test
+    public void transferToChannel() throws IOException {
+        byte[] data = randomBytes(5000);
+        DeleteOnCloseSegmentInputStream segment = DeleteOnCloseSegmentInputStream.split(writeFile(data), 2).get(1);
+        Path target = folder.newFile().toPath();
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE)) {
+            assertThat(segment.read()).isEqualTo(data[2500] & 0xff);
+            assertThat(segment.transferTo(channel)).isEqualTo(2499);
+        }
+        assertThat(Files.readAllBytes(target)).isEqualTo(Arrays.copyOfRange(data, 2501, 5000));
+        assertThat(segment.transferTo(FileChannel.open(target, StandardOpenOption.WRITE))).isEqualTo(0);
+    }
+
+    @Test(expected = IOException.class)
+    public void readAfterClose() throws IOException {
+        DeleteOnCloseSegmentInputStream segment = DeleteOnCloseSegmentInputStream.split(writeFile(randomBytes(10)),
+                1).get(0);
+        segment.close();
+        segment.read();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalNumberOfSegments() throws IOException {
+        DeleteOnCloseSegmentInputStream.split(writeFile(randomBytes(10)), 0);
+    }
+
+    @Test(expected = NoSuchFileException.class)
+    public void noSuchFile() throws IOException {
+        DeleteOnCloseSegmentInputStream.split(folder.getRoot().toPath().resolve("no-such-file"), 2);
+    }
+
+    private Path writeFile(byte[] data) throws IOException {
+        return Files.write(folder.newFile().toPath(), data);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.in;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.iostreams.streams.StreamsTestUtils.randomBytes;
+import static org.iostreams.streams.StreamsTestUtils.readFully;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.in.FanOutOutputToInputStream}.
+ *
+ * @author Yossi Shaul
+ */
+public class FanOutOutputToInputStreamTest {
+
+    @Test
+    public void writerRunsOnceForAllReaders() throws Exception {
+        final byte[] data = randomBytes(1000000);
+        final AtomicInteger runs = new AtomicInteger();
+        FanOutOutputToInputStream fanOut = new FanOutOutputToInputStream(3) {
+            @Override
+            protected void write(OutputStream sink) throws IOException {
+                runs.incrementAndGet();
+                for (int off = 0; off < data.length; off += 1000) {
+                    sink.write(data, off, 1000);
+                }
+            }
+        };
+        assertThat(fanOut.getReaderCount()).isEqualTo(3);
+        assertThat(fanOut.getInputStreams()).hasSize(3);
+
+        ExecutorService readers = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (final InputStream in : fanOut.getInputStreams()) {
+                results.add(readers.submit(() -> {
+                    try (InputStream stream = in) {
+                        return readFully(stream, 777);
+                    }
+                }));
+            }
+            for (Future<byte[]> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo(data);
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+        assertThat(runs.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void readerClosedEarly() throws Exception {
+        final byte[] data = randomBytes(100000);
+        FanOutOutputToInputStream fanOut = new FanOutOutputToInputStream(2, Executors.newCachedThreadPool(), 64) {
+            @Override
+            protected void write(OutputStream sink) throws IOException {
+                sink.write(data);
+            }
+        };
+        InputStream first = fanOut.getInputStream(0);
+        InputStream second = fanOut.getInputStream(1);
+        assertThat(second.read()).isEqualTo(data[0] & 0xff);
+        second.close();
+        assertThat(readFully(first, 777)).isEqualTo(data);
+        assertThat(first.available()).isEqualTo(0);
+        first.close();
+    }
+
+    @Test
+    public void writerExceptionReportedToEveryReader() throws Exception {
+        FanOutOutputToInputStream fanOut = new FanOutOutputToInputStream(2) {
+            @Override
+            protected void write(OutputStream sink) throws IOException {
+                sink.write(new byte[10]);
+                throw new IOException("Writer failure");
+            }
+        };
+        for (InputStream in : fanOut.getInputStreams()) {
+            try {
+                readFully(in, 777);
+                throw new AssertionError("Expected the writer exception");
+            } catch (IOException e) {
+                assertThat(e.getCause()).isInstanceOf(IOException.class).hasMessage("Writer failure");
+            }
+            // reported once
+            in.close();
+        }
+    }
+
+    @Test
+    public void writerFailsBeforeWriting() throws Exception {
+        FanOutOutputToInputStream fanOut = new FanOutOutputToInputStream(1) {
+            @Override
+            protected void write(OutputStream sink) {
+                throw new IllegalStateException("Writer failure");
+            }
+        };
+        InputStream in = fanOut.getInputStream(0);
+        try {
+            in.read();
+            throw new AssertionError("Expected the writer exception");
+        } catch (IOException e) {
+            assertThat(e.getCause()).isInstanceOf(IllegalStateException.class);
+        }
+        in.close();
+    }
+
+    @Test
+    public void closeWithoutReading() throws IOException {
+        final AtomicInteger runs = new AtomicInteger();
+        FanOutOutputToInputStream fanOut = new FanOutOutputToInputStream(1) {
+            @Override
+            protected void write(OutputStream sink) {
+                runs.incrementAndGet();
+            }
+        };
+        fanOut.getInputStream(0).close();
+        assertThat(runs.get()).isEqualTo(0);
+    }
+}
@@ -17,18 +17,27 @@
 package org.iostreams.streams.in;
 
 import org.iostreams.streams.StreamsTestUtils;
+import org.iostreams.streams.buffer.BufferAllocator;
+import org.iostreams.streams.concurrent.StreamExecutors;
+import org.iostreams.streams.pipe.Pipe;
+import org.iostreams.streams.pipe.PipeSizing;
+import org.iostreams.streams.pipe.RingBufferPipe;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.Random;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -169,6 +178,236 @@ public class OutputToInputStreamTest {
                 .isExactlyInstanceOf(IOException.class).hasMessage("Pipe closed");
     }
 
+    @Test
+    public void readTimesOutWhileWriterStalls() throws Exception {
+        final CountDownLatch stalled = new CountDownLatch(1);
+        OutputToInputStream in = new OutputToInputStream() {
+            @Override
+            protected void write(OutputStream sink) throws IOException {
+                try {
+                    stalled.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+                sink.write(7);
+            }
+        };
+        in.setReadTimeout(20, TimeUnit.MILLISECONDS);
+        try {
+            in.read();
+            Assert.fail("Expected the read to time out");
+        } catch (InterruptedIOException e) {
+            assertThat(e).hasMessage("Read timed out");
+        }
+        stalled.countDown();
+        assertThat(in.read()).isEqualTo(7);
+        assertThat(in.read()).isEqualTo(-1);
+        in.close();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void readTimeoutAfterFirstRead() throws IOException {
+        OutputToInputStream in = new OutputToInputStream() {
+            @Override
+            protected void write(OutputStream sink) throws IOException {
+                copyStringToOut("test", sink);
+            }
+        };
+        in.read();
+        in.setReadTimeout(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void closeInterruptsWriter() throws Exception {
+        final AtomicBoolean interrupted = new AtomicBoolean();
+        OutputToInputStream in = new OutputToInputStream() {
+            @Override
+            protected void write(OutputStream sink) throws IOException {
+                sink.write(1);
+                try {
+                    Thread.sleep(10000);
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                }
+            }
+        };
+        in.setCancelWriterOnClose(true);
+        in.setCloseTimeout(5, TimeUnit.SECONDS);
+        long abandoned = OutputToInputStream.abandonedWriters();
+        long cancelled = OutputToInputStream.cancelledWriters();
+
+        assertThat(in.read()).isEqualTo(1);
+        in.close();
+        // close waited for the interrupted writer
+        assertThat(interrupted.get()).isTrue();
+        assertThat(OutputToInputStream.abandonedWriters()).isGreaterThan(abandoned);
+        assertThat(OutputToInputStream.cancelledWriters()).isGreaterThan(cancelled);
+    }
+
+    @Test
+    public void queuedWriterNeverStartsAfterClose() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        final CountDownLatch busy = new CountDownLatch(1);
+        executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    busy.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        final AtomicBoolean started = new AtomicBoolean();
+        OutputToInputStream in = new OutputToInputStream(executor) {
+            @Override
+            protected void write(OutputStream sink) throws IOException {
+                started.set(true);
+            }
+        };
+        in.setCancelWriterOnClose(true);
+        in.source();
+        in.close();
+        busy.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(started.get()).isFalse();
+    }
+
+    @Test
+    public void queuedWriterCancelledReleasesThePipe() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        final CountDownLatch busy = new CountDownLatch(1);
+        executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    busy.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        final BufferAllocator allocator = new BufferAllocator(64, 1024 * 1024, 1024 * 1024, 0, false, true);
+        final PipeSizing sizing = new PipeSizing(4096, 65536);
+        OutputToInputStream in = new OutputToInputStream(executor, sizing) {
+            @Override
+            protected void write(OutputStream sink) throws IOException {
+                sink.write(1);
+            }
+
+            @Override
+            Pipe createPipe(int bufferSize) {
+                return new RingBufferPipe(sizing, allocator);
+            }
+        };
+        in.setCancelWriterOnClose(true);
+        in.source();
+        assertThat(sizing.getOpenPipes()).isEqualTo(1);
+        in.close();
+        assertThat(sizing.getOpenPipes()).isEqualTo(0);
+        assertThat(sizing.getCapacity()).isEqualTo(0);
+        assertThat(allocator.getPooledCount()).isEqualTo(1);
+        assertThat(allocator.getLeaks()).isEqualTo(0);
+
+        busy.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        // the writer, had it started after all, didn't close the sink a second time
+        assertThat(sizing.getOpenPipes()).isEqualTo(0);
+    }
+
+    @Test
+    public void closeTimeoutElapsesWhileWriterRuns() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        OutputToInputStream in = new OutputToInputStream() {
+            @Override
+            protected void write(OutputStream sink) throws IOException {
+                sink.write(1);
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+            }
+        };
+        in.setCloseTimeout(20, TimeUnit.MILLISECONDS);
+        long unfinished = OutputToInputStream.unfinishedWriters();
+
+        in.read();
+        in.close();
+        assertThat(OutputToInputStream.unfinishedWriters()).isGreaterThan(unfinished);
+        release.countDown();
+    }
+
+    @Test
+    public void writerStopsWhenReaderCloses() throws Exception {
+        final AtomicBoolean stopped = new AtomicBoolean();
+        OutputToInputStream in = new OutputToInputStream() {
+            @Override
+            protected void write(OutputStream sink) throws IOException {
+                sink.write(1);
+                while (!isClosed()) {
+                    Thread.yield();
+                }
+                stopped.set(true);
+            }
+        };
+        in.setCloseTimeout(5, TimeUnit.SECONDS);
+        in.read();
+        in.close();
+        assertThat(stopped.get()).isTrue();
+    }
+
+    @Test
+    public void adaptivePipeSize() throws IOException {
+        final byte[] data = new byte[1 << 20];
+        new Random(23).nextBytes(data);
+        PipeSizing sizing = new PipeSizing(512, 64 * 1024);
+        InputStream in = new OutputToInputStream(StreamExecutors.defaultExecutor(), sizing) {
+            @Override
+            protected void write(OutputStream sink) throws IOException {
+                for (int off = 0; off < data.length; off += 16384) {
+                    sink.write(data, off, 16384);
+                }
+            }
+        };
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        byte[] buf = new byte[8192];
+        int read;
+        while ((read = in.read(buf)) != -1) {
+            result.write(buf, 0, read);
+        }
+        in.close();
+        assertThat(result.toByteArray()).isEqualTo(data);
+        assertThat(sizing.getGrows()).isGreaterThan(0);
+        assertThat(sizing.getOpenPipes()).isEqualTo(0);
+    }
+
+    @Test
+    public void largePayloadThroughSmallBuffer() throws IOException {
+        final byte[] data = new byte[1 << 20];
+        new Random(17).nextBytes(data);
+        InputStream in = new OutputToInputStream(Executors.newSingleThreadExecutor(), 128) {
+            @Override
+            protected void write(OutputStream sink) throws IOException {
+                for (int off = 0; off < data.length; off += 1000) {
+                    sink.write(data, off, Math.min(1000, data.length - off));
+                }
+                sink.close();
+            }
+        };
+
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        byte[] buf = new byte[333];
+        int read;
+        while ((read = in.read(buf)) != -1) {
+            result.write(buf, 0, read);
+        }
+        in.close();
+        assertThat(result.toByteArray()).isEqualTo(data);
+    }
+
     @Test
     public void noShutdownOfExternalThreadExecutor() throws IOException {
         ExecutorService executorService = Executors.newSingleThreadExecutor();
@@ -183,7 +422,7 @@ public class OutputToInputStreamTest {
     }
 
     @Test
-    public void shutdownOfInternalThreadExecutor() throws Exception {
+    public void sharedDefaultExecutorIsNotShutdown() throws Exception {
         InputStream in = new OutputToInputStream() {
             @Override
             public void write(OutputStream sink) throws IOException {
@@ -194,7 +433,8 @@ public class OutputToInputStreamTest {
         Field executorField = OutputToInputStream.class.getDeclaredField("executor");
         executorField.setAccessible(true);
         ExecutorService executorService = (ExecutorService) executorField.get(in);
-        assertThat(executorService.isShutdown()).isTrue();
+        assertThat(executorService).isSameAs(StreamExecutors.defaultExecutor());
+        assertThat(executorService.isShutdown()).isFalse();
     }
 
     private void print(InputStream is) throws IOException {
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.in;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.iostreams.streams.StreamsTestUtils.readFully;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.in.ParallelConcatInputStream}.
+ *
+ * @author Yossi Shaul
+ */
+public class ParallelConcatInputStreamTest {
+
+    @Test
+    public void segmentsReadInOrder() throws IOException {
+        Random random = new Random(3);
+        List<ParallelConcatInputStream.SegmentWriter> segments = new ArrayList<>();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (int i = 0; i < 50; i++) {
+            final byte[] segment = new byte[random.nextInt(20000)];
+            random.nextBytes(segment);
+            expected.write(segment);
+            segments.add(sink -> {
+                for (int off = 0; off < segment.length; off += 100) {
+                    sink.write(segment, off, Math.min(100, segment.length - off));
+                }
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (InputStream in = new ParallelConcatInputStream(segments, executor, 4, 1024)) {
+            assertThat(readFully(in, 333)).isEqualTo(expected.toByteArray());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void segmentsRunInParallel() throws IOException {
+        // each segment waits for the others to start, sequential execution would never complete
+        final CyclicBarrier allStarted = new CyclicBarrier(3);
+        List<ParallelConcatInputStream.SegmentWriter> segments = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            final int value = i;
+            segments.add(sink -> {
+                try {
+                    allStarted.await(5, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IOException(e);
+                }
+                sink.write(value);
+            });
+        }
+        try (InputStream in = new ParallelConcatInputStream(segments, ForkJoinPool.commonPool().getParallelism() >= 3 ?
+                ForkJoinPool.commonPool() : new ForkJoinPool(3), 3, 16)) {
+            assertThat(readFully(in, 333)).isEqualTo(new byte[]{0, 1, 2});
+        }
+    }
+
+    @Test
+    public void parallelismLimitsStartedSegments() throws IOException {
+        final AtomicInteger started = new AtomicInteger();
+        List<ParallelConcatInputStream.SegmentWriter> segments = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            segments.add(sink -> {
+                started.incrementAndGet();
+                sink.write(new byte[100]);
+            });
+        }
+        ParallelConcatInputStream in = new ParallelConcatInputStream(segments, Executors.newCachedThreadPool(), 2,
+                16);
+        assertThat(in.startedSegments()).isEqualTo(0);
+        assertThat(in.read()).isEqualTo(0);
+        assertThat(in.startedSegments()).isEqualTo(2);
+        assertThat(in.skip(99)).isEqualTo(99);
+        assertThat(in.read()).isEqualTo(0);
+        assertThat(in.startedSegments()).isEqualTo(3);
+        assertThat(in.available()).isGreaterThanOrEqualTo(0);
+        in.close();
+        assertThat(in.available()).isEqualTo(0);
+        assertThat(started.get()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    public void writerFailure() throws IOException {
+        List<ParallelConcatInputStream.SegmentWriter> segments = new ArrayList<>();
+        segments.add(sink -> sink.write(new byte[]{1, 2}));
+        segments.add(sink -> {
+            sink.write(3);
+            throw new IOException("Segment failure");
+        });
+        segments.add(sink -> sink.write(4));
+        InputStream in = new ParallelConcatInputStream(segments);
+        byte[] buf = new byte[10];
+        assertThat(in.read(buf)).isEqualTo(2);
+        assertThat(in.read(buf)).isEqualTo(1);
+        try {
+            in.read(buf);
+            throw new AssertionError("Expected the segment failure");
+        } catch (IOException e) {
+            assertThat(e.getCause()).hasMessage("Segment failure");
+        }
+        try {
+            in.read();
+            throw new AssertionError("Expected the stream to be closed");
+        } catch (IOException e) {
+            assertThat(e).hasMessage("Stream closed");
+        }
+    }
+
+    @Test
+    public void closeStopsRunningWriters() throws Exception {
+        final Exception[] failure = new Exception[1];
+        final AtomicInteger started = new AtomicInteger();
+        List<ParallelConcatInputStream.SegmentWriter> segments = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            segments.add(sink -> {
+                started.incrementAndGet();
+                try {
+                    while (true) {
+                        sink.write(new byte[100]);
+                    }
+                } catch (IOException e) {
+                    failure[0] = e;
+                    throw e;
+                }
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        InputStream in = new ParallelConcatInputStream(segments, executor, 2, 64);
+        assertThat(in.read()).isEqualTo(0);
+        in.close();
+        in.close();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(failure[0]).hasMessage("Pipe closed");
+        assertThat(started.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void noSegments() throws IOException {
+        InputStream in = new ParallelConcatInputStream(Collections.emptyList());
+        assertThat(in.read()).isEqualTo(-1);
+        assertThat(in.read(new byte[4], 0, 4)).isEqualTo(-1);
+        assertThat(in.read(new byte[4], 0, 0)).isEqualTo(0);
+    }
+
+    @Test
+    public void singleByteReads() throws IOException {
+        List<ParallelConcatInputStream.SegmentWriter> segments = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            final int value = i;
+            segments.add(sink -> {
+                sink.write(value);
+                sink.write(value);
+            });
+        }
+        InputStream in = new ParallelConcatInputStream(segments);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1) {
+            out.write(b);
+        }
+        assertThat(out.toByteArray()).isEqualTo(new byte[]{0, 0, 1, 1, 2, 2, 3, 3, 4, 4});
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void readOutsideArray() throws IOException {
+        new ParallelConcatInputStream(Collections.emptyList()).read(new byte[4], 2, 3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalParallelism() {
+        new ParallelConcatInputStream(Collections.emptyList(), ForkJoinPool.commonPool(), 0, 16);
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.iostreams.streams.in;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.iostreams.streams.StreamsTestUtils.randomBytes;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.in.ReadaheadInputStream}.
+ *
+ * @author Yossi Shaul
+ */
+public class ReadaheadInputStreamTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void readEverythingAcrossChunks() throws IOException {
+        byte[] data = randomBytes(10_000);
+        ReadaheadInputStream in = new ReadaheadInputStream(new ByteArrayInputStream(data), 1024, 3, executor);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(in.read());
+        byte[] buf = new byte[700];
+        int read;
+        while ((read = in.read(buf, 0, buf.length)) != -1) {
+            out.write(buf, 0, read);
+        }
+        assertThat(out.toByteArray()).isEqualTo(data);
+        assertThat(in.read()).isEqualTo(-1);
+        assertThat(in.read(buf, 0, 0)).isEqualTo(0);
+        assertThat(in.available()).isEqualTo(0);
+        in.close();
+    }
+
+    @Test
+    public void defaultsAndTransferTo() throws IOException {
+        byte[] data = randomBytes(200_000);
+        try (ReadaheadInputStream in = new ReadaheadInputStream(new ByteArrayInputStream(data))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertThat(in.transferTo(out)).isEqualTo(data.length);
+            assertThat(out.toByteArray()).isEqualTo(data);
+        }
+    }
+
+    @Test
+    public void availableCountsBytesReadAhead() throws Exception {
+        ReadaheadInputStream in = new ReadaheadInputStream(new ByteArrayInputStream(new byte[5000]), 1000, 3,
+                executor);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (in.available() < 3000 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        // only three chunks are read ahead
+        assertThat(in.available()).isEqualTo(3000);
+        assertThat(in.read()).isEqualTo(0);
+        assertThat(in.available()).isGreaterThanOrEqualTo(2999);
+        in.close();
+    }
+
+    @Test
+    public void skipBufferedAndUnderlyingBytes() throws IOException {
+        byte[] data = randomBytes(100_000);
+        ReadaheadInputStream in = new ReadaheadInputStream(new ByteArrayInputStream(data), 1000, 2, executor);
+        assertThat(in.skip(0)).isEqualTo(0);
+        assertThat(in.read()).isEqualTo(data[0] & 0xff);
+        // within the current chunk
+        assertThat(in.skip(9)).isEqualTo(9);
+        assertThat(in.read()).isEqualTo(data[10] & 0xff);
+        // into the next chunk
+        assertThat(in.skip(1500)).isEqualTo(1500);
+        assertThat(in.read()).isEqualTo(data[1511] & 0xff);
+        // beyond the chunks read ahead
+        assertThat(in.skip(50_000)).isEqualTo(50_000);
+        assertThat(in.read()).isEqualTo(data[51_512] & 0xff);
+        byte[] rest = new byte[100];
+        assertThat(in.read(rest, 0, rest.length)).isGreaterThan(0);
+        // past the end
+        assertThat(in.skip(100_000)).isLessThan(100_000);
+        assertThat(in.read()).isEqualTo(-1);
+        assertThat(in.skip(10)).isEqualTo(0);
+        in.close();
+    }
+
+    @Test
+    public void failureThrownAfterTheBytesBeforeIt() throws IOException {
+        InputStream failing = new InputStream() {
+            private int count;
+
+            @Override
+            public int read() throws IOException {
+                if (count == 1500) {
+                    throw new IOException("Connection reset");
+                }
+                return count++ & 0xff;
+            }
+        };
+        ReadaheadInputStream in = new ReadaheadInputStream(failing, 1000, 2, executor);
+        byte[] buf = new byte[3000];
+        int total = 0;
+        try {
+            int read;
+            while ((read = in.read(buf, total, buf.length - total)) != -1) {
+                total += read;
+            }
+            fail("Expected the failure of the underlying stream");
+        } catch (IOException e) {
+            assertThat(e.getCause().getMessage()).isEqualTo("Connection reset");
+        }
+        assertThat(total).isEqualTo(1500);
+        assertThat(buf[1499]).isEqualTo((byte) 1499);
+        in.close();
+    }
+
+    @Test
+    public void partialChunkHandedToWaitingReader() throws Exception {
+        CountDownLatch firstData = new CountDownLatch(1);
+        CountDownLatch end = new CountDownLatch(1);
+        InputStream slow = new InputStream() {
+            private int count;
+
+            @Override
+            public int read() {
+                return count++;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                try {
+                    if (count > 0) {
+                        end.await(10, TimeUnit.SECONDS);
+                        return -1;
+                    }
+                    firstData.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                // only ten bytes, the next read blocks
+                return super.read(b, off, Math.min(len, 10));
+            }
+        };
+        ReadaheadInputStream in = new ReadaheadInputStream(slow, 1000, 2, executor);
+        // the data arrives while the reader is waiting for it
+        executor.execute(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            firstData.countDown();
+        });
+        byte[] buf = new byte[100];
+        assertThat(in.read(buf, 0, buf.length)).isEqualTo(10);
+        end.countDown();
+        assertThat(in.read(buf, 0, buf.length)).isEqualTo(-1);
+        in.close();
+    }
+
+    @Test
+    public void closeStopsReadingAhead() throws IOException {
+        AtomicBoolean closed = new AtomicBoolean();
+        InputStream endless = new InputStream() {
+            @Override
+            public int read() {
+                return 1;
+            }
+
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+        ReadaheadInputStream in = new ReadaheadInputStream(endless, 100, 2, executor);
+        assertThat(in.read()).isEqualTo(1);
+        in.close();
+        assertThat(closed.get()).isTrue();
+        assertThat(in.available()).isEqualTo(0);
+        try {
+            in.read();
+            fail("Expected read after close to fail");
+        } catch (IOException e) {
+            assertThat(e.getMessage()).isEqualTo("Stream closed");
+        }
+        try {
+            in.skip(10);
+            fail("Expected skip after close to fail");
+        } catch (IOException e) {
+            assertThat(e.getMessage()).isEqualTo("Stream closed");
+        }
+        // closing again does nothing
+        in.close();
+    }
+
+    @Test
+    public void rejectedReader() {
+        executor.shutdown();
+        ReadaheadInputStream in = new ReadaheadInputStream(new ByteArrayInputStream(new byte[10]), 100, 2, executor);
+        try {
+            in.read();
+            fail("Expected the rejected reader to fail the read");
+        } catch (IOException e) {
+            assertThat(e.getCause()).isInstanceOf(RejectedExecutionException.class);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalChunkSize() {
+        new ReadaheadInputStream(new ByteArrayInputStream(new byte[0]), 0, 2, executor);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalNumberOfChunks() {
+        new ReadaheadInputStream(new ByteArrayInputStream(new byte[0]), 10, 0, executor);
+    }
+}
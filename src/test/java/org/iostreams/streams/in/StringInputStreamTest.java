@@ -16,6 +16,7 @@
 
 package org.iostreams.streams.in;
 
+import org.iostreams.streams.buffer.BufferAllocator;
 import org.junit.Test;
 
 import java.io.BufferedReader;
@@ -24,6 +25,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.fest.assertions.Assertions.assertThat;
@@ -37,6 +39,7 @@ public class StringInputStreamTest {
     private static final Charset UTF8 = Charset.forName("UTF-8");
     private static final Charset UTF16 = Charset.forName("UTF-16");
     private static final Charset ASCII = Charset.forName("US-ASCII");
+    private static final Charset LATIN1 = Charset.forName("ISO-8859-1");
 
     @Test
     public void simpleStringUTF8Encoding() throws IOException {
@@ -86,6 +89,53 @@ public class StringInputStreamTest {
         return readLines(in, UTF8);
     }
 
+    @Test
+    public void largeStringEncodedIntoPooledBuffer() throws IOException {
+        BufferAllocator allocator = new BufferAllocator(64, 1024, 1024, 0, false, true);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sb.append("\u00e9t\u00e9 ").append(i);
+        }
+        String str = sb.toString();
+        byte[] expected = str.getBytes(LATIN1);
+        StringInputStream in = new StringInputStream(str, LATIN1, allocator);
+        assertThat(in.getLength()).isEqualTo(expected.length);
+        assertThat(allocator.getMisses()).isEqualTo(1);
+        byte[] read = new byte[expected.length];
+        assertThat(in.read(read, 0, read.length)).isEqualTo(expected.length);
+        assertThat(read).isEqualTo(expected);
+
+        in.close();
+        assertThat(in.read()).isEqualTo(-1);
+        assertThat(allocator.getPooledCount()).isEqualTo(1);
+        // closing again doesn't release twice
+        in.close();
+        new StringInputStream(str, LATIN1, allocator).close();
+        assertThat(allocator.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    public void smallOrUnsupportedStringsNotPooled() throws IOException {
+        BufferAllocator allocator = new BufferAllocator(64, 128, 1024, 0, false, false);
+        new StringInputStream("short", UTF8, allocator).close();
+        new StringInputStream(repeat('a', 100), UTF16, allocator).close();
+        // characters outside ASCII aren't a plain copy in UTF-8
+        StringInputStream utf8 = new StringInputStream(repeat('\u00e9', 100), UTF8, allocator);
+        assertThat(utf8.getLength()).isEqualTo(200);
+        utf8.close();
+        StringInputStream large = new StringInputStream(repeat('b', 200), ASCII, allocator);
+        assertThat(large.getLength()).isEqualTo(200);
+        large.close();
+        assertThat(large.read()).isEqualTo('b');
+        assertThat(allocator.getMisses() + allocator.getHits() + allocator.getUnpooled()).isEqualTo(0);
+    }
+
+    private static String repeat(char c, int times) {
+        char[] chars = new char[times];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
     private List<String> readLines(InputStream in, Charset charset) throws IOException {
         BufferedReader br = new BufferedReader(new InputStreamReader(in, charset));
         List<String> lines = new ArrayList<String>();
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.in;
+
+import org.iostreams.streams.throttle.TokenBucket;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.in.ThrottledInputStream}.
+ *
+ * @author Yossi Shaul
+ */
+@SuppressWarnings("StatementWithEmptyBody")
+public class ThrottledInputStreamTest {
+
+    @Test
+    public void readsAreLimitedToBurst() throws IOException {
+        ThrottledInputStream in = new ThrottledInputStream(new ByteArrayInputStream(new byte[1000]),
+                new TokenBucket(1000000, 100));
+        assertThat(in.read(new byte[500], 0, 500)).isEqualTo(100);
+        assertThat(in.read()).isEqualTo(0);
+        assertThat(in.skip(500)).isEqualTo(100);
+        assertThat(in.getBucket().getBurst()).isEqualTo(100);
+    }
+
+    @Test
+    public void sharedBucketLimitsAllStreams() throws IOException {
+        // 200KB/s shared by two streams reading 40KB each (after a 20KB burst): at least 300ms
+        TokenBucket bucket = new TokenBucket(200 * 1024, 20 * 1024);
+        ThrottledInputStream in1 = new ThrottledInputStream(new ByteArrayInputStream(new byte[40 * 1024]), bucket);
+        ThrottledInputStream in2 = new ThrottledInputStream(new ByteArrayInputStream(new byte[40 * 1024]), bucket);
+        long start = System.nanoTime();
+        byte[] buf = new byte[4096];
+        while (in1.read(buf) != -1 | in2.read(buf) != -1) ;
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(290);
+    }
+
+    @Test
+    public void endOfStream() throws IOException {
+        ThrottledInputStream in = new ThrottledInputStream(new ByteArrayInputStream(new byte[0]), 10);
+        assertThat(in.read()).isEqualTo(-1);
+        assertThat(in.read(new byte[10], 0, 10)).isEqualTo(-1);
+        assertThat(in.skip(10)).isEqualTo(0);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.monitor;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fest.assertions.Delta.delta;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.monitor.BandwidthStats}.
+ *
+ * @author Yossi Shaul
+ */
+public class BandwidthStatsTest {
+    private static final long TICK = TimeUnit.MILLISECONDS.toNanos(BandwidthStats.TICK_MILLIS);
+
+    private final AtomicLong clock = new AtomicLong(1000);
+
+    @Test
+    public void nothingRecorded() {
+        BandwidthStats stats = new BandwidthStats(clock::get);
+        clock.addAndGet(TICK * 3);
+        assertThat(stats.getTotalBytes()).isEqualTo(0);
+        assertThat(stats.getAverageBytesPerSec()).isEqualTo(0);
+        assertThat(stats.getCurrentBytesPerSec()).isEqualTo(0.0);
+        assertThat(stats.getPeakBytesPerSec()).isEqualTo(0.0);
+    }
+
+    @Test
+    public void steadyRate() {
+        BandwidthStats stats = new BandwidthStats(clock::get);
+        // 1000 bytes every tick = 10000 bytes per second
+        for (int i = 0; i < 600; i++) {
+            stats.record(1000);
+            clock.addAndGet(TICK);
+        }
+        assertThat(stats.getTotalBytes()).isEqualTo(600000);
+        assertThat(stats.getAverageBytesPerSec()).isEqualTo(10000);
+        assertThat(stats.getCurrentBytesPerSec()).isEqualTo(10000.0, delta(0.001));
+        assertThat(stats.getPeakBytesPerSec()).isEqualTo(10000.0, delta(0.001));
+        assertThat(stats.getOneSecondEwma()).isEqualTo(10000.0, delta(0.001));
+        assertThat(stats.getTenSecondEwma()).isEqualTo(10000.0, delta(0.001));
+        assertThat(stats.getOneMinuteEwma()).isEqualTo(10000.0, delta(0.001));
+        assertThat(stats.getElapsedNanos()).isEqualTo(600 * TICK);
+    }
+
+    @Test
+    public void ratesDecayWhenIdle() {
+        BandwidthStats stats = new BandwidthStats(clock::get);
+        for (int i = 0; i < 100; i++) {
+            stats.record(1000);
+            clock.addAndGet(TICK);
+        }
+        double tenSeconds = stats.getTenSecondEwma();
+
+        // idle for 2 seconds
+        clock.addAndGet(20 * TICK);
+        assertThat(stats.getCurrentBytesPerSec()).isEqualTo(0.0);
+        assertThat(stats.getPeakBytesPerSec()).isEqualTo(10000.0, delta(0.001));
+        // one second constant: e^-2 of the rate is left
+        assertThat(stats.getOneSecondEwma()).isEqualTo(10000 * Math.exp(-2), delta(1.0));
+        assertThat(stats.getTenSecondEwma()).isLessThan(tenSeconds).isGreaterThan(stats.getOneSecondEwma());
+        assertThat(stats.getOneMinuteEwma()).isGreaterThan(stats.getTenSecondEwma());
+        // the lifetime average doesn't forget
+        assertThat(stats.getAverageBytesPerSec()).isEqualTo(100000 * 1000000000L / (120 * TICK));
+    }
+
+    @Test
+    public void burstRaisesCurrentAndPeak() {
+        BandwidthStats stats = new BandwidthStats(clock::get);
+        for (int i = 0; i < 20; i++) {
+            stats.record(100);
+            clock.addAndGet(TICK);
+        }
+        assertThat(stats.getCurrentBytesPerSec()).isEqualTo(1000.0, delta(0.001));
+
+        stats.record(50000);
+        clock.addAndGet(TICK);
+        assertThat(stats.getCurrentBytesPerSec()).isEqualTo(9 * 100 + 50000, delta(0.001));
+        assertThat(stats.getPeakBytesPerSec()).isEqualTo(50900.0, delta(0.001));
+
+        // the burst leaves the sliding window after a second
+        clock.addAndGet(10 * TICK);
+        assertThat(stats.getCurrentBytesPerSec()).isEqualTo(0.0);
+        assertThat(stats.getPeakBytesPerSec()).isEqualTo(50900.0, delta(0.001));
+    }
+
+    @Test
+    public void firstSecondRateUsesElapsedTime() {
+        BandwidthStats stats = new BandwidthStats(clock::get);
+        stats.record(500);
+        clock.addAndGet(TICK);
+        assertThat(stats.getCurrentBytesPerSec()).isEqualTo(5000.0, delta(0.001));
+    }
+
+    @Test
+    public void concurrentRecording() throws InterruptedException {
+        final BandwidthStats stats = new BandwidthStats();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 100000; i++) {
+                    stats.record(3);
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(stats.getTotalBytes()).isEqualTo(4 * 100000 * 3);
+        assertThat(stats.toString()).startsWith("BandwidthStats{total=1200000");
+    }
+
+    @Test
+    public void recordIntoParent() {
+        BandwidthStats parent = new BandwidthStats(clock::get);
+        BandwidthStats child = new BandwidthStats(clock::get, parent);
+        child.record(100);
+        parent.record(1);
+        assertThat(child.getTotalBytes()).isEqualTo(100);
+        assertThat(parent.getTotalBytes()).isEqualTo(101);
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.monitor;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.monitor.LatencyHistogram}.
+ *
+ * @author Yossi Shaul
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void emptyHistogram() {
+        LatencySnapshot snapshot = new LatencyHistogram().snapshot();
+        assertThat(snapshot.getCount()).isEqualTo(0);
+        assertThat(snapshot.getMean()).isEqualTo(0.0);
+        assertThat(snapshot.getP50()).isEqualTo(0);
+        assertThat(snapshot.getMax()).isEqualTo(0);
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 10; i++) {
+            histogram.record(i);
+        }
+        LatencySnapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.getCount()).isEqualTo(10);
+        assertThat(snapshot.getP50()).isEqualTo(5);
+        assertThat(snapshot.getValueAtPercentile(90)).isEqualTo(9);
+        assertThat(snapshot.getValueAtPercentile(100)).isEqualTo(10);
+        assertThat(snapshot.getMean()).isEqualTo(5.5);
+    }
+
+    @Test
+    public void percentilesWithinRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // uniform between 1us and 10ms
+        Random random = new Random(42);
+        long[] values = new long[100000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1000 + (long) (random.nextDouble() * 10000000);
+            histogram.record(values[i]);
+        }
+        java.util.Arrays.sort(values);
+        LatencySnapshot snapshot = histogram.snapshot();
+        assertWithinError(snapshot.getP50(), values[49999]);
+        assertWithinError(snapshot.getP99(), values[98999]);
+        assertWithinError(snapshot.getP999(), values[99899]);
+        assertThat(snapshot.getMax()).isEqualTo(values[values.length - 1]);
+    }
+
+    @Test
+    public void tailOutliersShowInHighPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 9990; i++) {
+            histogram.record(10000);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(5000000000L);
+        }
+        LatencySnapshot snapshot = histogram.snapshot();
+        assertWithinError(snapshot.getP50(), 10000);
+        assertWithinError(snapshot.getP99(), 10000);
+        assertWithinError(snapshot.getValueAtPercentile(99.95), 5000000000L);
+        assertThat(snapshot.getMax()).isEqualTo(5000000000L);
+        assertThat(snapshot.toString()).contains("max=5000000us");
+    }
+
+    @Test
+    public void extremeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        LatencySnapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.getValueAtPercentile(0)).isEqualTo(0);
+        assertThat(snapshot.getValueAtPercentile(100)).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    public void bucketBoundaries() {
+        for (long value : new long[]{0, 31, 32, 63, 64, 65, 1000, 123456789, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.index(value);
+            assertThat(LatencyHistogram.highestValue(index)).isGreaterThanOrEqualTo(value);
+            if (index > 0) {
+                assertThat(LatencyHistogram.highestValue(index - 1)).isLessThan(value);
+            }
+        }
+    }
+
+    @Test
+    public void snapshotAndReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(100);
+        histogram.record(200);
+        LatencySnapshot first = histogram.snapshotAndReset();
+        assertThat(first.getCount()).isEqualTo(2);
+        assertThat(first.getMax()).isEqualTo(200);
+
+        histogram.record(50);
+        LatencySnapshot second = histogram.snapshot();
+        assertThat(second.getCount()).isEqualTo(1);
+        assertThat(second.getMax()).isEqualTo(50);
+        assertThat(second.getMean()).isEqualTo(50.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalPercentile() {
+        new LatencyHistogram().snapshot().getValueAtPercentile(101);
+    }
+
+    private static void assertWithinError(long actual, long expected) {
+        assertThat((double) Math.abs(actual - expected) / expected)
+                .isLessThanOrEqualTo(1.0 / LatencyHistogram.SUB_BUCKETS);
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.monitor;
+
+import org.junit.Test;
+
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.monitor.MetricsRegistry}.
+ *
+ * @author Yossi Shaul
+ */
+public class MetricsRegistryTest {
+
+    @Test
+    public void aggregateStatsByName() {
+        MetricsRegistry registry = new MetricsRegistry();
+        BandwidthStats first = registry.newStats("uploads");
+        BandwidthStats second = registry.newStats("uploads");
+        BandwidthStats other = registry.newStats("downloads");
+        first.record(10);
+        second.record(20);
+        other.record(5);
+
+        assertThat(first.getTotalBytes()).isEqualTo(10);
+        assertThat(second.getTotalBytes()).isEqualTo(20);
+        assertThat(registry.getStats("uploads").getTotalBytes()).isEqualTo(30);
+        assertThat(registry.getStats("downloads").getTotalBytes()).isEqualTo(5);
+        assertThat(registry.getStats("missing")).isNull();
+        assertThat(registry.getNames()).containsOnly("uploads", "downloads");
+    }
+
+    @Test
+    public void latencySharedByName() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.newStats("uploads");
+        assertThat(registry.getLatency("uploads")).isNull();
+
+        LatencyHistogram latency = registry.latency("uploads");
+        assertThat(registry.latency("uploads")).isSameAs(latency);
+        latency.record(1000);
+        assertThat(registry.getLatency("uploads").getCount()).isEqualTo(1);
+        assertThat(registry.getLatency("missing")).isNull();
+    }
+
+    @Test
+    public void remove() {
+        MetricsRegistry registry = new MetricsRegistry();
+        BandwidthStats stats = registry.newStats("uploads");
+        registry.remove("uploads");
+        registry.remove("missing");
+        stats.record(10);
+        assertThat(registry.getNames()).isEmpty();
+        assertThat(stats.getTotalBytes()).isEqualTo(10);
+    }
+
+    @Test
+    public void reportAllNames() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.newStats("a").record(1);
+        registry.newStats("b").record(2);
+        registry.latency("b").record(100);
+
+        final Map<String, Long> totals = new ConcurrentHashMap<>();
+        final Map<String, Long> latencies = new ConcurrentHashMap<>();
+        registry.report((name, stats, latency) -> {
+            totals.put(name, stats.getTotalBytes());
+            if (latency != null) {
+                latencies.put(name, latency.getMax());
+            }
+        });
+        assertThat(totals).hasSize(2);
+        assertThat(totals.get("a")).isEqualTo(1L);
+        assertThat(totals.get("b")).isEqualTo(2L);
+        assertThat(latencies).hasSize(1);
+        assertThat(latencies.get("b")).isEqualTo(100L);
+    }
+
+    @Test
+    public void scheduledReports() throws InterruptedException {
+        Logger logger = Logger.getLogger(MetricsRegistry.class.getName());
+        Level level = logger.getLevel();
+        final List<LogRecord> logged = new CopyOnWriteArrayList<>();
+        Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                logged.add(record);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        logger.setLevel(Level.FINE);
+        logger.addHandler(handler);
+        try {
+            MetricsRegistry registry = new MetricsRegistry();
+            registry.newStats("a").record(1);
+            final CountDownLatch reports = new CountDownLatch(3);
+            final AtomicInteger calls = new AtomicInteger();
+            ScheduledFuture<?> future = registry.schedule((name, stats, latency) -> {
+                calls.incrementAndGet();
+                reports.countDown();
+                // failures don't cancel the schedule
+                throw new IllegalStateException("Listener failure");
+            }, 10, TimeUnit.MILLISECONDS);
+            assertThat(reports.await(5, TimeUnit.SECONDS)).isTrue();
+            future.cancel(false);
+            assertThat(calls.get()).isGreaterThanOrEqualTo(3);
+            // only the first failure is a warning
+            assertThat(logged.size()).isGreaterThanOrEqualTo(2);
+            assertThat(logged.get(0).getLevel()).isEqualTo(Level.WARNING);
+            assertThat(logged.get(0).getThrown()).hasMessage("Listener failure");
+            assertThat(logged.get(1).getLevel()).isEqualTo(Level.FINE);
+        } finally {
+            logger.removeHandler(handler);
+            logger.setLevel(level);
+        }
+    }
+
+    @Test
+    public void exposedThroughJmx() throws Exception {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        MetricsRegistry registry = new MetricsRegistry(server);
+        registry.newStats("pipe:1").record(42);
+        registry.latency("pipe:1").record(2000);
+
+        assertThat(server.isRegistered(MetricsRegistry.objectName("pipe:1"))).isTrue();
+        assertThat(server.getAttribute(MetricsRegistry.objectName("pipe:1"), "Name")).isEqualTo("pipe:1");
+        assertThat(server.getAttribute(MetricsRegistry.objectName("pipe:1"), "TotalBytes")).isEqualTo(42L);
+        assertThat(server.getAttribute(MetricsRegistry.objectName("pipe:1"), "LatencyCount")).isEqualTo(1L);
+        assertThat(server.getAttribute(MetricsRegistry.objectName("pipe:1"), "LatencyMax")).isEqualTo(2000L);
+
+        registry.remove("pipe:1");
+        assertThat(server.isRegistered(MetricsRegistry.objectName("pipe:1"))).isFalse();
+    }
+
+    @Test
+    public void mBeanProxy() {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        MetricsRegistry registry = new MetricsRegistry(server);
+        registry.newStats("a").record(1000);
+        BandwidthMetricsMXBean bean = JMX.newMXBeanProxy(server, MetricsRegistry.objectName("a"),
+                BandwidthMetricsMXBean.class);
+        assertThat(bean.getTotalBytes()).isEqualTo(1000);
+        assertThat(bean.getAverageBytesPerSec()).isGreaterThan(0);
+        assertThat(bean.getCurrentBytesPerSec()).isGreaterThanOrEqualTo(0.0);
+        assertThat(bean.getPeakBytesPerSec()).isGreaterThanOrEqualTo(0.0);
+        assertThat(bean.getOneSecondEwma()).isGreaterThanOrEqualTo(0.0);
+        assertThat(bean.getTenSecondEwma()).isGreaterThanOrEqualTo(0.0);
+        assertThat(bean.getOneMinuteEwma()).isGreaterThanOrEqualTo(0.0);
+        // no latencies recorded
+        assertThat(bean.getLatencyCount()).isEqualTo(0);
+        assertThat(bean.getLatencyP50()).isEqualTo(0);
+        assertThat(bean.getLatencyP99()).isEqualTo(0);
+        assertThat(bean.getLatencyP999()).isEqualTo(0);
+        assertThat(bean.getLatencyMax()).isEqualTo(0);
+
+        registry.latency("a").record(10);
+        assertThat(bean.getLatencyP50()).isEqualTo(10);
+        assertThat(bean.getLatencyP99()).isEqualTo(10);
+        assertThat(bean.getLatencyP999()).isEqualTo(10);
+    }
+
+    @Test
+    public void sameNameInTwoRegistriesOfOneServer() throws Exception {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        MetricsRegistry first = new MetricsRegistry(server);
+        first.newStats("a").record(1);
+        // the name is taken, the second registry still aggregates it without exposing it
+        MetricsRegistry second = new MetricsRegistry(server);
+        second.newStats("a").record(10);
+        second.newStats("a").record(10);
+        assertThat(second.getStats("a").getTotalBytes()).isEqualTo(20);
+        assertThat(server.getAttribute(MetricsRegistry.objectName("a"), "TotalBytes")).isEqualTo(1L);
+
+        // and leaves the MBean of the first registry in place
+        second.remove("a");
+        assertThat(server.isRegistered(MetricsRegistry.objectName("a"))).isTrue();
+        first.remove("a");
+        assertThat(server.isRegistered(MetricsRegistry.objectName("a"))).isFalse();
+    }
+
+    @Test
+    public void removeMBeanAlreadyUnregistered() throws Exception {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        MetricsRegistry registry = new MetricsRegistry(server);
+        registry.newStats("a");
+        server.unregisterMBean(MetricsRegistry.objectName("a"));
+        registry.remove("a");
+        assertThat(registry.getNames()).isEmpty();
+    }
+
+    @Test
+    public void defaultRegistryIsShared() {
+        assertThat(MetricsRegistry.defaultRegistry()).isSameAs(MetricsRegistry.defaultRegistry());
+    }
+}
@@ -16,6 +16,9 @@
 
 package org.iostreams.streams.out;
 
+import org.iostreams.streams.monitor.BandwidthStats;
+import org.iostreams.streams.monitor.LatencyHistogram;
+import org.iostreams.streams.monitor.MetricsRegistry;
 import org.junit.Test;
 
 import java.io.ByteArrayOutputStream;
@@ -91,4 +94,121 @@ public class BandwidthMonitorOutputStreamTest {
         assertThat(out.toByteArray()).isEqualTo(new byte[]{0, 1, 3, 5, 8});
     }
 
+    @Test
+    public void statsReflectBytesWritten() throws IOException {
+        BandwidthMonitorOutputStream bmos = new BandwidthMonitorOutputStream(new ByteArrayOutputStream());
+        bmos.write(new byte[100]);
+        bmos.write(new byte[50], 10, 20);
+        assertThat(bmos.getStats().getTotalBytes()).isEqualTo(120);
+        assertThat(bmos.getStats().getAverageBytesPerSec()).isGreaterThan(0);
+    }
+
+    @Test
+    public void recordLatencyOfEachCall() throws IOException {
+        LatencyHistogram latency = new LatencyHistogram();
+        BandwidthMonitorOutputStream bmos = new BandwidthMonitorOutputStream(new ByteArrayOutputStream(), latency);
+        bmos.write(1);
+        bmos.write(new byte[10]);
+        bmos.write(new byte[10], 2, 3);
+        assertThat(bmos.getLatency()).isSameAs(latency);
+        assertThat(latency.snapshot().getCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void recordIntoRegistry() throws IOException {
+        MetricsRegistry registry = new MetricsRegistry();
+        BandwidthMonitorOutputStream bmos = new BandwidthMonitorOutputStream(new ByteArrayOutputStream(),
+                registry.newStats("out"), null);
+        bmos.write(new byte[8]);
+        assertThat(bmos.getStats().getTotalBytes()).isEqualTo(8);
+        assertThat(registry.getStats("out").getTotalBytes()).isEqualTo(8);
+    }
+
+    @Test
+    public void bufferedSingleByteWrites() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LatencyHistogram latency = new LatencyHistogram();
+        BandwidthMonitorOutputStream bmos = new BandwidthMonitorOutputStream(out, new BandwidthStats(), latency, 4);
+        for (int i = 0; i < 10; i++) {
+            bmos.write(i);
+        }
+        // two full buffers reached the underlying stream
+        assertThat(bmos.getTotalBytesWritten()).isEqualTo(8);
+        assertThat(bmos.getBufferedBytes()).isEqualTo(2);
+        assertThat(out.size()).isEqualTo(8);
+
+        bmos.flush();
+        assertThat(bmos.getTotalBytesWritten()).isEqualTo(10);
+        assertThat(bmos.getBufferedBytes()).isEqualTo(0);
+        assertThat(out.toByteArray()).isEqualTo(new byte[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9});
+        assertThat(latency.snapshot().getCount()).isEqualTo(3);
+        // nothing buffered
+        bmos.flush();
+        assertThat(latency.snapshot().getCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void bufferedArrayWrites() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BandwidthMonitorOutputStream bmos = new BandwidthMonitorOutputStream(out, 8);
+        bmos.write(new byte[]{1, 2, 3});
+        bmos.write(new byte[]{4, 5, 6, 7, 8, 9}, 1, 4);
+        assertThat(out.size()).isEqualTo(0);
+        // doesn't fit in the rest of the buffer
+        bmos.write(new byte[]{10, 11});
+        assertThat(out.toByteArray()).isEqualTo(new byte[]{1, 2, 3, 5, 6, 7, 8});
+        // large writes go directly to the underlying stream, after the buffered bytes
+        bmos.write(new byte[]{12, 13, 14, 15, 16, 17, 18, 19, 20});
+        assertThat(out.size()).isEqualTo(18);
+        assertThat(bmos.getTotalBytesWritten()).isEqualTo(18);
+        bmos.close();
+        bmos.close();
+    }
+
+    @Test
+    public void closeWritesBufferWithoutClosingUnderlyingStream() throws IOException {
+        final boolean[] closed = new boolean[1];
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        BandwidthMonitorOutputStream bmos = new BandwidthMonitorOutputStream(out, 16);
+        bmos.write(new byte[]{1, 2, 3});
+        bmos.close();
+        assertThat(out.toByteArray()).isEqualTo(new byte[]{1, 2, 3});
+        assertThat(bmos.getTotalBytesWritten()).isEqualTo(3);
+        assertThat(closed[0]).isFalse();
+    }
+
+    @Test
+    public void flushAndCloseDontReachUnderlyingStream() throws IOException {
+        final int[] calls = new int[2];
+        BandwidthMonitorOutputStream bmos = new BandwidthMonitorOutputStream(new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                calls[0]++;
+            }
+
+            @Override
+            public void close() {
+                calls[1]++;
+            }
+        });
+        bmos.flush();
+        bmos.close();
+        assertThat(calls).isEqualTo(new int[]{0, 0});
+        assertThat(bmos.getBufferedBytes()).isEqualTo(0);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void bufferedWriteOutsideArray() throws IOException {
+        new BandwidthMonitorOutputStream(new ByteArrayOutputStream(), 8).write(new byte[4], 2, 3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalBufferSize() {
+        new BandwidthMonitorOutputStream(new ByteArrayOutputStream(), -1);
+    }
 }
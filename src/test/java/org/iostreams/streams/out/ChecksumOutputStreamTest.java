@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.iostreams.streams.out;
+
+import org.iostreams.streams.checksum.Digest;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.iostreams.streams.StreamsTestUtils.CHECK;
+import static org.iostreams.streams.StreamsTestUtils.CHECK_ADLER32;
+import static org.iostreams.streams.StreamsTestUtils.CHECK_CRC32C;
+import static org.iostreams.streams.StreamsTestUtils.hex;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.out.ChecksumOutputStream}.
+ *
+ * @author Yossi Shaul
+ */
+public class ChecksumOutputStreamTest {
+
+    @Test
+    public void severalDigestsInOnePass() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ChecksumOutputStream cos = new ChecksumOutputStream(out, Digest.crc32c().expect(CHECK_CRC32C),
+                Digest.adler32().expectHex(hex(CHECK_ADLER32)), Digest.messageDigest("MD5"));
+        cos.write(CHECK[0]);
+        cos.write(CHECK, 1, 4);
+        cos.write(CHECK, 5, 4);
+        cos.close();
+        assertThat(out.toByteArray()).isEqualTo(CHECK);
+        assertThat(cos.getDigest().getHexValue()).isEqualTo(hex(CHECK_CRC32C));
+        assertThat(cos.getDigests()[2].getHexValue()).isEqualTo("25f9e794323b453885f5181f1b624d0b");
+    }
+
+    @Test
+    public void mismatchFailsClose() throws IOException {
+        ChecksumOutputStream cos = new ChecksumOutputStream(new ByteArrayOutputStream(),
+                Digest.messageDigest("MD5").expectHex("00"));
+        cos.write(CHECK);
+        try {
+            cos.close();
+            fail("Expected the digest verification to fail");
+        } catch (IOException e) {
+            assertThat(e.getMessage()).startsWith("MD5 mismatch: expected 00 but was 25f9e794");
+        }
+        // verified once
+        cos.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void digestRequired() {
+        new ChecksumOutputStream(new ByteArrayOutputStream());
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.iostreams.streams.out;
+
+import org.iostreams.streams.concurrent.StreamExecutors;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.out.InputToOutputStream}.
+ *
+ * @author Yossi Shaul
+ */
+public class InputToOutputStreamTest {
+
+    @Test
+    public void consumerReadsEverythingWritten() throws IOException {
+        byte[] data = new byte[100_000];
+        new Random(1).nextBytes(data);
+        ByteArrayOutputStream consumed = new ByteArrayOutputStream();
+        InputToOutputStream out = new InputToOutputStream() {
+            @Override
+            protected void read(InputStream source) throws IOException {
+                source.transferTo(consumed);
+            }
+        };
+        out.write(data[0]);
+        out.write(data, 1, 999);
+        out.flush();
+        out.write(data, 1000, data.length - 1000);
+        out.close();
+        // close waits for the consumer
+        assertThat(consumed.toByteArray()).isEqualTo(data);
+        // closing again does nothing
+        out.close();
+    }
+
+    @Test
+    public void consumerReadsEmptyStreamIfNothingWritten() throws IOException {
+        int[] firstByte = {0};
+        InputToOutputStream out = new InputToOutputStream() {
+            @Override
+            protected void read(InputStream source) throws IOException {
+                firstByte[0] = source.read();
+            }
+        };
+        out.close();
+        assertThat(firstByte[0]).isEqualTo(-1);
+    }
+
+    @Test
+    public void consumerFailureThrownByWrite() throws IOException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        InputToOutputStream out = new InputToOutputStream(executor, 16) {
+            @Override
+            protected void read(InputStream source) throws IOException {
+                source.read(new byte[10]);
+                throw new IOException("Malformed input");
+            }
+        };
+        try {
+            for (int i = 0; i < 1000; i++) {
+                out.write(new byte[64]);
+            }
+            fail("Expected the consumer failure");
+        } catch (IOException e) {
+            assertThat(e.getCause().getMessage()).isEqualTo("Malformed input");
+        } finally {
+            executor.shutdown();
+        }
+        // thrown once
+        out.close();
+    }
+
+    @Test
+    public void consumerFailureThrownByClose() throws IOException {
+        InputToOutputStream out = new InputToOutputStream() {
+            @Override
+            protected void read(InputStream source) throws IOException {
+                source.readAllBytes();
+                throw new IllegalStateException("Unexpected end of document");
+            }
+        };
+        out.write(new byte[100]);
+        try {
+            out.close();
+            fail("Expected the consumer failure");
+        } catch (IOException e) {
+            assertThat(e.getCause()).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    public void consumerFinishingEarlyFailsTheWrite() throws IOException {
+        InputToOutputStream out = new InputToOutputStream(StreamExecutors.defaultExecutor(), 16) {
+            @Override
+            protected void read(InputStream source) throws IOException {
+                source.read();
+            }
+        };
+        try {
+            for (int i = 0; i < 1000; i++) {
+                out.write(new byte[64]);
+            }
+            fail("Expected the write to fail");
+        } catch (IOException e) {
+            assertThat(e.getMessage()).isEqualTo("Consumer finished before reading all the data");
+            assertThat(e.getCause().getMessage()).isEqualTo("Pipe closed");
+        }
+        try {
+            out.write(1);
+            fail("Expected the write to fail");
+        } catch (IOException e) {
+            assertThat(e.getMessage()).isEqualTo("Consumer finished before reading all the data");
+        }
+        out.close();
+    }
+
+    @Test
+    public void consumerFinishingEarlyFailsTheClose() throws IOException {
+        InputToOutputStream out = new InputToOutputStream() {
+            @Override
+            protected void read(InputStream source) throws IOException {
+                source.read();
+            }
+        };
+        // fits in the pipe, the writes don't notice the consumer is gone
+        out.write(new byte[]{1, 2, 3});
+        try {
+            out.close();
+            fail("Expected the close to fail");
+        } catch (IOException e) {
+            assertThat(e.getMessage()).isEqualTo("Consumer finished before reading all the data");
+        }
+        // thrown once
+        out.close();
+    }
+
+    @Test
+    public void interruptedWhileWaitingForTheConsumer() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        InputToOutputStream out = new InputToOutputStream() {
+            @Override
+            protected void read(InputStream source) throws IOException {
+                source.readAllBytes();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        out.write(1);
+        Thread.currentThread().interrupt();
+        try {
+            out.close();
+            fail("Expected the close to be interrupted");
+        } catch (InterruptedIOException e) {
+            assertThat(Thread.interrupted()).isTrue();
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void writeAfterClose() throws IOException {
+        InputToOutputStream out = new InputToOutputStream() {
+            @Override
+            protected void read(InputStream source) throws IOException {
+                source.readAllBytes();
+            }
+        };
+        out.close();
+        try {
+            out.write(new byte[1], 0, 1);
+            fail("Expected write after close to fail");
+        } catch (IOException e) {
+            assertThat(e.getMessage()).isEqualTo("Stream closed");
+        }
+    }
+}
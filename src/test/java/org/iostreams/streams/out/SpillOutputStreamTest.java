@@ -0,0 +1,271 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.out;
+
+import org.iostreams.streams.buffer.BufferAllocator;
+import org.iostreams.streams.in.DeleteOnCloseChannelInputStream;
+import org.iostreams.streams.in.DeleteOnCloseSegmentInputStream;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.iostreams.streams.StreamsTestUtils.randomBytes;
+import static org.iostreams.streams.StreamsTestUtils.readFully;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.out.SpillOutputStream}.
+ *
+ * @author Yossi Shaul
+ */
+public class SpillOutputStreamTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final BufferAllocator allocator = new BufferAllocator(64, 64, 6400, 0, false, true);
+
+    @Test
+    public void smallPayloadStaysInMemory() throws IOException {
+        byte[] data = randomBytes(1000);
+        SpillOutputStream out = new SpillOutputStream(1000, allocator, 64, tempDir());
+        out.write(data);
+        assertThat(out.size()).isEqualTo(1000);
+        assertThat(out.isSpilled()).isFalse();
+        assertThat(out.getFile()).isNull();
+
+        InputStream in = out.toInputStream();
+        assertThat(in.available()).isEqualTo(1000);
+        assertThat(readFully(in, 100)).isEqualTo(data);
+        in.close();
+        // all the chunks are back in the allocator
+        assertThat(allocator.getPooledCount()).isEqualTo(16);
+        assertThat(tempDir().toFile().list()).isEmpty();
+    }
+
+    @Test
+    public void largePayloadSpills() throws IOException {
+        byte[] data = randomBytes(10000);
+        SpillOutputStream out = new SpillOutputStream(1000, allocator, 64, tempDir());
+        out.write(data, 0, 500);
+        assertThat(out.isSpilled()).isFalse();
+        out.write(data, 500, 9500);
+        assertThat(out.isSpilled()).isTrue();
+        assertThat(out.size()).isEqualTo(10000);
+        Path file = out.getFile();
+        assertThat(file.getParent().equals(tempDir())).isTrue();
+
+        InputStream in = out.toInputStream();
+        assertThat(in).isInstanceOf(DeleteOnCloseChannelInputStream.class);
+        assertThat(readFully(in, 100)).isEqualTo(data);
+        // the chunks filled before spilling (960 bytes) are back in the allocator
+        assertThat(allocator.getPooledCount()).isEqualTo(15);
+        in.close();
+        assertThat(Files.exists(file)).isFalse();
+    }
+
+    @Test
+    public void spilledFileSplitBetweenStreams() throws IOException {
+        byte[] data = randomBytes(10000);
+        SpillOutputStream out = new SpillOutputStream(1000, allocator, 64, tempDir());
+        out.write(data);
+        Path file = out.getFile();
+
+        List<InputStream> streams = out.toInputStreams(4);
+        assertThat(streams).hasSize(4);
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        for (InputStream in : streams) {
+            assertThat(in).isInstanceOf(DeleteOnCloseSegmentInputStream.class);
+            result.write(readFully(in, 100));
+        }
+        assertThat(result.toByteArray()).isEqualTo(data);
+        for (InputStream in : streams) {
+            assertThat(Files.exists(file)).isTrue();
+            in.close();
+        }
+        assertThat(Files.exists(file)).isFalse();
+    }
+
+    @Test
+    public void inMemoryDataNotSplit() throws IOException {
+        byte[] data = randomBytes(500);
+        SpillOutputStream out = new SpillOutputStream(1000, allocator, 64, tempDir());
+        out.write(data);
+        List<InputStream> streams = out.toInputStreams(4);
+        assertThat(streams).hasSize(1);
+        assertThat(readFully(streams.get(0), 100)).isEqualTo(data);
+    }
+
+    @Test
+    public void failedSpillKeepsTheDataInMemory() throws IOException {
+        byte[] data = randomBytes(2000);
+        SpillOutputStream out = new SpillOutputStream(1000, allocator, 64, tempDir());
+        out.write(data, 0, 1000);
+        // the file channel fails the first write of an interrupted thread
+        Thread.currentThread().interrupt();
+        try {
+            out.write(data, 1000, 1000);
+            Assert.fail("Expected the spill to fail");
+        } catch (IOException e) {
+            assertThat(Thread.interrupted()).isTrue();
+        }
+        assertThat(out.isSpilled()).isFalse();
+        assertThat(out.getFile()).isNull();
+        assertThat(tempDir().toFile().list()).isEmpty();
+
+        // spilling again moves all the data to the file
+        out.write(data, 1000, 1000);
+        assertThat(out.isSpilled()).isTrue();
+        InputStream in = out.toInputStream();
+        assertThat(readFully(in, 100)).isEqualTo(data);
+        in.close();
+        // each chunk went back to the allocator exactly once
+        assertThat(allocator.getPooledCount()).isEqualTo(16);
+    }
+
+    @Test
+    public void discardAfterFailedSpill() throws IOException {
+        SpillOutputStream out = new SpillOutputStream(1000, allocator, 64, tempDir());
+        out.write(randomBytes(1000));
+        Thread.currentThread().interrupt();
+        try {
+            out.write(1);
+            Assert.fail("Expected the spill to fail");
+        } catch (IOException e) {
+            assertThat(Thread.interrupted()).isTrue();
+        }
+        out.discard();
+        assertThat(allocator.getPooledCount()).isEqualTo(16);
+        assertThat(tempDir().toFile().list()).isEmpty();
+    }
+
+    @Test
+    public void singleByteWrites() throws IOException {
+        byte[] data = randomBytes(3000);
+        for (long threshold : new long[]{0, 100, 3000}) {
+            SpillOutputStream out = new SpillOutputStream(threshold, allocator, 64, tempDir());
+            for (byte b : data) {
+                out.write(b);
+            }
+            assertThat(out.isSpilled()).isEqualTo(threshold < 3000);
+            try (InputStream in = out.toInputStream()) {
+                assertThat(readFully(in, 100)).isEqualTo(data);
+            }
+        }
+    }
+
+    @Test
+    public void flushWritesToFile() throws IOException {
+        SpillOutputStream out = new SpillOutputStream(10, allocator, 64, tempDir());
+        out.write(new byte[20]);
+        out.flush();
+        assertThat(Files.size(out.getFile())).isEqualTo(20);
+        // nothing to flush in memory
+        new SpillOutputStream(10, allocator, 64, tempDir()).flush();
+        out.discard();
+    }
+
+    @Test
+    public void emptyStream() throws IOException {
+        SpillOutputStream out = new SpillOutputStream(10);
+        InputStream in = out.toInputStream();
+        assertThat(in.read()).isEqualTo(-1);
+        assertThat(in.read(new byte[10])).isEqualTo(-1);
+        in.close();
+    }
+
+    @Test
+    public void skipInMemory() throws IOException {
+        byte[] data = randomBytes(200);
+        SpillOutputStream out = new SpillOutputStream(1000, allocator, 64, tempDir());
+        out.write(data);
+        InputStream in = out.toInputStream();
+        assertThat(in.skip(150)).isEqualTo(150);
+        assertThat(in.read()).isEqualTo(data[150] & 0xff);
+        assertThat(in.read(new byte[4], 0, 0)).isEqualTo(0);
+        assertThat(in.skip(100)).isEqualTo(49);
+        assertThat(in.read()).isEqualTo(-1);
+        in.close();
+        in.close();
+        assertThat(in.available()).isEqualTo(0);
+    }
+
+    @Test
+    public void discardDropsData() throws IOException {
+        SpillOutputStream inMemory = new SpillOutputStream(1000, allocator, 64, tempDir());
+        inMemory.write(new byte[100]);
+        inMemory.discard();
+        assertThat(allocator.getPooledCount()).isEqualTo(2);
+
+        SpillOutputStream spilled = new SpillOutputStream(10, allocator, 64, tempDir());
+        spilled.write(new byte[100]);
+        spilled.discard();
+        assertThat(Files.exists(spilled.getFile())).isFalse();
+        spilled.discard();
+    }
+
+    @Test(expected = IOException.class)
+    public void writeAfterClose() throws IOException {
+        SpillOutputStream out = new SpillOutputStream(10, allocator, 64, tempDir());
+        out.close();
+        out.close();
+        out.write(1);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void toInputStreamOnce() throws IOException {
+        SpillOutputStream out = new SpillOutputStream(10, allocator, 64, tempDir());
+        out.toInputStream();
+        out.toInputStream();
+    }
+
+    @Test(expected = IOException.class)
+    public void readAfterClose() throws IOException {
+        SpillOutputStream out = new SpillOutputStream(10, allocator, 64, tempDir());
+        out.write(1);
+        InputStream in = out.toInputStream();
+        in.close();
+        in.read();
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void writeOutsideArray() throws IOException {
+        new SpillOutputStream(10, allocator, 64, tempDir()).write(new byte[4], 2, 3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeThreshold() {
+        new SpillOutputStream(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalChunkSize() {
+        new SpillOutputStream(10, allocator, 0, tempDir());
+    }
+
+    private Path tempDir() {
+        return folder.getRoot().toPath();
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.out;
+
+import org.iostreams.streams.throttle.TokenBucket;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.out.ThrottledOutputStream}.
+ *
+ * @author Yossi Shaul
+ */
+public class ThrottledOutputStreamTest {
+
+    @Test
+    public void limitsWriteRate() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        // 100KB/s with 10KB burst: 40KB take at least 300ms
+        ThrottledOutputStream tos = new ThrottledOutputStream(out, new TokenBucket(100 * 1024, 10 * 1024));
+        long start = System.nanoTime();
+        tos.write(new byte[40 * 1024]);
+        tos.close();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(290);
+        assertThat(out.size()).isEqualTo(40 * 1024);
+    }
+
+    @Test
+    public void writesAllBytesInOrder() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ThrottledOutputStream tos = new ThrottledOutputStream(out, 1000000);
+        tos.write(1);
+        tos.write(new byte[]{2, 3, 4, 5}, 1, 2);
+        tos.flush();
+        assertThat(out.toByteArray()).isEqualTo(new byte[]{1, 3, 4});
+        assertThat(tos.getBucket().getRate()).isEqualTo(1000000);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void illegalOffset() throws IOException {
+        new ThrottledOutputStream(new ByteArrayOutputStream(), 10).write(new byte[2], 1, 2);
+    }
+}
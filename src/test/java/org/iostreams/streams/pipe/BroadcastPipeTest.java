@@ -0,0 +1,226 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.pipe;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.iostreams.streams.StreamsTestUtils.randomBytes;
+import static org.iostreams.streams.StreamsTestUtils.readFully;
+import static org.iostreams.streams.pipe.RingBufferPipeTest.startWriter;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.pipe.BroadcastPipe}.
+ *
+ * @author Yossi Shaul
+ */
+public class BroadcastPipeTest {
+
+    @Test
+    public void capacityRoundedToPowerOfTwo() {
+        BroadcastPipe pipe = new BroadcastPipe(1000, 3);
+        assertThat(pipe.capacity()).isEqualTo(1024);
+        assertThat(pipe.readers()).isEqualTo(3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalCapacity() {
+        new BroadcastPipe(0, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalReaders() {
+        new BroadcastPipe(16, 0);
+    }
+
+    @Test
+    public void everyReaderGetsAllBytes() throws IOException {
+        BroadcastPipe pipe = new BroadcastPipe(16, 2);
+        pipe.sink().write(new byte[]{1, 2, 3});
+        pipe.sink().write(4);
+        pipe.sink().close();
+
+        for (int i = 0; i < 2; i++) {
+            InputStream source = pipe.source(i);
+            assertThat(source.available()).isEqualTo(4);
+            assertThat(source.read()).isEqualTo(1);
+            byte[] buf = new byte[8];
+            assertThat(source.read(buf, 0, 8)).isEqualTo(3);
+            assertThat(Arrays.copyOf(buf, 3)).isEqualTo(new byte[]{2, 3, 4});
+            assertThat(source.read(buf, 0, 0)).isEqualTo(0);
+            assertThat(source.read(buf, 0, 8)).isEqualTo(-1);
+            assertThat(source.read()).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    public void concurrentReadersThroughSmallBuffer() throws Exception {
+        final byte[] data = randomBytes(300007);
+        final BroadcastPipe pipe = new BroadcastPipe(64, 4);
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] results = new Future<?>[4];
+            for (int i = 0; i < 4; i++) {
+                final int index = i;
+                // readers at different paces
+                results[i] = readers.submit((Callable<byte[]>) () -> readFully(pipe.source(index), 7 + index * 30));
+            }
+            Thread writer = startWriter(pipe.sink(), data, 41);
+            for (Future<?> result : results) {
+                assertThat((byte[]) result.get(10, TimeUnit.SECONDS)).isEqualTo(data);
+            }
+            writer.join(5000);
+        } finally {
+            readers.shutdownNow();
+        }
+    }
+
+    @Test
+    public void closedReaderDoesNotHoldBackWriter() throws Exception {
+        final byte[] data = randomBytes(10000);
+        BroadcastPipe pipe = new BroadcastPipe(16, 2);
+        pipe.source(1).close();
+        Thread writer = startWriter(pipe.sink(), data, 100);
+        assertThat(readFully(pipe.source(0), 10)).isEqualTo(data);
+        writer.join(5000);
+    }
+
+    @Test
+    public void writerFailsOnceAllReadersClosed() throws Exception {
+        final BroadcastPipe pipe = new BroadcastPipe(4, 2);
+        final Exception[] writerException = new Exception[1];
+        Thread writer = new Thread(() -> {
+            try {
+                pipe.sink().write(new byte[4]);
+                pipe.sink().write(new byte[4]);   // blocks until the readers close the pipe
+            } catch (Exception e) {
+                writerException[0] = e;
+            }
+        });
+        writer.start();
+        pipe.source(0).close();
+        pipe.source(1).close();
+        writer.join(2000);
+        assertThat(writerException[0]).isExactlyInstanceOf(IOException.class).hasMessage("Pipe closed");
+    }
+
+    @Test
+    public void readAfterCloseFails() throws IOException {
+        BroadcastPipe pipe = new BroadcastPipe(4, 2);
+        pipe.source(0).close();
+        try {
+            pipe.source(0).read();
+            Assert.fail("Should have thrown io exception");
+        } catch (IOException e) {
+            assertThat(e).hasMessage("Pipe closed");
+        }
+        try {
+            pipe.source(0).available();
+            Assert.fail("Should have thrown io exception");
+        } catch (IOException e) {
+            assertThat(e).hasMessage("Pipe closed");
+        }
+    }
+
+    @Test
+    public void writeAfterWriterClosedFails() throws IOException {
+        BroadcastPipe pipe = new BroadcastPipe(4, 1);
+        pipe.sink().close();
+        try {
+            pipe.sink().write(1);
+            Assert.fail("Should have thrown io exception");
+        } catch (IOException e) {
+            assertThat(e).hasMessage("Pipe closed");
+        }
+    }
+
+    @Test
+    public void singleByteWritesWaitForSlowestReader() throws Exception {
+        final byte[] data = randomBytes(2000);
+        final BroadcastPipe pipe = new BroadcastPipe(2, 2);
+        Thread writer = new Thread(() -> {
+            try {
+                for (byte b : data) {
+                    pipe.sink().write(b);
+                }
+                pipe.sink().close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        writer.start();
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        try {
+            Future<byte[]> other = reader.submit(() -> readFully(pipe.source(1), 1));
+            byte[] result = new byte[data.length];
+            for (int i = 0; i < data.length; i++) {
+                result[i] = (byte) pipe.source(0).read();
+            }
+            assertThat(pipe.source(0).read()).isEqualTo(-1);
+            assertThat(result).isEqualTo(data);
+            assertThat(other.get(5, TimeUnit.SECONDS)).isEqualTo(data);
+        } finally {
+            reader.shutdownNow();
+        }
+        writer.join(5000);
+    }
+
+    @Test
+    public void interruptedReader() throws Exception {
+        final BroadcastPipe pipe = new BroadcastPipe(4, 1);
+        final Exception[] readerException = new Exception[1];
+        Thread reader = new Thread(() -> {
+            try {
+                pipe.source(0).read();
+            } catch (Exception e) {
+                readerException[0] = e;
+            }
+        });
+        reader.start();
+        reader.interrupt();
+        reader.join(2000);
+        assertThat(readerException[0]).isInstanceOf(InterruptedIOException.class);
+    }
+
+    @Test
+    public void interruptedWriter() throws Exception {
+        final BroadcastPipe pipe = new BroadcastPipe(4, 1);
+        final Exception[] writerException = new Exception[1];
+        Thread writer = new Thread(() -> {
+            try {
+                pipe.sink().write(new byte[8]);
+            } catch (Exception e) {
+                writerException[0] = e;
+            }
+        });
+        writer.start();
+        writer.interrupt();
+        writer.join(2000);
+        assertThat(writerException[0]).isInstanceOf(InterruptedIOException.class);
+    }
+}
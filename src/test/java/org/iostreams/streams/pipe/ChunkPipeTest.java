@@ -0,0 +1,311 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.pipe;
+
+import org.iostreams.streams.buffer.BufferAllocator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.iostreams.streams.StreamsTestUtils.randomBytes;
+import static org.iostreams.streams.StreamsTestUtils.readFully;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.pipe.ChunkPipe}.
+ *
+ * @author Yossi Shaul
+ */
+public class ChunkPipeTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalChunkSize() {
+        new ChunkPipe(0, 4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalNumberOfChunks() {
+        new ChunkPipe(16, 1);
+    }
+
+    @Test
+    public void streamReadsAcrossChunks() throws Exception {
+        byte[] data = randomBytes(100003);
+        ChunkPipe pipe = new ChunkPipe(1000, 3);
+        Thread writer = startWriter(pipe, data, 77);
+
+        byte[] result = readFully(pipe.source(), 333);
+        writer.join(5000);
+        assertThat(result).isEqualTo(data);
+    }
+
+    @Test
+    public void readChunkTimesOut() throws IOException {
+        ChunkPipe pipe = new ChunkPipe(8, 2);
+        pipe.setReadTimeout(20, TimeUnit.MILLISECONDS);
+        try {
+            pipe.readChunk();
+            Assert.fail("Expected the read to time out");
+        } catch (InterruptedIOException e) {
+            assertThat(e).hasMessage("Read timed out");
+        }
+        pipe.sink().write(3);
+        pipe.sink().close();
+        assertThat(pipe.source().read()).isEqualTo(3);
+        assertThat(pipe.source().read()).isEqualTo(-1);
+    }
+
+    @Test
+    public void singleByteReadsAndWrites() throws IOException {
+        ChunkPipe pipe = new ChunkPipe(4, 4);
+        OutputStream sink = pipe.sink();
+        for (int i = 0; i < 10; i++) {
+            sink.write(i);
+        }
+        sink.close();
+        for (int i = 0; i < 10; i++) {
+            assertThat(pipe.source().read()).isEqualTo(i);
+        }
+        assertThat(pipe.source().read()).isEqualTo(-1);
+        assertThat(pipe.source().read()).isEqualTo(-1);
+    }
+
+    @Test
+    public void readChunksWithoutCopying() throws Exception {
+        byte[] data = randomBytes(50000);
+        BufferAllocator allocator = new BufferAllocator(4096, 4096, 8192, 0, true, true);
+        ChunkPipe pipe = new ChunkPipe(4096, 2, allocator);
+        Thread writer = startWriter(pipe, data, 1000);
+
+        Map<ByteBuffer, Boolean> distinctChunks = new IdentityHashMap<ByteBuffer, Boolean>();
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        ByteBuffer chunk;
+        while ((chunk = pipe.readChunk()) != null) {
+            assertThat(chunk.isDirect()).isTrue();
+            distinctChunks.put(chunk, true);
+            byte[] bytes = new byte[chunk.remaining()];
+            chunk.get(bytes);
+            result.write(bytes);
+            pipe.release(chunk);
+        }
+        assertThat(pipe.readChunk()).isNull();
+        writer.join(5000);
+        assertThat(result.toByteArray()).isEqualTo(data);
+        assertThat(distinctChunks.size()).as("Chunks should be reused").isLessThanOrEqualTo(2);
+        assertThat(allocator.getPooledCount()).isEqualTo(2);
+        assertThat(allocator.getLeaks()).isEqualTo(0);
+    }
+
+    @Test
+    public void directChunksFromSharedAllocator() throws IOException {
+        ChunkPipe pipe = new ChunkPipe(4096, 2, true);
+        pipe.sink().write(new byte[]{1, 2});
+        pipe.sink().close();
+        ByteBuffer chunk = pipe.readChunk();
+        assertThat(chunk.isDirect()).isTrue();
+        assertThat(chunk.remaining()).isEqualTo(2);
+        pipe.release(chunk);
+    }
+
+    @Test
+    public void chunksLimitedToChunkSize() throws IOException {
+        // the allocator rounds 5000 bytes up to 8192
+        ChunkPipe pipe = new ChunkPipe(5000, 2, new BufferAllocator(4096, 8192, 8192, 0, false, true));
+        pipe.sink().write(new byte[6000]);
+        pipe.sink().close();
+        ByteBuffer chunk = pipe.readChunk();
+        assertThat(chunk.remaining()).isEqualTo(5000);
+        pipe.release(chunk);
+        assertThat(pipe.readChunk().remaining()).isEqualTo(1000);
+    }
+
+    @Test
+    public void releaseRejectsForeignChunks() throws IOException {
+        ChunkPipe pipe = new ChunkPipe(8, 2);
+        pipe.sink().write(new byte[]{1, 2, 3});
+        pipe.sink().flush();
+        try {
+            pipe.release(ByteBuffer.allocate(8));
+            Assert.fail("Expected the release to fail");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage()).startsWith("Chunk not in use by this pipe");
+        }
+        try {
+            pipe.detach(ByteBuffer.allocate(16));
+            Assert.fail("Expected the detach to fail");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage()).startsWith("Chunk not in use by this pipe");
+        }
+    }
+
+    @Test
+    public void releaseRejectsReleasedChunks() throws IOException {
+        BufferAllocator allocator = new BufferAllocator(8, 8, 64, 0, false, true);
+        ChunkPipe pipe = new ChunkPipe(8, 2, allocator);
+        pipe.sink().write(new byte[]{1, 2, 3});
+        pipe.sink().close();
+        ByteBuffer chunk = pipe.readChunk();
+        pipe.release(chunk);
+        try {
+            pipe.release(chunk);
+            Assert.fail("Expected the second release to fail");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage()).startsWith("Chunk not in use by this pipe");
+        }
+        assertThat(pipe.readChunk()).isNull();
+        assertThat(allocator.getPooledCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void closedReaderReturnsChunksToAllocator() throws IOException {
+        BufferAllocator allocator = new BufferAllocator(8, 8, 64, 0, false, true);
+        ChunkPipe pipe = new ChunkPipe(8, 3, allocator);
+        pipe.sink().write(new byte[20]);
+        pipe.source().close();
+        pipe.sink().close();
+        assertThat(allocator.getPooledCount()).isEqualTo(3);
+        assertThat(allocator.getLeaks()).isEqualTo(0);
+    }
+
+    @Test
+    public void readChunkReturnsRestOfPartiallyReadChunk() throws IOException {
+        ChunkPipe pipe = new ChunkPipe(8, 2);
+        pipe.sink().write(new byte[]{1, 2, 3, 4});
+        pipe.sink().flush();
+
+        assertThat(pipe.source().read()).isEqualTo(1);
+        assertThat(pipe.source().available()).isEqualTo(3);
+        ByteBuffer chunk = pipe.readChunk();
+        assertThat(chunk.remaining()).isEqualTo(3);
+        assertThat(chunk.get()).isEqualTo((byte) 2);
+        pipe.release(chunk);
+    }
+
+    @Test
+    public void writerFailsOnceReaderClosed() throws Exception {
+        final ChunkPipe pipe = new ChunkPipe(4, 2);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final Exception[] writerException = new Exception[1];
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    pipe.sink().write(new byte[8]);
+                    blocked.countDown();
+                    pipe.sink().write(new byte[8]);   // blocks until the reader closes the pipe
+                } catch (Exception e) {
+                    writerException[0] = e;
+                }
+            }
+        });
+        writer.start();
+
+        blocked.await(2, TimeUnit.SECONDS);
+        // hold one chunk and never release it
+        assertThat(pipe.readChunk()).isNotNull();
+        pipe.source().close();
+        writer.join(2000);
+        assertThat(writerException[0]).isExactlyInstanceOf(IOException.class).hasMessage("Pipe closed");
+    }
+
+    @Test
+    public void pollChunkWithListener() throws IOException {
+        ChunkPipe pipe = new ChunkPipe(4, 2);
+        final int[] notified = new int[1];
+        pipe.setListener(() -> notified[0]++);
+        assertThat(pipe.pollChunk()).isNull();
+        assertThat(pipe.isEndOfStream()).isFalse();
+
+        pipe.sink().write(new byte[]{1, 2, 3, 4, 5});
+        assertThat(notified[0]).isEqualTo(1);
+        ByteBuffer chunk = pipe.pollChunk();
+        assertThat(chunk.remaining()).isEqualTo(4);
+        pipe.release(chunk);
+        assertThat(pipe.pollChunk()).isNull();
+
+        pipe.sink().close();
+        assertThat(notified[0]).isEqualTo(3);
+        assertThat(pipe.pollChunk().get()).isEqualTo((byte) 5);
+        assertThat(pipe.pollChunk()).isNull();
+        assertThat(pipe.isEndOfStream()).isTrue();
+        assertThat(pipe.readChunk()).isNull();
+    }
+
+    @Test
+    public void detachedChunksAreNotReused() throws Exception {
+        byte[] data = randomBytes(50000);
+        ChunkPipe pipe = new ChunkPipe(4096, 2);
+        Thread writer = startWriter(pipe, data, 1000);
+
+        List<ByteBuffer> kept = new ArrayList<ByteBuffer>();
+        ByteBuffer chunk;
+        while ((chunk = pipe.readChunk()) != null) {
+            kept.add(chunk);
+            pipe.detach(chunk);
+        }
+        writer.join(5000);
+        // the kept chunks were not overwritten by the writer
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        for (ByteBuffer b : kept) {
+            result.write(b.array(), b.position(), b.remaining());
+        }
+        assertThat(result.toByteArray()).isEqualTo(data);
+        assertThat(kept.size()).isEqualTo((50000 + 4095) / 4096);
+    }
+
+    @Test
+    public void readAfterCloseFails() throws IOException {
+        ChunkPipe pipe = new ChunkPipe(4, 2);
+        pipe.source().close();
+        try {
+            pipe.readChunk();
+            Assert.fail("Should have thrown io exception");
+        } catch (IOException e) {
+            assertThat(e).hasMessage("Pipe closed");
+        }
+    }
+
+    private static Thread startWriter(final ChunkPipe pipe, final byte[] data, final int chunk) {
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    OutputStream sink = pipe.sink();
+                    for (int off = 0; off < data.length; off += chunk) {
+                        sink.write(data, off, Math.min(chunk, data.length - off));
+                    }
+                    sink.close();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        writer.start();
+        return writer;
+    }
+}
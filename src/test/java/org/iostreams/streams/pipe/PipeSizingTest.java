@@ -0,0 +1,95 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.pipe;
+
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link PipeSizing}.
+ *
+ * @author Yossi Shaul
+ */
+public class PipeSizingTest {
+
+    @Test
+    public void boundsRoundedToPowerOfTwo() {
+        PipeSizing sizing = new PipeSizing(1000, 5000);
+        assertThat(sizing.getMinCapacity()).isEqualTo(1024);
+        assertThat(sizing.getMaxCapacity()).isEqualTo(8192);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalMinCapacity() {
+        new PipeSizing(0, 1024);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void maxBelowMin() {
+        new PipeSizing(1024, 512);
+    }
+
+    @Test
+    public void growsWhenBothSidesWait() {
+        PipeSizing sizing = new PipeSizing(256, 4096);
+        assertThat(sizing.nextCapacity(256, 3, 2, 64, 256)).isEqualTo(512);
+        assertThat(sizing.nextCapacity(4096, 3, 2, 64, 4096)).isEqualTo(4096);
+    }
+
+    @Test
+    public void growsToTwiceTheAverageWrite() {
+        PipeSizing sizing = new PipeSizing(256, 65536);
+        assertThat(sizing.nextCapacity(256, 1, 0, 3000, 256)).isEqualTo(8192);
+        assertThat(sizing.nextCapacity(256, 1, 0, 1 << 20, 256)).isEqualTo(65536);
+    }
+
+    @Test
+    public void keepsCapacityWhenOnlyTheWriterWaits() {
+        // the reader is the bottleneck, a larger buffer wouldn't help
+        PipeSizing sizing = new PipeSizing(256, 4096);
+        assertThat(sizing.nextCapacity(1024, 5, 0, 100, 1024)).isEqualTo(1024);
+    }
+
+    @Test
+    public void shrinksWhenMostlyEmpty() {
+        PipeSizing sizing = new PipeSizing(256, 4096);
+        assertThat(sizing.nextCapacity(2048, 0, 7, 100, 300)).isEqualTo(1024);
+        assertThat(sizing.nextCapacity(256, 0, 7, 10, 10)).isEqualTo(256);
+        assertThat(sizing.nextCapacity(2048, 0, 7, 100, 1000)).isEqualTo(2048);
+    }
+
+    @Test
+    public void statistics() {
+        PipeSizing sizing = new PipeSizing(256, 4096);
+        sizing.opened(256);
+        sizing.opened(256);
+        sizing.resized(256, 1024);
+        sizing.resized(1024, 512);
+        sizing.closed(256);
+        sizing.writerStalled();
+        sizing.readerStalled();
+        sizing.readerStalled();
+        assertThat(sizing.getOpenPipes()).isEqualTo(1);
+        assertThat(sizing.getCapacity()).isEqualTo(512);
+        assertThat(sizing.getGrows()).isEqualTo(1);
+        assertThat(sizing.getShrinks()).isEqualTo(1);
+        assertThat(sizing.getWriterStalls()).isEqualTo(1);
+        assertThat(sizing.getReaderStalls()).isEqualTo(2);
+        assertThat(sizing.toString()).contains("capacity=512").contains("grows=1");
+    }
+}
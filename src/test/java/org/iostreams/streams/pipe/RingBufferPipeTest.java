@@ -0,0 +1,325 @@
+/*
+ * Copyright 2026 Yossi Shaul
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.iostreams.streams.pipe;
+
+import org.junit.Assert;
+import org.iostreams.streams.buffer.BufferAllocator;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.iostreams.streams.StreamsTestUtils.randomBytes;
+import static org.iostreams.streams.StreamsTestUtils.readFully;
+
+/**
+ * Unit tests for {@link org.iostreams.streams.pipe.RingBufferPipe}.
+ *
+ * @author Yossi Shaul
+ */
+@SuppressWarnings("StatementWithEmptyBody")
+public class RingBufferPipeTest {
+
+    @Test
+    public void capacityRoundedToPowerOfTwo() {
+        assertThat(new RingBufferPipe(1).capacity()).isEqualTo(1);
+        assertThat(new RingBufferPipe(1000).capacity()).isEqualTo(1024);
+        assertThat(new RingBufferPipe(4096).capacity()).isEqualTo(4096);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalCapacity() {
+        new RingBufferPipe(0);
+    }
+
+    @Test
+    public void pooledBufferReleasedWhenBothEndsClosed() throws IOException {
+        BufferAllocator allocator = new BufferAllocator(64, 1024, 4096, 0, false, true);
+        RingBufferPipe pipe = new RingBufferPipe(100, allocator);
+        assertThat(pipe.capacity()).isEqualTo(128);
+        pipe.sink().write(new byte[]{1, 2, 3});
+        pipe.sink().close();
+        pipe.sink().close();
+        assertThat(allocator.getPooledCount()).isEqualTo(0);
+        assertThat(pipe.source().read()).isEqualTo(1);
+        pipe.source().close();
+        pipe.source().close();
+        assertThat(allocator.getPooledCount()).isEqualTo(1);
+
+        // the released buffer serves the next pipe, below the pooled sizes the buffer is allocated exactly
+        assertThat(new RingBufferPipe(128, allocator).capacity()).isEqualTo(128);
+        assertThat(allocator.getHits()).isEqualTo(1);
+        assertThat(new RingBufferPipe(16, allocator).capacity()).isEqualTo(16);
+        assertThat(allocator.getUnpooled()).isEqualTo(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void directAllocatorNotSupported() {
+        new RingBufferPipe(64, new BufferAllocator(64, 1024, 4096, 0, true, false));
+    }
+
+    @Test
+    public void endOfStreamAfterWriterCloses() throws IOException {
+        RingBufferPipe pipe = new RingBufferPipe(16);
+        pipe.sink().write(new byte[]{1, 2, 3});
+        pipe.sink().write(4);
+        pipe.sink().close();
+
+        assertThat(pipe.source().available()).isEqualTo(4);
+        byte[] buf = new byte[8];
+        assertThat(pipe.source().read(buf, 0, 8)).isEqualTo(3 + 1);
+        assertThat(Arrays.copyOf(buf, 4)).isEqualTo(new byte[]{1, 2, 3, 4});
+        assertThat(pipe.source().read()).isEqualTo(-1);
+        assertThat(pipe.source().read(buf, 0, 8)).isEqualTo(-1);
+    }
+
+    @Test
+    public void readTimesOutWithoutClosingThePipe() throws IOException {
+        RingBufferPipe pipe = new RingBufferPipe(16);
+        pipe.setReadTimeout(20, TimeUnit.MILLISECONDS);
+        try {
+            pipe.source().read();
+            Assert.fail("Expected the read to time out");
+        } catch (InterruptedIOException e) {
+            assertThat(e).hasMessage("Read timed out");
+        }
+        pipe.sink().write(5);
+        assertThat(pipe.source().read()).isEqualTo(5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeReadTimeout() {
+        new RingBufferPipe(16).setReadTimeout(-1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void adaptivePipeGrowsForLargeWritesAndShrinksForSmallOnes() throws Exception {
+        PipeSizing sizing = new PipeSizing(256, 16384);
+        final RingBufferPipe pipe = new RingBufferPipe(sizing, null);
+        assertThat(pipe.capacity()).isEqualTo(256);
+        assertThat(sizing.getOpenPipes()).isEqualTo(1);
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    result.write(readFully(pipe.source(), 4096));
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        reader.start();
+
+        byte[] data = randomBytes(1 << 20);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (int off = 0; off < data.length; off += 8192) {
+            pipe.sink().write(data, off, 8192);
+        }
+        expected.write(data);
+        assertThat(pipe.capacity()).isEqualTo(16384);
+        assertThat(sizing.getGrows()).isGreaterThan(0);
+        assertThat(pipe.getWriterStalls()).isGreaterThan(0);
+
+        // small writes consumed right away
+        for (int i = 0; i < 4000; i++) {
+            pipe.sink().write(data, i, 64);
+            expected.write(data, i, 64);
+            while (pipe.source().available() > 0) {
+                Thread.yield();
+            }
+        }
+        assertThat(pipe.capacity()).isLessThan(16384);
+        assertThat(sizing.getShrinks()).isGreaterThan(0);
+
+        pipe.sink().close();
+        reader.join(5000);
+        assertThat(result.toByteArray()).isEqualTo(expected.toByteArray());
+        pipe.source().close();
+        assertThat(sizing.getOpenPipes()).isEqualTo(0);
+        assertThat(sizing.getCapacity()).isEqualTo(0);
+    }
+
+    @Test
+    public void adaptivePipeWithPooledBuffers() throws Exception {
+        BufferAllocator allocator = new BufferAllocator(64, 1 << 20, 4096, 0, false, true);
+        PipeSizing sizing = new PipeSizing(64, 4096);
+        RingBufferPipe pipe = new RingBufferPipe(sizing, allocator);
+        byte[] data = randomBytes(300007);
+        Thread writer = startWriter(pipe.sink(), data, 3000);
+
+        byte[] result = readFully(pipe.source(), 1000);
+        writer.join(5000);
+        assertThat(result).isEqualTo(data);
+        pipe.source().close();
+        assertThat(sizing.getGrows()).isGreaterThan(0);
+        // the buffers replaced and the last one went back to the allocator
+        assertThat(allocator.getPooledCount()).isGreaterThan(0);
+    }
+
+    @Test
+    public void stallsCounted() throws Exception {
+        RingBufferPipe pipe = new RingBufferPipe(16);
+        byte[] data = randomBytes(10000);
+        Thread writer = startWriter(pipe.sink(), data, 100);
+        readFully(pipe.source(), 7);
+        writer.join(5000);
+        assertThat(pipe.getWriterStalls()).isGreaterThan(0);
+    }
+
+    @Test
+    public void zeroLengthRead() throws IOException {
+        RingBufferPipe pipe = new RingBufferPipe(16);
+        assertThat(pipe.source().read(new byte[4], 0, 0)).isEqualTo(0);
+    }
+
+    @Test
+    public void wrapAroundSmallBuffer() throws Exception {
+        final byte[] data = randomBytes(100003);
+        final RingBufferPipe pipe = new RingBufferPipe(64);
+        Thread writer = startWriter(pipe, data, 37);
+
+        byte[] result = readFully(pipe.source(), 29);
+        writer.join(5000);
+        assertThat(result).isEqualTo(data);
+    }
+
+    @Test
+    public void singleByteReadsAndWrites() throws Exception {
+        final byte[] data = randomBytes(5000);
+        final RingBufferPipe pipe = new RingBufferPipe(8);
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (byte b : data) {
+                        pipe.sink().write(b);
+                    }
+                    pipe.sink().close();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        writer.start();
+
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        int b;
+        while ((b = pipe.source().read()) != -1) {
+            result.write(b);
+        }
+        writer.join(5000);
+        assertThat(result.toByteArray()).isEqualTo(data);
+    }
+
+    @Test
+    public void writerFailsOnceReaderClosed() throws Exception {
+        final RingBufferPipe pipe = new RingBufferPipe(4);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final Exception[] writerException = new Exception[1];
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    pipe.sink().write(new byte[4]);
+                    blocked.countDown();
+                    pipe.sink().write(new byte[4]);   // blocks until the reader closes the pipe
+                } catch (Exception e) {
+                    writerException[0] = e;
+                }
+            }
+        });
+        writer.start();
+
+        blocked.await(2, TimeUnit.SECONDS);
+        pipe.source().close();
+        writer.join(2000);
+        assertThat(writerException[0]).isExactlyInstanceOf(IOException.class).hasMessage("Pipe closed");
+    }
+
+    @Test
+    public void readAfterCloseFails() throws IOException {
+        RingBufferPipe pipe = new RingBufferPipe(4);
+        pipe.source().close();
+        try {
+            pipe.source().read();
+            Assert.fail("Should have thrown io exception");
+        } catch (IOException e) {
+            assertThat(e).hasMessage("Pipe closed");
+        }
+    }
+
+    @Test
+    public void writeAfterWriterClosedFails() throws IOException {
+        RingBufferPipe pipe = new RingBufferPipe(4);
+        pipe.sink().close();
+        try {
+            pipe.sink().write(1);
+            Assert.fail("Should have thrown io exception");
+        } catch (IOException e) {
+            assertThat(e).hasMessage("Pipe closed");
+        }
+    }
+
+    @Test
+    public void interruptedReader() throws Exception {
+        final RingBufferPipe pipe = new RingBufferPipe(4);
+        final Exception[] readerException = new Exception[1];
+        Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    pipe.source().read();
+                } catch (Exception e) {
+                    readerException[0] = e;
+                }
+            }
+        });
+        reader.start();
+        reader.interrupt();
+        reader.join(2000);
+        assertThat(readerException[0]).isInstanceOf(InterruptedIOException.class);
+    }
+
+    static Thread startWriter(final RingBufferPipe pipe, final byte[] data, final int chunk) {
+        return startWriter(pipe.sink(), data, chunk);
+    }
+
+    static Thread startWriter(final OutputStream sink, final byte[] data, final int chunk) {
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int off = 0; off < data.length; off += chunk) {
+                        sink.write(data, off, Math.min(chunk, data.length - off));
+                    }
+                    sink.close();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        writer.start();
+        return writer;
+    }
+}